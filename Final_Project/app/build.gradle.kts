@@ -37,7 +37,7 @@ dependencies {
 
 application {
     // Define the main class for the application.
-    mainClass.set("homework4.CLI")
+    mainClass.set("final_project.CLI")
 }
 
 tasks.named<Test>("test") {
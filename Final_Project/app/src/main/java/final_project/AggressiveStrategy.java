@@ -1,5 +1,7 @@
 package final_project;
 
+import java.util.List;
+
 public class AggressiveStrategy implements Strategy {
     private double shortfall;
 
@@ -7,8 +9,13 @@ public class AggressiveStrategy implements Strategy {
         this.shortfall = shortfall;
     }
 
+    public double getShortfall() {
+        return shortfall;
+    }
+
     @Override
-    public void execute() {
-        System.out.println("Recommending aggressive strategy to increase return potential. Shortfall: " + shortfall);
+    public Report.Section report() {
+        return new Report.Section(null, List.of(
+                Report.Line.value("Recommending aggressive strategy to increase return potential. Shortfall", shortfall)));
     }
 }
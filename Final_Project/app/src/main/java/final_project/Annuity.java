@@ -0,0 +1,150 @@
+package final_project;
+
+/**
+ * Closed-form discounting kernels for payments discounted at an instrument's own rate, such as a bond or a goal.
+ * A level payment stream is valued with the annuity formula (1 - (1 + r)^-n) / r instead of one Math.pow per year,
+ * computed through expm1 and log1p so it stays accurate for rates close to zero, where the formula tends to n.
+ * Each call costs a few transcendental functions whatever the term, so instruments with distinct rates need no tables;
+ * payments discounted on the balance sheet's shared {@link DiscountCurve} use its tabulated factors instead.
+ */
+public final class Annuity {
+    // Below this |rate * years| the closed forms for the weighted sums cancel badly, so the terms are summed instead
+    private static final double SERIES_THRESHOLD = 0.1;
+
+    private Annuity() {}
+
+    /**
+     * Discounts a single payment.
+     * @param payment The payment.
+     * @param rate The annual discount rate, greater than -1.
+     * @param years The number of years until the payment is made.
+     * @return The present value of the payment.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static double discount(double payment, double rate, int years) {
+        checkRate(rate);
+        return payment / Math.pow(1 + rate, years);
+    }
+
+    /**
+     * Returns the present value of 1 paid at the end of each year for the given number of years.
+     * @param rate The annual discount rate, greater than -1.
+     * @param years The number of payments; zero or fewer payments are worth nothing.
+     * @return The annuity factor.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static double factor(double rate, int years) {
+        checkRate(rate);
+        if (years <= 0) {
+            return 0;
+        }
+        if (rate == 0) {
+            return years;
+        }
+        // 1 - (1 + r)^-n, without cancellation when r is tiny
+        return -Math.expm1(-years * Math.log1p(rate)) / rate;
+    }
+
+    /**
+     * Returns the sum over the next given number of years of t times the discount factor of year t, used for the
+     * duration of a level payment stream. Computed as ((1 + r) * factor - n * (1 + r)^-n) / r.
+     * @param rate The annual discount rate, greater than -1.
+     * @param years The number of payments; zero or fewer payments give 0.
+     * @return The sum of t / (1 + rate)^t for t from 1 to years.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static double durationFactor(double rate, int years) {
+        checkRate(rate);
+        if (years <= 0) {
+            return 0;
+        }
+        if (rate == 0) {
+            return years * (years + 1.0) / 2;
+        }
+        if (Math.abs(rate * years) < SERIES_THRESHOLD) {
+            return weightedSum(rate, years, false);
+        }
+        return ((1 + rate) * factor(rate, years) - years * discount(1, rate, years)) / rate;
+    }
+
+    /**
+     * Returns the sum over the next given number of years of t * (t + 1) times the discount factor of year t, used for
+     * the convexity of a level payment stream. Computed as (2 * (1 + r) * durationFactor - n * (n + 1) * (1 + r)^-n) / r.
+     * @param rate The annual discount rate, greater than -1.
+     * @param years The number of payments; zero or fewer payments give 0.
+     * @return The sum of t * (t + 1) / (1 + rate)^t for t from 1 to years.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static double convexityFactor(double rate, int years) {
+        checkRate(rate);
+        if (years <= 0) {
+            return 0;
+        }
+        if (rate == 0) {
+            return years * (years + 1.0) * (years + 2.0) / 3;
+        }
+        if (Math.abs(rate * years) < SERIES_THRESHOLD) {
+            return weightedSum(rate, years, true);
+        }
+        return (2 * (1 + rate) * durationFactor(rate, years) - (double) years * (years + 1) * discount(1, rate, years)) / rate;
+    }
+
+    private static double weightedSum(double rate, int years, boolean convexity) {
+        double factor = 1 / (1 + rate);
+        double discountFactor = 1;
+        double sum = 0;
+        for (int t = 1; t <= years; t++) {
+            discountFactor *= factor;
+            sum += (convexity ? (double) t * (t + 1) : t) * discountFactor;
+        }
+        return sum;
+    }
+
+    /**
+     * Values a level payment made at the end of each year.
+     * @param payment The annual payment.
+     * @param rate The annual discount rate, greater than -1.
+     * @param years The number of payments.
+     * @return The present value of all payments.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static double presentValue(double payment, double rate, int years) {
+        return payment * factor(rate, years);
+    }
+
+    /**
+     * Values a level payment made at the end of every year forever.
+     * @param payment The annual payment.
+     * @param rate The annual discount rate.
+     * @return The present value of the perpetuity.
+     */
+    public static double perpetuity(double payment, double rate) {
+        return payment / rate;
+    }
+
+    /**
+     * Values a payment made at the end of every year forever, growing at a constant rate.
+     * @param payment The payment at the end of the first year.
+     * @param rate The annual discount rate.
+     * @param growthRate The annual growth rate of the payment, lower than the discount rate.
+     * @return The present value of the growing perpetuity.
+     * @throws IllegalArgumentException If the discount rate does not exceed the growth rate.
+     */
+    public static double growingPerpetuity(double payment, double rate, double growthRate) {
+        if (rate <= growthRate) {
+            throw new IllegalArgumentException("Discount rate must be greater than the dividend growth rate to avoid infinite intrinsic value.");
+        }
+        return payment / (rate - growthRate);
+    }
+
+    /**
+     * Checks that a rate can discount, that is, that 1 + rate is positive.
+     * @param rate The annual discount rate.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    static void checkRate(double rate) {
+        if (!(rate > -1)) {
+            throw new IllegalArgumentException("Discount rate must be greater than -100%.");
+        }
+    }
+}
@@ -3,7 +3,15 @@
  */
 package final_project;
 import java.io.*;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.*;
 
@@ -15,11 +23,23 @@ public class App {
     private static BalanceSheet balanceSheet;
     private static FinancialAdvisor financialAdvisor;
     private static PersonFactory personFactory;
+    private static PersistenceScheduler persistenceScheduler;
+
+
+    // Components that stay disabled until the data they edit or read has finished loading
+    private static final Map<JComponent, EnumSet<EntityType>> pendingComponents = new HashMap<>();
+    private static final EnumSet<EntityType> loadedTypes = EnumSet.noneOf(EntityType.class);
+    private static JLabel statusLabel;
+    // Previews the typed rate once every kind of data has loaded, so a half-loaded household is never previewed
+    private static Runnable startPreview;
 
 
     public static void main(String[] args) {
         initializeManagers();
-        SwingUtilities.invokeLater(App::createAndShowGUI);
+        SwingUtilities.invokeLater(() -> {
+            createAndShowGUI();
+            startLoading();
+        });
     }
 
 
@@ -28,6 +48,12 @@ public class App {
         JFrame frame = new JFrame("Financial Manager");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(800, 600);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                saveOnExit();
+            }
+        });
 
         JTabbedPane tabbedPane = new JTabbedPane();
         JPanel balanceSheetPanel = createBalanceSheetPanel(frame);
@@ -36,7 +62,11 @@ public class App {
         tabbedPane.addTab("Balance Sheet & Advisor", balanceSheetPanel);
         tabbedPane.addTab("Save Your Info", saveInfoPanel);
 
-        frame.add(tabbedPane);
+        statusLabel = new JLabel("Loading household data...");
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+
+        frame.add(tabbedPane, BorderLayout.CENTER);
+        frame.add(statusLabel, BorderLayout.SOUTH);
         frame.setVisible(true);
     }
 
@@ -48,22 +78,104 @@ public class App {
         balanceSheet = new BalanceSheet(family, assetManager, 0.05); // Example discount rate
         financialAdvisor = new FinancialAdvisor(goalManager, balanceSheet);
 
+        // Edits are written behind on a background thread instead of inside the Swing action listeners
+        persistenceScheduler = new PersistenceScheduler(family, goalManager, assetManager,
+                PersistenceScheduler.DEFAULT_QUIET_PERIOD_MILLIS, PersistenceScheduler.DEFAULT_MAX_PENDING_CHANGES);
+        persistenceScheduler.setFailureListener(failure -> SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(null, "Failed to save household data: " + failure.getMessage())));
+        persistenceScheduler.installShutdownHook();
+        family.setPersistenceScheduler(persistenceScheduler);
+        goalManager.setPersistenceScheduler(persistenceScheduler);
+        assetManager.setPersistenceScheduler(persistenceScheduler);
+    }
+
+    /**
+     * Flushes pending edits before the window closes; the shutdown hook covers every other way of exiting.
+     */
+    private static void saveOnExit() {
         try {
-            family.loadPeopleFromCSV();
-            goalManager.loadGoalsFromCSV();
-            assetManager.loadDebtsFromCSV();
-            assetManager.loadStocksFromCSV();
-            assetManager.loadRealEstateFromCSV();
-            assetManager.loadBondsFromCSV();
+            persistenceScheduler.close();
         } catch (IOException e) {
-            JOptionPane.showMessageDialog(null, "Failed to load family members from CSV: " + e.getMessage());
+            JOptionPane.showMessageDialog(null, "Failed to save household data: " + e.getMessage());
         }
     }
+
+    /**
+     * Loads all household data in the background; each panel is enabled as soon as the data it needs has arrived.
+     */
+    private static void startLoading() {
+        StartupLoader loader = new StartupLoader(family, goalManager, assetManager, new File(HouseholdSnapshot.FILE_NAME));
+        long start = System.nanoTime();
+        loader.start(report -> SwingUtilities.invokeLater(() -> onLoaded(report)))
+              .whenComplete((reports, error) -> SwingUtilities.invokeLater(() -> onLoadingFinished(reports, error, System.nanoTime() - start)));
+    }
+
+    private static void onLoaded(StartupLoader.LoadReport report) {
+        statusLabel.setText(report.toString());
+        if (report.getFailure() != null) {
+            return; // Keep the panel disabled so a partial list is never saved over the file
+        }
+        loadedTypes.add(report.getType());
+        pendingComponents.entrySet().removeIf(entry -> {
+            if (!loadedTypes.containsAll(entry.getValue())) {
+                return false;
+            }
+            setEnabledRecursively(entry.getKey(), true);
+            return true;
+        });
+    }
+
+    private static void onLoadingFinished(List<StartupLoader.LoadReport> reports, Throwable error, long elapsedNanos) {
+        if (error != null) {
+            statusLabel.setText("Failed to load household data: " + error.getMessage());
+            return;
+        }
+        StringBuilder problems = new StringBuilder();
+        boolean complete = true;
+        for (StartupLoader.LoadReport report : reports) {
+            if (report.getFailure() != null) {
+                problems.append(report).append('\n');
+                complete = false;
+            }
+            report.getRowErrors().forEach(rowError -> problems.append(rowError).append('\n'));
+        }
+        statusLabel.setText(String.format("Household data loaded in %.1f ms", elapsedNanos / 1e6));
+        if (complete && startPreview != null) {
+            startPreview.run();
+        }
+        if (problems.length() > 0) {
+            JOptionPane.showMessageDialog(null, "Some household data could not be loaded:\n" + problems);
+        }
+    }
+
+    /**
+     * Disables a component until every listed kind of data has loaded.
+     */
+    private static void requireLoaded(JComponent component, EntityType... types) {
+        EnumSet<EntityType> required = EnumSet.noneOf(EntityType.class);
+        Collections.addAll(required, types);
+        if (!loadedTypes.containsAll(required)) {
+            setEnabledRecursively(component, false);
+            pendingComponents.put(component, required);
+        }
+    }
+
+    private static void setEnabledRecursively(Component component, boolean enabled) {
+        component.setEnabled(enabled);
+        if (component instanceof Container) {
+            for (Component child : ((Container) component).getComponents()) {
+                setEnabledRecursively(child, enabled);
+            }
+        }
+    }
+
     private static JPanel createBalanceSheetPanel(JFrame frame) {
         JPanel panel = new JPanel(new BorderLayout()); // Main panel using BorderLayout
     
         JPanel leftPanel = createBalanceSheetPanelLeft(frame); // Pass the frame to the method
         JPanel rightPanel = createBalanceSheetPanelRight(); // Assume this method does not need the frame
+        requireLoaded(leftPanel, EntityType.values());
+        requireLoaded(rightPanel, EntityType.STOCK, EntityType.REAL_ESTATE, EntityType.BOND);
     
         panel.add(leftPanel, BorderLayout.WEST);
         panel.add(rightPanel, BorderLayout.EAST);
@@ -99,7 +211,35 @@ public class App {
         c.gridx = 1;
         leftPanel.add(rateField, c);
         c.gridx = 0;
-    
+
+        // Live preview of the NPV and strategy at the rate being typed
+        JLabel previewLabel = new JLabel(" ");
+        NpvPreview preview = new NpvPreview(balanceSheet, goalManager,
+                result -> previewLabel.setText(result.toString()),
+                previewLabel::setText,
+                NpvPreview.DEFAULT_DEBOUNCE_MILLIS);
+        rateField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                preview.request(rateField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                preview.request(rateField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not change the rate
+            }
+        });
+        startPreview = () -> preview.request(rateField.getText());
+        c.gridy++;
+        c.gridwidth = 2;
+        leftPanel.add(previewLabel, c);
+        c.gridwidth = 1;
+
         // Set Rate button to update the interest rate
         JButton setRateButton = new JButton("Set Rate");
         setRateButton.addActionListener(e -> {
@@ -107,7 +247,7 @@ public class App {
                 double newRate = Double.parseDouble(rateField.getText());
                 balanceSheet.setAppliedInterestRate(newRate);
                 JOptionPane.showMessageDialog(null, "Interest rate updated to " + newRate);
-            } catch (NumberFormatException ex) {
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(null, "Invalid interest rate: " + ex.getMessage());
             }
         });
@@ -117,23 +257,9 @@ public class App {
     
          // Generate Advice button
         JButton genAdviceButton = new JButton("Generate Advice");
-        genAdviceButton.addActionListener(e -> {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PrintStream ps = new PrintStream(baos);
-            PrintStream old = System.out; // Keep the old System.out
-            System.setOut(ps); // Redirect output to the byte array output stream
-
-            financialAdvisor.evaluateFinancialSituation(); // Evaluate current financial situation to set the strategy
-            financialAdvisor.advise(); // Execute the strategy to generate advice
-
-            System.out.flush();
-            System.setOut(old); // Reset the System.out to its original
-
-            String adviceOutput = baos.toString(); // Convert output stream to string
-
-            // Display the advice in a JOptionPane or a custom dialog
-            JOptionPane.showMessageDialog(frame, adviceOutput, "Financial Advice", JOptionPane.INFORMATION_MESSAGE);
-        });
+        genAdviceButton.addActionListener(e -> showReport(frame, "Financial Advice", List.of(
+                out -> financialAdvisor.evaluateFinancialSituation(), // Evaluate current financial situation to set the strategy
+                financialAdvisor::advise))); // Execute the strategy to generate advice
         c.gridy++;
         leftPanel.add(genAdviceButton, c);
 
@@ -147,40 +273,127 @@ public class App {
 
     private static void setupGenerateBalanceSheetButton(JButton button, JFrame parentFrame) {
         button.addActionListener(e -> {
-            // Create a dialog to display the data
-            JDialog dialog = new JDialog(parentFrame, "Balance Sheet Details", true);
-            dialog.setSize(600, 400);
-            dialog.setLayout(new BorderLayout());
-    
-            // Text area for displaying information
-            JTextArea textArea = new JTextArea(20, 50);
-            textArea.setEditable(false); // Set the text area to non-editable
-            JScrollPane scrollPane = new JScrollPane(textArea); // Add a scroll pane to the text area
-            dialog.add(scrollPane, BorderLayout.CENTER);
-    
-            // Capture the output from System.out
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PrintStream printStream = new PrintStream(baos);
-            PrintStream old = System.out; // Save the old System.out
-            System.setOut(printStream); // Redirect System.out to PrintStream
-    
-            // Call BalanceSheet methods to print data
-            balanceSheet.printIncomeStatement();
-            balanceSheet.printExpenditureStatement();
-            balanceSheet.printAssetsDetails();
-            balanceSheet.printLiabilitiesDetails();
-            balanceSheet.printNetPresentValue();
-    
-            System.out.flush();
-            System.setOut(old); // Restore the original System.out
-    
-            // Set the text area to show all the printed content
-            textArea.setText(baos.toString());
-    
-            // Display the dialog
-            dialog.setVisible(true);
+            JDialog dialog = createReportDialog(parentFrame, "Balance Sheet Details");
+
+            // Positions are shown in tables that only value the rows scrolled into view
+            JTabbedPane tabs = new JTabbedPane();
+            tabs.addTab("Summary", createReportPanel(dialog, List.of(
+                    balanceSheet::printIncomeStatement,
+                    balanceSheet::printExpenditureStatement,
+                    balanceSheet::printNetPresentValue)));
+            tabs.addTab("Bonds", createPositionPanel(EntityType.BOND));
+            tabs.addTab("Stocks", createPositionPanel(EntityType.STOCK));
+            tabs.addTab("Real Estate", createPositionPanel(EntityType.REAL_ESTATE));
+            tabs.addTab("Debts", createPositionPanel(EntityType.DEBT));
+            dialog.add(tabs, BorderLayout.CENTER);
+
+            dialog.setVisible(true); // Modal, but the dialog's event loop keeps delivering the report's results
         });
     }
+
+    /**
+     * Opens a dialog at once and fills it in as a {@link ReportTask} prints the report in the background.
+     */
+    private static void showReport(JFrame parentFrame, String title, List<ReportTask.Section> sections) {
+        JDialog dialog = createReportDialog(parentFrame, title);
+        dialog.add(createReportPanel(dialog, sections), BorderLayout.CENTER);
+        dialog.setVisible(true); // Modal, but the dialog's event loop keeps delivering the task's results
+    }
+
+    private static JDialog createReportDialog(JFrame parentFrame, String title) {
+        JDialog dialog = new JDialog(parentFrame, title, true);
+        dialog.setSize(600, 400);
+        dialog.setLayout(new BorderLayout());
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        return dialog;
+    }
+
+    /**
+     * Creates a text area that a {@link ReportTask} fills in, started at once, with its progress and a Cancel button.
+     * Cancelling or closing the dialog cancels the task.
+     */
+    private static JPanel createReportPanel(JDialog dialog, List<ReportTask.Section> sections) {
+        JPanel panel = new JPanel(new BorderLayout());
+
+        // Text area for displaying information
+        JTextArea textArea = new JTextArea(20, 50);
+        textArea.setEditable(false); // Set the text area to non-editable
+        panel.add(new JScrollPane(textArea), BorderLayout.CENTER);
+
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        JButton cancelButton = new JButton("Cancel");
+        JPanel footer = new JPanel(new BorderLayout());
+        footer.add(progressBar, BorderLayout.CENTER);
+        footer.add(cancelButton, BorderLayout.EAST);
+        panel.add(footer, BorderLayout.SOUTH);
+
+        ReportTask task = new ReportTask(textArea, sections);
+        task.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            } else if (task.isDone()) {
+                cancelButton.setText("Close");
+            }
+        });
+        cancelButton.addActionListener(event -> {
+            if (task.isDone()) {
+                dialog.dispose();
+            } else {
+                task.cancel(true);
+            }
+        });
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent event) {
+                task.cancel(true);
+            }
+        });
+
+        task.execute();
+        return panel;
+    }
+
+    /**
+     * Creates a sortable table of one kind of position with a field that filters it by description.
+     */
+    private static JPanel createPositionPanel(EntityType type) {
+        PositionTableModel model = new PositionTableModel(type, assetManager, balanceSheet);
+        JTable table = new JTable(model);
+        TableRowSorter<PositionTableModel> sorter = new TableRowSorter<>(model);
+        table.setRowSorter(sorter);
+        table.setFillsViewportHeight(true);
+
+        JTextField filterField = new JTextField();
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            private void update() {
+                sorter.setRowFilter(PositionTableModel.descriptionFilter(filterField.getText()));
+            }
+
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                update();
+            }
+        });
+
+        JPanel filterPanel = new JPanel(new BorderLayout());
+        filterPanel.add(new JLabel("Filter: "), BorderLayout.WEST);
+        filterPanel.add(filterField, BorderLayout.CENTER);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(filterPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return panel;
+    }
     
 
 
@@ -369,6 +582,9 @@ public class App {
         JPanel leftPanel = createLeftPanel();   // Assuming createLeftPanel is already defined
         JPanel middlePanel = createMiddlePanel();  // Assuming createMiddlePanel is already defined
         JPanel rightPanel = createRightPanel();  // Right panel for debts
+        requireLoaded(leftPanel, EntityType.PERSON);
+        requireLoaded(middlePanel, EntityType.GOAL);
+        requireLoaded(rightPanel, EntityType.DEBT);
     
         // Add panels to appropriate regions
         panel.add(leftPanel, BorderLayout.WEST);
@@ -447,7 +663,7 @@ public class App {
             for (JTextField field : textFields) {
                 field.setText("");
             }
-        } catch (NumberFormatException ex) {
+        } catch (IllegalArgumentException ex) {
             JOptionPane.showMessageDialog(null, "Error in input data: " + ex.getMessage());
         } catch (IOException ex) {
             JOptionPane.showMessageDialog(null, "Failed to save person data: " + ex.getMessage());
@@ -509,7 +725,7 @@ public class App {
                 boolean isOneTime = oneTimePayment.isSelected();
                 goalManager.createGoal(amount, time, isOneTime, interestRate, description);
                 JOptionPane.showMessageDialog(null, "Goal saved successfully!");
-            } catch (NumberFormatException ex) {
+            } catch (IllegalArgumentException ex) {
                 JOptionPane.showMessageDialog(null, "Error in input data: " + ex.getMessage());
             } catch (IOException ex) {
                 JOptionPane.showMessageDialog(null, "Failed to save goal data: " + ex.getMessage());
@@ -621,7 +837,7 @@ public class App {
             Debt debt = new Debt(amount, interestRate, isOneTime, time, DebtCategory.valueOf(category.toUpperCase()), description);
             assetManager.addDebt(debt);
             JOptionPane.showMessageDialog(null, "Debt saved successfully!");
-        } catch (NumberFormatException ex) {
+        } catch (IllegalArgumentException ex) {
             JOptionPane.showMessageDialog(null, "Error in input data: " + ex.getMessage());
         } catch (IOException ex) {
             JOptionPane.showMessageDialog(null, "Failed to save debt data: " + ex.getMessage());
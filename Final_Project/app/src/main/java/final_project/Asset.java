@@ -10,7 +10,15 @@ public abstract class Asset {
     private double interestRate;
     private double volatility;
     private final String description;
+    private ChangeListener changeListener;
 
+    /**
+     * Receives notice that one of an asset's valuation inputs has changed through a setter.
+     * The owning {@link AssetAndDebtManager} uses it to keep its columnar store in sync.
+     */
+    interface ChangeListener {
+        void assetChanged(Asset asset);
+    }
 
     /**
      * Constructs an Asset with specified parameters.
@@ -49,6 +57,7 @@ public abstract class Asset {
             throw new IllegalArgumentException("Amount cannot be negative.");
         }
         this.amount = amount;
+        fireChanged();
     }
 
     /**
@@ -68,6 +77,7 @@ public abstract class Asset {
             throw new IllegalArgumentException("Interest rate cannot be negative.");
         }
         this.interestRate = interestRate;
+        fireChanged();
     }
 
     /**
@@ -87,6 +97,7 @@ public abstract class Asset {
             throw new IllegalArgumentException("Volatility cannot be negative.");
         }
         this.volatility = volatility;
+        fireChanged();
     }
 
     /**
@@ -107,6 +118,21 @@ public abstract class Asset {
 
 
 
+    void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    ChangeListener getChangeListener() {
+        return changeListener;
+    }
+
+    private void fireChanged() {
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.assetChanged(this);
+        }
+    }
+
     public String getDescription() {
         return description;
     }
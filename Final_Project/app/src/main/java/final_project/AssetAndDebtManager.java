@@ -2,250 +2,612 @@ package final_project;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Manages lists of various asset and debt types and provides functionality to load and save these items to/from CSV files.
+ * Mutations are recorded in a per-entity append-only journal; the CSV files are only rewritten when a journal
+ * grows past the compaction threshold, so adding or deleting an item costs one small append.
+ * When a {@link PersistenceScheduler} is attached, mutations are still journaled but the CSV rewrites are left to the
+ * scheduler's background thread, which compacts each dirty journal once edits have stopped arriving.
+ * Descriptions are unique within each list and indexed, so finding, updating or deleting an item by description
+ * takes constant time.
+ * Every list is mirrored by a structure-of-arrays column store that the balance sheet values in tight primitive loops;
+ * the objects remain the editing API, and changes made through them or through the manager are copied into the columns.
  */
 public class AssetAndDebtManager {
-    private static AssetAndDebtManager instance;
-    private List<Bond> bondList = new ArrayList<>();
-    private List<Stock> stockList = new ArrayList<>();
-    private List<RealEstate> realEstateList = new ArrayList<>();
-    private List<Debt> debtList = new ArrayList<>();
+    /**
+     * Minimum number of journal records before a journal is compacted into its CSV file.
+     * Compaction also waits until the journal is longer than the list itself, which keeps the amortized cost of a mutation constant.
+     */
+    public static final int COMPACTION_THRESHOLD = 1000;
 
+    private final IndexedList<Bond> bondList = new IndexedList<>(Bond::getDescription);
+    private final IndexedList<Stock> stockList = new IndexedList<>(Stock::getDescription);
+    private final IndexedList<RealEstate> realEstateList = new IndexedList<>(RealEstate::getDescription);
+    private final IndexedList<Debt> debtList = new IndexedList<>(Debt::getDescription);
+    // Columnar copies of the lists used for valuation, row for row in the same order
+    private final BondColumns bondColumns = new BondColumns();
+    private final StockColumns stockColumns = new StockColumns();
+    private final RealEstateColumns realEstateColumns = new RealEstateColumns();
+    private final DebtColumns debtColumns = new DebtColumns();
+    private final Asset.ChangeListener bondSync = asset -> syncRow(bondList, bondColumns, (Bond) asset);
+    private final Asset.ChangeListener stockSync = asset -> syncRow(stockList, stockColumns, (Stock) asset);
+    private final Asset.ChangeListener realEstateSync = asset -> syncRow(realEstateList, realEstateColumns, (RealEstate) asset);
+    private final Journal bondJournal;
+    private final Journal stockJournal;
+    private final Journal realEstateJournal;
+    private final Journal debtJournal;
+    private final File dataDirectory;
+    private volatile PersistenceScheduler scheduler;
 
-    private AssetAndDebtManager() {}
+    // Lazily created on first use; class initialization is thread-safe, so no locking is needed
+    private static final class InstanceHolder {
+        private static final AssetAndDebtManager INSTANCE = new AssetAndDebtManager(null);
+    }
 
-    public static synchronized AssetAndDebtManager getInstance() {
-        if (instance == null) {
-            instance = new AssetAndDebtManager();
-        }
-        return instance;
+    /**
+     * Constructs an empty AssetAndDebtManager whose files live in the given directory.
+     * Each household in a {@link HouseholdRegistry} has its own manager.
+     * @param dataDirectory The directory holding the CSV and journal files, or null for the working directory.
+     */
+    public AssetAndDebtManager(File dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.bondJournal = new Journal(new File(dataDirectory, EntityType.BOND.getJournalFileName()));
+        this.stockJournal = new Journal(new File(dataDirectory, EntityType.STOCK.getJournalFileName()));
+        this.realEstateJournal = new Journal(new File(dataDirectory, EntityType.REAL_ESTATE.getJournalFileName()));
+        this.debtJournal = new Journal(new File(dataDirectory, EntityType.DEBT.getJournalFileName()));
     }
 
     /**
-     * Saves the list of bonds to a CSV file named "Bond.csv".
+     * Returns the manager of the application's own household, whose files live in the working directory.
+     * @return The shared AssetAndDebtManager.
+     */
+    public static AssetAndDebtManager getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the directory holding this manager's files.
+     * @return The data directory, or null for the working directory.
+     */
+    public File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Saves the list of bonds to a CSV file named "Bond.csv" and clears the bond journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void saveBondToCSV() throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter("Bond.csv"));
-        writer.write("Amount,InterestRate,Volatility,Maturity,Coupon,Description\n");
-        for (Bond bond : bondList) {
-            writer.write(String.format("%f,%f,%f,%d,%f,%s\n",
-                    bond.getAmount(), bond.getInterestRate(), bond.getVolatility(),
-                    bond.getMaturity(), bond.getCoupon(), bond.getDescription()));
+        List<Bond> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(bondList);
+            bondJournal.rotate();
         }
-        writer.close();
+        CsvWriter.write(dataFile(EntityType.BOND), "Amount,InterestRate,Volatility,Maturity,Coupon,Description", snapshot, AssetAndDebtManager::formatBond);
+        bondJournal.discardRotated();
     }
 
     /**
-     * Saves the list of stocks to a CSV file named "Stock.csv".
+     * Saves the list of stocks to a CSV file named "Stock.csv" and clears the stock journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void saveStockToCSV() throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter("Stock.csv"));
-        // Add Dividend Growth Rate to the header
-        writer.write("Amount,InterestRate,Volatility,Dividend,DividendGrowthRate,Description\n");
-        for (Stock stock : stockList) {
-            // Format string to include dividendGrowthRate
-            writer.write(String.format("%f,%f,%f,%f,%f,%s\n",
-                stock.getAmount(), 
-                stock.getInterestRate(), 
-                stock.getVolatility(),
-                stock.getDividend(),
-                stock.getDividendGrowthRate(), // Include the growth rate
-                stock.getDescription()
-            ));
+        List<Stock> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(stockList);
+            stockJournal.rotate();
         }
-        writer.close();
+        CsvWriter.write(dataFile(EntityType.STOCK), "Amount,InterestRate,Volatility,Dividend,DividendGrowthRate,Description", snapshot, AssetAndDebtManager::formatStock);
+        stockJournal.discardRotated();
     }
 
     /**
-     * Saves the list of real estate to a CSV file named "RealEstate.csv".
+     * Saves the list of real estate to a CSV file named "RealEstate.csv" and clears the real estate journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void saveRealEstateToCSV() throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter("RealEstate.csv"));
-        writer.write("Amount,InterestRate,Volatility,NetOperatingIncome,Description\n");
-        for (RealEstate realEstate : realEstateList) {
-            writer.write(String.format("%f,%f,%f,%f,%s\n",
-                    realEstate.getAmount(), realEstate.getInterestRate(), realEstate.getVolatility(),
-                    realEstate.getNetOperatingIncome(), realEstate.getDescription()));
+        List<RealEstate> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(realEstateList);
+            realEstateJournal.rotate();
         }
-        writer.close();
+        CsvWriter.write(dataFile(EntityType.REAL_ESTATE), "Amount,InterestRate,Volatility,NetOperatingIncome,Description", snapshot, AssetAndDebtManager::formatRealEstate);
+        realEstateJournal.discardRotated();
     }
 
     /**
-     * Saves the list of debts to a CSV file named "Debt.csv".
+     * Saves the list of debts to a CSV file named "Debt.csv" and clears the debt journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void saveDebtToCSV() throws IOException {
-        BufferedWriter writer = new BufferedWriter(new FileWriter("Debt.csv"));
-        writer.write("Amount,InterestRate,IsOneTime,Time,Category,Description\n");
-        for (Debt debt : debtList) {
-            writer.write(String.format("%f,%f,%b,%d,%s,%s\n",
-                    debt.getAmount(), debt.getInterestRate(), debt.isOneTime(),
-                    debt.getTime(), debt.getCategory().toString(), debt.getDescription()));
+        List<Debt> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(debtList);
+            debtJournal.rotate();
+        }
+        CsvWriter.write(dataFile(EntityType.DEBT), "Amount,InterestRate,IsOneTime,Time,Category,Description", snapshot, AssetAndDebtManager::formatDebt);
+        debtJournal.discardRotated();
+    }
+
+    /**
+     * Saves the CSV file of one asset or debt type.
+     * @param type The entity type to save, one of BOND, STOCK, REAL_ESTATE or DEBT.
+     * @throws IOException If there is an error writing to the file.
+     */
+    public void saveToCSV(EntityType type) throws IOException {
+        switch (type) {
+            case BOND:
+                saveBondToCSV();
+                break;
+            case STOCK:
+                saveStockToCSV();
+                break;
+            case REAL_ESTATE:
+                saveRealEstateToCSV();
+                break;
+            case DEBT:
+                saveDebtToCSV();
+                break;
+            default:
+                throw new IllegalArgumentException(type + " is not managed by AssetAndDebtManager.");
         }
-        writer.close();
     }
 
-    // Getter methods for each list
+    /**
+     * Attaches a write-behind scheduler; from then on mutations are still appended to the journals, but compacting
+     * them into the CSV files is left to the scheduler.
+     * @param scheduler The scheduler to notify of changes, or null to compact on the calling thread again.
+     */
+    public void setPersistenceScheduler(PersistenceScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    // Getter methods for each list; the returned lists are read-only views
     public List<Bond> getBondList() {
-        return bondList;
+        return Collections.unmodifiableList(bondList);
     }
 
     public List<Stock> getStockList() {
-        return stockList;
+        return Collections.unmodifiableList(stockList);
     }
 
     public List<RealEstate> getRealEstateList() {
-        return realEstateList;
+        return Collections.unmodifiableList(realEstateList);
     }
 
     public List<Debt> getDebtList() {
-        return debtList;
+        return Collections.unmodifiableList(debtList);
+    }
+
+    // Getter methods for the columnar stores, which hold the same items in the same order as the lists
+    public BondColumns getBondColumns() {
+        return bondColumns;
     }
 
-    // Methods to add assets and debts to the lists
-    public void addBond(Bond bond) throws IOException {
+    public StockColumns getStockColumns() {
+        return stockColumns;
+    }
+
+    public RealEstateColumns getRealEstateColumns() {
+        return realEstateColumns;
+    }
+
+    public DebtColumns getDebtColumns() {
+        return debtColumns;
+    }
+
+    /**
+     * Finds a bond by its description.
+     * @param description The description to look up.
+     * @return The bond, or an empty Optional if there is none with that description.
+     */
+    public synchronized Optional<Bond> findBondByDescription(String description) {
+        return Optional.ofNullable(bondList.find(description));
+    }
+
+    /**
+     * Finds a stock by its description.
+     * @param description The description to look up.
+     * @return The stock, or an empty Optional if there is none with that description.
+     */
+    public synchronized Optional<Stock> findStockByDescription(String description) {
+        return Optional.ofNullable(stockList.find(description));
+    }
+
+    /**
+     * Finds a real estate by its description.
+     * @param description The description to look up.
+     * @return The real estate, or an empty Optional if there is none with that description.
+     */
+    public synchronized Optional<RealEstate> findRealEstateByDescription(String description) {
+        return Optional.ofNullable(realEstateList.find(description));
+    }
+
+    /**
+     * Finds a debt by its description.
+     * @param description The description to look up.
+     * @return The debt, or an empty Optional if there is none with that description.
+     */
+    public synchronized Optional<Debt> findDebtByDescription(String description) {
+        return Optional.ofNullable(debtList.find(description));
+    }
+
+    /**
+     * Replaces every list with the given contents, for example when restoring from a {@link HouseholdSnapshot}.
+     * The journals are left untouched, since the restored state already includes them.
+     * @param bonds The bonds to restore.
+     * @param stocks The stocks to restore.
+     * @param realEstates The real estate to restore.
+     * @param debts The debts to restore.
+     */
+    public synchronized void restore(List<Bond> bonds, List<Stock> stocks, List<RealEstate> realEstates, List<Debt> debts) {
+        replaceContents(bondList, bonds);
+        replaceContents(stockList, stocks);
+        replaceContents(realEstateList, realEstates);
+        replaceContents(debtList, debts);
+        rebuildColumns();
+    }
+
+    // Methods to add assets and debts to the lists; each throws IllegalArgumentException if the description is already in use
+    public synchronized void addBond(Bond bond) throws IOException {
         bondList.add(bond);
-        saveBondToCSV();
+        bondColumns.add(bond);
+        bond.setChangeListener(bondSync);
+        recordChange(EntityType.BOND, bondJournal, Journal.Operation.ADD, formatBond(bond), bondList);
     }
 
-    public void addStock(Stock stock) throws IOException {
+    public synchronized void addStock(Stock stock) throws IOException {
         stockList.add(stock);
-        saveStockToCSV();
+        stockColumns.add(stock);
+        stock.setChangeListener(stockSync);
+        recordChange(EntityType.STOCK, stockJournal, Journal.Operation.ADD, formatStock(stock), stockList);
     }
 
-    public void addRealEstate(RealEstate realEstate) throws IOException {
+    public synchronized void addRealEstate(RealEstate realEstate) throws IOException {
         realEstateList.add(realEstate);
-        saveRealEstateToCSV();
+        realEstateColumns.add(realEstate);
+        realEstate.setChangeListener(realEstateSync);
+        recordChange(EntityType.REAL_ESTATE, realEstateJournal, Journal.Operation.ADD, formatRealEstate(realEstate), realEstateList);
     }
 
-    public void addDebt(Debt debt) throws IOException {
+    public synchronized void addDebt(Debt debt) throws IOException {
         debtList.add(debt);
-        saveDebtToCSV();
+        debtColumns.add(debt);
+        recordChange(EntityType.DEBT, debtJournal, Journal.Operation.ADD, formatDebt(debt), debtList);
+    }
+
+    /**
+     * Replaces the bond that has the same description as the given one.
+     * @param bond The new version of the bond.
+     * @return true if the bond was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean updateBond(Bond bond) throws IOException {
+        if (!bondList.containsKey(bond.getDescription())) {
+            return false;
+        }
+        bondList.put(bond).setChangeListener(null);
+        bond.setChangeListener(bondSync);
+        bondColumns.set(bondList.positionOf(bond.getDescription()), bond);
+        recordChange(EntityType.BOND, bondJournal, Journal.Operation.UPDATE, formatBond(bond), bondList);
+        return true;
+    }
+
+    /**
+     * Replaces the stock that has the same description as the given one.
+     * @param stock The new version of the stock.
+     * @return true if the stock was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean updateStock(Stock stock) throws IOException {
+        if (!stockList.containsKey(stock.getDescription())) {
+            return false;
+        }
+        stockList.put(stock).setChangeListener(null);
+        stock.setChangeListener(stockSync);
+        stockColumns.set(stockList.positionOf(stock.getDescription()), stock);
+        recordChange(EntityType.STOCK, stockJournal, Journal.Operation.UPDATE, formatStock(stock), stockList);
+        return true;
+    }
+
+    /**
+     * Replaces the real estate that has the same description as the given one.
+     * @param realEstate The new version of the real estate.
+     * @return true if the real estate was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean updateRealEstate(RealEstate realEstate) throws IOException {
+        if (!realEstateList.containsKey(realEstate.getDescription())) {
+            return false;
+        }
+        realEstateList.put(realEstate).setChangeListener(null);
+        realEstate.setChangeListener(realEstateSync);
+        realEstateColumns.set(realEstateList.positionOf(realEstate.getDescription()), realEstate);
+        recordChange(EntityType.REAL_ESTATE, realEstateJournal, Journal.Operation.UPDATE, formatRealEstate(realEstate), realEstateList);
+        return true;
+    }
+
+    /**
+     * Replaces the debt that has the same description as the given one.
+     * @param debt The new version of the debt.
+     * @return true if the debt was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean updateDebt(Debt debt) throws IOException {
+        if (!debtList.containsKey(debt.getDescription())) {
+            return false;
+        }
+        debtList.put(debt);
+        debtColumns.set(debtList.positionOf(debt.getDescription()), debt);
+        recordChange(EntityType.DEBT, debtJournal, Journal.Operation.UPDATE, formatDebt(debt), debtList);
+        return true;
     }
 
     // Methods to delete assets and debts from the lists
-    public boolean deleteDebt(String description) throws IOException {
-        boolean exists = debtList.stream().anyMatch(debt -> debt.getDescription().equals(description));
-        if (exists) {
-            debtList = debtList.stream().filter(debt -> !debt.getDescription().equals(description)).collect(Collectors.toList());
-            saveDebtToCSV();
+    public synchronized boolean deleteDebt(String description) throws IOException {
+        int row = debtList.positionOf(description);
+        if (row < 0) {
+            return false;
         }
-        return exists;
+        debtList.removeKey(description);
+        debtColumns.swapRemove(row);
+        recordChange(EntityType.DEBT, debtJournal, Journal.Operation.DELETE, description, debtList);
+        return true;
     }
     
-    public boolean deleteBond(String description) throws IOException {
-        boolean exists = bondList.stream().anyMatch(bond -> bond.getDescription().equals(description));
-        if (exists) {
-            bondList = bondList.stream().filter(bond -> !bond.getDescription().equals(description)).collect(Collectors.toList());
-            saveBondToCSV();
+    public synchronized boolean deleteBond(String description) throws IOException {
+        int row = bondList.positionOf(description);
+        if (row < 0) {
+            return false;
         }
-        return exists;
+        bondList.removeKey(description).setChangeListener(null);
+        bondColumns.swapRemove(row);
+        recordChange(EntityType.BOND, bondJournal, Journal.Operation.DELETE, description, bondList);
+        return true;
     }
     
-    public boolean deleteStock(String description) throws IOException {
-        boolean exists = stockList.stream().anyMatch(stock -> stock.getDescription().equals(description));
-        if (exists) {
-            stockList = stockList.stream().filter(stock -> !stock.getDescription().equals(description)).collect(Collectors.toList());
-            saveStockToCSV();
+    public synchronized boolean deleteStock(String description) throws IOException {
+        int row = stockList.positionOf(description);
+        if (row < 0) {
+            return false;
         }
-        return exists;
+        stockList.removeKey(description).setChangeListener(null);
+        stockColumns.swapRemove(row);
+        recordChange(EntityType.STOCK, stockJournal, Journal.Operation.DELETE, description, stockList);
+        return true;
     }
     
-    public boolean deleteRealEstate(String description) throws IOException {
-        boolean exists = realEstateList.stream().anyMatch(realEstate -> realEstate.getDescription().equals(description));
-        if (exists) {
-            realEstateList = realEstateList.stream().filter(realEstate -> !realEstate.getDescription().equals(description)).collect(Collectors.toList());
-            saveRealEstateToCSV();
-        }
-        return exists;
-    }
-
-    public void loadBondsFromCSV() throws IOException {
-        File file = new File("Bond.csv");
-        if (!file.exists()) {
-            return;
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine(); // Skip header
-        bondList.clear();
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length == 6) {
-                Bond bond = new Bond(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
-                                     Integer.parseInt(parts[3]), Double.parseDouble(parts[4]), parts[5]);
-                bondList.add(bond);
-            }
+    public synchronized boolean deleteRealEstate(String description) throws IOException {
+        int row = realEstateList.positionOf(description);
+        if (row < 0) {
+            return false;
         }
-        reader.close();
+        realEstateList.removeKey(description).setChangeListener(null);
+        realEstateColumns.swapRemove(row);
+        recordChange(EntityType.REAL_ESTATE, realEstateJournal, Journal.Operation.DELETE, description, realEstateList);
+        return true;
+    }
+
+    /**
+     * Loads bonds from "Bond.csv" and replays the bond journal on top of it.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
+     */
+    public List<CsvLoader.RowError> loadBondsFromCSV() throws IOException {
+        File file = dataFile(EntityType.BOND);
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (file.exists()) {
+            CsvLoader.Result<Bond> result = CsvLoader.load(file, AssetAndDebtManager::readBond);
+            bondList.clear();
+            result.getRows().forEach(bondList::put);
+            errors.addAll(result.getErrors());
+        }
+        errors.addAll(replayJournal(bondJournal, bondList, AssetAndDebtManager::readBond));
+        attach(bondList, bondSync);
+        bondColumns.rebuild(bondList);
+        return errors;
     }
     
-    public void loadStocksFromCSV() throws IOException {
-        File file = new File("Stock.csv");
-        if (!file.exists()) {
-            return;
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine(); // Skip header
-        stockList.clear();
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length == 6) {  // Now expecting 6 parts including dividendGrowthRate
-                Stock stock = new Stock(
-                    Double.parseDouble(parts[0]), // Amount
-                    Double.parseDouble(parts[1]), // Interest Rate
-                    Double.parseDouble(parts[2]), // Volatility
-                    Double.parseDouble(parts[3]), // Dividend
-                    Double.parseDouble(parts[4]), // Dividend Growth Rate
-                    parts[5]                     // Description
-                );
-                stockList.add(stock);
-            }
+    /**
+     * Loads stocks from "Stock.csv" and replays the stock journal on top of it.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
+     */
+    public List<CsvLoader.RowError> loadStocksFromCSV() throws IOException {
+        File file = dataFile(EntityType.STOCK);
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (file.exists()) {
+            CsvLoader.Result<Stock> result = CsvLoader.load(file, AssetAndDebtManager::readStock);
+            stockList.clear();
+            result.getRows().forEach(stockList::put);
+            errors.addAll(result.getErrors());
         }
-        reader.close();
+        errors.addAll(replayJournal(stockJournal, stockList, AssetAndDebtManager::readStock));
+        attach(stockList, stockSync);
+        stockColumns.rebuild(stockList);
+        return errors;
     }
     
-    public void loadRealEstateFromCSV() throws IOException {
-        File file = new File("RealEstate.csv");
-        if (!file.exists()) {
-            return;
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine(); // Skip header
-        realEstateList.clear();
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length == 5) {
-                RealEstate realEstate = new RealEstate(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
-                                                      Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), parts[4]);
-                realEstateList.add(realEstate);
-            }
+    /**
+     * Loads real estate from "RealEstate.csv" and replays the real estate journal on top of it.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
+     */
+    public List<CsvLoader.RowError> loadRealEstateFromCSV() throws IOException {
+        File file = dataFile(EntityType.REAL_ESTATE);
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (file.exists()) {
+            CsvLoader.Result<RealEstate> result = CsvLoader.load(file, AssetAndDebtManager::readRealEstate);
+            realEstateList.clear();
+            result.getRows().forEach(realEstateList::put);
+            errors.addAll(result.getErrors());
         }
-        reader.close();
+        errors.addAll(replayJournal(realEstateJournal, realEstateList, AssetAndDebtManager::readRealEstate));
+        attach(realEstateList, realEstateSync);
+        realEstateColumns.rebuild(realEstateList);
+        return errors;
     }
     
-    public void loadDebtsFromCSV() throws IOException {
-        File file = new File("Debt.csv");
-        if (!file.exists()) {
-            return;
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine(); // Skip header
-        debtList.clear();
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length == 6) {
-                Debt debt = new Debt(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), Boolean.parseBoolean(parts[2]),
-                                     Integer.parseInt(parts[3]), DebtCategory.valueOf(parts[4].toUpperCase()), parts[5]);
-                debtList.add(debt);
+    /**
+     * Loads debts from "Debt.csv" and replays the debt journal on top of it.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
+     */
+    public List<CsvLoader.RowError> loadDebtsFromCSV() throws IOException {
+        File file = dataFile(EntityType.DEBT);
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (file.exists()) {
+            CsvLoader.Result<Debt> result = CsvLoader.load(file, AssetAndDebtManager::readDebt);
+            debtList.clear();
+            result.getRows().forEach(debtList::put);
+            errors.addAll(result.getErrors());
+        }
+        errors.addAll(replayJournal(debtJournal, debtList, AssetAndDebtManager::readDebt));
+        debtColumns.rebuild(debtList);
+        return errors;
+    }
+
+    /**
+     * Replays a journal on top of a freshly loaded list.
+     * ADD and UPDATE records replace an existing item with the same description, so replaying a journal that was
+     * already partly compacted into the CSV file does not create duplicates.
+     * @return The records that could not be replayed.
+     */
+    private static <T> List<CsvLoader.RowError> replayJournal(Journal journal, IndexedList<T> list, CsvLoader.RowParser<T> parser) throws IOException {
+        return journal.replay((operation, payload) -> {
+            if (operation == Journal.Operation.DELETE) {
+                list.removeKey(payload);
+            } else {
+                list.put(CsvLoader.parseLine(payload, parser));
             }
+        });
+    }
+
+    private void rebuildColumns() {
+        attach(bondList, bondSync);
+        attach(stockList, stockSync);
+        attach(realEstateList, realEstateSync);
+        bondColumns.rebuild(bondList);
+        stockColumns.rebuild(stockList);
+        realEstateColumns.rebuild(realEstateList);
+        debtColumns.rebuild(debtList);
+    }
+
+    private static void attach(List<? extends Asset> assets, Asset.ChangeListener listener) {
+        for (Asset asset : assets) {
+            asset.setChangeListener(listener);
+        }
+    }
+
+    /**
+     * Copies an asset changed through one of its setters into its row of the column store.
+     */
+    private synchronized <T extends Asset> void syncRow(IndexedList<T> list, AssetColumns<T> columns, T asset) {
+        int row = list.positionOf(asset.getDescription());
+        if (row >= 0 && list.get(row) == asset) {
+            columns.set(row, asset);
+        }
+    }
+
+    /**
+     * Replaces the contents of a list; a later item replaces an earlier one with the same description.
+     */
+    private static <T> void replaceContents(IndexedList<T> list, List<T> items) {
+        list.clear();
+        items.forEach(list::put);
+    }
+
+    private File dataFile(EntityType type) {
+        return new File(dataDirectory, type.getFileName());
+    }
+
+    /**
+     * Persists a mutation: appends it to the journal, then marks the type dirty when a scheduler is attached so the
+     * scheduler compacts it later, or otherwise compacts the CSV file straight away if the journal has grown too long.
+     */
+    private void recordChange(EntityType type, Journal journal, Journal.Operation operation, String payload, List<?> list) throws IOException {
+        journal.append(operation, payload);
+        PersistenceScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.markDirty(type);
+        } else if (needsCompaction(journal, list)) {
+            saveToCSV(type);
+        }
+    }
+
+    /**
+     * Returns whether a journal has grown long enough to be compacted into its CSV file.
+     */
+    private static boolean needsCompaction(Journal journal, List<?> list) {
+        return journal.getRecordCount() > Math.max(COMPACTION_THRESHOLD, list.size());
+    }
+
+    private static String formatBond(Bond bond) {
+        return String.format(Locale.ROOT, "%f,%f,%f,%d,%f,%s",
+                bond.getAmount(), bond.getInterestRate(), bond.getVolatility(),
+                bond.getMaturity(), bond.getCoupon(), CsvWriter.quote(bond.getDescription()));
+    }
+
+    private static String formatStock(Stock stock) {
+        return String.format(Locale.ROOT, "%f,%f,%f,%f,%f,%s",
+                stock.getAmount(), stock.getInterestRate(), stock.getVolatility(),
+                stock.getDividend(), stock.getDividendGrowthRate(), CsvWriter.quote(stock.getDescription()));
+    }
+
+    private static String formatRealEstate(RealEstate realEstate) {
+        return String.format(Locale.ROOT, "%f,%f,%f,%f,%s",
+                realEstate.getAmount(), realEstate.getInterestRate(), realEstate.getVolatility(),
+                realEstate.getNetOperatingIncome(), CsvWriter.quote(realEstate.getDescription()));
+    }
+
+    private static String formatDebt(Debt debt) {
+        return String.format(Locale.ROOT, "%f,%f,%b,%d,%s,%s",
+                debt.getAmount(), debt.getInterestRate(), debt.isOneTime(),
+                debt.getTime(), debt.getCategory().toString(), CsvWriter.quote(debt.getDescription()));
+    }
+
+    private static Bond readBond(CsvLoader.Row row) {
+        checkFieldCount(row, 6, "bond");
+        return new Bond(row.getDouble(0), row.getDouble(1), row.getDouble(2),
+                        row.getInt(3), row.getDouble(4), row.getString(5));
+    }
+
+    private static Stock readStock(CsvLoader.Row row) {
+        checkFieldCount(row, 6, "stock");
+        return new Stock(
+            row.getDouble(0), // Amount
+            row.getDouble(1), // Interest Rate
+            row.getDouble(2), // Volatility
+            row.getDouble(3), // Dividend
+            row.getDouble(4), // Dividend Growth Rate
+            row.getString(5)  // Description
+        );
+    }
+
+    private static RealEstate readRealEstate(CsvLoader.Row row) {
+        checkFieldCount(row, 5, "real estate");
+        return new RealEstate(row.getDouble(0), row.getDouble(1),
+                              row.getDouble(2), row.getDouble(3), row.getString(4));
+    }
+
+    private static Debt readDebt(CsvLoader.Row row) {
+        checkFieldCount(row, 6, "debt");
+        return new Debt(row.getDouble(0), row.getDouble(1), row.getBoolean(2),
+                        row.getInt(3), DebtCategory.valueOf(row.getString(4).toUpperCase()), row.getString(5));
+    }
+
+    private static void checkFieldCount(CsvLoader.Row row, int expected, String entity) {
+        if (row.getFieldCount() != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " fields for a " + entity + " but found " + row.getFieldCount() + ".");
         }
-        reader.close();
     }
 }
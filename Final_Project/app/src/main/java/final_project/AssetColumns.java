@@ -0,0 +1,190 @@
+package final_project;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays storage for one asset class: each valuation input is kept in its own primitive array,
+ * so valuing a portfolio is a tight loop over contiguous memory instead of a virtual call per heap object.
+ * Rows are kept in the same order as the owning manager's list, including its swap-remove on delete.
+ * Each row's present value is cached and a running total is adjusted whenever a row is added, replaced or removed,
+ * so reading the total of a class does not depend on the number of rows. A row whose inputs cannot be valued is
+ * counted as invalid, and the total falls back to a full scan that reports the error while any such row remains.
+ * Only the owning {@link AssetAndDebtManager} mutates the columns.
+ * @param <T> The asset class stored in the columns.
+ */
+public abstract class AssetColumns<T extends Asset> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int RESUM_INTERVAL = 1024;
+
+    protected double[] amount = new double[INITIAL_CAPACITY];
+    protected double[] interestRate = new double[INITIAL_CAPACITY];
+    protected double[] volatility = new double[INITIAL_CAPACITY];
+    protected int size;
+    private double[] cachedValue = new double[INITIAL_CAPACITY];
+    private volatile double total;
+    private volatile int invalidRows;
+    private int updatesSinceResum;
+
+    public int size() {
+        return size;
+    }
+
+    public double getAmount(int row) {
+        return amount[checkRow(row)];
+    }
+
+    public double getInterestRate(int row) {
+        return interestRate[checkRow(row)];
+    }
+
+    public double getVolatility(int row) {
+        return volatility[checkRow(row)];
+    }
+
+    /**
+     * Returns the cached present value of a single row, which matches the asset's calculateReturn.
+     * @param row The row to value.
+     * @return The present value of the asset in that row.
+     * @throws IllegalArgumentException If the row's inputs cannot be valued.
+     */
+    public double presentValue(int row) {
+        checkRow(row);
+        double value = cachedValue[row];
+        return Double.isNaN(value) ? valueRow(row) : value;
+    }
+
+    /**
+     * Returns the running total of every row's present value.
+     * @return The sum of the present values of all rows.
+     * @throws IllegalArgumentException If any row's inputs cannot be valued.
+     */
+    public double totalPresentValue() {
+        if (invalidRows > 0) {
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += valueRow(i); // Reports the invalid row
+            }
+            return sum;
+        }
+        return total;
+    }
+
+    void add(T asset) {
+        if (size == amount.length) {
+            grow(amount.length * 2);
+        }
+        cachedValue[size] = 0;
+        set(size++, asset);
+    }
+
+    void set(int row, T asset) {
+        amount[row] = asset.getAmount();
+        interestRate[row] = asset.getInterestRate();
+        volatility[row] = asset.getVolatility();
+        setColumns(row, asset);
+        double value;
+        try {
+            value = valueRow(row);
+        } catch (IllegalArgumentException e) {
+            value = Double.NaN;
+        }
+        account(cachedValue[row], -1);
+        cachedValue[row] = value;
+        account(value, 1);
+        resumPeriodically();
+    }
+
+    /**
+     * Removes a row by moving the last row into its place, mirroring {@link IndexedList#removeKey(String)}.
+     */
+    void swapRemove(int row) {
+        account(cachedValue[row], -1);
+        int last = --size;
+        if (row != last) {
+            amount[row] = amount[last];
+            interestRate[row] = interestRate[last];
+            volatility[row] = volatility[last];
+            cachedValue[row] = cachedValue[last];
+            moveColumns(last, row);
+        }
+        resumPeriodically();
+    }
+
+    void rebuild(List<T> assets) {
+        size = 0;
+        total = 0;
+        invalidRows = 0;
+        updatesSinceResum = 0;
+        if (assets.size() > amount.length) {
+            grow(assets.size());
+        }
+        for (T asset : assets) {
+            add(asset);
+        }
+    }
+
+    private void grow(int capacity) {
+        amount = Arrays.copyOf(amount, capacity);
+        interestRate = Arrays.copyOf(interestRate, capacity);
+        volatility = Arrays.copyOf(volatility, capacity);
+        cachedValue = Arrays.copyOf(cachedValue, capacity);
+        growColumns(capacity);
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) a cached row value from the running total or the count of invalid rows.
+     */
+    private void account(double value, int sign) {
+        if (Double.isNaN(value)) {
+            invalidRows += sign;
+        } else {
+            total += sign * value;
+        }
+    }
+
+    /**
+     * Re-sums the cached values every {@link #RESUM_INTERVAL} updates so rounding errors cannot accumulate.
+     */
+    private void resumPeriodically() {
+        if (++updatesSinceResum < RESUM_INTERVAL) {
+            return;
+        }
+        updatesSinceResum = 0;
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(cachedValue[i])) {
+                sum += cachedValue[i];
+            }
+        }
+        total = sum;
+    }
+
+    protected int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    /**
+     * Values a single row with the same kernel as the asset's calculateReturn.
+     * @throws IllegalArgumentException If the row's inputs cannot be valued.
+     */
+    protected abstract double valueRow(int row);
+
+    /**
+     * Copies the class-specific inputs of an asset into a row.
+     */
+    protected abstract void setColumns(int row, T asset);
+
+    /**
+     * Copies the class-specific inputs of one row to another.
+     */
+    protected abstract void moveColumns(int from, int to);
+
+    /**
+     * Resizes the class-specific columns.
+     */
+    protected abstract void growColumns(int capacity);
+}
@@ -1,12 +1,20 @@
 package final_project;
 
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Represents a balance sheet for a family, detailing all members' income and the family's assets and liabilities.
+ * Income, expenditure and debts are discounted on a {@link DiscountCurve}, whose valuation year is the "current" year
+ * of every calculation.
  */
 public class BalanceSheet {
     private Family family;
     private AssetAndDebtManager assetManager;
-    private double appliedInterestRate;
+    private volatile DiscountCurve discountCurve;
 
     /**
      * Constructs a BalanceSheet with references to a Family object and an AssetAndDebtManager object.
@@ -15,28 +23,79 @@ public class BalanceSheet {
      * @param appliedInterestRate discount rate to calculate present value of Asset and Debt
      */
     public BalanceSheet(Family family, AssetAndDebtManager assetManager, double appliedInterestRate) {
+        this(family, assetManager, DiscountCurve.flat(appliedInterestRate));
+    }
+
+    /**
+     * Constructs a BalanceSheet that discounts income, expenditure and debts on a term structure.
+     * @param family The Family object containing family members' information.
+     * @param assetManager The AssetAndDebtManager object managing the assets and debts.
+     * @param discountCurve The curve used to discount income, expenditure and debts.
+     */
+    public BalanceSheet(Family family, AssetAndDebtManager assetManager, DiscountCurve discountCurve) {
         this.family = family;
         this.assetManager = assetManager;
-        this.appliedInterestRate = appliedInterestRate;
+        this.discountCurve = discountCurve;
     }
 
+    /**
+     * Replaces the discount curve with a flat curve at the given rate, keeping the valuation year.
+     * @param rate The new discount rate.
+     * @throws IllegalArgumentException If the rate is not greater than -100%.
+     */
     public void setAppliedInterestRate(double rate){
-        this.appliedInterestRate = rate;
+        this.discountCurve = DiscountCurve.flat(rate, discountCurve.getValuationYear());
     }
 
+    /**
+     * Returns the applied discount rate, which is the one-year zero rate of the curve.
+     * @return The applied discount rate.
+     */
     public double getAppliedInterestRate(){
-        return appliedInterestRate;
+        return discountCurve.zeroRate(1);
+    }
+
+    public DiscountCurve getDiscountCurve() {
+        return discountCurve;
+    }
+
+    public void setDiscountCurve(DiscountCurve discountCurve) {
+        this.discountCurve = discountCurve;
+    }
+
+    /**
+     * Returns the year from which every present value is calculated.
+     * @return The valuation year of the discount curve.
+     */
+    public int getValuationYear() {
+        return discountCurve.getValuationYear();
     }
 
     /**
      * Prints the total assets and liabilities of the family.
      */
     public void printAssetsAndLiabilities() {
-        System.out.println("Assets and Liabilities:");
+        printAssetsAndLiabilities(System.out);
+    }
+
+    /**
+     * Prints the total assets and liabilities of the family.
+     * @param out The stream to print to.
+     */
+    public void printAssetsAndLiabilities(PrintStream out) {
+        ReportWriter.print(assetsAndLiabilitiesSection(), out);
+    }
+
+    /**
+     * Reports the total assets and liabilities of the family.
+     * @return The section, titled "Assets and Liabilities:".
+     */
+    public Report.Section assetsAndLiabilitiesSection() {
         double totalAssets = calculateTotalAssets();
         double totalLiabilities = calculateTotalLiabilities();
-        System.out.println("Total Assets: " + totalAssets);
-        System.out.println("Total Liabilities: " + totalLiabilities);
+        return new Report.Section("Assets and Liabilities:", List.of(
+                Report.Line.value("Total Assets", totalAssets),
+                Report.Line.value("Total Liabilities", totalLiabilities)));
     }
 
     /**
@@ -45,37 +104,80 @@ public class BalanceSheet {
      * @return The present value of the debt.
      */
     public double calculateDebtPV(Debt debt) {
-        int years = debt.getTime() - 2024; // Calculates the number of years from the current year to the maturity year of the debt
-        if (debt.isOneTime()) {
-            return debt.getAmount() / Math.pow(1 + appliedInterestRate, years);
+        return debtPresentValue(debt.getAmount(), debt.getInterestRate(), debt.isOneTime(), debt.getTime(), discountCurve);
+    }
+
+    /**
+     * Values a debt from its inputs; shared by {@link #calculateDebtPV(Debt)} and {@link DebtColumns}.
+     * @param amount The principal of the debt.
+     * @param interestRate The debt's own rate, used to derive the periodic payment of a recurring debt.
+     * @param isOneTime Whether the debt is repaid in a single payment.
+     * @param time The year in which the debt is repaid.
+     * @param curve The curve used to discount the payments.
+     * @return The present value of the debt.
+     */
+    static double debtPresentValue(double amount, double interestRate, boolean isOneTime, int time, DiscountCurve curve) {
+        int years = time - curve.getValuationYear(); // Calculates the number of years from the current year to the maturity year of the debt
+        if (isOneTime) {
+            return curve.discount(amount, years);
         } else {
-            double totalPV = 0;
-            double periodicPayment = debt.getAmount() * debt.getInterestRate(); // Assumes this calculates the periodic payment
-            for (int i = 1; i <= years; i++) {
-                totalPV += periodicPayment / Math.pow(1 + appliedInterestRate, i);
-            }
-            totalPV += debt.getAmount() / Math.pow(1 + appliedInterestRate, years); // Discounts the principal
-            return totalPV;
+            double periodicPayment = amount * interestRate; // Assumes this calculates the periodic payment
+            return periodicPayment * curve.annuityFactor(years)
+                    + curve.discount(amount, years); // Discounts the principal
         }
     }
 
     /**
-     * Calculates the total present value of all assets.
+     * Calculates the total present value of all assets from the running totals of each asset class,
+     * which are kept up to date as assets are added, changed and deleted. The manager's lock is held so the totals
+     * are read from one consistent state of the columns.
      * @return The total present value of assets.
      */
     public double calculateTotalAssets() {
-        double bondsTotal = assetManager.getBondList().stream().mapToDouble(Bond::calculateReturn).sum();
-        double stocksTotal = assetManager.getStockList().stream().mapToDouble(Stock::calculateReturn).sum();
-        double realEstateTotal = assetManager.getRealEstateList().stream().mapToDouble(RealEstate::calculateReturn).sum();
-        return bondsTotal + stocksTotal + realEstateTotal;
+        int valuationYear = getValuationYear();
+        synchronized (assetManager) {
+            double bondsTotal = assetManager.getBondColumns().totalPresentValue(valuationYear);
+            double stocksTotal = assetManager.getStockColumns().totalPresentValue();
+            double realEstateTotal = assetManager.getRealEstateColumns().totalPresentValue();
+            return bondsTotal + stocksTotal + realEstateTotal;
+        }
     }
 
     /**
-     * Calculates the total present value of all liabilities.
+     * Returns the running total present value of each asset class, read under the manager's lock.
+     * @return The totals keyed by {@link EntityType#BOND}, {@link EntityType#STOCK} and {@link EntityType#REAL_ESTATE}.
+     */
+    public Map<EntityType, Double> calculateAssetTotalsByClass() {
+        int valuationYear = getValuationYear();
+        Map<EntityType, Double> totals = new EnumMap<>(EntityType.class);
+        synchronized (assetManager) {
+            totals.put(EntityType.BOND, assetManager.getBondColumns().totalPresentValue(valuationYear));
+            totals.put(EntityType.STOCK, assetManager.getStockColumns().totalPresentValue());
+            totals.put(EntityType.REAL_ESTATE, assetManager.getRealEstateColumns().totalPresentValue());
+        }
+        return totals;
+    }
+
+    /**
+     * Calculates the total present value of all liabilities from the running totals of each debt category.
+     * The totals are only rebuilt when the discount curve changes.
      * @return The total present value of liabilities.
      */
     public double calculateTotalLiabilities() {
-        return assetManager.getDebtList().stream().mapToDouble(this::calculateDebtPV).sum();
+        return assetManager.getDebtColumns().totalPresentValue(discountCurve);
+    }
+
+    /**
+     * Returns the running total present value of each debt category.
+     * @return The totals of every category, including those without debts.
+     */
+    public Map<DebtCategory, Double> calculateLiabilitiesByCategory() {
+        DebtColumns debtColumns = assetManager.getDebtColumns();
+        Map<DebtCategory, Double> totals = new EnumMap<>(DebtCategory.class);
+        for (DebtCategory category : DebtCategory.values()) {
+            totals.put(category, debtColumns.totalPresentValue(discountCurve, category));
+        }
+        return totals;
     }
 
     /**
@@ -91,12 +193,9 @@ public class BalanceSheet {
 
     public double calculateTotalIncomePV() {
         double totalDiscountedIncome = 0;
+        DiscountCurve curve = discountCurve;
         for (Person member : family.getFamilyMembers()) {
-            double annualIncome = member.getMonthlyIncome() * 12;
-            int workingYears = Math.max(0, member.getBirthYear() + member.getLifeSpan() - 2024 - 20);
-            if (annualIncome > 0 && workingYears > 0) {
-                totalDiscountedIncome += annualIncome / Math.pow(1 + appliedInterestRate, workingYears);
-            }
+            totalDiscountedIncome += incomePresentValue(member.getMonthlyIncome(), member.getBirthYear(), member.getLifeSpan(), curve);
         }
         return totalDiscountedIncome;
     }
@@ -104,106 +203,237 @@ public class BalanceSheet {
 
     public double calculateTotalExpenditurePV() {
         double totalDiscountedExpenditure = 0;
+        DiscountCurve curve = discountCurve;
         for (Person member : family.getFamilyMembers()) {
-            double annualExpenditure = member.getMonthlyExpenditure() * 12;
-            int yearsToLive = Math.max(0, member.getBirthYear() + member.getLifeSpan() - 2024);
-            if (annualExpenditure > 0) {
-                totalDiscountedExpenditure += annualExpenditure / Math.pow(1 + appliedInterestRate, yearsToLive);
-            }
+            totalDiscountedExpenditure += expenditurePresentValue(member.getMonthlyExpenditure(), member.getBirthYear(), member.getLifeSpan(), curve);
         }
         return totalDiscountedExpenditure;
     }
 
+    /**
+     * Values one member's income, received as a single payment 20 years before the end of the member's life span;
+     * shared by {@link #calculateTotalIncomePV()} and {@link StressTester}.
+     * @param monthlyIncome The member's monthly income.
+     * @param birthYear The member's birth year.
+     * @param lifeSpan The member's life span.
+     * @param curve The curve used to discount the income.
+     * @return The present value of the income.
+     */
+    static double incomePresentValue(double monthlyIncome, int birthYear, int lifeSpan, DiscountCurve curve) {
+        double annualIncome = monthlyIncome * 12;
+        int workingYears = Math.max(0, birthYear + lifeSpan - curve.getValuationYear() - 20);
+        if (annualIncome > 0 && workingYears > 0) {
+            return curve.discount(annualIncome, workingYears);
+        }
+        return 0;
+    }
+
+    /**
+     * Values one member's expenditure, paid as a single payment at the end of the member's life span;
+     * shared by {@link #calculateTotalExpenditurePV()} and {@link StressTester}.
+     * @param monthlyExpenditure The member's monthly expenditure.
+     * @param birthYear The member's birth year.
+     * @param lifeSpan The member's life span.
+     * @param curve The curve used to discount the expenditure.
+     * @return The present value of the expenditure.
+     */
+    static double expenditurePresentValue(double monthlyExpenditure, int birthYear, int lifeSpan, DiscountCurve curve) {
+        double annualExpenditure = monthlyExpenditure * 12;
+        int yearsToLive = Math.max(0, birthYear + lifeSpan - curve.getValuationYear());
+        if (annualExpenditure > 0) {
+            return curve.discount(annualExpenditure, yearsToLive);
+        }
+        return 0;
+    }
+
 
         /**
      * Prints detailed income statements for each family member, including discounted values of future income.
      */
     public void printIncomeStatement() {
-        System.out.println("Detailed Family Income Report:");
+        printIncomeStatement(System.out);
+    }
+
+    /**
+     * Prints detailed income statements for each family member, including discounted values of future income.
+     * @param out The stream to print to.
+     */
+    public void printIncomeStatement(PrintStream out) {
+        ReportWriter.print(incomeSection(), out);
+    }
+
+    /**
+     * Reports the discounted future income of each family member with income, and the total.
+     * @return The section, titled "Detailed Family Income Report:".
+     */
+    public Report.Section incomeSection() {
+        List<Report.Line> lines = new ArrayList<>();
         double totalDiscountedIncome = 0;
+        DiscountCurve curve = discountCurve;
         for (Person member : family.getFamilyMembers()) {
             double annualIncome = member.getMonthlyIncome() * 12;
-            int workingYears = member.getBirthYear() + member.getLifeSpan() - 2024 - 20;  // 假设退休前20年
+            int workingYears = member.getBirthYear() + member.getLifeSpan() - curve.getValuationYear() - 20;  // 假设退休前20年
             if (annualIncome > 0 && workingYears > 0) {
-                double discountedIncome = annualIncome / Math.pow(1 + appliedInterestRate, workingYears);
+                double discountedIncome = curve.discount(annualIncome, workingYears);
                 totalDiscountedIncome += discountedIncome;
-                System.out.println(member.getName() + ": " + discountedIncome);
+                lines.add(Report.Line.value(member.getName(), "", discountedIncome));
             }
         }
-        System.out.println("Total discounted income: " + totalDiscountedIncome);
+        lines.add(Report.Line.value("Total discounted income", totalDiscountedIncome));
+        return new Report.Section("Detailed Family Income Report:", lines);
     }
 
     /**
      * Prints detailed expenditure statements for each family member, including discounted values of future expenditures.
      */
     public void printExpenditureStatement() {
-        System.out.println("Detailed Family Expenditure Report:");
+        printExpenditureStatement(System.out);
+    }
+
+    /**
+     * Prints detailed expenditure statements for each family member, including discounted values of future expenditures.
+     * @param out The stream to print to.
+     */
+    public void printExpenditureStatement(PrintStream out) {
+        ReportWriter.print(expenditureSection(), out);
+    }
+
+    /**
+     * Reports the discounted future expenditure of each family member with expenditure, and the total.
+     * @return The section, titled "Detailed Family Expenditure Report:".
+     */
+    public Report.Section expenditureSection() {
+        List<Report.Line> lines = new ArrayList<>();
         double totalDiscountedExpenditure = 0;
+        DiscountCurve curve = discountCurve;
         for (Person member : family.getFamilyMembers()) {
             double annualExpenditure = member.getMonthlyExpenditure() * 12;
-            int yearsToLive = member.getBirthYear() + member.getLifeSpan() - 2024;
+            int yearsToLive = member.getBirthYear() + member.getLifeSpan() - curve.getValuationYear();
             if (annualExpenditure > 0 && yearsToLive > 0) {
-                double discountedExpenditure = annualExpenditure / Math.pow(1 + appliedInterestRate, yearsToLive);
+                double discountedExpenditure = curve.discount(annualExpenditure, yearsToLive);
                 totalDiscountedExpenditure += discountedExpenditure;
-                System.out.println(member.getName() + ": " + discountedExpenditure);
+                lines.add(Report.Line.value(member.getName(), "", discountedExpenditure));
             }
         }
-        System.out.println("Total discounted expenditure: " + totalDiscountedExpenditure);
+        lines.add(Report.Line.value("Total discounted expenditure", totalDiscountedExpenditure));
+        return new Report.Section("Detailed Family Expenditure Report:", lines);
     }
 
     /**
      * Prints details of all assets, including each asset's description and present value.
      */
     public void printAssetsDetails() {
-        System.out.println("Asset:");
-    
-  
-        System.out.println("Bond:");
-        assetManager.getBondList().forEach(bond -> {
-            double pv = bond.calculateReturn(); 
-            System.out.println(bond.getDescription() + ": " + pv);
-        });
-
-        System.out.println("Stock:");
-        assetManager.getStockList().forEach(stock -> {
-            double pv = stock.calculateReturn(); 
-            System.out.println(stock.getDescription() + ": " + pv);
-        });
-    
-        System.out.println("RealEstate");
-        assetManager.getRealEstateList().forEach(realEstate -> {
-            double pv = realEstate.calculateReturn(); 
-            System.out.println(realEstate.getDescription() + ": " + pv);
-        });
+        printAssetsDetails(System.out);
+    }
+
+    /**
+     * Prints details of all assets, including each asset's description and present value.
+     * @param out The stream to print to.
+     */
+    public void printAssetsDetails(PrintStream out) {
+        ReportWriter.print(assetsSection(), out);
+    }
+
+    /**
+     * Reports each asset's description and present value, grouped by asset class.
+     * Values are read from the column stores under the manager's lock, and bonds are valued from the balance sheet's
+     * valuation year, so the lines add up to {@link #calculateAssetTotalsByClass()}.
+     * @return The section, titled "Asset:".
+     */
+    public Report.Section assetsSection() {
+        int valuationYear = getValuationYear();
+        List<Report.Line> lines = new ArrayList<>();
+        synchronized (assetManager) {
+            lines.add(Report.Line.text("Bond:"));
+            List<Bond> bonds = assetManager.getBondList();
+            BondColumns bondColumns = assetManager.getBondColumns();
+            for (int row = 0; row < bonds.size(); row++) {
+                lines.add(Report.Line.value(bonds.get(row).getDescription(), "", bondColumns.presentValue(row, valuationYear)));
+            }
+            lines.add(Report.Line.text("Stock:"));
+            List<Stock> stocks = assetManager.getStockList();
+            for (int row = 0; row < stocks.size(); row++) {
+                lines.add(Report.Line.value(stocks.get(row).getDescription(), "", assetManager.getStockColumns().presentValue(row)));
+            }
+            lines.add(Report.Line.text("RealEstate"));
+            List<RealEstate> realEstates = assetManager.getRealEstateList();
+            for (int row = 0; row < realEstates.size(); row++) {
+                lines.add(Report.Line.value(realEstates.get(row).getDescription(), "",
+                        assetManager.getRealEstateColumns().presentValue(row)));
+            }
+        }
+        return new Report.Section("Asset:", lines);
     }
 
     /**
      * Prints details of all liabilities, including each liability's description and present value.
      */
     public void printLiabilitiesDetails() {
-        System.out.println("Debt:");
-        assetManager.getDebtList().forEach(debt -> {
-            double pv = calculateDebtPV(debt);
-            System.out.println(debt.getDescription() + ": " + pv);
-        });
+        printLiabilitiesDetails(System.out);
+    }
+
+    /**
+     * Prints details of all liabilities, including each liability's description and present value.
+     * @param out The stream to print to.
+     */
+    public void printLiabilitiesDetails(PrintStream out) {
+        ReportWriter.print(liabilitiesSection(), out);
+    }
+
+    /**
+     * Reports each debt's description and present value.
+     * @return The section, titled "Debt:".
+     */
+    public Report.Section liabilitiesSection() {
+        List<Report.Line> lines = new ArrayList<>();
+        assetManager.getDebtList().forEach(debt -> lines.add(Report.Line.value(debt.getDescription(), "", calculateDebtPV(debt))));
+        return new Report.Section("Debt:", lines);
     }
 
     /**
      * Calculates and prints the net present value of the family's finances.
      */
     public void printNetPresentValue() {
+        printNetPresentValue(System.out);
+    }
+
+    /**
+     * Calculates and prints the net present value of the family's finances.
+     * @param out The stream to print to.
+     */
+    public void printNetPresentValue(PrintStream out) {
+        ReportWriter.print(netPresentValueSection(), out);
+    }
+
+    /**
+     * Reports the net value of the family's finances, counting income and expenditure as well as assets and debts.
+     * @return The untitled section.
+     */
+    public Report.Section netPresentValueSection() {
         double totalIncomePV = calculateTotalIncomePV();
         double totalExpenditurePV = calculateTotalExpenditurePV();
         double totalAssetsPV = calculateTotalAssets();
         double totalLiabilitiesPV = calculateTotalLiabilities();
         double netPresentValue = totalIncomePV + totalAssetsPV - totalLiabilitiesPV - totalExpenditurePV;
-        System.out.println("Family Net Value: " + netPresentValue);
+        return new Report.Section(null, List.of(Report.Line.value("Family Net Value", netPresentValue)));
+    }
+
+    /**
+     * Reports everything the balance sheet dialog shows, in the same order.
+     * @return The income, expenditure, assets, liabilities and net value sections.
+     */
+    public Report buildReport() {
+        return new Report(List.of(incomeSection(), expenditureSection(), assetsSection(), liabilitiesSection(), netPresentValueSection()));
     }
 
     public Family getFamily() {
         return this.family;
     }
 
+    public AssetAndDebtManager getAssetManager() {
+        return this.assetManager;
+    }
+
 
 
 
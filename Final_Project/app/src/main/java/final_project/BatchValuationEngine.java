@@ -0,0 +1,301 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Values many households in parallel on a work-stealing pool.
+ * Each household is loaded from its own directory, valued, and dropped before its result is handed to the sink,
+ * so memory use depends on the number of worker threads rather than on the number of households.
+ */
+public class BatchValuationEngine {
+    private final int parallelism;
+    private final double discountRate;
+
+    /**
+     * The valuation of one household, or the reason it could not be valued.
+     */
+    public static final class Result {
+        /**
+         * The CSV header matching {@link #toCsvRow()}.
+         */
+        public static final String CSV_HEADER =
+                "Household,NetPresentValue,IncomePV,ExpenditurePV,AssetsPV,LiabilitiesPV,GoalsPV,Strategy,Shortfall,RejectedRows,ElapsedMillis,Error";
+
+        private final String household;
+        private final double netPresentValue;
+        private final double incomePV;
+        private final double expenditurePV;
+        private final double assetsPV;
+        private final double liabilitiesPV;
+        private final double goalsPV;
+        private final String strategy;
+        private final double shortfall;
+        private final int rejectedRows;
+        private final long elapsedNanos;
+        private final String error;
+
+        Result(String household, double netPresentValue, double incomePV, double expenditurePV, double assetsPV,
+               double liabilitiesPV, double goalsPV, String strategy, double shortfall, int rejectedRows,
+               long elapsedNanos, String error) {
+            this.household = household;
+            this.netPresentValue = netPresentValue;
+            this.incomePV = incomePV;
+            this.expenditurePV = expenditurePV;
+            this.assetsPV = assetsPV;
+            this.liabilitiesPV = liabilitiesPV;
+            this.goalsPV = goalsPV;
+            this.strategy = strategy;
+            this.shortfall = shortfall;
+            this.rejectedRows = rejectedRows;
+            this.elapsedNanos = elapsedNanos;
+            this.error = error;
+        }
+
+        static Result failed(String household, long elapsedNanos, String error) {
+            return new Result(household, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+                              "", 0, 0, elapsedNanos, error);
+        }
+
+        public String getHousehold() {
+            return household;
+        }
+
+        public double getNetPresentValue() {
+            return netPresentValue;
+        }
+
+        public double getIncomePV() {
+            return incomePV;
+        }
+
+        public double getExpenditurePV() {
+            return expenditurePV;
+        }
+
+        public double getAssetsPV() {
+            return assetsPV;
+        }
+
+        public double getLiabilitiesPV() {
+            return liabilitiesPV;
+        }
+
+        public double getGoalsPV() {
+            return goalsPV;
+        }
+
+        /**
+         * Returns the simple class name of the recommended strategy.
+         * @return The strategy name, or an empty string if the household could not be valued.
+         */
+        public String getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Returns the shortfall reported by an aggressive strategy; negative when the goals exceed the net present value.
+         * @return The shortfall, or 0 if a conservative strategy was recommended.
+         */
+        public double getShortfall() {
+            return shortfall;
+        }
+
+        public int getRejectedRows() {
+            return rejectedRows;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns why the household could not be valued.
+         * @return The error message, or null if the household was valued.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Formats the result as one CSV row, without a trailing line break.
+         * Numbers always use a decimal point, whatever the default locale, and text fields are quoted when needed.
+         * @return The CSV row.
+         */
+        public String toCsvRow() {
+            return String.format(Locale.ROOT, "%s,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%s,%.2f,%d,%.3f,%s",
+                    CsvWriter.quote(household), netPresentValue, incomePV, expenditurePV, assetsPV, liabilitiesPV, goalsPV,
+                    strategy, shortfall, rejectedRows, elapsedNanos / 1e6,
+                    error == null ? "" : CsvWriter.quote(error.replace('\r', ' ').replace('\n', ' ')));
+        }
+    }
+
+    /**
+     * Totals for a whole batch.
+     */
+    public static final class Summary {
+        private final int households;
+        private final int failures;
+        private final long elapsedNanos;
+
+        Summary(int households, int failures, long elapsedNanos) {
+            this.households = households;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getHouseholds() {
+            return households;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Valued %d households (%d failed) in %.1f ms", households, failures, elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * Constructs a BatchValuationEngine.
+     * @param parallelism The number of worker threads, at least 1.
+     * @param discountRate The discount rate applied to every household's balance sheet.
+     */
+    public BatchValuationEngine(int parallelism, double discountRate) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+        this.discountRate = discountRate;
+    }
+
+    /**
+     * Values every subdirectory of a root directory as one household, named after the subdirectory,
+     * and writes one CSV row per household to the output as soon as it has been valued.
+     * Rows appear in completion order, not directory order.
+     * @param rootDirectory The directory whose subdirectories hold the households' files.
+     * @param output Receives the header and the result rows; writes to it are serialized.
+     * @return The totals for the batch.
+     * @throws IOException If the root directory cannot be listed or the output cannot be written.
+     */
+    public Summary run(File rootDirectory, Writer output) throws IOException {
+        File[] directories = rootDirectory.listFiles(File::isDirectory);
+        if (directories == null) {
+            throw new IOException("Cannot list household directories in " + rootDirectory.getPath());
+        }
+        Arrays.sort(directories);
+        return run(Arrays.asList(directories), output, result -> { });
+    }
+
+    /**
+     * Values the given household directories and writes one CSV row per household to the output as soon as it has
+     * been valued, in completion order.
+     * @param householdDirectories The directories holding the households' files.
+     * @param output Receives the header and the result rows; writes to it are serialized.
+     * @param onResult Called with each result right after its row is written, while the output's lock is held, so
+     *                 it sees one result at a time.
+     * @return The totals for the batch.
+     * @throws IOException If the output cannot be written.
+     */
+    public Summary run(List<File> householdDirectories, Writer output, Consumer<Result> onResult) throws IOException {
+        output.write(Result.CSV_HEADER);
+        output.write('\n');
+        Summary summary;
+        try {
+            summary = run(householdDirectories.stream(), result -> {
+                synchronized (output) {
+                    try {
+                        output.write(result.toCsvRow());
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    onResult.accept(result);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.flush();
+        return summary;
+    }
+
+    /**
+     * Values every household directory in the stream and passes each result to the sink as soon as it is ready.
+     * @param householdDirectories The directories holding the households' files; consumed in parallel.
+     * @param sink Receives each result on a worker thread, possibly on several threads at once.
+     * @return The totals for the batch.
+     */
+    public Summary run(Stream<File> householdDirectories, Consumer<Result> sink) {
+        long start = System.nanoTime();
+        AtomicInteger households = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> householdDirectories.parallel().forEach(directory -> {
+                Result result = value(directory);
+                households.incrementAndGet();
+                if (result.getError() != null) {
+                    failures.incrementAndGet();
+                }
+                sink.accept(result);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch valuation was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new Summary(households.get(), failures.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Loads and values a single household on the calling thread.
+     * @param directory The directory holding the household's files.
+     * @return The valuation, or a failed result if the household could not be loaded or valued.
+     */
+    public Result value(File directory) {
+        long start = System.nanoTime();
+        String id = directory.getName();
+        try {
+            Household household = new Household(id, directory, discountRate);
+            int rejectedRows = household.load().size();
+            BalanceSheet balanceSheet = household.getBalanceSheet();
+            double incomePV = balanceSheet.calculateTotalIncomePV();
+            double expenditurePV = balanceSheet.calculateTotalExpenditurePV();
+            double assetsPV = balanceSheet.calculateTotalAssets();
+            double liabilitiesPV = balanceSheet.calculateTotalLiabilities();
+            double netPresentValue = assetsPV - liabilitiesPV;
+            FinancialAdvisor advisor = household.getFinancialAdvisor();
+            double goalsPV = advisor.calculateTotalGoalsValue();
+            Strategy strategy = advisor.recommendStrategy(netPresentValue, incomePV, expenditurePV);
+            double shortfall = strategy instanceof AggressiveStrategy ? ((AggressiveStrategy) strategy).getShortfall() : 0;
+            return new Result(id, netPresentValue, incomePV, expenditurePV, assetsPV, liabilitiesPV, goalsPV,
+                              strategy.getClass().getSimpleName(), shortfall, rejectedRows, System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            // One bad household must not abort the batch
+            return Result.failed(id, System.nanoTime() - start, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -32,26 +32,32 @@ public class Bond extends Asset {
     }
 
     /**
-     * Calculates the expected return of the bond as the net present value (NPV) of all future cash flows.
+     * Calculates the expected return of the bond as the net present value (NPV) of all future cash flows,
+     * valued from {@link DiscountCurve#DEFAULT_VALUATION_YEAR}; a {@link BalanceSheet} values its bonds from its own year.
      * @return The calculated net present value.
      */
     @Override
     public double calculateReturn() {
-        double npv = 0.0;
-        int currentYear = 2024;
-        int yearsToMaturity = maturity - currentYear;
-
-        // Calculate the present value of each year's coupon payment
-        for (int year = 1; year <= yearsToMaturity; year++) {
-            double discountFactor = Math.pow(1 + getInterestRate(), year);
-            npv += coupon / discountFactor;
-        }
+        return presentValue(getAmount(), getInterestRate(), maturity, coupon, DiscountCurve.DEFAULT_VALUATION_YEAR);
+    }
 
-        // Add the present value of the principal amount plus the final coupon payment at maturity
-        double finalYearDiscount = Math.pow(1 + getInterestRate(), yearsToMaturity);
-        npv += (coupon + getAmount()) / finalYearDiscount;
+    /**
+     * Values a bond from its inputs; shared by {@link #calculateReturn()}, {@link BondColumns} and {@link StressTester}.
+     * The payments are discounted at the bond's own rate with the closed-form {@link Annuity} kernels.
+     * @param amount The principal repaid at maturity.
+     * @param interestRate The rate used to discount the payments.
+     * @param maturity The maturity year.
+     * @param coupon The coupon paid every year until maturity.
+     * @param valuationYear The year from which the payments are discounted.
+     * @return The present value of the bond.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    static double presentValue(double amount, double interestRate, int maturity, double coupon, int valuationYear) {
+        int yearsToMaturity = maturity - valuationYear;
 
-        return npv;
+        // Every year's coupon, plus the principal and the final coupon once more at maturity
+        return Annuity.presentValue(coupon, interestRate, yearsToMaturity)
+                + Annuity.discount(coupon + amount, interestRate, yearsToMaturity);
     }
 
     public int getMaturity() {
@@ -0,0 +1,267 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rate-risk measures for every bond of a household, computed in one pass over its {@link BondColumns}.
+ * Each bond's present value, Macaulay and modified duration, convexity and DV01 come from the closed-form
+ * {@link Annuity} kernels at the bond's own rate, like {@link Bond#calculateReturn()}, so analysing a bond costs a few
+ * transcendental functions whatever its term and needs no table per distinct rate. The cash flows are those of the
+ * valuation: a coupon every year and the coupon and principal once more at maturity, discounted at the bond's own rate.
+ * Results are also aggregated by maturity year.
+ */
+public final class BondAnalytics {
+    /**
+     * One basis point, the rate move DV01 refers to.
+     */
+    public static final double BASIS_POINT = 0.0001;
+
+    private final int[] maturity;
+    private final double[] presentValue;
+    private final double[] macaulayDuration;
+    private final double[] modifiedDuration;
+    private final double[] convexity;
+    private final double[] dv01;
+    private final List<MaturityBucket> buckets;
+
+    /**
+     * Totals of the bonds maturing in one year; durations and convexity are weighted by present value.
+     */
+    public static final class MaturityBucket {
+        private final int year;
+        private int bonds;
+        private double presentValue;
+        private double weightedMacaulay;
+        private double weightedModified;
+        private double weightedConvexity;
+        private double dv01;
+
+        MaturityBucket(int year) {
+            this.year = year;
+        }
+
+        void add(double bondPV, double macaulay, double modified, double bondConvexity, double bondDV01) {
+            bonds++;
+            presentValue += bondPV;
+            weightedMacaulay += bondPV * macaulay;
+            weightedModified += bondPV * modified;
+            weightedConvexity += bondPV * bondConvexity;
+            dv01 += bondDV01;
+        }
+
+        public int getYear() {
+            return year;
+        }
+
+        public int getBonds() {
+            return bonds;
+        }
+
+        public double getPresentValue() {
+            return presentValue;
+        }
+
+        public double getMacaulayDuration() {
+            return presentValue == 0 ? 0 : weightedMacaulay / presentValue;
+        }
+
+        public double getModifiedDuration() {
+            return presentValue == 0 ? 0 : weightedModified / presentValue;
+        }
+
+        public double getConvexity() {
+            return presentValue == 0 ? 0 : weightedConvexity / presentValue;
+        }
+
+        public double getDV01() {
+            return dv01;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d: %d bonds, PV %.2f, duration %.2f, convexity %.2f, DV01 %.2f",
+                                 year, bonds, presentValue, getModifiedDuration(), getConvexity(), dv01);
+        }
+    }
+
+    private BondAnalytics(int size) {
+        maturity = new int[size];
+        presentValue = new double[size];
+        macaulayDuration = new double[size];
+        modifiedDuration = new double[size];
+        convexity = new double[size];
+        dv01 = new double[size];
+        buckets = new ArrayList<>();
+    }
+
+    /**
+     * Analyses every bond of a manager from {@link DiscountCurve#DEFAULT_VALUATION_YEAR}, like
+     * {@link Bond#calculateReturn()}.
+     * @param assetManager The manager whose bonds are analysed.
+     * @return The analytics, with rows in the same order as the manager's bond list.
+     */
+    public static BondAnalytics analyze(AssetAndDebtManager assetManager) {
+        return analyze(assetManager, DiscountCurve.DEFAULT_VALUATION_YEAR);
+    }
+
+    /**
+     * Analyses every bond of a manager, holding the manager's lock so the columns cannot change meanwhile.
+     * @param assetManager The manager whose bonds are analysed.
+     * @param valuationYear The year from which the payments are discounted, usually the balance sheet's.
+     * @return The analytics, with rows in the same order as the manager's bond list.
+     */
+    public static BondAnalytics analyze(AssetAndDebtManager assetManager, int valuationYear) {
+        synchronized (assetManager) {
+            return analyze(assetManager.getBondColumns(), valuationYear);
+        }
+    }
+
+    /**
+     * Analyses every row of a bond column store.
+     * @param bonds The bonds to analyse.
+     * @param valuationYear The year from which the payments are discounted.
+     * @return The analytics, with rows in the same order as the columns.
+     */
+    public static BondAnalytics analyze(BondColumns bonds, int valuationYear) {
+        int size = bonds.size();
+        BondAnalytics analytics = new BondAnalytics(size);
+        int firstYear = Integer.MAX_VALUE;
+        int lastYear = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            analytics.analyzeRow(row, bonds.getAmount(row), bonds.getInterestRate(row), bonds.getMaturity(row),
+                                 bonds.getCoupon(row), valuationYear);
+            firstYear = Math.min(firstYear, bonds.getMaturity(row));
+            lastYear = Math.max(lastYear, bonds.getMaturity(row));
+        }
+        if (size > 0) {
+            // Maturities span a few decades at most, so the buckets are a dense array indexed by year
+            MaturityBucket[] byYear = new MaturityBucket[lastYear - firstYear + 1];
+            for (int row = 0; row < size; row++) {
+                int index = analytics.maturity[row] - firstYear;
+                if (byYear[index] == null) {
+                    byYear[index] = new MaturityBucket(analytics.maturity[row]);
+                }
+                byYear[index].add(analytics.presentValue[row], analytics.macaulayDuration[row],
+                                  analytics.modifiedDuration[row], analytics.convexity[row], analytics.dv01[row]);
+            }
+            for (MaturityBucket bucket : byYear) {
+                if (bucket != null) {
+                    analytics.buckets.add(bucket);
+                }
+            }
+        }
+        return analytics;
+    }
+
+    private void analyzeRow(int row, double amount, double rate, int maturityYear, double coupon, int valuationYear) {
+        int years = maturityYear - valuationYear;
+        double finalDiscounted = Annuity.discount(coupon + amount, rate, years);
+        double pv = Annuity.presentValue(coupon, rate, years) + finalDiscounted;
+        double timeWeighted = coupon * Annuity.durationFactor(rate, years) + years * finalDiscounted;
+        double convexityWeighted = coupon * Annuity.convexityFactor(rate, years) + (double) years * (years + 1) * finalDiscounted;
+
+        maturity[row] = maturityYear;
+        presentValue[row] = pv;
+        if (pv != 0) {
+            macaulayDuration[row] = timeWeighted / pv;
+            modifiedDuration[row] = macaulayDuration[row] / (1 + rate);
+            convexity[row] = convexityWeighted / (pv * (1 + rate) * (1 + rate));
+        }
+        dv01[row] = modifiedDuration[row] * pv * BASIS_POINT;
+    }
+
+    public int size() {
+        return presentValue.length;
+    }
+
+    public int getMaturity(int row) {
+        return maturity[row];
+    }
+
+    /**
+     * Returns the present value of a bond, equal to its calculateReturn.
+     * @param row The row of the bond.
+     * @return The present value.
+     */
+    public double getPresentValue(int row) {
+        return presentValue[row];
+    }
+
+    /**
+     * Returns the present-value-weighted average time to the bond's payments.
+     * @param row The row of the bond.
+     * @return The Macaulay duration in years.
+     */
+    public double getMacaulayDuration(int row) {
+        return macaulayDuration[row];
+    }
+
+    /**
+     * Returns the relative fall in the bond's value per unit rise in its rate.
+     * @param row The row of the bond.
+     * @return The modified duration.
+     */
+    public double getModifiedDuration(int row) {
+        return modifiedDuration[row];
+    }
+
+    /**
+     * Returns the second derivative of the bond's value with respect to its rate, relative to its value.
+     * @param row The row of the bond.
+     * @return The convexity.
+     */
+    public double getConvexity(int row) {
+        return convexity[row];
+    }
+
+    /**
+     * Returns the fall in the bond's value when its rate rises by one basis point, to first order.
+     * @param row The row of the bond.
+     * @return The DV01.
+     */
+    public double getDV01(int row) {
+        return dv01[row];
+    }
+
+    /**
+     * Returns the totals by maturity year.
+     * @return The non-empty buckets in increasing order of year.
+     */
+    public List<MaturityBucket> getMaturityBuckets() {
+        return Collections.unmodifiableList(buckets);
+    }
+
+    public double getTotalPresentValue() {
+        double total = 0;
+        for (MaturityBucket bucket : buckets) {
+            total += bucket.getPresentValue();
+        }
+        return total;
+    }
+
+    public double getTotalDV01() {
+        double total = 0;
+        for (MaturityBucket bucket : buckets) {
+            total += bucket.getDV01();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the present-value-weighted modified duration of all bonds.
+     * @return The portfolio's modified duration.
+     */
+    public double getModifiedDuration() {
+        double totalPV = getTotalPresentValue();
+        if (totalPV == 0) {
+            return 0;
+        }
+        double weighted = 0;
+        for (MaturityBucket bucket : buckets) {
+            weighted += bucket.weightedModified;
+        }
+        return weighted / totalPV;
+    }
+}
@@ -0,0 +1,76 @@
+package final_project;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage and valuation kernel for bonds.
+ * Cached values and the running total are valued from {@link DiscountCurve#DEFAULT_VALUATION_YEAR}, like
+ * {@link Bond#calculateReturn()}; balance sheets valued from another year revalue the rows from that year.
+ */
+public final class BondColumns extends AssetColumns<Bond> {
+    private int[] maturity = new int[amount.length];
+    private double[] coupon = new double[amount.length];
+
+    public int getMaturity(int row) {
+        return maturity[checkRow(row)];
+    }
+
+    public double getCoupon(int row) {
+        return coupon[checkRow(row)];
+    }
+
+    /**
+     * Returns the present value of a single row valued from a given year.
+     * @param row The row to value.
+     * @param valuationYear The year from which the payments are discounted.
+     * @return The present value of the bond in that row.
+     * @throws IllegalArgumentException If the row's inputs cannot be valued.
+     */
+    public double presentValue(int row, int valuationYear) {
+        if (valuationYear == DiscountCurve.DEFAULT_VALUATION_YEAR) {
+            return presentValue(row);
+        }
+        checkRow(row);
+        return Bond.presentValue(amount[row], interestRate[row], maturity[row], coupon[row], valuationYear);
+    }
+
+    /**
+     * Returns the total present value of every row valued from a given year; only the default year has a running total.
+     * @param valuationYear The year from which the payments are discounted.
+     * @return The sum of the present values of all rows.
+     * @throws IllegalArgumentException If any row's inputs cannot be valued.
+     */
+    public double totalPresentValue(int valuationYear) {
+        if (valuationYear == DiscountCurve.DEFAULT_VALUATION_YEAR) {
+            return totalPresentValue();
+        }
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            sum += Bond.presentValue(amount[row], interestRate[row], maturity[row], coupon[row], valuationYear);
+        }
+        return sum;
+    }
+
+    @Override
+    protected double valueRow(int row) {
+        return Bond.presentValue(amount[row], interestRate[row], maturity[row], coupon[row], DiscountCurve.DEFAULT_VALUATION_YEAR);
+    }
+
+    @Override
+    protected void setColumns(int row, Bond bond) {
+        maturity[row] = bond.getMaturity();
+        coupon[row] = bond.getCoupon();
+    }
+
+    @Override
+    protected void moveColumns(int from, int to) {
+        maturity[to] = maturity[from];
+        coupon[to] = coupon[from];
+    }
+
+    @Override
+    protected void growColumns(int capacity) {
+        maturity = Arrays.copyOf(maturity, capacity);
+        coupon = Arrays.copyOf(coupon, capacity);
+    }
+}
@@ -0,0 +1,201 @@
+package final_project;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The headless entry point for valuing and advising many households in one run, for example overnight.
+ * Every household directory holds the same Person, Goal, Debt, Stock, RealEstate and Bond CSV files the App uses.
+ * Households are valued in parallel by a {@link BatchValuationEngine} and their results are streamed into one
+ * consolidated CSV file, in completion order. At the end the throughput and the per-household latency are reported.
+ * <pre>
+ * CLI [--parallelism N] [--rate R] [--output FILE] [--root DIR]... [DIR]...
+ * </pre>
+ * Each DIR is one household; each --root DIR adds every subdirectory of DIR as a household.
+ * Results go to standard output unless --output is given, in which case the report goes there instead of to
+ * standard error. The exit code is 0 if every household was valued, 1 if some failed and 2 for invalid arguments.
+ */
+public final class CLI {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILURES = 1;
+    static final int EXIT_USAGE = 2;
+
+    static final String USAGE =
+            "Usage: CLI [--parallelism N] [--rate R] [--output FILE] [--root DIR]... [DIR]...";
+
+    private CLI() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs a batch as described by command-line arguments.
+     * @param args The arguments.
+     * @param out Receives the results if no output file is given, and otherwise the report.
+     * @param err Receives errors, and the report if the results go to standard output.
+     * @return The exit code.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        double rate = 0.05;
+        File outputFile = null;
+        List<File> directories = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--parallelism":
+                        parallelism = Integer.parseInt(valueOf(args, ++i));
+                        break;
+                    case "--rate":
+                        rate = Double.parseDouble(valueOf(args, ++i));
+                        DiscountCurve.flat(rate); // Validates the rate before any household is loaded
+                        break;
+                    case "--output":
+                        outputFile = new File(valueOf(args, ++i));
+                        break;
+                    case "--root":
+                        directories.addAll(householdsIn(new File(valueOf(args, ++i))));
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        directories.add(new File(args[i]));
+                }
+            }
+            if (directories.isEmpty()) {
+                throw new IllegalArgumentException("No household directories given.");
+            }
+            BatchValuationEngine engine = new BatchValuationEngine(parallelism, rate);
+            if (outputFile == null) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                return report(run(engine, directories, writer), err);
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+                return report(run(engine, directories, writer), out);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        } catch (IOException e) {
+            err.println("Batch failed: " + e.getMessage());
+            return EXIT_FAILURES;
+        }
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value.");
+        }
+        return args[index];
+    }
+
+    private static List<File> householdsIn(File root) {
+        File[] directories = root.listFiles(File::isDirectory);
+        if (directories == null) {
+            throw new IllegalArgumentException("Cannot list household directories in " + root.getPath());
+        }
+        Arrays.sort(directories);
+        return Arrays.asList(directories);
+    }
+
+    /**
+     * Values the households through the engine, collecting the latency of each one as its row is written.
+     */
+    private static Statistics run(BatchValuationEngine engine, List<File> directories, Writer output) throws IOException {
+        long[] latencies = new long[directories.size()];
+        int[] count = new int[1];
+        BatchValuationEngine.Summary summary = engine.run(directories, output,
+                result -> latencies[count[0]++] = result.getElapsedNanos());
+        return new Statistics(summary, Arrays.copyOf(latencies, count[0]));
+    }
+
+    private static int report(Statistics statistics, PrintStream out) {
+        out.println(statistics);
+        return statistics.getSummary().getFailures() == 0 ? EXIT_OK : EXIT_FAILURES;
+    }
+
+    /**
+     * The throughput of a batch and the distribution of the time each household took to load and value.
+     */
+    static final class Statistics {
+        private final BatchValuationEngine.Summary summary;
+        private final long[] sortedLatencies;
+
+        /**
+         * Constructs Statistics.
+         * @param summary The totals for the batch.
+         * @param latencies The nanoseconds each household took, in any order; the array is sorted in place.
+         */
+        Statistics(BatchValuationEngine.Summary summary, long[] latencies) {
+            this.summary = summary;
+            this.sortedLatencies = latencies;
+            Arrays.sort(sortedLatencies);
+        }
+
+        BatchValuationEngine.Summary getSummary() {
+            return summary;
+        }
+
+        /**
+         * Returns the number of households valued per second of wall-clock time.
+         * @return The throughput.
+         */
+        double getThroughput() {
+            return summary.getElapsedNanos() == 0 ? 0 : summary.getHouseholds() * 1e9 / summary.getElapsedNanos();
+        }
+
+        /**
+         * Returns a latency percentile by the nearest-rank method.
+         * @param percent The percentile, from 0 to 100.
+         * @return The latency in nanoseconds, or 0 if no household was valued.
+         * @throws IllegalArgumentException If the percentile is out of range.
+         */
+        long getLatencyPercentile(double percent) {
+            if (percent < 0 || percent > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+            }
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percent / 100 * sortedLatencies.length);
+            return sortedLatencies[Math.max(rank, 1) - 1];
+        }
+
+        /**
+         * Returns the mean latency.
+         * @return The mean latency in nanoseconds, or 0 if no household was valued.
+         */
+        double getMeanLatency() {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            double total = 0;
+            for (long latency : sortedLatencies) {
+                total += latency;
+            }
+            return total / sortedLatencies.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.1f households/s)%nLatency per household: mean %.2f ms, p50 %.2f ms, "
+                                 + "p95 %.2f ms, p99 %.2f ms, max %.2f ms",
+                                 summary, getThroughput(), getMeanLatency() / 1e6, getLatencyPercentile(50) / 1e6,
+                                 getLatencyPercentile(95) / 1e6, getLatencyPercentile(99) / 1e6,
+                                 getLatencyPercentile(100) / 1e6);
+        }
+    }
+}
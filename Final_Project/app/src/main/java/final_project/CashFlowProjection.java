@@ -0,0 +1,264 @@
+package final_project;
+
+import java.util.Arrays;
+
+/**
+ * A year-by-year timeline of a household's cash flows, one dense array per kind of flow.
+ * Year index t stands for the calendar year valuation year + t; as in the annuity factors, a level payment for n years
+ * is paid at the end of years 1 to n, and a payment due in the valuation year or earlier falls in year 0.
+ * Income and expenditure are paid every year: income while a member works, that is until 20 years before the end of the
+ * member's life span, and expenditure until the end of it. Debts, bonds and goals pay the same flows their valuations
+ * discount, so discounting them at the rates the valuations use reproduces the balance sheet's figures.
+ * <p>
+ * Level payments are recorded in difference arrays, so each position costs a constant number of writes however long it
+ * pays; only growing dividends are written year by year. One prefix-sum pass then materializes the flows and their
+ * running totals, after which any total over a range of years is a subtraction.
+ */
+public final class CashFlowProjection {
+    /**
+     * The kinds of cash flow in a projection; inflows are positive and outflows are positive amounts too.
+     */
+    public enum Flow {
+        INCOME(true),
+        EXPENDITURE(false),
+        DEBT_SERVICE(false),
+        BOND_COUPONS(true),
+        BOND_REDEMPTIONS(true),
+        DIVIDENDS(true),
+        NET_OPERATING_INCOME(true),
+        GOAL_OUTLAYS(false);
+
+        private final boolean inflow;
+
+        Flow(boolean inflow) {
+            this.inflow = inflow;
+        }
+
+        public boolean isInflow() {
+            return inflow;
+        }
+    }
+
+    private static final Flow[] FLOWS = Flow.values();
+
+    private final int startYear;
+    private final int horizonYears;
+    private final double[][] flows;
+    // cumulative[f][t] is the sum of flows[f][0..t-1], so a range total is one subtraction
+    private final double[][] cumulative;
+
+    private CashFlowProjection(int startYear, int horizonYears) {
+        this.startYear = startYear;
+        this.horizonYears = horizonYears;
+        this.flows = new double[FLOWS.length][horizonYears + 2]; // One spare slot for the end of a difference range
+        this.cumulative = new double[FLOWS.length][horizonYears + 2];
+    }
+
+    /**
+     * Projects a household's cash flows from the balance sheet's valuation year.
+     * @param balanceSheet The balance sheet providing the family, assets, debts and valuation year.
+     * @param goalManager The household's goals, or null to leave goal outlays empty.
+     * @param horizonYears The number of years after the valuation year to project, at least 0.
+     * @return The projection.
+     */
+    public static CashFlowProjection project(BalanceSheet balanceSheet, GoalManager goalManager, int horizonYears) {
+        if (horizonYears < 0) {
+            throw new IllegalArgumentException("Horizon cannot be negative.");
+        }
+        int startYear = balanceSheet.getValuationYear();
+        CashFlowProjection projection = new CashFlowProjection(startYear, horizonYears);
+        // Growing dividends cannot be expressed as differences, so they are accumulated directly
+        double[] dividends = new double[horizonYears + 1];
+
+        for (Person member : balanceSheet.getFamily().getFamilyMembers()) {
+            int yearsToLive = member.getBirthYear() + member.getLifeSpan() - startYear;
+            projection.addLevel(Flow.INCOME, member.getMonthlyIncome() * 12, yearsToLive - 20);
+            projection.addLevel(Flow.EXPENDITURE, member.getMonthlyExpenditure() * 12, yearsToLive);
+        }
+
+        AssetAndDebtManager assetManager = balanceSheet.getAssetManager();
+        synchronized (assetManager) {
+            BondColumns bonds = assetManager.getBondColumns();
+            for (int row = 0; row < bonds.size(); row++) {
+                int years = Math.max(0, bonds.getMaturity(row) - startYear);
+                double coupon = bonds.getCoupon(row);
+                projection.addLevel(Flow.BOND_COUPONS, coupon, years);
+                projection.addAt(Flow.BOND_COUPONS, coupon, years); // The valuation pays the final coupon once more at maturity
+                projection.addAt(Flow.BOND_REDEMPTIONS, bonds.getAmount(row), years);
+            }
+            StockColumns stocks = assetManager.getStockColumns();
+            for (int row = 0; row < stocks.size(); row++) {
+                double dividend = stocks.getDividend(row);
+                double growth = 1 + stocks.getDividendGrowthRate(row);
+                for (int t = 1; t <= horizonYears; t++) {
+                    dividends[t] += dividend;
+                    dividend *= growth;
+                }
+            }
+            RealEstateColumns realEstates = assetManager.getRealEstateColumns();
+            for (int row = 0; row < realEstates.size(); row++) {
+                projection.addLevel(Flow.NET_OPERATING_INCOME, realEstates.getNetOperatingIncome(row), horizonYears);
+            }
+            DebtColumns debts = assetManager.getDebtColumns();
+            for (int row = 0; row < debts.size(); row++) {
+                int years = Math.max(0, debts.getTime(row) - startYear);
+                if (!debts.isOneTime(row)) {
+                    projection.addLevel(Flow.DEBT_SERVICE, debts.getAmount(row) * debts.getInterestRate(row), years);
+                }
+                projection.addAt(Flow.DEBT_SERVICE, debts.getAmount(row), years);
+            }
+        }
+
+        if (goalManager != null) {
+            for (Goal goal : goalManager.getGoalList()) {
+                int years = Math.max(0, goal.getTime() - startYear);
+                if (goal.isOneTime()) {
+                    projection.addAt(Flow.GOAL_OUTLAYS, goal.getAmount(), years);
+                } else {
+                    projection.addLevel(Flow.GOAL_OUTLAYS, goal.getAmount(), years);
+                }
+            }
+        }
+
+        projection.materialize(dividends);
+        return projection;
+    }
+
+    /**
+     * Records a payment made at the end of each of years 1 to lastYear, cut off at the horizon.
+     */
+    private void addLevel(Flow flow, double payment, int lastYear) {
+        if (payment == 0 || lastYear < 1) {
+            return;
+        }
+        double[] differences = flows[flow.ordinal()];
+        differences[1] += payment;
+        differences[Math.min(lastYear, horizonYears) + 1] -= payment;
+    }
+
+    /**
+     * Records a single payment, dropped if it falls beyond the horizon.
+     */
+    private void addAt(Flow flow, double payment, int year) {
+        if (payment == 0 || year > horizonYears) {
+            return;
+        }
+        double[] differences = flows[flow.ordinal()];
+        differences[year] += payment;
+        differences[year + 1] -= payment;
+    }
+
+    /**
+     * Turns the difference arrays into flows and builds their running totals.
+     */
+    private void materialize(double[] dividends) {
+        for (Flow flow : FLOWS) {
+            double[] values = flows[flow.ordinal()];
+            double[] running = cumulative[flow.ordinal()];
+            double level = 0;
+            for (int t = 0; t <= horizonYears; t++) {
+                level += values[t];
+                values[t] = level + (flow == Flow.DIVIDENDS ? dividends[t] : 0);
+                running[t + 1] = running[t] + values[t];
+            }
+            values[horizonYears + 1] = 0;
+        }
+    }
+
+    public int getStartYear() {
+        return startYear;
+    }
+
+    public int getHorizonYears() {
+        return horizonYears;
+    }
+
+    /**
+     * Returns one flow in one calendar year.
+     * @param flow The kind of flow.
+     * @param year The calendar year, from the start year to the end of the horizon.
+     * @return The amount, positive for inflows and outflows alike.
+     */
+    public double get(Flow flow, int year) {
+        return flows[flow.ordinal()][offset(year)];
+    }
+
+    /**
+     * Returns the net cash flow of one calendar year, inflows minus outflows.
+     * @param year The calendar year, from the start year to the end of the horizon.
+     * @return The net cash flow.
+     */
+    public double getNetCashFlow(int year) {
+        int t = offset(year);
+        double net = 0;
+        for (Flow flow : FLOWS) {
+            net += flow.isInflow() ? flows[flow.ordinal()][t] : -flows[flow.ordinal()][t];
+        }
+        return net;
+    }
+
+    /**
+     * Returns the total of one flow over a range of calendar years.
+     * @param flow The kind of flow.
+     * @param fromYear The first year of the range.
+     * @param toYear The last year of the range, not before the first.
+     * @return The total, read from the running totals in constant time.
+     */
+    public double total(Flow flow, int fromYear, int toYear) {
+        int from = offset(fromYear);
+        int to = offset(toYear);
+        if (to < from) {
+            throw new IllegalArgumentException("The range must not end before it starts.");
+        }
+        double[] running = cumulative[flow.ordinal()];
+        return running[to + 1] - running[from];
+    }
+
+    /**
+     * Returns the total net cash flow over a range of calendar years.
+     * @param fromYear The first year of the range.
+     * @param toYear The last year of the range, not before the first.
+     * @return Inflows minus outflows over the range.
+     */
+    public double totalNetCashFlow(int fromYear, int toYear) {
+        double net = 0;
+        for (Flow flow : FLOWS) {
+            double total = total(flow, fromYear, toYear);
+            net += flow.isInflow() ? total : -total;
+        }
+        return net;
+    }
+
+    /**
+     * Returns a copy of one flow for every year of the horizon.
+     * @param flow The kind of flow.
+     * @return The flow, indexed by years after the start year.
+     */
+    public double[] toArray(Flow flow) {
+        return Arrays.copyOf(flows[flow.ordinal()], horizonYears + 1);
+    }
+
+    /**
+     * Discounts one flow on a curve.
+     * @param flow The kind of flow.
+     * @param curve The curve to discount on; its valuation year should be the projection's start year.
+     * @return The present value of the flow over the horizon.
+     */
+    public double presentValue(Flow flow, DiscountCurve curve) {
+        double[] values = flows[flow.ordinal()];
+        int shift = startYear - curve.getValuationYear();
+        double total = 0;
+        for (int t = 0; t <= horizonYears; t++) {
+            total += values[t] * curve.discountFactor(t + shift);
+        }
+        return total;
+    }
+
+    private int offset(int year) {
+        int t = year - startYear;
+        if (t < 0 || t > horizonYears) {
+            throw new IllegalArgumentException("Year " + year + " is outside the projected horizon.");
+        }
+        return t;
+    }
+}
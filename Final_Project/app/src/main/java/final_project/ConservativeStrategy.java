@@ -1,5 +1,6 @@
 package final_project;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class ConservativeStrategy implements Strategy {
@@ -13,17 +14,27 @@ public class ConservativeStrategy implements Strategy {
         this.totalExpenditurePV = totalExpenditurePV;
     }
 
-    public void execute() {
-        System.out.println("Analyzing insurance coverage for each family member:");
+    public double getTotalIncomePV() {
+        return totalIncomePV;
+    }
+
+    public double getTotalExpenditurePV() {
+        return totalExpenditurePV;
+    }
+
+    @Override
+    public Report.Section report() {
+        List<Report.Line> lines = new ArrayList<>();
         for (Person member : familyMembers) {
             if (member.getMonthlyIncome() > 0) {
                 double gap = member.getInsurance() - (totalIncomePV - totalExpenditurePV);
                 if (gap >= 0) {
-                    System.out.println(member.getName() + " is adequately covered by insurance.");
+                    lines.add(Report.Line.message(member.getName(), " is adequately covered by insurance."));
                 } else {
-                    System.out.println(member.getName() + "'s insurance shortfall: " + -gap);
+                    lines.add(Report.Line.value(member.getName(), "'s insurance shortfall", -gap));
                 }
             }
         }
+        return new Report.Section("Analyzing insurance coverage for each family member:", lines);
     }
 }
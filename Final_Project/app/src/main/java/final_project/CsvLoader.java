@@ -0,0 +1,473 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads CSV files with a header line by memory-mapping them and parsing the fields straight from bytes.
+ * Large files are split into newline-aligned chunks that are parsed in parallel on the common fork-join pool;
+ * the parsed rows are merged back in file order. Rows that cannot be parsed are reported as {@link RowError}s
+ * instead of being dropped silently.
+ */
+public class CsvLoader {
+    /**
+     * Files smaller than this are parsed as a single chunk on the calling thread.
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Upper bound on a single chunk, which also keeps every mapping well below the 2 GB limit of a MappedByteBuffer.
+     */
+    static final int MAX_CHUNK_SIZE = 64 << 20;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CsvLoader() {}
+
+    /**
+     * Converts the fields of a single CSV row into an object.
+     * @param <T> The type of object produced for each row.
+     */
+    public interface RowParser<T> {
+        /**
+         * Parses one row.
+         * @param row The fields of the row.
+         * @return The parsed object.
+         * @throws IllegalArgumentException if the row is malformed.
+         */
+        T parse(Row row);
+    }
+
+    /**
+     * Gives a RowParser access to the comma-separated fields of the current line without copying them into Strings.
+     * A field may be quoted as {@link CsvWriter#quote(String)} writes it, with doubled quotes inside; quoted fields
+     * cannot span lines. A Row is only valid during the call to {@link RowParser#parse(Row)}.
+     */
+    public static final class Row {
+        private final ByteBuffer buffer;
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+        private boolean[] escapedQuotes = new boolean[8];
+        private int fieldCount;
+        private byte[] scratch = new byte[64];
+
+        private Row(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Splits the line occupying [start, end) of the buffer into fields.
+         * @throws IllegalArgumentException if a quoted field is not closed or is followed by more text.
+         */
+        private void reset(int start, int end) {
+            fieldCount = 0;
+            int i = start;
+            while (true) {
+                if (i < end && buffer.get(i) == '"') {
+                    int contentStart = i + 1;
+                    boolean escaped = false;
+                    i = contentStart;
+                    while (true) {
+                        if (i >= end) {
+                            throw new IllegalArgumentException("Unterminated quoted field.");
+                        }
+                        if (buffer.get(i) == '"') {
+                            if (i + 1 < end && buffer.get(i + 1) == '"') {
+                                escaped = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        i++;
+                    }
+                    addField(contentStart, i, escaped);
+                    i++; // The closing quote
+                    if (i < end && buffer.get(i) != ',') {
+                        throw new IllegalArgumentException("Unexpected text after a quoted field.");
+                    }
+                } else {
+                    int fieldStart = i;
+                    while (i < end && buffer.get(i) != ',') {
+                        i++;
+                    }
+                    addField(fieldStart, i, false);
+                }
+                if (i >= end) {
+                    return;
+                }
+                i++; // The separating comma
+            }
+        }
+
+        private void addField(int start, int end, boolean escaped) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+                escapedQuotes = Arrays.copyOf(escapedQuotes, fieldCount * 2);
+            }
+            starts[fieldCount] = start;
+            ends[fieldCount] = end;
+            escapedQuotes[fieldCount] = escaped;
+            fieldCount++;
+        }
+
+        /**
+         * Returns the number of fields on the line.
+         * @return The number of comma-separated fields.
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Parses a field as a double, with the same results as {@link Double#parseDouble(String)}.
+         * @param index The zero-based field index.
+         * @return The parsed value.
+         * @throws NumberFormatException if the field is not a number.
+         */
+        public double getDouble(int index) {
+            checkIndex(index);
+            int start = starts[index];
+            int end = ends[index];
+            int i = start;
+            boolean negative = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    if (mantissa >= (1L << 53) / 10) {
+                        return Double.parseDouble(getString(index));
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (fractionDigits >= 0 && ++fractionDigits == POWERS_OF_TEN.length) {
+                        return Double.parseDouble(getString(index));
+                    }
+                } else if (b == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    // Exponents, whitespace, NaN, Infinity and malformed input take the slow path
+                    return Double.parseDouble(getString(index));
+                }
+            }
+            if (digits == 0) {
+                return Double.parseDouble(getString(index));
+            }
+            // Both operands are exact doubles, so a single division yields the correctly rounded result
+            double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses a field as an int, with the same results as {@link Integer#parseInt(String)}.
+         * @param index The zero-based field index.
+         * @return The parsed value.
+         * @throws NumberFormatException if the field is not an integer.
+         */
+        public int getInt(int index) {
+            checkIndex(index);
+            int start = starts[index];
+            int end = ends[index];
+            int i = start;
+            boolean negative = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("For input string: \"" + getString(index) + "\"");
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9' || value > Integer.MAX_VALUE + 1L) {
+                    throw new NumberFormatException("For input string: \"" + getString(index) + "\"");
+                }
+                value = value * 10 + (b - '0');
+            }
+            value = negative ? -value : value;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("For input string: \"" + getString(index) + "\"");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses a field as a boolean, with the same results as {@link Boolean#parseBoolean(String)}.
+         * @param index The zero-based field index.
+         * @return true if the field equals "true", ignoring case.
+         */
+        public boolean getBoolean(int index) {
+            checkIndex(index);
+            int start = starts[index];
+            if (ends[index] - start != 4) {
+                return false;
+            }
+            return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'r'
+                    && (buffer.get(start + 2) | 0x20) == 'u' && (buffer.get(start + 3) | 0x20) == 'e';
+        }
+
+        /**
+         * Decodes a field as a UTF-8 string.
+         * @param index The zero-based field index.
+         * @return The field's text, without enclosing quotes and with doubled quotes undoubled.
+         */
+        public String getString(int index) {
+            checkIndex(index);
+            int length = ends[index] - starts[index];
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(starts[index], scratch, 0, length);
+            String field = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            return escapedQuotes[index] ? field.replace("\"\"", "\"") : field;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= fieldCount) {
+                throw new IllegalArgumentException("Missing field " + (index + 1) + ", the row has " + fieldCount + " fields.");
+            }
+        }
+    }
+
+    /**
+     * Describes a row that could not be parsed.
+     */
+    public static final class RowError {
+        private final String source;
+        private final long lineNumber;
+        private final String message;
+
+        RowError(String source, long lineNumber, String message) {
+            this.source = source;
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        /**
+         * Returns the name of the file containing the row.
+         * @return The file name.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Returns the one-based line number of the row, counting the header as line 1.
+         * @return The line number.
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns the reason the row was rejected.
+         * @return The error message.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return source + " line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * The rows parsed from a file, in file order, together with the rows that were rejected.
+     * @param <T> The type of object produced for each row.
+     */
+    public static final class Result<T> {
+        private final List<T> rows;
+        private final List<RowError> errors;
+
+        Result(List<T> rows, List<RowError> errors) {
+            this.rows = rows;
+            this.errors = errors;
+        }
+
+        public List<T> getRows() {
+            return rows;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Loads every data row of a CSV file, skipping the header line and blank lines.
+     * @param file The CSV file.
+     * @param parser Converts each row into an object.
+     * @param <T> The type of object produced for each row.
+     * @return The parsed rows in file order and the rows that were rejected.
+     * @throws IOException If the file cannot be read.
+     */
+    public static <T> Result<T> load(File file, RowParser<T> parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0, size);
+            if (dataStart >= size) {
+                return new Result<>(new ArrayList<>(), new ArrayList<>());
+            }
+            List<ChunkTask<T>> tasks = new ArrayList<>();
+            long chunkSize = chunkSize(size - dataStart);
+            long start = dataStart;
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : nextLineStart(channel, start + chunkSize, size);
+                tasks.add(new ChunkTask<>(channel, file.getName(), start, end, parser));
+                start = end;
+            }
+            try {
+                if (tasks.size() == 1) {
+                    tasks.get(0).invoke();
+                } else {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return merge(tasks);
+        }
+    }
+
+    /**
+     * Parses a single line, such as a journal record payload, with the same parser used for whole files.
+     * @param line The line without its line terminator.
+     * @param parser Converts the row into an object.
+     * @param <T> The type of object produced.
+     * @return The parsed object.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    public static <T> T parseLine(String line, RowParser<T> parser) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        Row row = new Row(ByteBuffer.wrap(bytes));
+        row.reset(0, bytes.length);
+        return parser.parse(row);
+    }
+
+    /**
+     * Concatenates chunk results in file order, converting chunk-relative line numbers into file line numbers.
+     */
+    private static <T> Result<T> merge(List<ChunkTask<T>> tasks) {
+        int rowCount = 0;
+        for (ChunkTask<T> task : tasks) {
+            rowCount += task.rows.size();
+        }
+        List<T> rows = new ArrayList<>(rowCount);
+        List<RowError> errors = new ArrayList<>();
+        long linesBefore = 1; // The header line
+        for (ChunkTask<T> task : tasks) {
+            rows.addAll(task.rows);
+            for (RowError error : task.errors) {
+                errors.add(new RowError(error.source, linesBefore + error.lineNumber, error.message));
+            }
+            linesBefore += task.lineCount;
+        }
+        return new Result<>(rows, errors);
+    }
+
+    private static long chunkSize(long dataSize) {
+        long target = dataSize / (4L * ForkJoinPool.getCommonPoolParallelism());
+        return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, target));
+    }
+
+    /**
+     * Returns the position just after the first newline at or after {@code position}, or {@code size} if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the lines in one newline-aligned region of the file.
+     */
+    private static final class ChunkTask<T> extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final String source;
+        private final long start;
+        private final long end;
+        private final RowParser<T> parser;
+        private final List<T> rows = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long lineCount;
+
+        ChunkTask(FileChannel channel, String source, long start, long end, RowParser<T> parser) {
+            this.channel = channel;
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.parser = parser;
+        }
+
+        @Override
+        protected Void compute() {
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Row row = new Row(buffer);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                lineCount++;
+                int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    try {
+                        row.reset(lineStart, contentEnd);
+                        rows.add(parser.parse(row));
+                    } catch (IllegalArgumentException e) {
+                        errors.add(new RowError(source, lineCount, e.getMessage()));
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package final_project;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes CSV files atomically: rows are written to a temporary file next to the target, which is then renamed over it.
+ * A crash or failed write therefore leaves either the old file or the new one, never a truncated mix of both.
+ */
+public final class CsvWriter {
+
+    private CsvWriter() {}
+
+    /**
+     * Writes a header and one line per item to a CSV file, replacing the file atomically.
+     * @param file The CSV file to replace.
+     * @param header The header line, without a trailing line break.
+     * @param items The items to write, in order.
+     * @param formatter Converts an item to its CSV row, without a trailing line break.
+     * @param <T> The type of item.
+     * @throws IOException If there is an error writing or renaming the file.
+     */
+    public static <T> void write(File file, String header, List<T> items, Function<T, String> formatter) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp, false))) {
+            writer.write(header);
+            writer.write('\n');
+            for (T item : items) {
+                writer.write(formatter.apply(item));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Quotes a field for a CSV file read by other programs, as RFC 4180 describes: a field containing a comma,
+     * a quote or a line break is enclosed in quotes, with every quote inside it doubled.
+     * @param field The field.
+     * @return The field, quoted only if it needs to be.
+     */
+    public static String quote(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + field.replace("\"", "\"\"") + '"';
+            }
+        }
+        return field;
+    }
+}
@@ -0,0 +1,183 @@
+package final_project;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays storage and valuation kernel for debts, kept in the same row order as the owning manager's list.
+ * Debts are discounted on the balance sheet's curve, so each row's present value and the running total of each
+ * {@link DebtCategory} are cached for the last curve asked for. Adding, replacing or removing a row adjusts the totals
+ * in constant time; asking for a different curve revalues every row once.
+ * Only the owning {@link AssetAndDebtManager} mutates the columns.
+ */
+public final class DebtColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final DebtCategory[] CATEGORIES = DebtCategory.values();
+    private static final int RESUM_INTERVAL = 1024;
+
+    private double[] amount = new double[INITIAL_CAPACITY];
+    private double[] interestRate = new double[INITIAL_CAPACITY];
+    private boolean[] oneTime = new boolean[INITIAL_CAPACITY];
+    private int[] time = new int[INITIAL_CAPACITY];
+    private byte[] category = new byte[INITIAL_CAPACITY];
+    private int size;
+    private double[] cachedValue = new double[INITIAL_CAPACITY];
+    private final double[] categoryTotal = new double[CATEGORIES.length];
+    private DiscountCurve valuedCurve;
+    private int updatesSinceResum;
+
+    public int size() {
+        return size;
+    }
+
+    public double getAmount(int row) {
+        return amount[checkRow(row)];
+    }
+
+    public double getInterestRate(int row) {
+        return interestRate[checkRow(row)];
+    }
+
+    public boolean isOneTime(int row) {
+        return oneTime[checkRow(row)];
+    }
+
+    public int getTime(int row) {
+        return time[checkRow(row)];
+    }
+
+    public DebtCategory getCategory(int row) {
+        return CATEGORIES[category[checkRow(row)]];
+    }
+
+    /**
+     * Values a single row with the same kernel as {@link BalanceSheet#calculateDebtPV(Debt)}.
+     * @param row The row to value.
+     * @param curve The curve used to discount the debt's payments.
+     * @return The present value of the debt in that row.
+     */
+    public double presentValue(int row, DiscountCurve curve) {
+        checkRow(row);
+        return BalanceSheet.debtPresentValue(amount[row], interestRate[row], oneTime[row], time[row], curve);
+    }
+
+    /**
+     * Returns the running total of every row, revaluing the rows first only if the curve has changed.
+     * @param curve The curve used to discount the debts' payments.
+     * @return The sum of the present values of all rows.
+     */
+    public synchronized double totalPresentValue(DiscountCurve curve) {
+        revalueIfNeeded(curve);
+        double total = 0;
+        for (double categoryValue : categoryTotal) {
+            total += categoryValue;
+        }
+        return total;
+    }
+
+    /**
+     * Values the rows of one category.
+     * @param curve The curve used to discount the debts' payments.
+     * @param debtCategory The category to total.
+     * @return The sum of the present values of the rows in that category.
+     */
+    public synchronized double totalPresentValue(DiscountCurve curve, DebtCategory debtCategory) {
+        revalueIfNeeded(curve);
+        return categoryTotal[debtCategory.ordinal()];
+    }
+
+    synchronized void add(Debt debt) {
+        if (size == amount.length) {
+            grow(amount.length * 2);
+        }
+        cachedValue[size] = 0;
+        set(size++, debt);
+    }
+
+    synchronized void set(int row, Debt debt) {
+        categoryTotal[category[row]] -= cachedValue[row];
+        amount[row] = debt.getAmount();
+        interestRate[row] = debt.getInterestRate();
+        oneTime[row] = debt.isOneTime();
+        time[row] = debt.getTime();
+        category[row] = (byte) debt.getCategory().ordinal();
+        cachedValue[row] = valuedCurve == null ? 0 : presentValue(row, valuedCurve);
+        categoryTotal[category[row]] += cachedValue[row];
+        resumPeriodically();
+    }
+
+    /**
+     * Removes a row by moving the last row into its place, mirroring {@link IndexedList#removeKey(String)}.
+     */
+    synchronized void swapRemove(int row) {
+        categoryTotal[category[row]] -= cachedValue[row];
+        int last = --size;
+        if (row != last) {
+            amount[row] = amount[last];
+            interestRate[row] = interestRate[last];
+            oneTime[row] = oneTime[last];
+            time[row] = time[last];
+            category[row] = category[last];
+            cachedValue[row] = cachedValue[last];
+        }
+        resumPeriodically();
+    }
+
+    synchronized void rebuild(List<Debt> debts) {
+        size = 0;
+        valuedCurve = null; // The next read values every row once instead of valuing each row as it is added
+        Arrays.fill(categoryTotal, 0);
+        if (debts.size() > amount.length) {
+            grow(debts.size());
+        }
+        for (Debt debt : debts) {
+            add(debt);
+        }
+    }
+
+    /**
+     * Revalues every row and rebuilds the category totals when the curve differs from the one they were valued on.
+     */
+    private void revalueIfNeeded(DiscountCurve curve) {
+        if (curve == valuedCurve) {
+            return;
+        }
+        valuedCurve = curve;
+        updatesSinceResum = 0;
+        Arrays.fill(categoryTotal, 0);
+        for (int i = 0; i < size; i++) {
+            cachedValue[i] = presentValue(i, curve);
+            categoryTotal[category[i]] += cachedValue[i];
+        }
+    }
+
+    /**
+     * Re-sums the category totals from the cached values every {@link #RESUM_INTERVAL} updates so rounding errors cannot accumulate.
+     */
+    private void resumPeriodically() {
+        if (++updatesSinceResum < RESUM_INTERVAL) {
+            return;
+        }
+        updatesSinceResum = 0;
+        Arrays.fill(categoryTotal, 0);
+        for (int i = 0; i < size; i++) {
+            categoryTotal[category[i]] += cachedValue[i];
+        }
+    }
+
+    private void grow(int capacity) {
+        amount = Arrays.copyOf(amount, capacity);
+        interestRate = Arrays.copyOf(interestRate, capacity);
+        oneTime = Arrays.copyOf(oneTime, capacity);
+        time = Arrays.copyOf(time, capacity);
+        category = Arrays.copyOf(category, capacity);
+        cachedValue = Arrays.copyOf(cachedValue, capacity);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+}
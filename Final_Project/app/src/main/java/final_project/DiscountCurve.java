@@ -0,0 +1,351 @@
+package final_project;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A term structure of annually compounded zero rates seen from a valuation year, with precomputed discount factors.
+ * The discount factor and annuity factor of every whole year up to {@link #MAX_TABULATED_YEARS} are tabulated the first
+ * time they are needed and then only looked up, so valuing thousands of payments against the same curve never
+ * discounts again. Each factor comes from {@link Annuity#discount}, the kernel instruments discounted at their own rate
+ * use directly. Longer tenors lie on the flat tail of the curve and are computed in closed form from the last tabulated
+ * year, so a payment centuries away costs a few operations instead of a table that long.
+ * Flat curves are cached by valuation year and rate, so every balance sheet at the same rate shares one table.
+ */
+public final class DiscountCurve {
+    /**
+     * The valuation year used when none is given.
+     */
+    public static final int DEFAULT_VALUATION_YEAR = 2024;
+
+    /**
+     * Maximum number of flat curves kept in the shared cache before it is cleared.
+     */
+    public static final int MAX_CACHED_CURVES = 1024;
+
+    /**
+     * Longest tenor that is tabulated, and the longest tenor an interpolated curve may be given.
+     */
+    public static final int MAX_TABULATED_YEARS = 500;
+
+    private static final int INITIAL_TABLE_YEARS = 64;
+    private static final Map<FlatKey, DiscountCurve> FLAT_CURVES = new ConcurrentHashMap<>();
+
+    private final int valuationYear;
+    private final int[] tenors;
+    private final double[] zeroRates;
+    // discountFactors[t] is the value of 1 paid in t years; annuityFactors[t] is the sum of discountFactors[1..t];
+    // durationFactors[t] and convexityFactors[t] weight that sum by s and by s * (s + 1) for each year s
+    private volatile double[] discountFactors = new double[0];
+    private volatile double[] annuityFactors = new double[0];
+    private volatile double[] durationFactors = new double[0];
+    private volatile double[] convexityFactors = new double[0];
+
+    private DiscountCurve(int valuationYear, int[] tenors, double[] zeroRates) {
+        this.valuationYear = valuationYear;
+        this.tenors = tenors;
+        this.zeroRates = zeroRates;
+    }
+
+    /**
+     * Returns the shared flat curve for a rate, valued from {@link #DEFAULT_VALUATION_YEAR}.
+     * @param rate The annually compounded rate for every tenor, greater than -1.
+     * @return The flat curve.
+     */
+    public static DiscountCurve flat(double rate) {
+        return flat(rate, DEFAULT_VALUATION_YEAR);
+    }
+
+    /**
+     * Returns the shared flat curve for a rate and valuation year.
+     * @param rate The annually compounded rate for every tenor, greater than -1.
+     * @param valuationYear The year in which payments are worth their face value.
+     * @return The flat curve.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public static DiscountCurve flat(double rate, int valuationYear) {
+        FlatKey key = new FlatKey(valuationYear, rate);
+        DiscountCurve curve = FLAT_CURVES.get(key);
+        if (curve != null) {
+            return curve;
+        }
+        Annuity.checkRate(rate);
+        if (FLAT_CURVES.size() >= MAX_CACHED_CURVES) {
+            FLAT_CURVES.clear(); // Rates swept continuously would otherwise grow the cache without bound
+        }
+        return FLAT_CURVES.computeIfAbsent(key, k -> new DiscountCurve(valuationYear, new int[]{0}, new double[]{rate}));
+    }
+
+    /**
+     * Creates a curve that interpolates linearly between zero rates at the given tenors and extrapolates flat beyond them.
+     * @param valuationYear The year in which payments are worth their face value.
+     * @param tenors The tenors in years, strictly increasing, not negative and at most {@link #MAX_TABULATED_YEARS}.
+     * @param zeroRates The annually compounded zero rate at each tenor, each greater than -1.
+     * @return The interpolated curve.
+     * @throws IllegalArgumentException If the tenors and rates are empty, differ in length, are not increasing or too long,
+     *         or a rate is invalid.
+     */
+    public static DiscountCurve interpolated(int valuationYear, int[] tenors, double[] zeroRates) {
+        if (tenors.length == 0 || tenors.length != zeroRates.length) {
+            throw new IllegalArgumentException("A curve needs one zero rate for each of at least one tenor.");
+        }
+        for (int i = 0; i < tenors.length; i++) {
+            if (tenors[i] < 0 || (i > 0 && tenors[i] <= tenors[i - 1])) {
+                throw new IllegalArgumentException("Tenors must be non-negative and strictly increasing.");
+            }
+            if (tenors[i] > MAX_TABULATED_YEARS) {
+                throw new IllegalArgumentException("Tenors cannot exceed " + MAX_TABULATED_YEARS + " years.");
+            }
+            Annuity.checkRate(zeroRates[i]);
+        }
+        return new DiscountCurve(valuationYear, tenors.clone(), zeroRates.clone());
+    }
+
+    /**
+     * Returns a curve with the same term structure valued from a different year.
+     * @param valuationYear The new valuation year.
+     * @return The curve, shared if it is flat.
+     */
+    public DiscountCurve withValuationYear(int valuationYear) {
+        if (valuationYear == this.valuationYear) {
+            return this;
+        }
+        if (isFlat()) {
+            return flat(zeroRates[0], valuationYear);
+        }
+        return new DiscountCurve(valuationYear, tenors, zeroRates);
+    }
+
+    /**
+     * Returns a curve whose zero rates are all moved by the same amount, as in a parallel rate shock.
+     * @param spread The amount added to every zero rate, for example 0.02 for +200 basis points.
+     * Shifted curves are never shared: scenarios shifting by many spreads at once would otherwise fill and clear the
+     * shared flat curves against each other.
+     * @return The shifted curve.
+     * @throws IllegalArgumentException If a shifted rate is not greater than -1.
+     */
+    public DiscountCurve shifted(double spread) {
+        if (spread == 0) {
+            return this;
+        }
+        double[] shiftedRates = new double[zeroRates.length];
+        for (int i = 0; i < zeroRates.length; i++) {
+            shiftedRates[i] = zeroRates[i] + spread;
+        }
+        return interpolated(valuationYear, tenors, shiftedRates);
+    }
+
+    public int getValuationYear() {
+        return valuationYear;
+    }
+
+    /**
+     * Returns whether the curve has the same rate at every tenor.
+     * @return true if the curve is flat.
+     */
+    public boolean isFlat() {
+        return zeroRates.length == 1;
+    }
+
+    /**
+     * Returns the interpolated zero rate for a tenor.
+     * @param years The tenor in years.
+     * @return The annually compounded zero rate.
+     */
+    public double zeroRate(int years) {
+        if (years <= tenors[0]) {
+            return zeroRates[0];
+        }
+        int last = tenors.length - 1;
+        if (years >= tenors[last]) {
+            return zeroRates[last];
+        }
+        int upper = Arrays.binarySearch(tenors, years);
+        if (upper >= 0) {
+            return zeroRates[upper];
+        }
+        upper = -upper - 1;
+        int lower = upper - 1;
+        double weight = (double) (years - tenors[lower]) / (tenors[upper] - tenors[lower]);
+        return zeroRates[lower] + weight * (zeroRates[upper] - zeroRates[lower]);
+    }
+
+    /**
+     * Returns the present value of 1 paid after the given number of years.
+     * @param years The number of years from the valuation year; negative values compound instead of discount.
+     * @return The discount factor.
+     */
+    public double discountFactor(int years) {
+        if (years < 0) {
+            return 1 / discountFactor(-years);
+        }
+        if (years > MAX_TABULATED_YEARS) {
+            return Annuity.discount(1, zeroRate(years), years);
+        }
+        double[] table = discountFactors;
+        if (years >= table.length) {
+            table = grow(years)[0];
+        }
+        return table[years];
+    }
+
+    /**
+     * Returns the present value of 1 paid in the given calendar year.
+     * @param year The payment year.
+     * @return The discount factor.
+     */
+    public double discountFactorForYear(int year) {
+        return discountFactor(year - valuationYear);
+    }
+
+    /**
+     * Returns the present value of 1 paid at the end of each of the next given number of years.
+     * @param years The number of payments; zero or fewer payments are worth nothing.
+     * @return The annuity factor.
+     */
+    public double annuityFactor(int years) {
+        if (years <= 0) {
+            return 0;
+        }
+        if (years > MAX_TABULATED_YEARS) {
+            // Beyond the last tabulated year v^(n+s) = v^n * v^s at the flat tail rate
+            return annuityFactor(MAX_TABULATED_YEARS)
+                    + discountFactor(MAX_TABULATED_YEARS) * Annuity.factor(tailRate(), years - MAX_TABULATED_YEARS);
+        }
+        double[] table = annuityFactors;
+        if (years >= table.length) {
+            table = grow(years)[1];
+        }
+        return table[years];
+    }
+
+    /**
+     * Returns the sum over the next given number of years of each year number times its discount factor,
+     * the time-weighted annuity used for the duration of a level payment stream.
+     * @param years The number of payments; zero or fewer payments give 0.
+     * @return The sum of t * discountFactor(t) for t from 1 to years.
+     */
+    public double durationFactor(int years) {
+        if (years <= 0) {
+            return 0;
+        }
+        if (years > MAX_TABULATED_YEARS) {
+            // (n + s) * v^(n+s) = v^n * (n * v^s + s * v^s)
+            int n = MAX_TABULATED_YEARS;
+            int tail = years - n;
+            double rate = tailRate();
+            return durationFactor(n) + discountFactor(n)
+                    * (n * Annuity.factor(rate, tail) + Annuity.durationFactor(rate, tail));
+        }
+        double[] table = durationFactors;
+        if (years >= table.length) {
+            table = grow(years)[2];
+        }
+        return table[years];
+    }
+
+    /**
+     * Returns the sum over the next given number of years of t * (t + 1) times the discount factor of year t,
+     * used for the convexity of a level payment stream.
+     * @param years The number of payments; zero or fewer payments give 0.
+     * @return The sum of t * (t + 1) * discountFactor(t) for t from 1 to years.
+     */
+    public double convexityFactor(int years) {
+        if (years <= 0) {
+            return 0;
+        }
+        if (years > MAX_TABULATED_YEARS) {
+            // (n + s) * (n + s + 1) = s * (s + 1) + 2 * n * s + n * (n + 1)
+            int n = MAX_TABULATED_YEARS;
+            int tail = years - n;
+            double rate = tailRate();
+            return convexityFactor(n) + discountFactor(n) * (Annuity.convexityFactor(rate, tail)
+                    + 2.0 * n * Annuity.durationFactor(rate, tail) + (double) n * (n + 1) * Annuity.factor(rate, tail));
+        }
+        double[] table = convexityFactors;
+        if (years >= table.length) {
+            table = grow(years)[3];
+        }
+        return table[years];
+    }
+
+    /**
+     * Discounts a single payment.
+     * @param payment The payment.
+     * @param years The number of years until the payment is made.
+     * @return The present value of the payment.
+     */
+    public double discount(double payment, int years) {
+        return payment * discountFactor(years);
+    }
+
+    /**
+     * Returns the rate of the flat tail beyond the last tenor, which every tenor past {@link #MAX_TABULATED_YEARS} uses.
+     */
+    private double tailRate() {
+        return zeroRates[zeroRates.length - 1];
+    }
+
+    /**
+     * Extends all tables to cover at least the given tenor, at least doubling their length up to
+     * {@link #MAX_TABULATED_YEARS}.
+     * Readers keep using the old arrays until the new ones are published, so lookups never lock.
+     * @return The discount, annuity, duration and convexity factor tables, in that order.
+     */
+    private synchronized double[][] grow(int years) {
+        double[] oldDiscount = discountFactors;
+        if (years < oldDiscount.length) {
+            return new double[][]{oldDiscount, annuityFactors, durationFactors, convexityFactors};
+        }
+        int length = Math.min(MAX_TABULATED_YEARS + 1,
+                Math.max(years + 1, Math.max(INITIAL_TABLE_YEARS, oldDiscount.length * 2)));
+        double[] discount = Arrays.copyOf(oldDiscount, length);
+        double[] annuity = Arrays.copyOf(annuityFactors, length);
+        double[] duration = Arrays.copyOf(durationFactors, length);
+        double[] convexity = Arrays.copyOf(convexityFactors, length);
+        for (int t = oldDiscount.length; t < length; t++) {
+            discount[t] = Annuity.discount(1, zeroRate(t), t);
+            annuity[t] = t == 0 ? 0 : annuity[t - 1] + discount[t];
+            duration[t] = t == 0 ? 0 : duration[t - 1] + t * discount[t];
+            convexity[t] = t == 0 ? 0 : convexity[t - 1] + (double) t * (t + 1) * discount[t];
+        }
+        convexityFactors = convexity;
+        durationFactors = duration;
+        annuityFactors = annuity;
+        discountFactors = discount;
+        return new double[][]{discount, annuity, duration, convexity};
+    }
+
+    @Override
+    public String toString() {
+        if (isFlat()) {
+            return "DiscountCurve[flat " + zeroRates[0] + " from " + valuationYear + "]";
+        }
+        return "DiscountCurve[" + Arrays.toString(tenors) + " -> " + Arrays.toString(zeroRates) + " from " + valuationYear + "]";
+    }
+
+    private static final class FlatKey {
+        private final int valuationYear;
+        private final double rate;
+
+        FlatKey(int valuationYear, double rate) {
+            this.valuationYear = valuationYear;
+            this.rate = rate;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FlatKey)) {
+                return false;
+            }
+            FlatKey key = (FlatKey) other;
+            return valuationYear == key.valuationYear && Double.compare(rate, key.rate) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * valuationYear + Double.hashCode(rate);
+        }
+    }
+}
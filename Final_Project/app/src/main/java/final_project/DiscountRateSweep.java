@@ -0,0 +1,329 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * Values a household over many flat discount rates without revaluing it from scratch for each rate.
+ * Only income, expenditure and debts are discounted at the balance sheet's applied rate; assets and goals are discounted
+ * at their own rates. The constructor therefore reads every person and debt once and files its cash flows into
+ * year buckets, and each rate is then valued with a single pass over the buckets that builds the discount and annuity
+ * factors as running products, so the cost of a rate depends on the planning horizon rather than on the number of positions.
+ * The buckets reach at most {@link #MAX_BUCKET_YEARS} either side of the valuation year; the rare cash flow further away
+ * is kept in a short side list and discounted on its own, so one far-dated debt cannot size the buckets.
+ * The asset and goal totals and the bucketed cash flows are fixed by the constructor, which is what lets each rate be
+ * valued without touching the household again; edits made after that need a new sweep.
+ */
+public class DiscountRateSweep {
+    /**
+     * The break-even solver stops once the bracket is narrower than this.
+     */
+    public static final double RATE_TOLERANCE = 1e-10;
+
+    /**
+     * Number of years either side of the valuation year covered by the buckets.
+     */
+    public static final int MAX_BUCKET_YEARS = DiscountCurve.MAX_TABULATED_YEARS;
+
+    private static final int MAX_ITERATIONS = 200;
+
+    private final int valuationYear;
+    private final double assetsPV;
+    private final double goalsPV;
+    // Index y holds payments made y years after the valuation year; *Annuity buckets hold level payments made every year from 1 to y
+    private final double[] income;
+    private final double[] expenditure;
+    private final double[] debtLump;
+    private final double[] debtAnnuity;
+    // Index y holds debt payments that fell due y years before the valuation year and are compounded instead of discounted
+    private final double[] overdueDebt;
+    // Cash flows beyond the buckets in either direction, discounted one at a time
+    private final List<FarFlow> farFlows = new ArrayList<>();
+
+    /**
+     * A cash flow too far from the valuation year for the buckets; the level debt payments run every year from 1 to years.
+     */
+    private static final class FarFlow {
+        private final int years;
+        private final double income;
+        private final double expenditure;
+        private final double debtLump;
+        private final double debtAnnuity;
+
+        FarFlow(int years, double income, double expenditure, double debtLump, double debtAnnuity) {
+            this.years = years;
+            this.income = income;
+            this.expenditure = expenditure;
+            this.debtLump = debtLump;
+            this.debtAnnuity = debtAnnuity;
+        }
+    }
+
+    /**
+     * The valuation of the household at one discount rate.
+     */
+    public static final class Point {
+        private final double rate;
+        private final double incomePV;
+        private final double expenditurePV;
+        private final double liabilitiesPV;
+        private final double netPresentValue;
+        private final double shortfall;
+
+        Point(double rate, double incomePV, double expenditurePV, double liabilitiesPV, double netPresentValue, double shortfall) {
+            this.rate = rate;
+            this.incomePV = incomePV;
+            this.expenditurePV = expenditurePV;
+            this.liabilitiesPV = liabilitiesPV;
+            this.netPresentValue = netPresentValue;
+            this.shortfall = shortfall;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public double getIncomePV() {
+            return incomePV;
+        }
+
+        public double getExpenditurePV() {
+            return expenditurePV;
+        }
+
+        public double getLiabilitiesPV() {
+            return liabilitiesPV;
+        }
+
+        /**
+         * Returns the net present value as {@link BalanceSheet#calculateNetPresentValue()} defines it, assets minus liabilities.
+         * @return The net present value.
+         */
+        public double getNetPresentValue() {
+            return netPresentValue;
+        }
+
+        /**
+         * Returns the net present value minus the value of the goals, as compared by {@link FinancialAdvisor}.
+         * @return The shortfall; negative when the goals exceed the net present value.
+         */
+        public double getShortfall() {
+            return shortfall;
+        }
+
+        /**
+         * Returns whether the advisor would recommend an {@link AggressiveStrategy} at this rate.
+         * @return true if the shortfall is negative.
+         */
+        public boolean isAggressive() {
+            return shortfall < 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4f: NPV %.2f, shortfall %.2f (%s)", rate, netPresentValue, shortfall,
+                                 isAggressive() ? "AggressiveStrategy" : "ConservativeStrategy");
+        }
+    }
+
+    /**
+     * Takes a snapshot of a household's balance sheet and goals.
+     * @param balanceSheet The balance sheet whose family and debts are swept; its valuation year is kept.
+     * @param advisor The advisor whose goals decide the strategy.
+     */
+    public DiscountRateSweep(BalanceSheet balanceSheet, FinancialAdvisor advisor) {
+        this.valuationYear = balanceSheet.getValuationYear();
+        this.assetsPV = balanceSheet.calculateTotalAssets();
+        this.goalsPV = advisor.calculateTotalGoalsValue();
+
+        List<Person> people = balanceSheet.getFamily().getFamilyMembers();
+        DebtColumns debts = balanceSheet.getAssetManager().getDebtColumns();
+        int horizon = 0;
+        int overdue = 0;
+        for (Person member : people) {
+            horizon = Math.max(horizon, member.getBirthYear() + member.getLifeSpan() - valuationYear);
+        }
+        for (int row = 0; row < debts.size(); row++) {
+            int years = debts.getTime(row) - valuationYear;
+            horizon = Math.max(horizon, years);
+            overdue = Math.max(overdue, -years);
+        }
+        horizon = Math.min(horizon, MAX_BUCKET_YEARS);
+        overdue = Math.min(overdue, MAX_BUCKET_YEARS);
+        income = new double[horizon + 1];
+        expenditure = new double[horizon + 1];
+        debtLump = new double[horizon + 1];
+        debtAnnuity = new double[horizon + 1];
+        overdueDebt = new double[overdue + 1];
+
+        // Same cash flows as BalanceSheet.calculateTotalIncomePV, calculateTotalExpenditurePV and debtPresentValue
+        for (Person member : people) {
+            double annualIncome = member.getMonthlyIncome() * 12;
+            int workingYears = Math.max(0, member.getBirthYear() + member.getLifeSpan() - valuationYear - 20);
+            if (annualIncome > 0 && workingYears > 0) {
+                if (workingYears < income.length) {
+                    income[workingYears] += annualIncome;
+                } else {
+                    farFlows.add(new FarFlow(workingYears, annualIncome, 0, 0, 0));
+                }
+            }
+            double annualExpenditure = member.getMonthlyExpenditure() * 12;
+            int yearsToLive = Math.max(0, member.getBirthYear() + member.getLifeSpan() - valuationYear);
+            if (annualExpenditure > 0) {
+                if (yearsToLive < expenditure.length) {
+                    expenditure[yearsToLive] += annualExpenditure;
+                } else {
+                    farFlows.add(new FarFlow(yearsToLive, 0, annualExpenditure, 0, 0));
+                }
+            }
+        }
+        for (int row = 0; row < debts.size(); row++) {
+            double amount = debts.getAmount(row);
+            int years = debts.getTime(row) - valuationYear;
+            double annualInterest = !debts.isOneTime(row) && years > 0 ? amount * debts.getInterestRate(row) : 0;
+            if (years >= debtLump.length || -years >= overdueDebt.length) {
+                farFlows.add(new FarFlow(years, 0, 0, amount, annualInterest));
+                continue;
+            }
+            if (years < 0) {
+                overdueDebt[-years] += amount;
+            } else {
+                debtLump[years] += amount;
+            }
+            if (years > 0) {
+                debtAnnuity[years] += annualInterest;
+            }
+        }
+    }
+
+    /**
+     * Values the household at one flat discount rate.
+     * @param rate The discount rate, greater than -1.
+     * @return The valuation at that rate.
+     * @throws IllegalArgumentException If the rate is not greater than -1.
+     */
+    public Point valueAt(double rate) {
+        Annuity.checkRate(rate);
+        double factor = 1 / (1 + rate);
+        double discountFactor = 1;
+        double annuityFactor = 0;
+        double incomePV = income[0];
+        double expenditurePV = expenditure[0];
+        double liabilitiesPV = debtLump[0];
+        for (int y = 1; y < income.length; y++) {
+            discountFactor *= factor;
+            annuityFactor += discountFactor;
+            incomePV += income[y] * discountFactor;
+            expenditurePV += expenditure[y] * discountFactor;
+            liabilitiesPV += debtLump[y] * discountFactor + debtAnnuity[y] * annuityFactor;
+        }
+        double growthFactor = 1;
+        for (int y = 1; y < overdueDebt.length; y++) {
+            growthFactor *= 1 + rate;
+            liabilitiesPV += overdueDebt[y] * growthFactor;
+        }
+        for (FarFlow flow : farFlows) {
+            double farDiscount = Annuity.discount(1, rate, flow.years);
+            incomePV += flow.income * farDiscount;
+            expenditurePV += flow.expenditure * farDiscount;
+            liabilitiesPV += flow.debtLump * farDiscount + flow.debtAnnuity * Annuity.factor(rate, flow.years);
+        }
+        double netPresentValue = assetsPV - liabilitiesPV;
+        return new Point(rate, incomePV, expenditurePV, liabilitiesPV, netPresentValue, netPresentValue - goalsPV);
+    }
+
+    /**
+     * Values the household at each of the given rates.
+     * @param rates The discount rates, each greater than -1.
+     * @return One valuation per rate, in the same order.
+     */
+    public List<Point> sweep(double... rates) {
+        List<Point> points = new ArrayList<>(rates.length);
+        for (double rate : rates) {
+            points.add(valueAt(rate));
+        }
+        return points;
+    }
+
+    /**
+     * Values the household at evenly spaced rates from low to high, both included.
+     * @param low The lowest rate, greater than -1.
+     * @param high The highest rate, not less than low.
+     * @param count The number of rates, at least 2.
+     * @return One valuation per rate, in increasing order of rate.
+     */
+    public List<Point> sweep(double low, double high, int count) {
+        if (count < 2 || !(high >= low)) {
+            throw new IllegalArgumentException("A sweep needs at least 2 rates and a high rate not below the low rate.");
+        }
+        double[] rates = new double[count];
+        for (int i = 0; i < count; i++) {
+            rates[i] = low + (high - low) * i / (count - 1);
+        }
+        rates[count - 1] = high;
+        return sweep(rates);
+    }
+
+    /**
+     * Finds the discount rate at which the advisor switches between {@link AggressiveStrategy} and
+     * {@link ConservativeStrategy}, that is where the shortfall crosses zero, using the Illinois variant of
+     * regula falsi, which keeps the root bracketed while converging superlinearly.
+     * @param low One end of the bracket, greater than -1.
+     * @param high The other end of the bracket, greater than low.
+     * @return The break-even rate, or an empty OptionalDouble if the strategy is the same at both ends of the bracket.
+     * @throws IllegalArgumentException If the bracket is invalid.
+     */
+    public OptionalDouble findBreakEvenRate(double low, double high) {
+        if (!(low > -1) || !(high > low)) {
+            throw new IllegalArgumentException("The bracket must satisfy -1 < low < high.");
+        }
+        double fLow = valueAt(low).getShortfall();
+        double fHigh = valueAt(high).getShortfall();
+        if (fLow == 0) {
+            return OptionalDouble.of(low);
+        }
+        if (fHigh == 0) {
+            return OptionalDouble.of(high);
+        }
+        if (Math.signum(fLow) == Math.signum(fHigh)) {
+            return OptionalDouble.empty();
+        }
+        int retainedSide = 0;
+        for (int i = 0; i < MAX_ITERATIONS && high - low > RATE_TOLERANCE; i++) {
+            double rate = (low * fHigh - high * fLow) / (fHigh - fLow);
+            double f = valueAt(rate).getShortfall();
+            if (f == 0) {
+                return OptionalDouble.of(rate);
+            }
+            if (Math.signum(f) == Math.signum(fHigh)) {
+                high = rate;
+                fHigh = f;
+                if (retainedSide == -1) {
+                    fLow /= 2; // The low end was kept twice in a row; halving it stops regula falsi from stalling
+                }
+                retainedSide = -1;
+            } else {
+                low = rate;
+                fLow = f;
+                if (retainedSide == 1) {
+                    fHigh /= 2;
+                }
+                retainedSide = 1;
+            }
+        }
+        return OptionalDouble.of(Math.abs(fLow) < Math.abs(fHigh) ? low : high);
+    }
+
+    public int getValuationYear() {
+        return valuationYear;
+    }
+
+    public double getAssetsPV() {
+        return assetsPV;
+    }
+
+    public double getGoalsPV() {
+        return goalsPV;
+    }
+}
@@ -0,0 +1,35 @@
+package final_project;
+
+/**
+ * Enum representing the kinds of household data that are stored in their own CSV file.
+ */
+public enum EntityType {
+    PERSON("Person"),           // Family members, managed by Family.
+    GOAL("Goal"),               // Financial goals, managed by GoalManager.
+    DEBT("Debt"),               // Debts, managed by AssetAndDebtManager.
+    STOCK("Stock"),             // Stocks, managed by AssetAndDebtManager.
+    REAL_ESTATE("RealEstate"),  // Real estate, managed by AssetAndDebtManager.
+    BOND("Bond");               // Bonds, managed by AssetAndDebtManager.
+
+    private final String baseName;
+
+    EntityType(String baseName) {
+        this.baseName = baseName;
+    }
+
+    /**
+     * Returns the name of the CSV file holding this kind of data.
+     * @return The CSV file name, for example "Bond.csv".
+     */
+    public String getFileName() {
+        return baseName + ".csv";
+    }
+
+    /**
+     * Returns the name of the journal file recording mutations of this kind of data.
+     * @return The journal file name, for example "Bond.journal".
+     */
+    public String getJournalFileName() {
+        return baseName + ".journal";
+    }
+}
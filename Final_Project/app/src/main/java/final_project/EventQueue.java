@@ -0,0 +1,129 @@
+package final_project;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of events packed into longs, used as the scheduler of {@link HouseholdEventSimulator}.
+ * An event's key holds its month in the high 32 bits, its type in the next 8 bits and its subject, such as the row of
+ * a bond or the index of a family member, in the low 24 bits. Ordering the keys as numbers therefore orders events by
+ * month, then by type, then by subject, so equal-month events always fire in the same order, and the heap stores
+ * nothing but one primitive array.
+ */
+final class EventQueue {
+    /**
+     * Largest subject an event can carry.
+     */
+    static final int MAX_SUBJECT = (1 << 24) - 1;
+
+    private long[] heap;
+    private int size;
+
+    /**
+     * Constructs an empty EventQueue.
+     * @param capacity The number of events it can hold before growing.
+     */
+    EventQueue(int capacity) {
+        heap = new long[Math.max(16, capacity)];
+    }
+
+    /**
+     * Packs an event into a key.
+     * @param month The month of the event, counted from the start of the simulation, not negative.
+     * @param type The type of the event, from 0 to 255.
+     * @param subject The subject of the event, from 0 to {@link #MAX_SUBJECT}.
+     * @return The key.
+     */
+    static long key(int month, int type, int subject) {
+        if (month < 0 || type < 0 || type > 255 || subject < 0 || subject > MAX_SUBJECT) {
+            throw new IllegalArgumentException("Event fields are out of range.");
+        }
+        return ((long) month << 32) | ((long) type << 24) | subject;
+    }
+
+    static int month(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int type(long key) {
+        return (int) (key >>> 24) & 0xFF;
+    }
+
+    static int subject(long key) {
+        return (int) key & MAX_SUBJECT;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds an event, sifting it up from the end of the heap.
+     * @param key The packed event.
+     */
+    void push(long key) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int hole = size++;
+        while (hole > 0) {
+            int parent = (hole - 1) >>> 1;
+            long parentKey = heap[parent];
+            if (parentKey <= key) {
+                break;
+            }
+            heap[hole] = parentKey;
+            hole = parent;
+        }
+        heap[hole] = key;
+    }
+
+    /**
+     * Removes and returns the earliest event, sifting the last event down from the root.
+     * @return The packed event.
+     * @throws NoSuchElementException If the queue is empty.
+     */
+    long pop() {
+        if (size == 0) {
+            throw new NoSuchElementException("No events are scheduled.");
+        }
+        long first = heap[0];
+        long last = heap[--size];
+        int hole = 0;
+        int half = size >>> 1;
+        while (hole < half) {
+            int child = 2 * hole + 1;
+            long childKey = heap[child];
+            if (child + 1 < size && heap[child + 1] < childKey) {
+                childKey = heap[++child];
+            }
+            if (last <= childKey) {
+                break;
+            }
+            heap[hole] = childKey;
+            hole = child;
+        }
+        heap[hole] = last;
+        return first;
+    }
+
+    /**
+     * Returns the earliest event without removing it.
+     * @return The packed event.
+     * @throws NoSuchElementException If the queue is empty.
+     */
+    long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("No events are scheduled.");
+        }
+        return heap[0];
+    }
+}
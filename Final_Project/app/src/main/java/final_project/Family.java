@@ -2,26 +2,41 @@ package final_project;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Singleton class that manages a family's list of members and their data storage in CSV format.
  * Utilizes PersonFactory for creating new family members and manages them through a central list.
+ * Additions and deletions are appended to "Person.journal" and only compacted into the CSV file once the journal grows
+ * past {@link AssetAndDebtManager#COMPACTION_THRESHOLD} records and the number of members, or compacted in the
+ * background by a {@link PersistenceScheduler} when one is attached.
+ * Member names are unique and indexed, so finding, updating or deleting a member takes constant time.
+ * Members are renamed through {@link #renameFamilyMember(String, String)}, or by passing a member renamed with
+ * {@link Person#setName(String)} to {@link #updateFamilyMember(Person)}, so the index follows the new name.
  */
 public class Family {
-    private static Family instance;
-    private List<Person> familyMembers;
-    private final String csvFileName = "Person.csv";  // Default CSV file name
+    private static final AtomicReference<Family> instance = new AtomicReference<>();
+    private final IndexedList<Person> familyMembers = new IndexedList<>(Person::getName);
+    private final File csvFile;
+    private final Journal journal;
     private PersonFactory factory;
+    private volatile PersistenceScheduler scheduler;
 
     /**
-     * Private constructor to prevent instantiation from outside the class.
+     * Constructs a Family whose files live in the given directory.
+     * Each household in a {@link HouseholdRegistry} has its own family; the application's own household uses {@link #getInstance(PersonFactory)}.
      * @param factory The PersonFactory to use for creating new Person instances.
+     * @param dataDirectory The directory holding "Person.csv" and its journal, or null for the working directory.
      */
-    private Family(PersonFactory factory) {
-        this.familyMembers = new ArrayList<>(factory.getPersonList());
+    public Family(PersonFactory factory, File dataDirectory) {
+        factory.getPersonList().forEach(familyMembers::put);
         this.factory = factory;
+        this.csvFile = new File(dataDirectory, EntityType.PERSON.getFileName());
+        this.journal = new Journal(new File(dataDirectory, EntityType.PERSON.getJournalFileName()));
     }
 
     /**
@@ -31,11 +46,14 @@ public class Family {
      * @param factory The PersonFactory to use if the instance needs to be initialized.
      * @return The single instance of the Family class.
      */
-    public static synchronized Family getInstance(PersonFactory factory) {
-        if (instance == null) {
-            instance = new Family(factory);
+    public static Family getInstance(PersonFactory factory) {
+        Family family = instance.get();
+        if (family == null) {
+            // Racing callers may each build a Family, but only the first one published is ever returned
+            instance.compareAndSet(null, new Family(factory, null));
+            family = instance.get();
         }
-        return instance;
+        return family;
     }
 
     /**
@@ -43,89 +61,192 @@ public class Family {
      * Throws IllegalStateException if called before the instance is initialized.
      * @return The single instance of the Family class.
      */
-    public static synchronized Family getInstance() {
-        if (instance == null) {
+    public static Family getInstance() {
+        Family family = instance.get();
+        if (family == null) {
             throw new IllegalStateException("Family class is not initialized. Please call getInstance(PersonFactory) first.");
         }
-        return instance;
+        return family;
     }
 
     /**
-     * Loads people from a CSV file into the family member list.
-     * @throws IOException If there is an error reading the file.
+     * Loads people from a CSV file into the family member list and replays the person journal on top of it.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
      */
-    public void loadPeopleFromCSV() throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(csvFileName));
-        String line = reader.readLine();  // Skip header line
-        familyMembers.clear();
-        while ((line = reader.readLine()) != null) {
-            String[] data = line.split(",");
-            if (data.length >= 6) {
-                Person person = new Person(data[0], Integer.parseInt(data[1]), Double.parseDouble(data[2]), Double.parseDouble(data[3]), Double.parseDouble(data[4]), Integer.parseInt(data[5]));
-                familyMembers.add(person);
-            }
+    public List<CsvLoader.RowError> loadPeopleFromCSV() throws IOException {
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (csvFile.exists()) {
+            CsvLoader.Result<Person> result = CsvLoader.load(csvFile, Family::readPerson);
+            familyMembers.clear();
+            result.getRows().forEach(familyMembers::put);
+            errors.addAll(result.getErrors());
         }
-        reader.close();
+        errors.addAll(journal.replay((operation, payload) -> {
+            if (operation == Journal.Operation.DELETE) {
+                familyMembers.removeKey(payload);
+            } else {
+                familyMembers.put(CsvLoader.parseLine(payload, Family::readPerson));
+            }
+        }));
+        return errors;
     }
 
     /**
-     * Saves the list of family members to a CSV file.
+     * Replaces the list of family members, for example when restoring from a {@link HouseholdSnapshot}.
+     * The journal is left untouched, since the restored state already includes it.
+     * @param people The family members to restore.
+     */
+    public synchronized void restore(List<Person> people) {
+        familyMembers.clear();
+        people.forEach(familyMembers::put);
+    }
+
+    /**
+     * Saves the list of family members to a CSV file and clears the person journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void savePeopleToCSV() throws IOException {
-        File file = new File(csvFileName);
-        if (!file.exists()) {
-            file.createNewFile();
-        }
-        BufferedWriter writer = new BufferedWriter(new FileWriter(file, false));
-        writer.write("Name,BirthYear,MonthlyIncome,MonthlyExpenditure,Insurance,LifeSpan\n");
-        for (Person person : familyMembers) {
-            writer.write(String.format("%s,%d,%.2f,%.2f,%.2f,%d\n",
-                person.getName(), person.getBirthYear(), person.getMonthlyIncome(),
-                person.getMonthlyExpenditure(), person.getInsurance(), person.getLifeSpan()));
+        List<Person> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(familyMembers);
+            journal.rotate();
         }
-        writer.close();
+        CsvWriter.write(csvFile, "Name,BirthYear,MonthlyIncome,MonthlyExpenditure,Insurance,LifeSpan", snapshot, Family::formatPerson);
+        journal.discardRotated();
     }
 
     /**
-     * Adds a new family member to the list and updates the CSV file.
+     * Attaches a write-behind scheduler; from then on mutations are still appended to the journal, but compacting it
+     * into the CSV file is left to the scheduler.
+     * @param scheduler The scheduler to notify of changes, or null to compact on the calling thread again.
+     */
+    public void setPersistenceScheduler(PersistenceScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Adds a new family member to the list and records it in the person journal.
      * @param name The name of the person.
      * @param birthYear The birth year of the person.
      * @param monthlyIncome The monthly income of the person.
      * @param monthlyExpenditure The monthly expenditure of the person.
      * @param insurance The insurance amount of the person.
      * @param lifeSpan The life span of the person.
-     * @throws IOException If there is an error updating the CSV file.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     * @throws IllegalArgumentException If a member with the same name already exists.
      */
-    public void addFamilyMember(String name, int birthYear, double monthlyIncome, double monthlyExpenditure, double insurance, int lifeSpan) throws IOException {
+    public synchronized void addFamilyMember(String name, int birthYear, double monthlyIncome, double monthlyExpenditure, double insurance, int lifeSpan) throws IOException {
+        if (familyMembers.containsKey(name)) {
+            throw new IllegalArgumentException("A family member named \"" + name + "\" already exists.");
+        }
         Person newPerson = factory.createPerson(name, birthYear, monthlyIncome, monthlyExpenditure, insurance, lifeSpan);
         familyMembers.add(newPerson);
-        savePeopleToCSV();  // Update CSV file after adding a new member
+        recordChange(Journal.Operation.ADD, formatPerson(newPerson));
     }
 
     /**
-     * Deletes a family member from the list based on the name and updates the CSV file.
+     * Deletes a family member from the list based on the name and records the deletion in the person journal.
      * @param name The name of the person to remove.
-     * @throws IOException If there is an error updating the CSV file.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean deleteFamilyMember(String name) throws IOException {
+        if (familyMembers.removeKey(name) == null) {
+            return false;
+        }
+        recordChange(Journal.Operation.DELETE, name);
+        return true;
+    }
+
+    /**
+     * Replaces the family member who has the same name as the given person and records the change in the person journal.
+     * If the person is a member who was renamed with {@link Person#setName(String)}, the member is moved to the new
+     * name instead; finding that member takes a scan of the list.
+     * @param person The new version of the family member.
+     * @return true if the member was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     * @throws IllegalArgumentException If a renamed member's new name belongs to another member.
      */
-    public boolean deleteFamilyMember(String name) throws IOException {
-        Optional<Person> personToRemove = familyMembers.stream()
-            .filter(person -> person.getName().equals(name))
-            .findFirst();
-    
-        if (personToRemove.isPresent()) {
-            familyMembers.remove(personToRemove.get());
-            savePeopleToCSV();  // Update CSV file after removing a member
+    public synchronized boolean updateFamilyMember(Person person) throws IOException {
+        if (familyMembers.containsKey(person.getName())) {
+            familyMembers.put(person);
+            recordChange(Journal.Operation.UPDATE, formatPerson(person));
             return true;
         }
+        for (int i = 0; i < familyMembers.size(); i++) {
+            if (familyMembers.get(i) == person) {
+                String oldName = familyMembers.keyAt(i);
+                familyMembers.rekey(oldName);
+                recordChange(Journal.Operation.DELETE, oldName);
+                recordChange(Journal.Operation.ADD, formatPerson(person));
+                return true;
+            }
+        }
         return false;
     }
 
+    /**
+     * Renames a family member, moving it to its new name in the index, and records the change in the person journal.
+     * @param oldName The current name of the member.
+     * @param newName The new name.
+     * @return true if the member was found and renamed, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     * @throws IllegalArgumentException If the new name is empty or belongs to another member.
+     */
+    public synchronized boolean renameFamilyMember(String oldName, String newName) throws IOException {
+        Person person = familyMembers.find(oldName);
+        if (person == null) {
+            return false;
+        }
+        if (!oldName.equals(newName) && familyMembers.containsKey(newName)) {
+            throw new IllegalArgumentException("A family member named \"" + newName + "\" already exists.");
+        }
+        person.setName(newName);
+        return updateFamilyMember(person);
+    }
+
+    /**
+     * Finds a family member by name.
+     * @param name The name to look up.
+     * @return The member, or an empty Optional if there is nobody with that name.
+     */
+    public synchronized Optional<Person> findFamilyMemberByName(String name) {
+        return Optional.ofNullable(familyMembers.find(name));
+    }
+
     /**
      * Returns the list of family members.
-     * @return the list of Person objects representing the family members.
+     * @return a read-only view of the Person objects representing the family members.
      */
     public List<Person> getFamilyMembers() {
-        return familyMembers;
+        return Collections.unmodifiableList(familyMembers);
+    }
+
+    /**
+     * Appends the mutation to the journal, then marks people dirty when a scheduler is attached, or otherwise rewrites
+     * the CSV file once the journal is longer than both the compaction threshold and the member list.
+     */
+    private void recordChange(Journal.Operation operation, String payload) throws IOException {
+        journal.append(operation, payload);
+        PersistenceScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.markDirty(EntityType.PERSON);
+        } else if (journal.getRecordCount() > Math.max(AssetAndDebtManager.COMPACTION_THRESHOLD, familyMembers.size())) {
+            savePeopleToCSV();
+        }
+    }
+
+    private static String formatPerson(Person person) {
+        return String.format(Locale.ROOT, "%s,%d,%.2f,%.2f,%.2f,%d",
+            CsvWriter.quote(person.getName()), person.getBirthYear(), person.getMonthlyIncome(),
+            person.getMonthlyExpenditure(), person.getInsurance(), person.getLifeSpan());
+    }
+
+    private static Person readPerson(CsvLoader.Row data) {
+        if (data.getFieldCount() < 6) {
+            throw new IllegalArgumentException("Expected 6 fields for a person but found " + data.getFieldCount() + ".");
+        }
+        return new Person(data.getString(0), data.getInt(1), data.getDouble(2), data.getDouble(3), data.getDouble(4), data.getInt(5));
     }
 }
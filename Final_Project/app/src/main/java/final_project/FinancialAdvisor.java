@@ -1,11 +1,13 @@
 package final_project;
 
+import java.io.PrintStream;
+
 /**
  * Provides financial advice based on the current financial situation of a family.
  * This class uses a strategy pattern to dynamically select the financial strategy based on the evaluation of family assets, liabilities, and goals.
  */
 public class FinancialAdvisor {
-    private Strategy strategy;
+    private volatile Strategy strategy;
     private GoalManager goalManager;
     private BalanceSheet balanceSheet;
 
@@ -24,22 +26,47 @@ public class FinancialAdvisor {
      * to the total value of all goals. Sets the strategy based on the outcome of this comparison.
      */
     public void evaluateFinancialSituation() {
-        double totalGoalsValue = calculateTotalGoalsValue();
-        double familyNetValue = balanceSheet.calculateNetPresentValue();
-        double shortfall = familyNetValue - totalGoalsValue;
+        setStrategy(recommendStrategy());
+    }
+
+    /**
+     * Chooses a strategy the same way as {@link #evaluateFinancialSituation()} but returns it instead of storing it,
+     * so several threads can evaluate the same household without affecting each other or the advisor's current strategy.
+     * @return the recommended strategy
+     */
+    public Strategy recommendStrategy() {
+        return recommendStrategy(balanceSheet.calculateNetPresentValue(), balanceSheet.calculateTotalIncomePV(), balanceSheet.calculateTotalExpenditurePV());
+    }
+
+    /**
+     * Chooses a strategy from balance sheet figures the caller has already calculated, so they are not calculated twice.
+     * @param familyNetValue the net present value of the family
+     * @param totalIncomePV the present value of the family's income
+     * @param totalExpenditurePV the present value of the family's expenditure
+     * @return the recommended strategy
+     */
+    public Strategy recommendStrategy(double familyNetValue, double totalIncomePV, double totalExpenditurePV) {
+        double shortfall = familyNetValue - calculateTotalGoalsValue();
 
         if (shortfall < 0) {
-            setStrategy(new AggressiveStrategy(shortfall));
-        } else {
-            setStrategy(new ConservativeStrategy(balanceSheet.getFamily().getFamilyMembers(), balanceSheet.calculateTotalIncomePV(), balanceSheet.calculateTotalExpenditurePV()));
+            return new AggressiveStrategy(shortfall);
         }
+        return new ConservativeStrategy(balanceSheet.getFamily().getFamilyMembers(), totalIncomePV, totalExpenditurePV);
     }
 
     /**
      * Executes the current strategy, providing financial advice based on the family's financial situation.
      */
     public void advise() {
-        strategy.execute();
+        advise(System.out);
+    }
+
+    /**
+     * Executes the current strategy, printing the advice to the given stream.
+     * @param out the stream to print to
+     */
+    public void advise(PrintStream out) {
+        strategy.execute(out);
     }
 
     /**
@@ -50,24 +77,41 @@ public class FinancialAdvisor {
         this.strategy = strategy;
     }
 
+    /**
+     * Returns the strategy chosen by the last evaluation.
+     * @return the current strategy, or null if the situation has not been evaluated yet
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
     /**
      * Calculates the total present value of all goals managed by the GoalManager. This includes both one-time and recurring goals.
      * @return the total present value of all goals
      */
-    private double calculateTotalGoalsValue() {
+    public double calculateTotalGoalsValue() {
         double totalGoalsValue = 0;
+        int valuationYear = balanceSheet.getValuationYear();
         for (Goal goal : goalManager.getGoalList()) {
-            int years = goal.getTime() - 2024;
-            if (goal.isOneTime()) {
-                totalGoalsValue += goal.getAmount() / Math.pow(1 + goal.getInterestRate(), years);
-            } else {
-                double annualValue = 0;
-                for (int i = 1; i <= years; i++) {
-                    annualValue += goal.getAmount() / Math.pow(1 + goal.getInterestRate(), i);
-                }
-                totalGoalsValue += annualValue;
-            }
+            totalGoalsValue += goalPresentValue(goal.getAmount(), goal.getTime(), goal.isOneTime(), goal.getInterestRate(), valuationYear);
         }
         return totalGoalsValue;
     }
+
+    /**
+     * Values a goal from its inputs; shared by {@link #calculateTotalGoalsValue()} and {@link StressTester}.
+     * @param amount the amount of the goal, or of each yearly payment of a recurring goal
+     * @param time the year the goal is due, or the last year of a recurring goal
+     * @param isOneTime whether the goal is a single payment
+     * @param interestRate the rate used to discount the goal
+     * @param valuationYear the year from which the goal is discounted
+     * @return the present value of the goal
+     */
+    static double goalPresentValue(double amount, int time, boolean isOneTime, double interestRate, int valuationYear) {
+        int years = time - valuationYear;
+        if (isOneTime) {
+            return Annuity.discount(amount, interestRate, years);
+        }
+        return Annuity.presentValue(amount, interestRate, years);
+    }
 }
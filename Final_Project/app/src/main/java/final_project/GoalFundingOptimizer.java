@@ -0,0 +1,346 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns a household's resources to its goals one goal at a time and reports how well each goal is funded.
+ * Resources are today's net assets, which can pay for a goal due in any year, and each year's surplus of income over
+ * expenditure, which can only pay for goals due in that year or later. All amounts are present values: goals are
+ * discounted at their own rates as in {@link FinancialAdvisor#calculateTotalGoalsValue()}, and surpluses on the balance
+ * sheet's curve. Living expenses are the first claim, so a year in deficit consumes earlier resources before any goal.
+ * <p>
+ * A payment due in year T is drawn from the latest year at or before T that still has resources, so earlier resources
+ * stay available for earlier payments. Exhausted years are skipped with a union-find structure, which keeps allocation
+ * nearly linear in the number of payments and fast enough to re-solve interactively for hundreds of goals.
+ * The goals, their required present values, each year's resources and the portfolio volatility are all computed by the
+ * constructor, so after the household is edited a new optimizer has to be built to see the change.
+ */
+public class GoalFundingOptimizer {
+    private final int valuationYear;
+    private final List<Goal> goals;
+    private final double[] requiredPV;
+    private final int[] dueYears;
+    private final double[] resources;
+    private final double portfolioVolatility;
+
+    /**
+     * How one goal is funded by an allocation.
+     */
+    public static final class GoalFunding {
+        private final Goal goal;
+        private final double requiredPV;
+        private final double fundedFromAssets;
+        private final double fundedFromSurplus;
+        private final double successProbability;
+
+        GoalFunding(Goal goal, double requiredPV, double fundedFromAssets, double fundedFromSurplus, double successProbability) {
+            this.goal = goal;
+            this.requiredPV = requiredPV;
+            this.fundedFromAssets = fundedFromAssets;
+            this.fundedFromSurplus = fundedFromSurplus;
+            this.successProbability = successProbability;
+        }
+
+        public Goal getGoal() {
+            return goal;
+        }
+
+        public double getRequiredPV() {
+            return requiredPV;
+        }
+
+        public double getFundedPV() {
+            return fundedFromAssets + fundedFromSurplus;
+        }
+
+        public double getFundedFromAssets() {
+            return fundedFromAssets;
+        }
+
+        public double getFundedFromSurplus() {
+            return fundedFromSurplus;
+        }
+
+        /**
+         * Returns the funded share of the goal's present value.
+         * @return A fraction between 0 and 1; 1 for a goal that costs nothing.
+         */
+        public double getFundingLevel() {
+            return requiredPV > 0 ? getFundedPV() / requiredPV : 1;
+        }
+
+        /**
+         * Returns the probability that the resources assigned to the goal grow to cover it, assuming the asset-funded
+         * part is lognormal with the portfolio's volatility over the years until the goal is due.
+         * @return A probability between 0 and 1.
+         */
+        public double getSuccessProbability() {
+            return successProbability;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f%% funded, %.1f%% likely", goal.getDescription(),
+                                 getFundingLevel() * 100, successProbability * 100);
+        }
+    }
+
+    /**
+     * Takes a snapshot of a household's resources and goals.
+     * @param balanceSheet The balance sheet providing the family, assets, liabilities and discount curve.
+     * @param goalManager The manager holding the goals to fund.
+     */
+    public GoalFundingOptimizer(BalanceSheet balanceSheet, GoalManager goalManager) {
+        DiscountCurve curve = balanceSheet.getDiscountCurve();
+        this.valuationYear = curve.getValuationYear();
+        this.goals = new ArrayList<>(goalManager.getGoalList());
+        this.requiredPV = new double[goals.size()];
+        this.dueYears = new int[goals.size()];
+        int horizon = 0;
+        for (int g = 0; g < goals.size(); g++) {
+            Goal goal = goals.get(g);
+            dueYears[g] = Math.max(0, goal.getTime() - valuationYear);
+            requiredPV[g] = FinancialAdvisor.goalPresentValue(goal.getAmount(), goal.getTime(), goal.isOneTime(),
+                                                              goal.getInterestRate(), valuationYear);
+            horizon = Math.max(horizon, dueYears[g]);
+        }
+
+        // Year 0 holds today's net assets; year y holds the present value of that year's surplus
+        resources = new double[horizon + 1];
+        resources[0] = balanceSheet.calculateNetPresentValue();
+        for (Person member : balanceSheet.getFamily().getFamilyMembers()) {
+            int yearsToLive = member.getBirthYear() + member.getLifeSpan() - valuationYear;
+            int workingYears = yearsToLive - 20;
+            for (int y = 1; y <= Math.min(yearsToLive, horizon); y++) {
+                double surplus = (y <= workingYears ? member.getMonthlyIncome() * 12 : 0) - member.getMonthlyExpenditure() * 12;
+                resources[y] += curve.discount(surplus, y);
+            }
+        }
+        this.portfolioVolatility = portfolioVolatility(balanceSheet.getAssetManager());
+    }
+
+    /**
+     * Funds goals in order of their due year, the earliest first.
+     * @return The funding of every goal, in the order they were funded.
+     */
+    public List<GoalFunding> allocateByTime() {
+        return allocate(Comparator.comparingInt(Goal::getTime));
+    }
+
+    /**
+     * Funds the cheapest goals first, which funds as many goals as possible in full.
+     * @return The funding of every goal, in the order they were funded.
+     */
+    public List<GoalFunding> allocateByCost() {
+        double[] cost = new double[goals.size()];
+        for (int g = 0; g < goals.size(); g++) {
+            cost[g] = requiredPV[g];
+        }
+        return allocateIndices(Comparator.comparingDouble(g -> cost[g]));
+    }
+
+    /**
+     * Funds goals in order of priority; goals without a priority come last, and ties are funded by due year.
+     * @param priorities The priority of each goal by description, where a lower number is more important.
+     * @return The funding of every goal, in the order they were funded.
+     */
+    public List<GoalFunding> allocateByPriority(Map<String, Integer> priorities) {
+        return allocate(Comparator.<Goal>comparingInt(goal -> priorities.getOrDefault(goal.getDescription(), Integer.MAX_VALUE))
+                                  .thenComparingInt(Goal::getTime));
+    }
+
+    /**
+     * Funds goals in the given order.
+     * @param order Decides which goal is funded first.
+     * @return The funding of every goal, in the order they were funded.
+     */
+    public List<GoalFunding> allocate(Comparator<Goal> order) {
+        return allocateIndices((a, b) -> order.compare(goals.get(a), goals.get(b)));
+    }
+
+    private List<GoalFunding> allocateIndices(Comparator<Integer> order) {
+        Pools pools = new Pools(resources);
+        Integer[] indices = new Integer[goals.size()];
+        for (int g = 0; g < indices.length; g++) {
+            indices[g] = g;
+        }
+        Arrays.sort(indices, order); // Stable, so goals that compare equal keep their list order
+
+        List<GoalFunding> fundings = new ArrayList<>(indices.length);
+        for (int g : indices) {
+            Goal goal = goals.get(g);
+            double fromAssetsBefore = pools.drawnFromAssets;
+            double funded = 0;
+            if (goal.isOneTime()) {
+                funded = pools.draw(dueYears[g], requiredPV[g]);
+            } else {
+                for (int y = 1; y <= dueYears[g]; y++) {
+                    funded += pools.draw(y, Annuity.discount(goal.getAmount(), goal.getInterestRate(), y));
+                }
+            }
+            double fromAssets = pools.drawnFromAssets - fromAssetsBefore;
+            fundings.add(new GoalFunding(goal, requiredPV[g], fromAssets, funded - fromAssets,
+                                         successProbability(requiredPV[g], funded, fromAssets, dueYears[g])));
+        }
+        return fundings;
+    }
+
+    /**
+     * Returns the resources left after funding goals in the given order.
+     * @param fundings The result of one of the allocate methods.
+     * @return The present value of the resources no goal needed.
+     */
+    public double getUnallocated(List<GoalFunding> fundings) {
+        double total = getTotalResources();
+        for (GoalFunding funding : fundings) {
+            total -= funding.getFundedPV();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the present value of all resources once living expenses are paid.
+     * @return The total resources available to goals.
+     */
+    public double getTotalResources() {
+        double total = 0;
+        for (double resource : new Pools(resources).remaining) {
+            total += resource;
+        }
+        return total;
+    }
+
+    public double getPortfolioVolatility() {
+        return portfolioVolatility;
+    }
+
+    private double successProbability(double required, double funded, double fromAssets, int years) {
+        if (required <= 0) {
+            return 1;
+        }
+        if (funded <= 0) {
+            return 0;
+        }
+        double spread = portfolioVolatility * (fromAssets / funded) * Math.sqrt(years);
+        if (spread == 0) {
+            return funded >= required * (1 - 1e-9) ? 1 : 0;
+        }
+        return normalCdf(Math.log(funded / required) / spread);
+    }
+
+    /**
+     * Returns the volatility of the whole asset portfolio under the one-factor model of {@link MonteCarloEngine}.
+     */
+    private static double portfolioVolatility(AssetAndDebtManager assetManager) {
+        double[] marketAndOwn = new double[2];
+        double total = addVolatility(assetManager.getBondColumns(), MonteCarloEngine.BOND_MARKET_LOADING, marketAndOwn)
+                + addVolatility(assetManager.getStockColumns(), MonteCarloEngine.STOCK_MARKET_LOADING, marketAndOwn)
+                + addVolatility(assetManager.getRealEstateColumns(), MonteCarloEngine.REAL_ESTATE_MARKET_LOADING, marketAndOwn);
+        if (total <= 0) {
+            return 0;
+        }
+        return Math.sqrt(marketAndOwn[0] * marketAndOwn[0] + marketAndOwn[1]) / total;
+    }
+
+    /**
+     * Adds the amount-weighted market exposure and the squared own risk of one asset class, and returns its total amount.
+     */
+    private static double addVolatility(AssetColumns<?> columns, double loading, double[] marketAndOwn) {
+        double total = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            double weighted = columns.getAmount(row) * columns.getVolatility(row);
+            marketAndOwn[0] += weighted * loading;
+            marketAndOwn[1] += weighted * weighted * (1 - loading * loading);
+            total += columns.getAmount(row);
+        }
+        return total;
+    }
+
+    /**
+     * The standard normal distribution function, from the rational approximation 26.2.17 of Abramowitz and Stegun,
+     * accurate to 7.5e-8.
+     */
+    static double normalCdf(double z) {
+        double t = 1 / (1 + 0.2316419 * Math.abs(z));
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        double tail = density * t * (0.319381530 + t * (-0.356563782 + t * (1.781477937 + t * (-1.821255978 + t * 1.330274429))));
+        return z >= 0 ? 1 - tail : tail;
+    }
+
+    /**
+     * The resources of each year, with union-find links from exhausted years to the latest earlier year that may still have some.
+     */
+    private static final class Pools {
+        private final double[] remaining;
+        private final int[] latest;
+        private double drawnFromAssets;
+
+        Pools(double[] resources) {
+            remaining = resources.clone();
+            latest = new int[resources.length];
+            for (int y = 0; y < latest.length; y++) {
+                latest[y] = y;
+            }
+            // Today's debts beyond today's assets are repaid from the earliest surpluses
+            double deficit = Math.max(0, -remaining[0]);
+            remaining[0] = Math.max(0, remaining[0]);
+            for (int y = 1; y < remaining.length && deficit > 0; y++) {
+                double paid = Math.min(deficit, Math.max(0, remaining[y]));
+                remaining[y] -= paid;
+                deficit -= paid;
+            }
+            // A year whose expenditure exceeds its income is paid for from earlier years, before any goal
+            for (int y = 0; y < remaining.length; y++) {
+                if (remaining[y] <= 0) {
+                    double shortfall = -remaining[y];
+                    remaining[y] = 0;
+                    latest[y] = y - 1;
+                    draw(y, shortfall);
+                }
+            }
+            drawnFromAssets = 0;
+        }
+
+        /**
+         * Draws up to the given present value from the latest years at or before the due year.
+         * @return The amount drawn.
+         */
+        double draw(int dueYear, double amount) {
+            double drawn = 0;
+            int year = find(dueYear);
+            while (amount - drawn > 0 && year >= 0) {
+                double take = Math.min(remaining[year], amount - drawn);
+                remaining[year] -= take;
+                drawn += take;
+                if (year == 0) {
+                    drawnFromAssets += take;
+                }
+                if (remaining[year] <= 0) {
+                    latest[year] = year - 1;
+                    year = find(year);
+                }
+            }
+            return drawn;
+        }
+
+        /**
+         * Returns the latest year at or before the given one with resources left, or -1 if there is none.
+         */
+        private int find(int year) {
+            int root = year;
+            while (root >= 0 && latest[root] != root) {
+                root = latest[root];
+            }
+            while (year >= 0 && latest[year] != year) { // Path compression
+                int next = latest[year];
+                latest[year] = root;
+                year = next;
+            }
+            return root;
+        }
+    }
+}
@@ -2,117 +2,211 @@ package final_project;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Manages lists of financial goals and provides functionality to load and save these goals to/from a CSV file named "Goal.csv".
+ * Mutations are appended to "Goal.journal" and only compacted into the CSV file once the journal grows past
+ * {@link AssetAndDebtManager#COMPACTION_THRESHOLD} records and the size of the list, or compacted in the background by a
+ * {@link PersistenceScheduler} when one is attached.
+ * Goal descriptions are unique and indexed, so finding, updating or deleting a goal takes constant time.
  */
 public class GoalManager {
-    private static GoalManager instance;
-    private List<Goal> goalList = new ArrayList<>();
+    private final IndexedList<Goal> goalList = new IndexedList<>(Goal::getDescription);
+    private final File dataDirectory;
+    private final Journal goalJournal;
+    private volatile PersistenceScheduler scheduler;
 
+    // Lazily created on first use; class initialization is thread-safe, so no locking is needed
+    private static final class InstanceHolder {
+        private static final GoalManager INSTANCE = new GoalManager(null);
+    }
 
-    private GoalManager() {}
-
+    /**
+     * Constructs an empty GoalManager whose files live in the given directory.
+     * Each household in a {@link HouseholdRegistry} has its own manager.
+     * @param dataDirectory The directory holding "Goal.csv" and its journal, or null for the working directory.
+     */
+    public GoalManager(File dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.goalJournal = new Journal(new File(dataDirectory, EntityType.GOAL.getJournalFileName()));
+    }
 
-    public static synchronized GoalManager getInstance() {
-        if (instance == null) {
-            instance = new GoalManager();
-        }
-        return instance;
+    /**
+     * Returns the manager of the application's own household, whose files live in the working directory.
+     * @return The shared GoalManager.
+     */
+    public static GoalManager getInstance() {
+        return InstanceHolder.INSTANCE;
     }
 
     /**
-     * Saves the list of goals to a CSV file named "Goal.csv".
+     * Saves the list of goals to a CSV file named "Goal.csv" and clears the goal journal, which the file now supersedes.
+     * The file is replaced atomically; mutations made while it is being written go to a fresh journal.
      * @throws IOException If there is an error writing to the file.
      */
     public void saveGoalsToCSV() throws IOException {
-        File file = new File("Goal.csv");
-        if (!file.exists()) {
-            file.createNewFile();
-        }
-        BufferedWriter writer = new BufferedWriter(new FileWriter(file, false));
-        writer.write("Amount,Time,IsOneTime,InterestRate,Description\n");
-        for (Goal goal : goalList) {
-            writer.write(String.format("%f,%d,%b,%f,%s\n",
-                    goal.getAmount(), goal.getTime(), goal.isOneTime(),
-                    goal.getInterestRate(), goal.getDescription()));
+        List<Goal> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(goalList);
+            goalJournal.rotate();
         }
-        writer.close();
+        CsvWriter.write(new File(dataDirectory, EntityType.GOAL.getFileName()), "Amount,Time,IsOneTime,InterestRate,Description", snapshot, GoalManager::formatGoal);
+        goalJournal.discardRotated();
+    }
+
+    /**
+     * Attaches a write-behind scheduler; from then on mutations are still appended to the journal, but compacting it
+     * into "Goal.csv" is left to the scheduler.
+     * @param scheduler The scheduler to notify of changes, or null to compact on the calling thread again.
+     */
+    public void setPersistenceScheduler(PersistenceScheduler scheduler) {
+        this.scheduler = scheduler;
     }
     
     /**
-     * Loads goals from a CSV file named "Goal.csv".
+     * Loads goals from a CSV file named "Goal.csv" and replays the goal journal on top of it.
      * Each goal is expected to be in the format: Amount,Time,IsOneTime,InterestRate,Description
-     * @throws IOException If there is an error reading the file.
+     * @return The rows of the CSV file and the journal records that could not be parsed.
+     * @throws IOException If there is an error reading the files.
      */
-    public void loadGoalsFromCSV() throws IOException {
-        File file = new File("Goal.csv");
-        if (!file.exists()) {
-            return; // If file does not exist, exit the method
-        }
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        String line = reader.readLine(); // Skip header line
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(",");
-            if (parts.length == 5) {
-                double amount = Double.parseDouble(parts[0]);
-                int time = Integer.parseInt(parts[1]);
-                boolean isOneTime = Boolean.parseBoolean(parts[2]);
-                double interestRate = Double.parseDouble(parts[3]);
-                String description = parts[4];
-                Goal goal = new Goal(amount, time, isOneTime, interestRate, description);
-                goalList.add(goal);
-            }
+    public List<CsvLoader.RowError> loadGoalsFromCSV() throws IOException {
+        File file = new File(dataDirectory, EntityType.GOAL.getFileName());
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        if (file.exists()) {
+            CsvLoader.Result<Goal> result = CsvLoader.load(file, GoalManager::readGoal);
+            result.getRows().forEach(goalList::put);
+            errors.addAll(result.getErrors());
         }
-        reader.close();
+        errors.addAll(replayJournal());
+        return errors;
     }
 
     /**
-     * Adds a new goal to the list and updates the CSV file.
+     * Replaces the list of goals, for example when restoring from a {@link HouseholdSnapshot}.
+     * The journal is left untouched, since the restored state already includes it.
+     * @param goals The goals to restore.
+     */
+    public synchronized void restore(List<Goal> goals) {
+        goalList.clear();
+        goals.forEach(goalList::put);
+    }
+
+    /**
+     * Adds a new goal to the list and records it in the goal journal.
      * @param goal The goal to add.
-     * @throws IOException If there is an error updating the CSV file.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     * @throws IllegalArgumentException If a goal with the same description already exists.
      */
-    public void addGoal(Goal goal) throws IOException {
+    public synchronized void addGoal(Goal goal) throws IOException {
         goalList.add(goal);
-        saveGoalsToCSV();
+        recordChange(Journal.Operation.ADD, formatGoal(goal));
     }
 
     /**
-     * Deletes a goal from the list based on its description and updates the CSV file.
+     * Deletes a goal from the list based on its description and records the deletion in the goal journal.
      * @param description The description of the goal to remove.
      * @return true if the goal was found and deleted, false otherwise.
-     * @throws IOException If there is an error updating the CSV file.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
      */
-    public boolean deleteGoal(String description) throws IOException {
-        boolean exists = goalList.stream().anyMatch(goal -> goal.getDescription().equals(description));
-        if (exists) {
-            goalList = goalList.stream()
-                            .filter(goal -> !goal.getDescription().equals(description))
-                            .collect(Collectors.toList());
-            saveGoalsToCSV();
-            return true;
+    public synchronized boolean deleteGoal(String description) throws IOException {
+        if (goalList.removeKey(description) == null) {
+            return false;
         }
-        return false;
+        recordChange(Journal.Operation.DELETE, description);
+        return true;
     }
 
     /**
-     * Creates a new goal, adds it to the list, and updates the CSV file.
+     * Replaces the goal that has the same description as the given one and records the change in the goal journal.
+     * @param goal The new version of the goal.
+     * @return true if the goal was found and replaced, false otherwise.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
+     */
+    public synchronized boolean updateGoal(Goal goal) throws IOException {
+        if (!goalList.containsKey(goal.getDescription())) {
+            return false;
+        }
+        goalList.put(goal);
+        recordChange(Journal.Operation.UPDATE, formatGoal(goal));
+        return true;
+    }
+
+    /**
+     * Finds a goal by its description.
+     * @param description The description to look up.
+     * @return The goal, or an empty Optional if there is none with that description.
+     */
+    public synchronized Optional<Goal> findGoalByDescription(String description) {
+        return Optional.ofNullable(goalList.find(description));
+    }
+
+    /**
+     * Creates a new goal, adds it to the list, and records it in the goal journal.
      * @param amount The target amount for the goal.
      * @param time The year by which the goal must be achieved.
      * @param isOneTime Whether the goal requires a one-time payment or recurring payments.
      * @param interestRate The interest rate used to discount the future values.
      * @param description A brief description of the goal.
-     * @throws IOException If there is an error updating the CSV file.
+     * @throws IOException If there is an error updating the journal or compacting the CSV file.
      */
     public void createGoal(double amount, int time, boolean isOneTime, double interestRate, String description) throws IOException {
         Goal newGoal = new Goal(amount, time, isOneTime, interestRate, description);
         addGoal(newGoal);
     }
 
-    // Getter method for the list of goals
+    // Getter method for the list of goals; the returned list is a read-only view
     public List<Goal> getGoalList() {
-        return goalList;
+        return Collections.unmodifiableList(goalList);
+    }
+
+    /**
+     * Replays the goal journal on top of the goals currently in the list.
+     * ADD and UPDATE records replace an existing goal with the same description.
+     * @return The records that could not be replayed.
+     */
+    private List<CsvLoader.RowError> replayJournal() throws IOException {
+        return goalJournal.replay((operation, payload) -> {
+            if (operation == Journal.Operation.DELETE) {
+                goalList.removeKey(payload);
+            } else {
+                goalList.put(CsvLoader.parseLine(payload, GoalManager::readGoal));
+            }
+        });
+    }
+
+    /**
+     * Appends the mutation to the journal, then marks goals dirty when a scheduler is attached, or otherwise rewrites
+     * "Goal.csv" once the journal is longer than both the compaction threshold and the list.
+     */
+    private void recordChange(Journal.Operation operation, String payload) throws IOException {
+        goalJournal.append(operation, payload);
+        PersistenceScheduler scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.markDirty(EntityType.GOAL);
+        } else if (goalJournal.getRecordCount() > Math.max(AssetAndDebtManager.COMPACTION_THRESHOLD, goalList.size())) {
+            saveGoalsToCSV();
+        }
+    }
+
+    private static String formatGoal(Goal goal) {
+        return String.format(Locale.ROOT, "%f,%d,%b,%f,%s",
+                goal.getAmount(), goal.getTime(), goal.isOneTime(),
+                goal.getInterestRate(), CsvWriter.quote(goal.getDescription()));
+    }
+
+    private static Goal readGoal(CsvLoader.Row row) {
+        if (row.getFieldCount() != 5) {
+            throw new IllegalArgumentException("Expected 5 fields for a goal but found " + row.getFieldCount() + ".");
+        }
+        double amount = row.getDouble(0);
+        int time = row.getInt(1);
+        boolean isOneTime = row.getBoolean(2);
+        double interestRate = row.getDouble(3);
+        String description = row.getString(4);
+        return new Goal(amount, time, isOneTime, interestRate, description);
     }
 }
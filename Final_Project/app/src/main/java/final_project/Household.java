@@ -0,0 +1,88 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One client household: its family, goals, assets and debts, together with the balance sheet and advisor that value them.
+ * Households share no state, so different households can be loaded and evaluated on different threads at the same time.
+ */
+public class Household {
+    /**
+     * Discount rate used for households that do not specify one.
+     */
+    public static final double DEFAULT_DISCOUNT_RATE = 0.05;
+
+    private final String id;
+    private final File dataDirectory;
+    private final Family family;
+    private final GoalManager goalManager;
+    private final AssetAndDebtManager assetManager;
+    private final BalanceSheet balanceSheet;
+    private final FinancialAdvisor financialAdvisor;
+
+    /**
+     * Constructs an empty household whose files live in the given directory.
+     * @param id The identifier of the household, unique within a {@link HouseholdRegistry}.
+     * @param dataDirectory The directory holding the household's CSV and journal files, or null for the working directory.
+     * @param discountRate The discount rate used by the household's balance sheet.
+     */
+    public Household(String id, File dataDirectory, double discountRate) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Household id cannot be null or empty.");
+        }
+        this.id = id;
+        this.dataDirectory = dataDirectory;
+        this.family = new Family(new PersonFactory(), dataDirectory);
+        this.goalManager = new GoalManager(dataDirectory);
+        this.assetManager = new AssetAndDebtManager(dataDirectory);
+        this.balanceSheet = new BalanceSheet(family, assetManager, discountRate);
+        this.financialAdvisor = new FinancialAdvisor(goalManager, balanceSheet);
+    }
+
+    /**
+     * Loads every file of the household on the calling thread; a missing file leaves that list empty.
+     * @return The rows that could not be parsed, across all files.
+     * @throws IOException If there is an error reading one of the files.
+     */
+    public List<CsvLoader.RowError> load() throws IOException {
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        errors.addAll(family.loadPeopleFromCSV());
+        errors.addAll(goalManager.loadGoalsFromCSV());
+        errors.addAll(assetManager.loadDebtsFromCSV());
+        errors.addAll(assetManager.loadStocksFromCSV());
+        errors.addAll(assetManager.loadRealEstateFromCSV());
+        errors.addAll(assetManager.loadBondsFromCSV());
+        return errors;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public Family getFamily() {
+        return family;
+    }
+
+    public GoalManager getGoalManager() {
+        return goalManager;
+    }
+
+    public AssetAndDebtManager getAssetManager() {
+        return assetManager;
+    }
+
+    public BalanceSheet getBalanceSheet() {
+        return balanceSheet;
+    }
+
+    public FinancialAdvisor getFinancialAdvisor() {
+        return financialAdvisor;
+    }
+}
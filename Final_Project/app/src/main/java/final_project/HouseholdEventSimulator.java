@@ -0,0 +1,516 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs a household month by month as a sequence of discrete events taken from a time-ordered {@link EventQueue}.
+ * Every family member has a monthly budget event that adds the member's income while working and takes away the
+ * member's expenditure while alive; a retirement event 20 years before the end of the member's life span and a death
+ * event at its end switch these off. Coupons, dividends, net operating income, the interest of recurring debts and
+ * recurring goals are paid each January, and bond maturities, debt payoffs and one-time goals in the January of their
+ * year, with the same amounts as {@link CashFlowProjection}. Each event schedules the next occurrence of its own
+ * stream, so the queue only ever holds one pending event per stream.
+ * <p>
+ * Payments go through a cash balance that earns nothing. Retirements, deaths, maturities, payoffs and one-time goals
+ * change the household's situation, so after the month's other events the strategy is reviewed the way
+ * {@link FinancialAdvisor} chooses it: the shortfall is cash plus holdings at their amounts, minus outstanding debt
+ * principal and the goal outlays still to come, all undiscounted.
+ */
+public final class HouseholdEventSimulator {
+    /**
+     * The year the simulation runs to when none is given.
+     */
+    public static final int DEFAULT_END_YEAR = 2124;
+
+    /**
+     * The kinds of event, in the order they fire within a month.
+     */
+    public enum EventType {
+        DEATH,
+        RETIREMENT,
+        MONTHLY_BUDGET,
+        BOND_COUPON,
+        BOND_MATURITY,
+        DIVIDEND,
+        NET_OPERATING_INCOME,
+        DEBT_INTEREST,
+        DEBT_PAYOFF,
+        GOAL_OUTLAY,
+        STRATEGY_REVIEW;
+
+        private boolean triggersReview() {
+            return this == DEATH || this == RETIREMENT || this == BOND_MATURITY || this == DEBT_PAYOFF || this == GOAL_OUTLAY;
+        }
+    }
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final int startYear;
+    private final List<Person> members;
+    // Snapshot of the household, one array per field as in the column stores
+    private final double[] monthlyIncome;
+    private final double[] monthlyExpenditure;
+    private final int[] retirementMonth;
+    private final int[] deathMonth;
+    private final double[] bondAmount;
+    private final double[] bondCoupon;
+    private final int[] bondMaturityMonth;
+    private final double[] dividend;
+    private final double[] dividendGrowth;
+    private final double stockHoldings;
+    private final double[] netOperatingIncome;
+    private final double realEstateHoldings;
+    private final double[] debtAmount;
+    private final double[] debtInterest;
+    private final int[] debtPayoffMonth;
+    private final double[] goalAmount;
+    private final boolean[] goalOneTime;
+    private final int[] goalMonth;
+
+    /**
+     * A change of the household's strategy during a simulation.
+     */
+    public static final class StrategyChange {
+        private final int year;
+        private final int month;
+        private final EventType trigger;
+        private final Strategy strategy;
+
+        StrategyChange(int year, int month, EventType trigger, Strategy strategy) {
+            this.year = year;
+            this.month = month;
+            this.trigger = trigger;
+            this.strategy = strategy;
+        }
+
+        public int getYear() {
+            return year;
+        }
+
+        /**
+         * Returns the month of the change.
+         * @return The month from 1 for January to 12 for December.
+         */
+        public int getMonth() {
+            return month;
+        }
+
+        /**
+         * Returns the type of the event that caused the review, or STRATEGY_REVIEW for the first review.
+         * @return The triggering event type.
+         */
+        public EventType getTrigger() {
+            return trigger;
+        }
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+    }
+
+    /**
+     * The balances of a simulation at the end of every month and the strategy changes along the way.
+     */
+    public static final class Result {
+        private final int startYear;
+        private final double[] cash;
+        private final double[] netWorth;
+        private final List<StrategyChange> strategyChanges;
+        private final long events;
+        private final long elapsedNanos;
+
+        Result(int startYear, double[] cash, double[] netWorth, List<StrategyChange> strategyChanges, long events, long elapsedNanos) {
+            this.startYear = startYear;
+            this.cash = cash;
+            this.netWorth = netWorth;
+            this.strategyChanges = Collections.unmodifiableList(strategyChanges);
+            this.events = events;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getStartYear() {
+            return startYear;
+        }
+
+        /**
+         * Returns the last simulated year.
+         * @return The end year.
+         */
+        public int getEndYear() {
+            return startYear + cash.length / 12 - 1;
+        }
+
+        /**
+         * Returns the cash balance at the end of a month.
+         * @param year The calendar year, from the start year to the end year.
+         * @param month The month from 1 to 12.
+         * @return The cash balance.
+         */
+        public double getCash(int year, int month) {
+            return cash[offset(year, month)];
+        }
+
+        /**
+         * Returns the cash plus holdings at their amounts, minus outstanding debt principal, at the end of a month.
+         * @param year The calendar year, from the start year to the end year.
+         * @param month The month from 1 to 12.
+         * @return The net worth.
+         */
+        public double getNetWorth(int year, int month) {
+            return netWorth[offset(year, month)];
+        }
+
+        public List<StrategyChange> getStrategyChanges() {
+            return strategyChanges;
+        }
+
+        /**
+         * Returns the strategy in force at the end of the simulation.
+         * @return The last strategy chosen.
+         */
+        public Strategy getFinalStrategy() {
+            return strategyChanges.get(strategyChanges.size() - 1).getStrategy();
+        }
+
+        /**
+         * Returns the number of events processed, including strategy reviews.
+         * @return The event count.
+         */
+        public long getEvents() {
+            return events;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        private int offset(int year, int month) {
+            int index = (year - startYear) * 12 + month - 1;
+            if (month < 1 || month > 12 || index < 0 || index >= cash.length) {
+                throw new IllegalArgumentException("Month " + year + "-" + month + " is outside the simulation.");
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Constructs a HouseholdEventSimulator from a snapshot of a household taken now.
+     * @param balanceSheet The balance sheet providing the family, assets, debts and the year the simulation starts in.
+     * @param goalManager The household's goals, or null to ignore goals.
+     */
+    public HouseholdEventSimulator(BalanceSheet balanceSheet, GoalManager goalManager) {
+        startYear = balanceSheet.getValuationYear();
+        members = new ArrayList<>(balanceSheet.getFamily().getFamilyMembers());
+        int people = checkSubjects(members.size());
+        monthlyIncome = new double[people];
+        monthlyExpenditure = new double[people];
+        retirementMonth = new int[people];
+        deathMonth = new int[people];
+        for (int i = 0; i < people; i++) {
+            Person member = members.get(i);
+            int endYear = member.getBirthYear() + member.getLifeSpan();
+            monthlyIncome[i] = member.getMonthlyIncome();
+            monthlyExpenditure[i] = member.getMonthlyExpenditure();
+            retirementMonth[i] = januaryOf(endYear - 20);
+            deathMonth[i] = januaryOf(endYear);
+        }
+
+        AssetAndDebtManager assetManager = balanceSheet.getAssetManager();
+        synchronized (assetManager) {
+            BondColumns bonds = assetManager.getBondColumns();
+            int bondCount = checkSubjects(bonds.size());
+            bondAmount = new double[bondCount];
+            bondCoupon = new double[bondCount];
+            bondMaturityMonth = new int[bondCount];
+            for (int row = 0; row < bondCount; row++) {
+                bondAmount[row] = bonds.getAmount(row);
+                bondCoupon[row] = bonds.getCoupon(row);
+                bondMaturityMonth[row] = januaryOf(bonds.getMaturity(row));
+            }
+
+            StockColumns stocks = assetManager.getStockColumns();
+            int stockCount = checkSubjects(stocks.size());
+            dividend = new double[stockCount];
+            dividendGrowth = new double[stockCount];
+            double stockTotal = 0;
+            for (int row = 0; row < stockCount; row++) {
+                dividend[row] = stocks.getDividend(row);
+                dividendGrowth[row] = stocks.getDividendGrowthRate(row);
+                stockTotal += stocks.getAmount(row);
+            }
+            stockHoldings = stockTotal;
+
+            RealEstateColumns realEstates = assetManager.getRealEstateColumns();
+            int realEstateCount = checkSubjects(realEstates.size());
+            netOperatingIncome = new double[realEstateCount];
+            double realEstateTotal = 0;
+            for (int row = 0; row < realEstateCount; row++) {
+                netOperatingIncome[row] = realEstates.getNetOperatingIncome(row);
+                realEstateTotal += realEstates.getAmount(row);
+            }
+            realEstateHoldings = realEstateTotal;
+
+            DebtColumns debts = assetManager.getDebtColumns();
+            int debtCount = checkSubjects(debts.size());
+            debtAmount = new double[debtCount];
+            debtInterest = new double[debtCount];
+            debtPayoffMonth = new int[debtCount];
+            for (int row = 0; row < debtCount; row++) {
+                debtAmount[row] = debts.getAmount(row);
+                debtInterest[row] = debts.isOneTime(row) ? 0 : debts.getAmount(row) * debts.getInterestRate(row);
+                debtPayoffMonth[row] = januaryOf(debts.getTime(row));
+            }
+        }
+
+        List<Goal> goals = goalManager == null ? List.of() : new ArrayList<>(goalManager.getGoalList());
+        int goalCount = checkSubjects(goals.size());
+        goalAmount = new double[goalCount];
+        goalOneTime = new boolean[goalCount];
+        goalMonth = new int[goalCount];
+        for (int i = 0; i < goalCount; i++) {
+            Goal goal = goals.get(i);
+            goalAmount[i] = goal.getAmount();
+            goalOneTime[i] = goal.isOneTime();
+            goalMonth[i] = januaryOf(goal.getTime());
+        }
+    }
+
+    /**
+     * Simulates the household to the end of {@link #DEFAULT_END_YEAR}.
+     * @return The monthly balances and strategy changes.
+     */
+    public Result simulate() {
+        return simulate(DEFAULT_END_YEAR);
+    }
+
+    /**
+     * Simulates the household from January of its start year to December of the end year.
+     * @param endYear The last simulated year, not before the start year.
+     * @return The monthly balances and strategy changes.
+     */
+    public Result simulate(int endYear) {
+        if (endYear < startYear) {
+            throw new IllegalArgumentException("The simulation cannot end before it starts.");
+        }
+        return new Run(endYear).execute();
+    }
+
+    /**
+     * The mutable state of one simulation, so the simulator itself can be run any number of times.
+     */
+    private final class Run {
+        private final int months;
+        private final EventQueue queue;
+        private final boolean[] working = new boolean[monthlyIncome.length];
+        private final boolean[] alive = new boolean[monthlyIncome.length];
+        private final double[] currentDividend = dividend.clone();
+        private double cash;
+        private double bondHoldings;
+        private double debtPrincipal;
+        private double goalsRemaining;
+        private int reviewMonth = -1;
+        private EventType reviewTrigger = EventType.STRATEGY_REVIEW;
+        private final List<StrategyChange> strategyChanges = new ArrayList<>();
+
+        Run(int endYear) {
+            months = (endYear - startYear + 1) * 12;
+            queue = new EventQueue(2 * (monthlyIncome.length + bondAmount.length + dividend.length
+                                        + netOperatingIncome.length + debtAmount.length + goalAmount.length) + 1);
+        }
+
+        Result execute() {
+            long start = System.nanoTime();
+            double[] cashByMonth = new double[months];
+            double[] netWorthByMonth = new double[months];
+            schedule();
+
+            long events = 0;
+            int month = 0;
+            while (!queue.isEmpty()) {
+                long key = queue.pop();
+                int eventMonth = EventQueue.month(key);
+                for (; month < eventMonth; month++) {
+                    cashByMonth[month] = cash;
+                    netWorthByMonth[month] = netWorth();
+                }
+                fire(TYPES[EventQueue.type(key)], EventQueue.subject(key), eventMonth);
+                events++;
+            }
+            for (; month < months; month++) {
+                cashByMonth[month] = cash;
+                netWorthByMonth[month] = netWorth();
+            }
+            return new Result(startYear, cashByMonth, netWorthByMonth, strategyChanges, events, System.nanoTime() - start);
+        }
+
+        /**
+         * Schedules the first event of every stream, plus the initial strategy review.
+         */
+        private void schedule() {
+            for (int i = 0; i < monthlyIncome.length; i++) {
+                alive[i] = deathMonth[i] > 0;
+                working[i] = retirementMonth[i] > 0;
+                push(EventType.MONTHLY_BUDGET, i, 0);
+                push(EventType.RETIREMENT, i, retirementMonth[i]);
+                push(EventType.DEATH, i, deathMonth[i]);
+            }
+            for (int row = 0; row < bondAmount.length; row++) {
+                bondHoldings += bondAmount[row];
+                pushUntil(EventType.BOND_COUPON, row, 12, bondMaturityMonth[row]);
+                push(EventType.BOND_MATURITY, row, bondMaturityMonth[row]);
+            }
+            for (int row = 0; row < dividend.length; row++) {
+                push(EventType.DIVIDEND, row, 12);
+            }
+            for (int row = 0; row < netOperatingIncome.length; row++) {
+                push(EventType.NET_OPERATING_INCOME, row, 12);
+            }
+            for (int row = 0; row < debtAmount.length; row++) {
+                debtPrincipal += debtAmount[row];
+                if (debtInterest[row] != 0) {
+                    pushUntil(EventType.DEBT_INTEREST, row, 12, debtPayoffMonth[row]);
+                }
+                push(EventType.DEBT_PAYOFF, row, debtPayoffMonth[row]);
+            }
+            for (int i = 0; i < goalAmount.length; i++) {
+                goalsRemaining += goalOneTime[i] ? goalAmount[i] : goalAmount[i] * Math.max(0, goalMonth[i] / 12);
+                if (goalOneTime[i]) {
+                    push(EventType.GOAL_OUTLAY, i, goalMonth[i]);
+                } else {
+                    pushUntil(EventType.GOAL_OUTLAY, i, 12, goalMonth[i]);
+                }
+            }
+            push(EventType.STRATEGY_REVIEW, 0, 0);
+            reviewMonth = 0;
+        }
+
+        /**
+         * Adds an event unless it falls after the end of the simulation.
+         */
+        private void push(EventType type, int subject, int month) {
+            if (month < months) {
+                queue.push(EventQueue.key(month, type.ordinal(), subject));
+            }
+        }
+
+        /**
+         * Adds the next event of a stream that ends in a given month, unless the stream has ended.
+         */
+        private void pushUntil(EventType type, int subject, int month, int lastMonth) {
+            if (month <= lastMonth) {
+                push(type, subject, month);
+            }
+        }
+
+        private void fire(EventType type, int subject, int month) {
+            switch (type) {
+                case DEATH:
+                    alive[subject] = false;
+                    working[subject] = false;
+                    break;
+                case RETIREMENT:
+                    working[subject] = false;
+                    break;
+                case MONTHLY_BUDGET:
+                    if (!alive[subject]) {
+                        return;
+                    }
+                    if (working[subject]) {
+                        cash += monthlyIncome[subject];
+                    }
+                    cash -= monthlyExpenditure[subject];
+                    push(type, subject, month + 1);
+                    break;
+                case BOND_COUPON:
+                    cash += bondCoupon[subject];
+                    pushUntil(type, subject, month + 12, bondMaturityMonth[subject]);
+                    break;
+                case BOND_MATURITY:
+                    // As in the valuation, the final coupon is paid once more with the principal
+                    cash += bondCoupon[subject] + bondAmount[subject];
+                    bondHoldings -= bondAmount[subject];
+                    break;
+                case DIVIDEND:
+                    cash += currentDividend[subject];
+                    currentDividend[subject] *= 1 + dividendGrowth[subject];
+                    push(type, subject, month + 12);
+                    break;
+                case NET_OPERATING_INCOME:
+                    cash += netOperatingIncome[subject];
+                    push(type, subject, month + 12);
+                    break;
+                case DEBT_INTEREST:
+                    cash -= debtInterest[subject];
+                    pushUntil(type, subject, month + 12, debtPayoffMonth[subject]);
+                    break;
+                case DEBT_PAYOFF:
+                    cash -= debtAmount[subject];
+                    debtPrincipal -= debtAmount[subject];
+                    break;
+                case GOAL_OUTLAY:
+                    cash -= goalAmount[subject];
+                    goalsRemaining -= goalAmount[subject];
+                    if (!goalOneTime[subject]) {
+                        pushUntil(type, subject, month + 12, goalMonth[subject]);
+                    }
+                    break;
+                case STRATEGY_REVIEW:
+                    review(month);
+                    return;
+                default:
+                    throw new IllegalStateException("Unknown event type " + type);
+            }
+            if (type.triggersReview() && reviewMonth != month) {
+                reviewMonth = month;
+                reviewTrigger = type;
+                push(EventType.STRATEGY_REVIEW, 0, month);
+            }
+        }
+
+        private double netWorth() {
+            return cash + bondHoldings + stockHoldings + realEstateHoldings - debtPrincipal;
+        }
+
+        private void review(int month) {
+            double shortfall = netWorth() - goalsRemaining;
+            Strategy previous = strategyChanges.isEmpty() ? null : strategyChanges.get(strategyChanges.size() - 1).getStrategy();
+            Strategy strategy;
+            if (shortfall < 0) {
+                strategy = new AggressiveStrategy(shortfall);
+            } else {
+                List<Person> living = new ArrayList<>();
+                double incomeRemaining = 0;
+                double expenditureRemaining = 0;
+                for (int i = 0; i < alive.length; i++) {
+                    if (alive[i]) {
+                        living.add(members.get(i));
+                        expenditureRemaining += monthlyExpenditure[i] * Math.max(0, Math.min(deathMonth[i], months) - month - 1);
+                    }
+                    if (working[i]) {
+                        incomeRemaining += monthlyIncome[i] * Math.max(0, Math.min(retirementMonth[i], months) - month - 1);
+                    }
+                }
+                strategy = new ConservativeStrategy(living, incomeRemaining, expenditureRemaining);
+            }
+            if (previous == null || previous.getClass() != strategy.getClass()) {
+                strategyChanges.add(new StrategyChange(startYear + month / 12, month % 12 + 1, reviewTrigger, strategy));
+            }
+        }
+    }
+
+    /**
+     * Returns the month of January of a year, counted from the start of the simulation; earlier years give 0.
+     */
+    private int januaryOf(int year) {
+        return Math.max(0, (year - startYear) * 12);
+    }
+
+    private static int checkSubjects(int count) {
+        if (count > EventQueue.MAX_SUBJECT + 1) {
+            throw new IllegalArgumentException("Too many positions of one kind to simulate.");
+        }
+        return count;
+    }
+}
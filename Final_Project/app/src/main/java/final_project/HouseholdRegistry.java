@@ -0,0 +1,73 @@
+package final_project;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds any number of isolated households in one JVM, keyed by household id.
+ * Lookups never lock, and registration only contends with other registrations of the same id,
+ * so many threads can look up and evaluate households while others are being added.
+ */
+public class HouseholdRegistry {
+    private final ConcurrentMap<String, Household> households = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a household to the registry.
+     * @param household The household to add.
+     * @throws IllegalArgumentException If a household with the same id is already registered.
+     */
+    public void register(Household household) {
+        if (households.putIfAbsent(household.getId(), household) != null) {
+            throw new IllegalArgumentException("A household with id \"" + household.getId() + "\" is already registered.");
+        }
+    }
+
+    /**
+     * Returns the registered household with the given id, creating an empty one backed by the given directory if there is none.
+     * The new household is not loaded; call {@link Household#load()} on it.
+     * @param id The household id.
+     * @param dataDirectory The directory holding the household's files, used only if the household is created.
+     * @return The registered household.
+     */
+    public Household getOrCreate(String id, File dataDirectory) {
+        Household household = households.get(id);
+        if (household != null) {
+            return household;
+        }
+        return households.computeIfAbsent(id, key -> new Household(key, dataDirectory, Household.DEFAULT_DISCOUNT_RATE));
+    }
+
+    /**
+     * Finds a household by id without locking.
+     * @param id The household id.
+     * @return The household, or an empty Optional if no household has that id.
+     */
+    public Optional<Household> find(String id) {
+        return Optional.ofNullable(households.get(id));
+    }
+
+    /**
+     * Removes a household from the registry.
+     * @param id The household id.
+     * @return true if the household was registered and has been removed, false otherwise.
+     */
+    public boolean remove(String id) {
+        return households.remove(id) != null;
+    }
+
+    /**
+     * Returns a read-only, live view of the registered households; iterating it never throws ConcurrentModificationException.
+     * @return The registered households, in no particular order.
+     */
+    public Collection<Household> getHouseholds() {
+        return Collections.unmodifiableCollection(households.values());
+    }
+
+    public int size() {
+        return households.size();
+    }
+}
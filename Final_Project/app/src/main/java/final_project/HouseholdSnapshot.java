@@ -0,0 +1,348 @@
+package final_project;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reads and writes a compact binary snapshot of the whole household: family members, goals, and all assets and debts.
+ * Every entity type is stored as a section of primitive columns (amounts, rates, years, flags), and all descriptions
+ * and names are dictionary-encoded into a single string table, so a cold start is a header check plus a
+ * memory-mapped bulk read instead of six CSV parses. The CSV files remain the import/export format; the snapshot
+ * records the size and modification time of every CSV and journal file it was built from, and is only trusted while
+ * each of them is unchanged, so a deleted, replaced or edited source file always sends the next start back to the CSVs.
+ */
+public class HouseholdSnapshot {
+    /**
+     * Default name of the snapshot file, stored next to the CSV files.
+     */
+    public static final String FILE_NAME = "Household.snapshot";
+
+    private static final int MAGIC = 0x46464D53; // "FFMS"
+    private static final int VERSION = 2;
+    private static final DebtCategory[] CATEGORIES = DebtCategory.values();
+
+    private HouseholdSnapshot() {}
+
+    /**
+     * Returns whether a snapshot exists, every CSV file exists, and every CSV and journal file next to the snapshot
+     * still has the size and modification time recorded when the snapshot was written.
+     * @param snapshot The snapshot file.
+     * @return true if the snapshot can be used instead of the CSV files.
+     */
+    public static boolean isUpToDate(File snapshot) {
+        if (!snapshot.isFile()) {
+            return false;
+        }
+        long[] current = stampSources(snapshot);
+        for (int i = 0; i < current.length; i += 4) {
+            if (current[i] < 0) {
+                return false; // A missing CSV would otherwise bring its deleted rows back from the snapshot
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != current.length) {
+                return false;
+            }
+            for (long stamp : current) {
+                if (in.readLong() != stamp) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the size and modification time of every CSV and journal file next to a snapshot, in EntityType order.
+     * Take the stamps before reading the sources, so a file changed while it is being loaded makes the snapshot stale.
+     * @param snapshot The snapshot file.
+     * @return Four values per entity type: CSV size, CSV time, journal size and journal time; a missing file has size -1.
+     */
+    static long[] stampSources(File snapshot) {
+        File directory = snapshot.getAbsoluteFile().getParentFile();
+        EntityType[] types = EntityType.values();
+        long[] stamps = new long[types.length * 4];
+        for (int i = 0; i < types.length; i++) {
+            stamp(new File(directory, types[i].getFileName()), stamps, i * 4);
+            stamp(new File(directory, types[i].getJournalFileName()), stamps, i * 4 + 2);
+        }
+        return stamps;
+    }
+
+    private static void stamp(File file, long[] stamps, int index) {
+        boolean exists = file.isFile();
+        stamps[index] = exists ? file.length() : -1;
+        stamps[index + 1] = exists ? file.lastModified() : 0;
+    }
+
+    /**
+     * Writes the household to a snapshot file, recording the source files as they are now.
+     * @param snapshot The snapshot file.
+     * @param family The family whose members are saved.
+     * @param goalManager The manager whose goals are saved.
+     * @param assetManager The manager whose assets and debts are saved.
+     * @throws IOException If there is an error writing the file.
+     */
+    public static void write(File snapshot, Family family, GoalManager goalManager, AssetAndDebtManager assetManager) throws IOException {
+        write(snapshot, family, goalManager, assetManager, stampSources(snapshot));
+    }
+
+    /**
+     * Writes the household to a snapshot file.
+     * The snapshot is written to a temporary file first and then renamed, so readers never see a partial snapshot.
+     * @param snapshot The snapshot file.
+     * @param family The family whose members are saved.
+     * @param goalManager The manager whose goals are saved.
+     * @param assetManager The manager whose assets and debts are saved.
+     * @param sources The stamps of the source files the household was loaded from, from {@link #stampSources(File)}.
+     * @throws IOException If there is an error writing the file.
+     */
+    static void write(File snapshot, Family family, GoalManager goalManager, AssetAndDebtManager assetManager,
+                      long[] sources) throws IOException {
+        List<Person> people = family.getFamilyMembers();
+        List<Goal> goals = goalManager.getGoalList();
+        List<Debt> debts = assetManager.getDebtList();
+        List<Stock> stocks = assetManager.getStockList();
+        List<RealEstate> realEstates = assetManager.getRealEstateList();
+        List<Bond> bonds = assetManager.getBondList();
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        people.forEach(person -> dictionary.putIfAbsent(person.getName(), dictionary.size()));
+        goals.forEach(goal -> dictionary.putIfAbsent(goal.getDescription(), dictionary.size()));
+        debts.forEach(debt -> dictionary.putIfAbsent(debt.getDescription(), dictionary.size()));
+        stocks.forEach(stock -> dictionary.putIfAbsent(stock.getDescription(), dictionary.size()));
+        realEstates.forEach(realEstate -> dictionary.putIfAbsent(realEstate.getDescription(), dictionary.size()));
+        bonds.forEach(bond -> dictionary.putIfAbsent(bond.getDescription(), dictionary.size()));
+
+        File temp = new File(snapshot.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sources.length);
+            for (long stamp : sources) {
+                out.writeLong(stamp);
+            }
+
+            out.writeInt(dictionary.size());
+            for (String text : dictionary.keySet()) {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(people.size());
+            writeInts(out, people, person -> dictionary.get(person.getName()));
+            writeInts(out, people, Person::getBirthYear);
+            writeDoubles(out, people, Person::getMonthlyIncome);
+            writeDoubles(out, people, Person::getMonthlyExpenditure);
+            writeDoubles(out, people, Person::getInsurance);
+            writeInts(out, people, Person::getLifeSpan);
+
+            out.writeInt(goals.size());
+            writeDoubles(out, goals, Goal::getAmount);
+            writeInts(out, goals, Goal::getTime);
+            writeFlags(out, goals, Goal::isOneTime);
+            writeDoubles(out, goals, Goal::getInterestRate);
+            writeInts(out, goals, goal -> dictionary.get(goal.getDescription()));
+
+            out.writeInt(debts.size());
+            writeDoubles(out, debts, Debt::getAmount);
+            writeDoubles(out, debts, Debt::getInterestRate);
+            writeFlags(out, debts, Debt::isOneTime);
+            writeInts(out, debts, Debt::getTime);
+            writeBytes(out, debts, debt -> debt.getCategory().ordinal());
+            writeInts(out, debts, debt -> dictionary.get(debt.getDescription()));
+
+            out.writeInt(stocks.size());
+            writeAssetColumns(out, stocks, dictionary);
+            writeDoubles(out, stocks, Stock::getDividend);
+            writeDoubles(out, stocks, Stock::getDividendGrowthRate);
+
+            out.writeInt(realEstates.size());
+            writeAssetColumns(out, realEstates, dictionary);
+            writeDoubles(out, realEstates, RealEstate::getNetOperatingIncome);
+
+            out.writeInt(bonds.size());
+            writeAssetColumns(out, bonds, dictionary);
+            writeInts(out, bonds, Bond::getMaturity);
+            writeDoubles(out, bonds, Bond::getCoupon);
+        }
+        Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot file and replaces the contents of the family and both managers with it.
+     * Nothing is replaced unless the whole snapshot was read successfully.
+     * @param snapshot The snapshot file.
+     * @param family The family to restore members into.
+     * @param goalManager The manager to restore goals into.
+     * @param assetManager The manager to restore assets and debts into.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static void read(File snapshot, Family family, GoalManager goalManager, AssetAndDebtManager assetManager) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException(snapshot.getName() + " is not a household snapshot.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ".");
+            }
+            int stamps = buffer.getInt();
+            buffer.position(buffer.position() + stamps * Long.BYTES); // Only isUpToDate needs the source stamps
+
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int count = buffer.getInt();
+            int[] names = readInts(buffer, count);
+            int[] birthYears = readInts(buffer, count);
+            double[] incomes = readDoubles(buffer, count);
+            double[] expenditures = readDoubles(buffer, count);
+            double[] insurances = readDoubles(buffer, count);
+            int[] lifeSpans = readInts(buffer, count);
+            List<Person> people = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                people.add(new Person(dictionary[names[i]], birthYears[i], incomes[i], expenditures[i], insurances[i], lifeSpans[i]));
+            }
+
+            count = buffer.getInt();
+            double[] amounts = readDoubles(buffer, count);
+            int[] times = readInts(buffer, count);
+            byte[] oneTimes = readBytes(buffer, count);
+            double[] rates = readDoubles(buffer, count);
+            int[] descriptions = readInts(buffer, count);
+            List<Goal> goals = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                goals.add(new Goal(amounts[i], times[i], oneTimes[i] != 0, rates[i], dictionary[descriptions[i]]));
+            }
+
+            count = buffer.getInt();
+            amounts = readDoubles(buffer, count);
+            rates = readDoubles(buffer, count);
+            oneTimes = readBytes(buffer, count);
+            times = readInts(buffer, count);
+            byte[] categories = readBytes(buffer, count);
+            descriptions = readInts(buffer, count);
+            List<Debt> debts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                debts.add(new Debt(amounts[i], rates[i], oneTimes[i] != 0, times[i], CATEGORIES[categories[i]], dictionary[descriptions[i]]));
+            }
+
+            count = buffer.getInt();
+            amounts = readDoubles(buffer, count);
+            rates = readDoubles(buffer, count);
+            double[] volatilities = readDoubles(buffer, count);
+            descriptions = readInts(buffer, count);
+            double[] dividends = readDoubles(buffer, count);
+            double[] growthRates = readDoubles(buffer, count);
+            List<Stock> stocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                stocks.add(new Stock(amounts[i], rates[i], volatilities[i], dividends[i], growthRates[i], dictionary[descriptions[i]]));
+            }
+
+            count = buffer.getInt();
+            amounts = readDoubles(buffer, count);
+            rates = readDoubles(buffer, count);
+            volatilities = readDoubles(buffer, count);
+            descriptions = readInts(buffer, count);
+            double[] netOperatingIncomes = readDoubles(buffer, count);
+            List<RealEstate> realEstates = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                realEstates.add(new RealEstate(amounts[i], rates[i], volatilities[i], netOperatingIncomes[i], dictionary[descriptions[i]]));
+            }
+
+            count = buffer.getInt();
+            amounts = readDoubles(buffer, count);
+            rates = readDoubles(buffer, count);
+            volatilities = readDoubles(buffer, count);
+            descriptions = readInts(buffer, count);
+            int[] maturities = readInts(buffer, count);
+            double[] coupons = readDoubles(buffer, count);
+            List<Bond> bonds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                bonds.add(new Bond(amounts[i], rates[i], volatilities[i], maturities[i], coupons[i], dictionary[descriptions[i]]));
+            }
+
+            family.restore(people);
+            goalManager.restore(goals);
+            assetManager.restore(bonds, stocks, realEstates, debts);
+        } catch (RuntimeException e) {
+            // Truncated files, out-of-range dictionary codes and values rejected by the constructors
+            throw new IOException("Corrupt snapshot " + snapshot.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the columns shared by every asset type: amount, interest rate, volatility and description.
+     */
+    private static void writeAssetColumns(DataOutputStream out, List<? extends Asset> assets, Map<String, Integer> dictionary) throws IOException {
+        writeDoubles(out, assets, Asset::getAmount);
+        writeDoubles(out, assets, Asset::getInterestRate);
+        writeDoubles(out, assets, Asset::getVolatility);
+        writeInts(out, assets, asset -> dictionary.get(asset.getDescription()));
+    }
+
+    private static <T> void writeDoubles(DataOutputStream out, List<? extends T> items, ToDoubleFunction<T> column) throws IOException {
+        for (T item : items) {
+            out.writeDouble(column.applyAsDouble(item));
+        }
+    }
+
+    private static <T> void writeInts(DataOutputStream out, List<? extends T> items, ToIntFunction<T> column) throws IOException {
+        for (T item : items) {
+            out.writeInt(column.applyAsInt(item));
+        }
+    }
+
+    private static <T> void writeBytes(DataOutputStream out, List<? extends T> items, ToIntFunction<T> column) throws IOException {
+        for (T item : items) {
+            out.writeByte(column.applyAsInt(item));
+        }
+    }
+
+    private static <T> void writeFlags(DataOutputStream out, List<? extends T> items, Predicate<T> column) throws IOException {
+        for (T item : items) {
+            out.writeBoolean(column.test(item));
+        }
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int count) {
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+}
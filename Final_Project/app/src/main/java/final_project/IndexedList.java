@@ -0,0 +1,169 @@
+package final_project;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * A list of items with unique string keys, such as descriptions or names, that keeps a key-to-position index
+ * next to the backing array so lookup, replacement and removal by key take constant time.
+ * Removal swaps the last item into the freed slot instead of shifting the tail, so the list is never reallocated
+ * but the order of the remaining items can change.
+ * The list can only be modified through its keyed methods; the positional mutators of {@link List} are unsupported.
+ * An item's key is read once, when the item is stored, so an item whose key changes afterwards (a renamed person)
+ * stays indexed under its old key, and the index stays consistent, until it is moved with {@link #rekey(String)}.
+ * @param <T> The type of item.
+ */
+public final class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+    private final Function<T, String> keyFunction;
+    private final List<T> items = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>(); // The key each item was stored under
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    /**
+     * Constructs an empty IndexedList.
+     * @param keyFunction Returns the unique key of an item.
+     */
+    public IndexedList(Function<T, String> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Appends an item whose key is not in the list yet.
+     * @param item The item to add.
+     * @return Always true.
+     * @throws IllegalArgumentException If an item with the same key is already in the list.
+     */
+    @Override
+    public boolean add(T item) {
+        String key = keyFunction.apply(item);
+        if (positions.containsKey(key)) {
+            throw new IllegalArgumentException("An item named \"" + key + "\" already exists.");
+        }
+        positions.put(key, items.size());
+        items.add(item);
+        keys.add(key);
+        return true;
+    }
+
+    /**
+     * Replaces the item with the same key, or appends the item if its key is new.
+     * @param item The item to store.
+     * @return The item that was replaced, or null if the item was appended.
+     */
+    public T put(T item) {
+        String key = keyFunction.apply(item);
+        Integer position = positions.get(key);
+        if (position == null) {
+            positions.put(key, items.size());
+            items.add(item);
+            keys.add(key);
+            return null;
+        }
+        return items.set(position, item);
+    }
+
+    /**
+     * Returns the item with the given key.
+     * @param key The key to look up.
+     * @return The item, or null if no item has that key.
+     */
+    public T find(String key) {
+        Integer position = positions.get(key);
+        return position == null ? null : items.get(position);
+    }
+
+    /**
+     * Returns the position of the item with the given key.
+     * @param key The key to look up.
+     * @return The position, or -1 if no item has that key.
+     */
+    public int positionOf(String key) {
+        Integer position = positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Returns whether an item with the given key is in the list.
+     * @param key The key to look up.
+     * @return true if the key is present.
+     */
+    public boolean containsKey(String key) {
+        return positions.containsKey(key);
+    }
+
+    /**
+     * Removes the item with the given key by moving the last item into its position.
+     * @param key The key of the item to remove.
+     * @return The removed item, or null if no item has that key.
+     */
+    public T removeKey(String key) {
+        Integer position = positions.remove(key);
+        if (position == null) {
+            return null;
+        }
+        T removed = items.get(position);
+        T last = items.remove(items.size() - 1);
+        String lastKey = keys.remove(keys.size() - 1);
+        if (position < items.size()) {
+            items.set(position, last);
+            keys.set(position, lastKey);
+            positions.put(lastKey, position);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the key an item was stored under, which differs from its current key if that changed since.
+     * @param index The position of the item.
+     * @return The stored key.
+     */
+    public String keyAt(int index) {
+        return keys.get(index);
+    }
+
+    /**
+     * Moves the item stored under a key to the key it has now, after that key was changed on the item itself.
+     * @param oldKey The key the item was stored under.
+     * @return true if an item was stored under the old key.
+     * @throws IllegalArgumentException If another item is already stored under the item's new key.
+     */
+    public boolean rekey(String oldKey) {
+        Integer position = positions.get(oldKey);
+        if (position == null) {
+            return false;
+        }
+        String newKey = keyFunction.apply(items.get(position));
+        if (newKey.equals(oldKey)) {
+            return true;
+        }
+        if (positions.containsKey(newKey)) {
+            throw new IllegalArgumentException("An item named \"" + newKey + "\" already exists.");
+        }
+        positions.remove(oldKey);
+        positions.put(newKey, position);
+        keys.set(position, newKey);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        keys.clear();
+        positions.clear();
+    }
+}
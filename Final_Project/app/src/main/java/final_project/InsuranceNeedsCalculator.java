@@ -0,0 +1,149 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Estimates how much life insurance each family member needs, with mortality from a {@link LifeTable}.
+ * A member's need is the present value of the contribution the family would lose if the member died today: the
+ * member's income less the member's own expenditure, for every year the member would have worked, weighted by the
+ * probability that the member would have survived to that year. As in the balance sheet, a member works until 20
+ * years before the end of the member's life span.
+ * <p>
+ * The survival-weighted discount factors depend only on a member's birth year and sex, so their running sums are
+ * computed once per pair and cached; the need of any member is then one multiplication and one array lookup, and a
+ * whole client book is assessed in one pass.
+ */
+public final class InsuranceNeedsCalculator {
+    private final LifeTable lifeTable;
+    private final DiscountCurve curve;
+    // Keyed by birth year and sex; entry n is the sum over t from 1 to n of the survival probability to t times discountFactor(t)
+    private final Map<Integer, double[]> survivalAnnuities = new ConcurrentHashMap<>();
+
+    /**
+     * The insurance need and gap of one family member.
+     */
+    public static final class Need {
+        private final Person person;
+        private final Sex sex;
+        private final int workingYears;
+        private final double annualContribution;
+        private final double lostContributionPV;
+
+        Need(Person person, Sex sex, int workingYears, double annualContribution, double lostContributionPV) {
+            this.person = person;
+            this.sex = sex;
+            this.workingYears = workingYears;
+            this.annualContribution = annualContribution;
+            this.lostContributionPV = lostContributionPV;
+        }
+
+        public Person getPerson() {
+            return person;
+        }
+
+        public Sex getSex() {
+            return sex;
+        }
+
+        public int getWorkingYears() {
+            return workingYears;
+        }
+
+        /**
+         * Returns the member's yearly income less the member's yearly expenditure.
+         * @return The annual contribution, which may be negative.
+         */
+        public double getAnnualContribution() {
+            return annualContribution;
+        }
+
+        /**
+         * Returns the expected present value of the contributions lost if the member died today.
+         * @return The insurance need, never negative.
+         */
+        public double getLostContributionPV() {
+            return lostContributionPV;
+        }
+
+        /**
+         * Returns the member's insurance less the need.
+         * @return The gap; a negative value is a shortfall.
+         */
+        public double getGap() {
+            return person.getInsurance() - lostContributionPV;
+        }
+
+        @Override
+        public String toString() {
+            double gap = getGap();
+            if (gap >= 0) {
+                return person.getName() + " is adequately covered by insurance.";
+            }
+            return person.getName() + "'s insurance shortfall: " + -gap;
+        }
+    }
+
+    /**
+     * Constructs an InsuranceNeedsCalculator.
+     * @param lifeTable The mortality to apply.
+     * @param curve The curve to discount lost contributions on; ages are taken in its valuation year.
+     */
+    public InsuranceNeedsCalculator(LifeTable lifeTable, DiscountCurve curve) {
+        this.lifeTable = lifeTable;
+        this.curve = curve;
+    }
+
+    /**
+     * Calculates the insurance need of one family member.
+     * @param person The family member.
+     * @param sex The sex whose mortality applies to the member.
+     * @return The need and gap.
+     */
+    public Need calculate(Person person, Sex sex) {
+        int valuationYear = curve.getValuationYear();
+        int workingYears = Math.max(0, person.getBirthYear() + person.getLifeSpan() - valuationYear - 20);
+        double contribution = (person.getMonthlyIncome() - person.getMonthlyExpenditure()) * 12;
+        double need = 0;
+        if (workingYears > 0 && contribution > 0) {
+            double[] annuity = survivalAnnuity(person.getBirthYear(), sex);
+            need = contribution * annuity[Math.min(workingYears, annuity.length - 1)];
+        }
+        return new Need(person, sex, workingYears, contribution, need);
+    }
+
+    /**
+     * Calculates the insurance needs of many people in one pass.
+     * @param people The people, for example every member of every household in a client book.
+     * @param sexOf Returns the sex whose mortality applies to each person.
+     * @return The needs, in the same order as the people.
+     */
+    public List<Need> calculateAll(List<Person> people, Function<Person, Sex> sexOf) {
+        List<Need> needs = new ArrayList<>(people.size());
+        for (Person person : people) {
+            needs.add(calculate(person, sexOf.apply(person)));
+        }
+        return needs;
+    }
+
+    /**
+     * Returns the running sums of survival-weighted discount factors for people born in a year, computing them on first use.
+     * The array ends in the year everyone born then is dead according to the table, after which the sums stop growing.
+     */
+    private double[] survivalAnnuity(int birthYear, Sex sex) {
+        return survivalAnnuities.computeIfAbsent(birthYear * Sex.values().length + sex.ordinal(), key -> {
+            int age = Math.max(0, curve.getValuationYear() - birthYear);
+            int years = Math.max(0, lifeTable.getMaxAge() - age + 1);
+            double[] annuity = new double[years + 1];
+            double survival = 1;
+            for (int t = 1; t <= years; t++) {
+                survival *= 1 - lifeTable.deathProbability(sex, age + t - 1);
+                annuity[t] = annuity[t - 1] + survival * curve.discountFactor(t);
+            }
+            return annuity;
+        });
+    }
+}
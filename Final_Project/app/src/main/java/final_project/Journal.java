@@ -0,0 +1,163 @@
+package final_project;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only journal of mutations for a single entity type.
+ * Each mutation is stored as one line of the form "OPERATION,payload", where the payload is the
+ * entity's CSV row for ADD and UPDATE records and the entity's key for DELETE records.
+ * The journal is replayed on top of the last compacted CSV file and cleared whenever that file is rewritten.
+ * While a compaction is being written the earlier records are kept in a rotated ".old" file, so a failed or
+ * interrupted rewrite loses nothing.
+ */
+public class Journal {
+    /**
+     * The kinds of mutation that can be recorded in a journal.
+     */
+    public enum Operation {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private final File file;
+    private final File rotatedFile;
+    private int recordCount;
+
+    /**
+     * Constructs a Journal backed by the given file.
+     * The file is created lazily on the first append.
+     * @param file The journal file.
+     */
+    public Journal(File file) {
+        this.file = file;
+        this.rotatedFile = new File(file.getPath() + ".old");
+    }
+
+    /**
+     * Appends a single record to the journal.
+     * @param operation The kind of mutation.
+     * @param payload The CSV row or key associated with the mutation, must not contain line breaks.
+     * @throws IOException If there is an error writing to the file.
+     */
+    public void append(Operation operation, String payload) throws IOException {
+        if (payload.indexOf('\n') >= 0 || payload.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Journal payload cannot contain line breaks.");
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            writer.write(operation.name());
+            writer.write(',');
+            writer.write(payload);
+            writer.write('\n');
+        }
+        recordCount++;
+    }
+
+    /**
+     * Replays every record in the journal, in the order they were appended, starting with any rotated records
+     * whose compaction never completed.
+     * Incomplete or unparseable records, such as a torn final write, are skipped and reported.
+     * Also resets the record count to the number of records found.
+     * @param handler Receives the operation and payload of each record; throws IllegalArgumentException to reject it.
+     * @return The records that were skipped, in the order they were read.
+     * @throws IOException If there is an error reading the file.
+     */
+    public List<CsvLoader.RowError> replay(BiConsumer<Operation, String> handler) throws IOException {
+        recordCount = 0;
+        List<CsvLoader.RowError> errors = new ArrayList<>();
+        replayFile(rotatedFile, handler, errors);
+        replayFile(file, handler, errors);
+        return errors;
+    }
+
+    /**
+     * Moves the current records aside before the entity's CSV file is rewritten, so new records start a fresh journal.
+     * If an earlier rotation was never discarded, the current records are appended to it instead.
+     * @throws IOException If the records cannot be moved.
+     */
+    public void rotate() throws IOException {
+        if (file.exists()) {
+            if (rotatedFile.exists()) {
+                try (InputStream in = new FileInputStream(file); OutputStream out = new FileOutputStream(rotatedFile, true)) {
+                    in.transferTo(out);
+                }
+                Files.delete(file.toPath());
+            } else {
+                Files.move(file.toPath(), rotatedFile.toPath());
+            }
+        }
+        recordCount = 0;
+    }
+
+    /**
+     * Deletes the records moved aside by {@link #rotate()}, once the CSV file that includes them has been written.
+     * @throws IOException If the rotated file cannot be deleted.
+     */
+    public void discardRotated() throws IOException {
+        Files.deleteIfExists(rotatedFile.toPath());
+    }
+
+    private void replayFile(File source, BiConsumer<Operation, String> handler, List<CsvLoader.RowError> errors) throws IOException {
+        if (!source.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(source))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int separator = line.indexOf(',');
+                if (separator <= 0) {
+                    errors.add(new CsvLoader.RowError(source.getName(), lineNumber, "Incomplete journal record."));
+                    continue;
+                }
+                Operation operation;
+                try {
+                    operation = Operation.valueOf(line.substring(0, separator));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new CsvLoader.RowError(source.getName(), lineNumber, "Unknown journal operation " + line.substring(0, separator) + "."));
+                    continue;
+                }
+                try {
+                    handler.accept(operation, line.substring(separator + 1));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new CsvLoader.RowError(source.getName(), lineNumber, e.getMessage()));
+                    continue;
+                }
+                recordCount++;
+            }
+        }
+    }
+
+    /**
+     * Discards all records, typically right after the entity's CSV file has been compacted.
+     * @throws IOException If the journal file cannot be deleted.
+     */
+    public void clear() throws IOException {
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Failed to clear journal " + file.getPath());
+        }
+        discardRotated();
+        recordCount = 0;
+    }
+
+    /**
+     * Returns the number of records appended or replayed since the journal was last cleared.
+     * @return The number of records in the journal.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the file backing this journal.
+     * @return The journal file.
+     */
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,124 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A period life table: the probability that a person of each whole age dies within the year, for each sex.
+ * The table is closed at its last age, where everyone is assumed to die, so survival beyond it is zero.
+ */
+public final class LifeTable {
+    private final double[] femaleDeathProbability;
+    private final double[] maleDeathProbability;
+
+    private LifeTable(double[] femaleDeathProbability, double[] maleDeathProbability) {
+        this.femaleDeathProbability = femaleDeathProbability;
+        this.maleDeathProbability = maleDeathProbability;
+        femaleDeathProbability[femaleDeathProbability.length - 1] = 1;
+        maleDeathProbability[maleDeathProbability.length - 1] = 1;
+    }
+
+    /**
+     * Creates a life table from the death probabilities of each age from 0.
+     * @param femaleDeathProbability The female probability of dying within the year at each age, between 0 and 1.
+     * @param maleDeathProbability The male probability of dying within the year at each age, between 0 and 1.
+     * @return The life table.
+     * @throws IllegalArgumentException If the arrays are empty, differ in length or hold a value outside [0, 1].
+     */
+    public static LifeTable of(double[] femaleDeathProbability, double[] maleDeathProbability) {
+        if (femaleDeathProbability.length == 0 || femaleDeathProbability.length != maleDeathProbability.length) {
+            throw new IllegalArgumentException("A life table needs a female and a male death probability for each age.");
+        }
+        for (int age = 0; age < femaleDeathProbability.length; age++) {
+            checkProbability(femaleDeathProbability[age], age);
+            checkProbability(maleDeathProbability[age], age);
+        }
+        return new LifeTable(femaleDeathProbability.clone(), maleDeathProbability.clone());
+    }
+
+    /**
+     * Loads a life table from a CSV file with a header line and one row per age, in order from 0:
+     * the age, the female death probability and the male death probability.
+     * @param file The CSV file.
+     * @return The life table.
+     * @throws IOException If there is an error reading the file.
+     * @throws IllegalArgumentException If a row cannot be parsed or the ages are not 0, 1, 2 and so on.
+     */
+    public static LifeTable load(File file) throws IOException {
+        CsvLoader.Result<double[]> result = CsvLoader.load(file, LifeTable::readAge);
+        if (!result.getErrors().isEmpty()) {
+            throw new IllegalArgumentException("Invalid life table: " + result.getErrors().get(0));
+        }
+        int ages = result.getRows().size();
+        double[] female = new double[ages];
+        double[] male = new double[ages];
+        for (int age = 0; age < ages; age++) {
+            double[] row = result.getRows().get(age);
+            if (row[0] != age) {
+                throw new IllegalArgumentException("Expected age " + age + " on line " + (age + 2) + " but found " + (int) row[0] + ".");
+            }
+            female[age] = row[1];
+            male[age] = row[2];
+        }
+        return of(female, male);
+    }
+
+    private static double[] readAge(CsvLoader.Row data) {
+        if (data.getFieldCount() < 3) {
+            throw new IllegalArgumentException("Expected 3 fields for an age but found " + data.getFieldCount() + ".");
+        }
+        return new double[]{data.getInt(0), data.getDouble(1), data.getDouble(2)};
+    }
+
+    private static void checkProbability(double probability, int age) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Death probability at age " + age + " must be between 0 and 1.");
+        }
+    }
+
+    /**
+     * Returns the last age in the table.
+     * @return The age at which everyone is assumed to die.
+     */
+    public int getMaxAge() {
+        return femaleDeathProbability.length - 1;
+    }
+
+    /**
+     * Returns the probability that a person of a given age dies within the year.
+     * @param sex The sex whose mortality applies.
+     * @param age The age, not negative; ages beyond the table give 1.
+     * @return The death probability.
+     */
+    public double deathProbability(Sex sex, int age) {
+        if (age < 0) {
+            throw new IllegalArgumentException("Age cannot be negative.");
+        }
+        if (age > getMaxAge()) {
+            return 1;
+        }
+        switch (sex) {
+            case FEMALE:
+                return femaleDeathProbability[age];
+            case MALE:
+                return maleDeathProbability[age];
+            default:
+                return (femaleDeathProbability[age] + maleDeathProbability[age]) / 2;
+        }
+    }
+
+    /**
+     * Returns the probability that a person of a given age is still alive a number of years later.
+     * @param sex The sex whose mortality applies.
+     * @param age The current age, not negative.
+     * @param years The number of years, not negative.
+     * @return The survival probability.
+     */
+    public double survivalProbability(Sex sex, int age, int years) {
+        double survival = 1;
+        for (int t = 0; t < years && survival > 0; t++) {
+            survival *= 1 - deathProbability(sex, age + t);
+        }
+        return survival;
+    }
+}
@@ -0,0 +1,456 @@
+package final_project;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulates a household's net worth year by year along many random return paths.
+ * Every bond, stock and real estate holding follows a lognormal price path whose expected annual total return is the
+ * asset's interest rate and whose annual standard deviation is the asset's volatility. Shocks are correlated through
+ * a one-factor model: each asset class loads on a common market shock, and the rest of its shock is its own.
+ * Coupons, dividends, rental income, debt payments and goals are deterministic cash flows kept in cash that earns nothing.
+ * A bond stops moving at maturity, when it is redeemed at its simulated price.
+ * <p>
+ * Paths are simulated in fixed-size chunks, each with its own {@link SplittableRandom} split from the seed in chunk
+ * order, and chunk results are merged in a fixed tree order, so a seed gives the same result on any number of threads.
+ * Paths are not stored: each chunk adds its net worths to one histogram per year, whose range is set by a short pilot
+ * run, and percentiles are read from the merged histograms. Memory therefore depends on the horizon, not the path count.
+ */
+public class MonteCarloEngine {
+    /**
+     * Loading of bonds on the common market shock.
+     */
+    public static final double BOND_MARKET_LOADING = 0.2;
+
+    /**
+     * Loading of stocks on the common market shock.
+     */
+    public static final double STOCK_MARKET_LOADING = 0.8;
+
+    /**
+     * Loading of real estate on the common market shock.
+     */
+    public static final double REAL_ESTATE_MARKET_LOADING = 0.5;
+
+    /**
+     * Number of histogram bins per year; a percentile is accurate to about the width of one bin.
+     */
+    public static final int HISTOGRAM_BINS = 2048;
+
+    private static final int PATHS_PER_CHUNK = 8192;
+    private static final int PILOT_PATHS = 1024;
+
+    private final int parallelism;
+
+    /**
+     * Percentile bands of a household's simulated net worth, for every year from the start year to the end of the horizon.
+     */
+    public static final class Result {
+        private final int startYear;
+        private final long paths;
+        private final Accumulator accumulator;
+        private final long elapsedNanos;
+
+        Result(int startYear, long paths, Accumulator accumulator, long elapsedNanos) {
+            this.startYear = startYear;
+            this.paths = paths;
+            this.accumulator = accumulator;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getStartYear() {
+            return startYear;
+        }
+
+        /**
+         * Returns the number of simulated years after the start year.
+         * @return The horizon in years.
+         */
+        public int getHorizonYears() {
+            return accumulator.sums.length - 1;
+        }
+
+        public long getPaths() {
+            return paths;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the mean net worth in a year.
+         * @param year The calendar year, from the start year to the end of the horizon.
+         * @return The mean over all paths.
+         */
+        public double getMean(int year) {
+            return accumulator.sums[offset(year)] / paths;
+        }
+
+        /**
+         * Returns a percentile of the net worth in a year, interpolated within its histogram bin.
+         * @param year The calendar year, from the start year to the end of the horizon.
+         * @param percentile The percentile as a fraction between 0 and 1.
+         * @return The net worth below which that fraction of paths fall.
+         */
+        public double getPercentile(int year, double percentile) {
+            if (!(percentile >= 0 && percentile <= 1)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1.");
+            }
+            return accumulator.percentile(offset(year), percentile * paths);
+        }
+
+        /**
+         * Returns one percentile for every year of the horizon.
+         * @param percentile The percentile as a fraction between 0 and 1.
+         * @return The band, indexed by years after the start year.
+         */
+        public double[] getBand(double percentile) {
+            double[] band = new double[getHorizonYears() + 1];
+            for (int t = 0; t < band.length; t++) {
+                band[t] = getPercentile(startYear + t, percentile);
+            }
+            return band;
+        }
+
+        private int offset(int year) {
+            int t = year - startYear;
+            if (t < 0 || t > getHorizonYears()) {
+                throw new IllegalArgumentException("Year " + year + " is outside the simulated horizon.");
+            }
+            return t;
+        }
+    }
+
+    /**
+     * Constructs a MonteCarloEngine.
+     * @param parallelism The number of worker threads, at least 1.
+     */
+    public MonteCarloEngine(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Simulates the net worth of a household.
+     * @param assetManager The household's assets and debts; its column stores are read once before the simulation starts.
+     * @param goalManager The household's goals, or null to ignore goals.
+     * @param startYear The year in which the simulation starts from the assets' current amounts.
+     * @param horizonYears The number of years to simulate, at least 1.
+     * @param paths The number of paths, at least 1.
+     * @param seed The seed; the same seed gives the same result regardless of parallelism.
+     * @return The percentile bands.
+     */
+    public Result simulate(AssetAndDebtManager assetManager, GoalManager goalManager, int startYear, int horizonYears,
+                           long paths, long seed) {
+        if (horizonYears < 1 || paths < 1) {
+            throw new IllegalArgumentException("Horizon and number of paths must both be at least 1.");
+        }
+        long start = System.nanoTime();
+        Model model;
+        synchronized (assetManager) {
+            model = new Model(assetManager, goalManager == null ? List.of() : goalManager.getGoalList(), startYear, horizonYears);
+        }
+
+        SplittableRandom root = new SplittableRandom(seed);
+        double[][] range = model.pilot(root.split());
+        int chunks = (int) ((paths + PATHS_PER_CHUNK - 1) / PATHS_PER_CHUNK);
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Accumulator accumulator = pool.invoke(new ChunkTask(model, range, randoms, paths, 0, chunks));
+            return new Result(startYear, paths, accumulator, System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Simulates a range of chunks by splitting it in half until one chunk is left, then merges the halves.
+     */
+    private static final class ChunkTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final Model model;
+        private final double[][] range;
+        private final SplittableRandom[] randoms;
+        private final long paths;
+        private final int from;
+        private final int to;
+
+        ChunkTask(Model model, double[][] range, SplittableRandom[] randoms, long paths, int from, int to) {
+            this.model = model;
+            this.range = range;
+            this.randoms = randoms;
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from == 1) {
+                Accumulator accumulator = new Accumulator(range[0], range[1]);
+                long chunkPaths = Math.min(PATHS_PER_CHUNK, paths - (long) from * PATHS_PER_CHUNK);
+                model.simulate(randoms[from], chunkPaths, accumulator);
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(model, range, randoms, paths, from, middle);
+            left.fork();
+            Accumulator right = new ChunkTask(model, range, randoms, paths, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * A read-only snapshot of the household in the form the simulation loop needs.
+     */
+    private static final class Model {
+        private final int horizonYears;
+        private final int assets;
+        private final double[] initialLogValue;
+        private final double[] logDrift;
+        private final double[] volatility;
+        private final double[] marketLoading;
+        private final double[] ownLoading;
+        private final int[] lastMovingYear;
+        // Cumulative deterministic cash up to each year minus the debt principal still outstanding in that year
+        private final double[] baseline;
+
+        Model(AssetAndDebtManager assetManager, List<Goal> goals, int startYear, int horizonYears) {
+            this.horizonYears = horizonYears;
+            BondColumns bonds = assetManager.getBondColumns();
+            StockColumns stocks = assetManager.getStockColumns();
+            RealEstateColumns realEstates = assetManager.getRealEstateColumns();
+            assets = bonds.size() + stocks.size() + realEstates.size();
+            initialLogValue = new double[assets];
+            logDrift = new double[assets];
+            volatility = new double[assets];
+            marketLoading = new double[assets];
+            ownLoading = new double[assets];
+            lastMovingYear = new int[assets];
+            double[] cashFlow = new double[horizonYears + 1];
+            double[] principalDue = new double[horizonYears + 1];
+
+            int i = 0;
+            for (int row = 0; row < bonds.size(); row++, i++) {
+                int maturity = Math.max(0, bonds.getMaturity(row) - startYear);
+                addLevelFlow(cashFlow, bonds.getCoupon(row), maturity);
+                setAsset(i, bonds, row, bonds.getCoupon(row), BOND_MARKET_LOADING, Math.min(maturity, horizonYears));
+            }
+            for (int row = 0; row < stocks.size(); row++, i++) {
+                double dividend = stocks.getDividend(row);
+                for (int t = 1; t <= horizonYears; t++) {
+                    cashFlow[t] += dividend;
+                    dividend *= 1 + stocks.getDividendGrowthRate(row);
+                }
+                setAsset(i, stocks, row, stocks.getDividend(row), STOCK_MARKET_LOADING, horizonYears);
+            }
+            for (int row = 0; row < realEstates.size(); row++, i++) {
+                addLevelFlow(cashFlow, realEstates.getNetOperatingIncome(row), horizonYears);
+                setAsset(i, realEstates, row, realEstates.getNetOperatingIncome(row), REAL_ESTATE_MARKET_LOADING, horizonYears);
+            }
+
+            DebtColumns debts = assetManager.getDebtColumns();
+            for (int row = 0; row < debts.size(); row++) {
+                int due = Math.max(0, debts.getTime(row) - startYear);
+                double amount = debts.getAmount(row);
+                if (!debts.isOneTime(row)) {
+                    addLevelFlow(cashFlow, -amount * debts.getInterestRate(row), due);
+                }
+                if (due <= horizonYears) {
+                    cashFlow[due] -= amount;
+                }
+                for (int t = 0; t < Math.min(due, horizonYears + 1); t++) {
+                    principalDue[t] += amount;
+                }
+            }
+            for (Goal goal : goals) {
+                int due = Math.max(0, goal.getTime() - startYear);
+                if (goal.isOneTime()) {
+                    if (due <= horizonYears) {
+                        cashFlow[due] -= goal.getAmount();
+                    }
+                } else {
+                    addLevelFlow(cashFlow, -goal.getAmount(), due);
+                }
+            }
+
+            baseline = new double[horizonYears + 1];
+            double cash = 0;
+            for (int t = 0; t <= horizonYears; t++) {
+                cash += cashFlow[t];
+                baseline[t] = cash - principalDue[t];
+            }
+        }
+
+        /**
+         * Sets up the price path of one asset, whose expected price growth is its total return less its payout yield.
+         */
+        private void setAsset(int i, AssetColumns<?> columns, int row, double payout, double loading, int lastYear) {
+            double amount = columns.getAmount(row);
+            double sigma = columns.getVolatility(row);
+            double priceGrowth = columns.getInterestRate(row) - (amount > 0 ? payout / amount : 0);
+            initialLogValue[i] = Math.log(amount);
+            // A payout larger than the whole return would otherwise give a non-positive growth factor
+            logDrift[i] = Math.log1p(Math.max(priceGrowth, -0.99)) - sigma * sigma / 2;
+            volatility[i] = sigma;
+            marketLoading[i] = loading;
+            ownLoading[i] = Math.sqrt(1 - loading * loading);
+            lastMovingYear[i] = lastYear;
+        }
+
+        private static void addLevelFlow(double[] cashFlow, double payment, int lastYear) {
+            for (int t = 1; t <= Math.min(lastYear, cashFlow.length - 1); t++) {
+                cashFlow[t] += payment;
+            }
+        }
+
+        /**
+         * Simulates paths, passing the net worth of every path in every year to the accumulator.
+         */
+        void simulate(SplittableRandom random, long paths, Accumulator accumulator) {
+            GaussianSource gaussian = new GaussianSource(random);
+            double[] logValue = new double[assets];
+            for (long p = 0; p < paths; p++) {
+                System.arraycopy(initialLogValue, 0, logValue, 0, assets);
+                double netWorth = baseline[0];
+                for (int i = 0; i < assets; i++) {
+                    netWorth += Math.exp(logValue[i]);
+                }
+                accumulator.add(0, netWorth);
+                for (int t = 1; t <= horizonYears; t++) {
+                    double market = gaussian.next();
+                    netWorth = baseline[t];
+                    for (int i = 0; i < assets; i++) {
+                        if (t <= lastMovingYear[i]) {
+                            double shock = volatility[i] == 0 ? 0
+                                    : volatility[i] * (marketLoading[i] * market + ownLoading[i] * gaussian.next());
+                            logValue[i] += logDrift[i] + shock;
+                        }
+                        netWorth += Math.exp(logValue[i]);
+                    }
+                    accumulator.add(t, netWorth);
+                }
+            }
+        }
+
+        /**
+         * Runs a short simulation and widens its extremes by half their spread, giving the histogram range of each year.
+         * @return The lower bounds and the upper bounds, in that order.
+         */
+        double[][] pilot(SplittableRandom random) {
+            double[] low = new double[horizonYears + 1];
+            double[] high = new double[horizonYears + 1];
+            Accumulator pilot = new Accumulator(low, high);
+            simulate(random, PILOT_PATHS, pilot);
+            for (int t = 0; t <= horizonYears; t++) {
+                double margin = Math.max((pilot.max[t] - pilot.min[t]) / 2, Math.max(1, Math.abs(pilot.max[t]) * 1e-6));
+                low[t] = pilot.min[t] - margin;
+                high[t] = pilot.max[t] + margin;
+            }
+            return new double[][]{low, high};
+        }
+    }
+
+    /**
+     * Per-year histograms, sums and extremes of simulated net worths; values outside the range land in the edge bins.
+     */
+    private static final class Accumulator {
+        private final double[] low;
+        private final double[] binWidth;
+        private final long[][] counts;
+        private final double[] sums;
+        private final double[] min;
+        private final double[] max;
+
+        Accumulator(double[] low, double[] high) {
+            int years = low.length;
+            this.low = low;
+            this.binWidth = new double[years];
+            this.counts = new long[years][HISTOGRAM_BINS];
+            this.sums = new double[years];
+            this.min = new double[years];
+            this.max = new double[years];
+            for (int t = 0; t < years; t++) {
+                binWidth[t] = (high[t] - low[t]) / HISTOGRAM_BINS;
+                min[t] = Double.POSITIVE_INFINITY;
+                max[t] = Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        void add(int t, double value) {
+            int bin = binWidth[t] > 0 ? (int) ((value - low[t]) / binWidth[t]) : 0;
+            counts[t][Math.max(0, Math.min(HISTOGRAM_BINS - 1, bin))]++;
+            sums[t] += value;
+            min[t] = Math.min(min[t], value);
+            max[t] = Math.max(max[t], value);
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int t = 0; t < sums.length; t++) {
+                for (int b = 0; b < HISTOGRAM_BINS; b++) {
+                    counts[t][b] += other.counts[t][b];
+                }
+                sums[t] += other.sums[t];
+                min[t] = Math.min(min[t], other.min[t]);
+                max[t] = Math.max(max[t], other.max[t]);
+            }
+            return this;
+        }
+
+        double percentile(int t, double rank) {
+            long seen = 0;
+            for (int b = 0; b < HISTOGRAM_BINS; b++) {
+                long count = counts[t][b];
+                if (count > 0 && seen + count >= rank) {
+                    double value = low[t] + binWidth[t] * (b + (rank - seen) / count);
+                    return Math.max(min[t], Math.min(max[t], value));
+                }
+                seen += count;
+            }
+            return max[t];
+        }
+    }
+
+    /**
+     * Standard normal variates from the polar method, which needs no trigonometric functions and yields them in pairs.
+     */
+    private static final class GaussianSource {
+        private final SplittableRandom random;
+        private double spare;
+        private boolean hasSpare;
+
+        GaussianSource(SplittableRandom random) {
+            this.random = random;
+        }
+
+        double next() {
+            if (hasSpare) {
+                hasSpare = false;
+                return spare;
+            }
+            double u;
+            double v;
+            double s;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                v = 2 * random.nextDouble() - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double scale = Math.sqrt(-2 * Math.log(s) / s);
+            spare = v * scale;
+            hasSpare = true;
+            return u * scale;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * Previews the net present value and the advisor's strategy at a discount rate the user is still typing.
+ * Requests are debounced: a computation starts only once the text has stopped changing for the debounce delay.
+ * Every request bumps a generation counter; starting a computation cancels the one before it, and a result is only
+ * handed on if no newer request has arrived since, so a slow, stale computation can never overwrite a newer one.
+ * The preview reads the household under each manager's lock and values it at the typed rate row by row, so neither
+ * the applied rate nor the debts' running totals, which are kept for the applied curve, are touched.
+ * All methods must be called on the event dispatch thread, where the callbacks are also made.
+ */
+final class NpvPreview {
+    /**
+     * The default time the text must stay unchanged before a preview is computed.
+     */
+    static final int DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    /**
+     * The outcome of one preview.
+     */
+    static final class Preview {
+        private final double rate;
+        private final double netPresentValue;
+        private final double shortfall;
+        private final Strategy strategy;
+
+        Preview(double rate, double netPresentValue, double shortfall, Strategy strategy) {
+            this.rate = rate;
+            this.netPresentValue = netPresentValue;
+            this.shortfall = shortfall;
+            this.strategy = strategy;
+        }
+
+        double getRate() {
+            return rate;
+        }
+
+        double getNetPresentValue() {
+            return netPresentValue;
+        }
+
+        /**
+         * Returns the net present value less the present value of the goals.
+         * @return The shortfall; a negative value leads to the aggressive strategy.
+         */
+        double getShortfall() {
+            return shortfall;
+        }
+
+        Strategy getStrategy() {
+            return strategy;
+        }
+
+        @Override
+        public String toString() {
+            String strategyName = strategy instanceof AggressiveStrategy ? "aggressive" : "conservative";
+            return String.format("NPV at %.2f%%: %,.2f (%s)", rate * 100, netPresentValue, strategyName);
+        }
+    }
+
+    private final BalanceSheet balanceSheet;
+    private final GoalManager goalManager;
+    private final Consumer<Preview> onPreview;
+    private final Consumer<String> onError;
+    private final Timer timer;
+    private long generation;
+    private String pendingText = "";
+    private SwingWorker<Preview, Void> running;
+
+    /**
+     * Constructs an NpvPreview.
+     * @param balanceSheet The balance sheet whose family, assets, debts and valuation year are previewed.
+     * @param goalManager The goals the advisor compares the net present value with.
+     * @param onPreview Receives each preview that is still current when it is ready.
+     * @param onError Receives a message when the text is not a valid rate or the computation fails.
+     * @param debounceMillis The time the text must stay unchanged before a preview is computed.
+     */
+    NpvPreview(BalanceSheet balanceSheet, GoalManager goalManager, Consumer<Preview> onPreview, Consumer<String> onError,
+               int debounceMillis) {
+        this.balanceSheet = balanceSheet;
+        this.goalManager = goalManager;
+        this.onPreview = onPreview;
+        this.onError = onError;
+        this.timer = new Timer(debounceMillis, e -> start());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Schedules a preview of the rate in the given text, replacing any preview not yet started.
+     * @param text The text of the rate field.
+     */
+    void request(String text) {
+        generation++;
+        pendingText = text;
+        timer.restart();
+    }
+
+    /**
+     * Stops the timer and cancels any computation, for example when the window closes.
+     */
+    void cancel() {
+        generation++;
+        timer.stop();
+        if (running != null) {
+            running.cancel(true);
+        }
+    }
+
+    private void start() {
+        DiscountCurve curve;
+        try {
+            curve = DiscountCurve.flat(Double.parseDouble(pendingText.trim()), balanceSheet.getValuationYear());
+        } catch (IllegalArgumentException e) {
+            onError.accept("Invalid interest rate: " + e.getMessage());
+            return;
+        }
+        if (running != null) {
+            running.cancel(true);
+        }
+        long startedGeneration = generation;
+        running = new SwingWorker<Preview, Void>() {
+            @Override
+            protected Preview doInBackground() {
+                return compute(curve, this);
+            }
+
+            @Override
+            protected void done() {
+                if (startedGeneration != generation || isCancelled()) {
+                    return; // Superseded by a newer request
+                }
+                try {
+                    onPreview.accept(get());
+                } catch (InterruptedException | CancellationException e) {
+                    // Cancelled while finishing; a newer preview follows
+                } catch (ExecutionException e) {
+                    onError.accept("Preview failed: " + e.getCause().getMessage());
+                }
+            }
+        };
+        running.execute();
+    }
+
+    /**
+     * Values the household on a curve, giving up between steps once the worker has been cancelled.
+     */
+    private Preview compute(DiscountCurve curve, SwingWorker<?, ?> worker) {
+        Family family = balanceSheet.getFamily();
+        AssetAndDebtManager assetManager = balanceSheet.getAssetManager();
+        List<Person> members;
+        synchronized (family) {
+            members = new ArrayList<>(family.getFamilyMembers());
+        }
+        List<Goal> goals;
+        synchronized (goalManager) {
+            goals = new ArrayList<>(goalManager.getGoalList());
+        }
+        double assetsPV;
+        double liabilitiesPV = 0;
+        synchronized (assetManager) {
+            assetsPV = assetManager.getBondColumns().totalPresentValue(curve.getValuationYear())
+                    + assetManager.getStockColumns().totalPresentValue()
+                    + assetManager.getRealEstateColumns().totalPresentValue();
+            DebtColumns debts = assetManager.getDebtColumns();
+            for (int row = 0; row < debts.size(); row++) {
+                liabilitiesPV += debts.presentValue(row, curve);
+            }
+        }
+        double netPresentValue = assetsPV - liabilitiesPV;
+        checkCancelled(worker);
+
+        double incomePV = 0;
+        double expenditurePV = 0;
+        for (Person member : members) {
+            incomePV += BalanceSheet.incomePresentValue(member.getMonthlyIncome(), member.getBirthYear(), member.getLifeSpan(), curve);
+            expenditurePV += BalanceSheet.expenditurePresentValue(member.getMonthlyExpenditure(), member.getBirthYear(), member.getLifeSpan(), curve);
+        }
+        double goalsPV = 0;
+        for (Goal goal : goals) {
+            goalsPV += FinancialAdvisor.goalPresentValue(goal.getAmount(), goal.getTime(), goal.isOneTime(),
+                                                         goal.getInterestRate(), curve.getValuationYear());
+        }
+        checkCancelled(worker);
+        double shortfall = netPresentValue - goalsPV;
+        // The same choice as FinancialAdvisor.recommendStrategy, made on the snapshot
+        Strategy strategy = shortfall < 0 ? new AggressiveStrategy(shortfall)
+                                          : new ConservativeStrategy(members, incomePV, expenditurePV);
+        return new Preview(curve.zeroRate(0), netPresentValue, shortfall, strategy);
+    }
+
+    private static void checkCancelled(SwingWorker<?, ?> worker) {
+        if (worker.isCancelled()) {
+            throw new CancellationException("The preview was superseded.");
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package final_project;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind persistence for the household data.
+ * Mutations are still appended to their journal and then mark their entity type dirty; a single background thread
+ * compacts the dirty journals into their CSV files once changes have stopped arriving for the quiet period, or straight
+ * away once enough changes have piled up, so a burst of edits costs one small append per edit and one atomic rewrite
+ * per file. Because every change is journaled first, nothing is lost if the process is killed before a flush; the
+ * next load replays the journal. {@link #close()} (or the shutdown hook) still flushes so the files start compacted.
+ */
+public class PersistenceScheduler implements AutoCloseable {
+    /**
+     * Default time to wait after the last change before flushing.
+     */
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 500;
+
+    /**
+     * Default number of pending changes that triggers a flush without waiting for the quiet period.
+     */
+    public static final int DEFAULT_MAX_PENDING_CHANGES = 100;
+
+    /**
+     * Writes the data of one entity type to its file.
+     */
+    public interface Saver {
+        void save(EntityType type) throws IOException;
+    }
+
+    private final Saver saver;
+    private final long quietPeriodMillis;
+    private final int maxPendingChanges;
+    private final ScheduledExecutorService executor;
+    private final EnumSet<EntityType> dirty = EnumSet.noneOf(EntityType.class);
+    private int pendingChanges;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+    private volatile IOException lastFailure;
+    private volatile Consumer<IOException> failureListener = failure -> {};
+
+    /**
+     * Constructs a PersistenceScheduler with a custom saver.
+     * @param saver Writes each dirty entity type.
+     * @param quietPeriodMillis How long to wait after the last change before flushing.
+     * @param maxPendingChanges How many changes may accumulate before a flush starts without waiting.
+     */
+    public PersistenceScheduler(Saver saver, long quietPeriodMillis, int maxPendingChanges) {
+        if (quietPeriodMillis < 0) {
+            throw new IllegalArgumentException("Quiet period cannot be negative.");
+        }
+        if (maxPendingChanges < 1) {
+            throw new IllegalArgumentException("Maximum pending changes must be at least 1.");
+        }
+        this.saver = saver;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxPendingChanges = maxPendingChanges;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "household-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructs a PersistenceScheduler that saves the given family and managers to their CSV files.
+     * @param family The family whose members are saved.
+     * @param goalManager The manager whose goals are saved.
+     * @param assetManager The manager whose assets and debts are saved.
+     * @param quietPeriodMillis How long to wait after the last change before flushing.
+     * @param maxPendingChanges How many changes may accumulate before a flush starts without waiting.
+     */
+    public PersistenceScheduler(Family family, GoalManager goalManager, AssetAndDebtManager assetManager,
+                                long quietPeriodMillis, int maxPendingChanges) {
+        this(type -> {
+            switch (type) {
+                case PERSON:
+                    family.savePeopleToCSV();
+                    break;
+                case GOAL:
+                    goalManager.saveGoalsToCSV();
+                    break;
+                default:
+                    assetManager.saveToCSV(type);
+            }
+        }, quietPeriodMillis, maxPendingChanges);
+    }
+
+    /**
+     * Records that an entity type has changed and (re)schedules a flush.
+     * @param type The entity type that changed.
+     * @throws IllegalStateException If the scheduler has been closed.
+     */
+    public synchronized void markDirty(EntityType type) {
+        if (closed) {
+            throw new IllegalStateException("Persistence scheduler is closed.");
+        }
+        dirty.add(type);
+        pendingChanges++;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        long delay = pendingChanges >= maxPendingChanges ? 0 : quietPeriodMillis;
+        scheduledFlush = executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a flush of every dirty entity type without waiting for the quiet period.
+     * @return A future that completes once the flush has finished.
+     */
+    public synchronized Future<?> flushNow() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return executor.submit(this::flush);
+    }
+
+    /**
+     * Returns whether an entity type has changes that have not been written yet.
+     * @param type The entity type to check.
+     * @return true if the entity type is waiting to be flushed.
+     */
+    public synchronized boolean isDirty(EntityType type) {
+        return dirty.contains(type);
+    }
+
+    /**
+     * Returns the error from the most recent failed write.
+     * @return The failure, or null if no write has failed.
+     */
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Sets the listener notified, on the persistence thread, whenever a write fails.
+     * The entity type stays dirty and is retried on the next flush.
+     * @param failureListener The listener to notify.
+     */
+    public void setFailureListener(Consumer<IOException> failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Registers a JVM shutdown hook that flushes any pending changes when the application exits.
+     */
+    public void installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                System.err.println("Failed to save household data on exit: " + e.getMessage());
+            }
+        }, "household-persistence-shutdown"));
+    }
+
+    /**
+     * Flushes every pending change, waits for it to be written, and stops the background thread.
+     * Calling close more than once has no further effect.
+     * @throws IOException If the final flush failed.
+     */
+    @Override
+    public void close() throws IOException {
+        Future<?> finalFlush;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            finalFlush = flushNow();
+        }
+        executor.shutdown();
+        try {
+            finalFlush.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while saving household data.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to save household data.", e.getCause());
+        }
+        synchronized (this) {
+            if (!dirty.isEmpty()) {
+                throw new IOException("Failed to save " + dirty + ".", lastFailure);
+            }
+        }
+    }
+
+    /**
+     * Writes every dirty entity type once; runs only on the persistence thread.
+     */
+    private void flush() {
+        EnumSet<EntityType> types;
+        synchronized (this) {
+            types = EnumSet.copyOf(dirty);
+            dirty.clear();
+            pendingChanges = 0;
+        }
+        for (EntityType type : types) {
+            try {
+                saver.save(type);
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty.add(type);
+                }
+                lastFailure = e;
+                failureListener.accept(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package final_project;
+
+import java.util.List;
+import java.util.Locale;
+import javax.swing.RowFilter;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A table model over one kind of position of an {@link AssetAndDebtManager}: its bonds, stocks, real estate or debts.
+ * Cells are read straight from the manager's column stores when a JTable asks for them, which it only does for the
+ * rows it paints, so no per-row objects or strings are built up front however many positions there are.
+ * Present values are computed from the row's current inputs each time a cell is read: stocks and real estate from the
+ * columns' own cached values, bonds at the balance sheet's valuation year and debts on its curve, both in closed form,
+ * so an edited position never shows a stale value.
+ * Columns report their classes, so a {@link javax.swing.table.TableRowSorter} sorts numbers as numbers.
+ */
+public final class PositionTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DESCRIPTION_COLUMN = 0;
+    public static final int AMOUNT_COLUMN = 1;
+    public static final int RATE_COLUMN = 2;
+    public static final int DETAIL_COLUMN = 3;
+    public static final int PRESENT_VALUE_COLUMN = 4;
+
+    private final EntityType type;
+    private final AssetAndDebtManager assetManager;
+    private final BalanceSheet balanceSheet;
+    private final String detailName;
+    private final Class<?> detailClass;
+
+    /**
+     * Constructs a PositionTableModel.
+     * @param type The kind of position shown: BOND, STOCK, REAL_ESTATE or DEBT.
+     * @param assetManager The manager holding the positions.
+     * @param balanceSheet The balance sheet whose curve values debts.
+     * @throws IllegalArgumentException If the type is not a kind of position.
+     */
+    public PositionTableModel(EntityType type, AssetAndDebtManager assetManager, BalanceSheet balanceSheet) {
+        this.type = type;
+        this.assetManager = assetManager;
+        this.balanceSheet = balanceSheet;
+        switch (type) {
+            case BOND:
+                detailName = "Maturity";
+                detailClass = Integer.class;
+                break;
+            case STOCK:
+                detailName = "Dividend";
+                detailClass = Double.class;
+                break;
+            case REAL_ESTATE:
+                detailName = "Net Operating Income";
+                detailClass = Double.class;
+                break;
+            case DEBT:
+                detailName = "Due";
+                detailClass = Integer.class;
+                break;
+            default:
+                throw new IllegalArgumentException(type + " is not a kind of position.");
+        }
+    }
+
+    public EntityType getType() {
+        return type;
+    }
+
+    /**
+     * Tells the table that every row may have changed, after positions were added, updated or deleted.
+     */
+    public void refresh() {
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        synchronized (assetManager) {
+            return type == EntityType.DEBT ? assetManager.getDebtColumns().size() : assetColumns().size();
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 5;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        switch (column) {
+            case DESCRIPTION_COLUMN:
+                return "Description";
+            case AMOUNT_COLUMN:
+                return "Amount";
+            case RATE_COLUMN:
+                return "Rate";
+            case DETAIL_COLUMN:
+                return detailName;
+            default:
+                return "Present Value";
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case DESCRIPTION_COLUMN:
+                return String.class;
+            case DETAIL_COLUMN:
+                return detailClass;
+            default:
+                return Double.class;
+        }
+    }
+
+    /**
+     * Returns one cell, or null if the row has been deleted since the table last asked for the row count.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        synchronized (assetManager) {
+            if (row >= getRowCount()) {
+                return null;
+            }
+            if (type == EntityType.DEBT) {
+                return debtValueAt(assetManager.getDebtColumns(), row, column);
+            }
+            AssetColumns<?> columns = assetColumns();
+            switch (column) {
+                case DESCRIPTION_COLUMN:
+                    return assetList().get(row).getDescription();
+                case AMOUNT_COLUMN:
+                    return columns.getAmount(row);
+                case RATE_COLUMN:
+                    return columns.getInterestRate(row);
+                case DETAIL_COLUMN:
+                    return detailAt(row);
+                default:
+                    if (type == EntityType.BOND) {
+                        return assetManager.getBondColumns().presentValue(row, balanceSheet.getValuationYear());
+                    }
+                    return columns.presentValue(row);
+            }
+        }
+    }
+
+    private Object debtValueAt(DebtColumns debts, int row, int column) {
+        switch (column) {
+            case DESCRIPTION_COLUMN:
+                return assetManager.getDebtList().get(row).getDescription();
+            case AMOUNT_COLUMN:
+                return debts.getAmount(row);
+            case RATE_COLUMN:
+                return debts.getInterestRate(row);
+            case DETAIL_COLUMN:
+                return debts.getTime(row);
+            default:
+                return debts.presentValue(row, balanceSheet.getDiscountCurve());
+        }
+    }
+
+    private Object detailAt(int row) {
+        switch (type) {
+            case BOND:
+                return assetManager.getBondColumns().getMaturity(row);
+            case STOCK:
+                return assetManager.getStockColumns().getDividend(row);
+            default:
+                return assetManager.getRealEstateColumns().getNetOperatingIncome(row);
+        }
+    }
+
+    private AssetColumns<?> assetColumns() {
+        switch (type) {
+            case BOND:
+                return assetManager.getBondColumns();
+            case STOCK:
+                return assetManager.getStockColumns();
+            default:
+                return assetManager.getRealEstateColumns();
+        }
+    }
+
+    private List<? extends Asset> assetList() {
+        switch (type) {
+            case BOND:
+                return assetManager.getBondList();
+            case STOCK:
+                return assetManager.getStockList();
+            default:
+                return assetManager.getRealEstateList();
+        }
+    }
+
+    /**
+     * Creates a filter that keeps the rows whose description contains a text, ignoring case.
+     * @param text The text to look for; an empty text keeps every row.
+     * @return The filter, for a TableRowSorter over a PositionTableModel.
+     */
+    public static RowFilter<PositionTableModel, Integer> descriptionFilter(String text) {
+        String needle = text.trim().toLowerCase(Locale.ROOT);
+        return new RowFilter<PositionTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends PositionTableModel, ? extends Integer> entry) {
+                if (needle.isEmpty()) {
+                    return true;
+                }
+                Object description = entry.getModel().getValueAt(entry.getIdentifier(), DESCRIPTION_COLUMN);
+                return description != null && description.toString().toLowerCase(Locale.ROOT).contains(needle);
+            }
+        };
+    }
+}
@@ -29,11 +29,22 @@ public class RealEstate extends Asset {
      */
     @Override
     public double calculateReturn() {
+        return presentValue(getAmount(), getInterestRate(), netOperatingIncome);
+    }
+
+    /**
+     * Values real estate from its inputs; shared by {@link #calculateReturn()} and {@link RealEstateColumns}.
+     * @param amount The current market value.
+     * @param interestRate The rate used to discount the net operating income.
+     * @param netOperatingIncome The annual net operating income.
+     * @return The present value of the income stream plus the market value.
+     */
+    static double presentValue(double amount, double interestRate, double netOperatingIncome) {
         // Calculate the present value of an infinite stream of NOI
-        double presentValueOfNOI = netOperatingIncome / getInterestRate();  // Using formula: PV = NOI / r
+        double presentValueOfNOI = Annuity.perpetuity(netOperatingIncome, interestRate);  // Using formula: PV = NOI / r
 
         // The return is the sum of the present value of NOI and the amount (current market value)
-        return presentValueOfNOI + getAmount();
+        return presentValueOfNOI + amount;
     }
 
     public double getNetOperatingIncome() {
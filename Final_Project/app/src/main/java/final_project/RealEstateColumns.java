@@ -0,0 +1,34 @@
+package final_project;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage and valuation kernel for real estate.
+ */
+public final class RealEstateColumns extends AssetColumns<RealEstate> {
+    private double[] netOperatingIncome = new double[amount.length];
+
+    public double getNetOperatingIncome(int row) {
+        return netOperatingIncome[checkRow(row)];
+    }
+
+    @Override
+    protected double valueRow(int row) {
+        return RealEstate.presentValue(amount[row], interestRate[row], netOperatingIncome[row]);
+    }
+
+    @Override
+    protected void setColumns(int row, RealEstate realEstate) {
+        netOperatingIncome[row] = realEstate.getNetOperatingIncome();
+    }
+
+    @Override
+    protected void moveColumns(int from, int to) {
+        netOperatingIncome[to] = netOperatingIncome[from];
+    }
+
+    @Override
+    protected void growColumns(int capacity) {
+        netOperatingIncome = Arrays.copyOf(netOperatingIncome, capacity);
+    }
+}
@@ -0,0 +1,141 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A structured, immutable report: a list of sections, each an optional title followed by lines.
+ * Reports hold labels and numbers rather than formatted text, so they can be rendered by a {@link ReportWriter}
+ * straight into any output and shared freely between threads.
+ */
+public final class Report {
+    private final List<Section> sections;
+
+    /**
+     * One line of a report: a subject such as a person's name, a text, and optionally a value.
+     * It is rendered as the subject, then the text, then ": " and the value if there is one.
+     */
+    public static final class Line {
+        private final String subject;
+        private final String text;
+        private final double value;
+        private final boolean hasValue;
+
+        private Line(String subject, String text, double value, boolean hasValue) {
+            this.subject = subject;
+            this.text = text;
+            this.value = value;
+            this.hasValue = hasValue;
+        }
+
+        /**
+         * Creates a line with only a text, such as a heading within a section.
+         * @param text The text.
+         * @return The line.
+         */
+        public static Line text(String text) {
+            return new Line("", text, 0, false);
+        }
+
+        /**
+         * Creates a line with a subject followed by a text, such as "Alice is adequately covered by insurance.".
+         * @param subject The subject, written first.
+         * @param text The text written after the subject.
+         * @return The line.
+         */
+        public static Line message(String subject, String text) {
+            return new Line(subject, text, 0, false);
+        }
+
+        /**
+         * Creates a labelled value, such as "Total Assets: 1000.0".
+         * @param label The label.
+         * @param value The value.
+         * @return The line.
+         */
+        public static Line value(String label, double value) {
+            return new Line("", label, value, true);
+        }
+
+        /**
+         * Creates a labelled value about a subject, such as "Alice's insurance shortfall: 1000.0".
+         * @param subject The subject, written first.
+         * @param label The label written after the subject.
+         * @param value The value.
+         * @return The line.
+         */
+        public static Line value(String subject, String label, double value) {
+            return new Line(subject, label, value, true);
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public boolean hasValue() {
+            return hasValue;
+        }
+    }
+
+    /**
+     * A titled group of lines.
+     */
+    public static final class Section {
+        private final String title;
+        private final List<Line> lines;
+
+        /**
+         * Constructs a Section.
+         * @param title The title, or null for a section without one.
+         * @param lines The lines, in order.
+         */
+        public Section(String title, List<Line> lines) {
+            this.title = title;
+            this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public List<Line> getLines() {
+            return lines;
+        }
+
+        /**
+         * Returns the value of the first line with the given text, for reading totals back out of a section.
+         * @param text The text of the line.
+         * @return The value.
+         * @throws IllegalArgumentException If no line with a value has that text.
+         */
+        public double getValue(String text) {
+            for (Line line : lines) {
+                if (line.hasValue && line.text.equals(text)) {
+                    return line.value;
+                }
+            }
+            throw new IllegalArgumentException("No value labelled \"" + text + "\".");
+        }
+    }
+
+    /**
+     * Constructs a Report.
+     * @param sections The sections, in order.
+     */
+    public Report(List<Section> sections) {
+        this.sections = Collections.unmodifiableList(new ArrayList<>(sections));
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+}
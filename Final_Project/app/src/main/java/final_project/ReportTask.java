@@ -0,0 +1,128 @@
+package final_project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
+
+/**
+ * Prints a report section by section on a background thread and appends the text to a text area as it arrives,
+ * so the event dispatch thread is never blocked by the valuations behind the report.
+ * Each section prints to the task's own stream rather than to System.out, so reports never interfere with each other
+ * or with anything else that prints. Progress is the share of sections finished, from 0 to 100.
+ * Cancelling the task stops it at the next line a section prints, or before the next section starts.
+ */
+final class ReportTask extends SwingWorker<Void, String> {
+    /**
+     * Text buffered before it is handed to the event dispatch thread, so long sections appear while they are printed.
+     */
+    static final int PUBLISH_THRESHOLD = 8192;
+
+    /**
+     * One part of a report.
+     */
+    interface Section {
+        /**
+         * Prints the section.
+         * @param out The stream to print to.
+         */
+        void print(PrintStream out);
+    }
+
+    private final JTextArea target;
+    private final List<Section> sections;
+
+    /**
+     * Constructs a ReportTask; call {@link #execute()} to start it.
+     * @param target The text area the report is appended to.
+     * @param sections The sections of the report, printed in order.
+     */
+    ReportTask(JTextArea target, List<Section> sections) {
+        this.target = target;
+        this.sections = sections;
+    }
+
+    @Override
+    protected Void doInBackground() throws Exception {
+        Sink sink = new Sink();
+        PrintStream out = new PrintStream(sink, false, "UTF-8");
+        for (int i = 0; i < sections.size(); i++) {
+            if (isCancelled()) {
+                return null;
+            }
+            sections.get(i).print(out);
+            out.flush();
+            sink.publishBuffered(true);
+            setProgress((i + 1) * 100 / sections.size());
+        }
+        return null;
+    }
+
+    @Override
+    protected void process(List<String> chunks) {
+        for (String chunk : chunks) {
+            target.append(chunk);
+        }
+    }
+
+    @Override
+    protected void done() {
+        try {
+            get();
+        } catch (CancellationException e) {
+            target.append("\nCancelled.\n");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            target.append("\nFailed: " + e.getCause().getMessage() + "\n");
+        }
+    }
+
+    /**
+     * Collects printed bytes and publishes them in large pieces; writing after cancellation aborts the section.
+     */
+    private final class Sink extends ByteArrayOutputStream {
+        @Override
+        public synchronized void write(int b) {
+            checkCancelled();
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            checkCancelled();
+            super.write(bytes, offset, length);
+            if (size() >= PUBLISH_THRESHOLD) {
+                publishBuffered(false);
+            }
+        }
+
+        /**
+         * Publishes the buffered text; unless everything is published, a partial last line is kept back so a
+         * multi-byte character is never split between two pieces.
+         */
+        synchronized void publishBuffered(boolean everything) {
+            byte[] bytes = toByteArray();
+            int end = bytes.length;
+            while (!everything && end > 0 && bytes[end - 1] != '\n') {
+                end--;
+            }
+            if (end == 0) {
+                return;
+            }
+            publish(new String(bytes, 0, end, StandardCharsets.UTF_8));
+            reset();
+            super.write(bytes, end, bytes.length - end);
+        }
+
+        private void checkCancelled() {
+            if (isCancelled()) {
+                throw new CancellationException("The report was cancelled.");
+            }
+        }
+    }
+}
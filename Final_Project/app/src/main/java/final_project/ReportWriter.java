@@ -0,0 +1,92 @@
+package final_project;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Renders {@link Report}s as plain text into any {@link Appendable}, such as a Writer, a StringBuilder or a PrintStream.
+ * Labels are appended as they are and numbers are formatted into one reused buffer, so rendering builds no
+ * intermediate strings and a report for any number of households can be streamed in constant memory.
+ * Numbers are formatted like {@link Double#toString(double)}. A ReportWriter is not thread-safe; reports themselves
+ * are immutable, so threads rendering at once should each use their own writer.
+ */
+public final class ReportWriter {
+    private final Appendable out;
+    private final String lineSeparator;
+    private final StringBuilder number = new StringBuilder(32);
+
+    /**
+     * Constructs a ReportWriter that ends lines with the platform's line separator, like {@link PrintStream#println()}.
+     * @param out The output to append to.
+     */
+    public ReportWriter(Appendable out) {
+        this(out, System.lineSeparator());
+    }
+
+    /**
+     * Constructs a ReportWriter.
+     * @param out The output to append to.
+     * @param lineSeparator The text ending every line.
+     */
+    public ReportWriter(Appendable out, String lineSeparator) {
+        this.out = out;
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Writes every section of a report.
+     * @param report The report.
+     * @throws IOException If the output cannot be appended to.
+     */
+    public void write(Report report) throws IOException {
+        for (Report.Section section : report.getSections()) {
+            write(section);
+        }
+    }
+
+    /**
+     * Writes a section: its title on a line of its own, if it has one, then its lines.
+     * @param section The section.
+     * @throws IOException If the output cannot be appended to.
+     */
+    public void write(Report.Section section) throws IOException {
+        if (section.getTitle() != null) {
+            out.append(section.getTitle()).append(lineSeparator);
+        }
+        for (Report.Line line : section.getLines()) {
+            write(line);
+        }
+    }
+
+    /**
+     * Writes one line.
+     * @param line The line.
+     * @throws IOException If the output cannot be appended to.
+     */
+    public void write(Report.Line line) throws IOException {
+        out.append(line.getSubject()).append(line.getText());
+        if (line.hasValue()) {
+            number.setLength(0);
+            number.append(line.getValue());
+            out.append(": ");
+            for (int i = 0; i < number.length(); i++) {
+                out.append(number.charAt(i)); // Writers turn an appended CharSequence into a String first
+            }
+        }
+        out.append(lineSeparator);
+    }
+
+    /**
+     * Prints a section to a stream, which never throws IOException, so callers need not handle it.
+     * @param section The section.
+     * @param out The stream to print to.
+     */
+    static void print(Report.Section section, PrintStream out) {
+        try {
+            new ReportWriter(out).write(section);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package final_project;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A named set of shocks applied to a household by a {@link StressTester}.
+ * Scenarios are immutable; each {@code with} method returns a new scenario with one more shock.
+ */
+public final class Scenario {
+    private final String name;
+    private final double rateShift;
+    private final double equityFactor;
+    private final double realEstateValueFactor;
+    private final double netOperatingIncomeFactor;
+    private final Map<String, Double> incomeFactors;
+
+    /**
+     * Constructs a scenario without shocks.
+     * @param name The name of the scenario, not null or empty.
+     */
+    public Scenario(String name) {
+        this(name, 0, 1, 1, 1, Collections.emptyMap());
+    }
+
+    private Scenario(String name, double rateShift, double equityFactor, double realEstateValueFactor,
+                     double netOperatingIncomeFactor, Map<String, Double> incomeFactors) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Scenario name cannot be null or empty.");
+        }
+        this.name = name;
+        this.rateShift = rateShift;
+        this.equityFactor = equityFactor;
+        this.realEstateValueFactor = realEstateValueFactor;
+        this.netOperatingIncomeFactor = netOperatingIncomeFactor;
+        this.incomeFactors = incomeFactors;
+    }
+
+    /**
+     * Adds a parallel shift to every discount rate: the balance sheet's curve and the rates of all assets and goals.
+     * @param shift The shift, for example 0.02 for +200 basis points.
+     * @return The new scenario.
+     */
+    public Scenario withRateShift(double shift) {
+        return new Scenario(name, rateShift + shift, equityFactor, realEstateValueFactor, netOperatingIncomeFactor, incomeFactors);
+    }
+
+    /**
+     * Moves the market value of every stock.
+     * @param change The relative change, for example -0.3 for a 30% fall; not below -1.
+     * @return The new scenario.
+     */
+    public Scenario withEquityShock(double change) {
+        checkChange(change);
+        return new Scenario(name, rateShift, equityFactor * (1 + change), realEstateValueFactor, netOperatingIncomeFactor, incomeFactors);
+    }
+
+    /**
+     * Moves the market value of every real estate holding.
+     * @param change The relative change, not below -1.
+     * @return The new scenario.
+     */
+    public Scenario withRealEstateValueShock(double change) {
+        checkChange(change);
+        return new Scenario(name, rateShift, equityFactor, realEstateValueFactor * (1 + change), netOperatingIncomeFactor, incomeFactors);
+    }
+
+    /**
+     * Moves the net operating income of every real estate holding.
+     * @param change The relative change, for example -0.2 for a 20% fall; not below -1.
+     * @return The new scenario.
+     */
+    public Scenario withNetOperatingIncomeShock(double change) {
+        checkChange(change);
+        return new Scenario(name, rateShift, equityFactor, realEstateValueFactor, netOperatingIncomeFactor * (1 + change), incomeFactors);
+    }
+
+    /**
+     * Moves the income of one family member.
+     * @param memberName The name of the member.
+     * @param change The relative change, for example -1 for losing the whole income; not below -1.
+     * @return The new scenario.
+     */
+    public Scenario withIncomeShock(String memberName, double change) {
+        checkChange(change);
+        Map<String, Double> factors = new HashMap<>(incomeFactors);
+        factors.merge(memberName, 1 + change, (a, b) -> a * b);
+        return new Scenario(name, rateShift, equityFactor, realEstateValueFactor, netOperatingIncomeFactor,
+                            Collections.unmodifiableMap(factors));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getRateShift() {
+        return rateShift;
+    }
+
+    public double getEquityFactor() {
+        return equityFactor;
+    }
+
+    public double getRealEstateValueFactor() {
+        return realEstateValueFactor;
+    }
+
+    public double getNetOperatingIncomeFactor() {
+        return netOperatingIncomeFactor;
+    }
+
+    /**
+     * Returns the factor applied to each shocked member's income.
+     * @return The factors by member name; members not in the map keep their income.
+     */
+    public Map<String, Double> getIncomeFactors() {
+        return incomeFactors;
+    }
+
+    boolean touchesStocks() {
+        return rateShift != 0 || equityFactor != 1;
+    }
+
+    boolean touchesRealEstate() {
+        return rateShift != 0 || realEstateValueFactor != 1 || netOperatingIncomeFactor != 1;
+    }
+
+    private static void checkChange(double change) {
+        if (!(change >= -1)) {
+            throw new IllegalArgumentException("A relative change cannot be below -100%.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,10 @@
+package final_project;
+
+/**
+ * Enum representing the sex whose mortality a {@link LifeTable} applies to a person.
+ */
+public enum Sex {
+    FEMALE,         // Uses the female death probabilities.
+    MALE,           // Uses the male death probabilities.
+    UNSPECIFIED     // Uses the average of the female and male death probabilities.
+}
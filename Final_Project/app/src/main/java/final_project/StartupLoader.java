@@ -0,0 +1,221 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Loads all household data in the background when the application starts.
+ * If the household snapshot is up to date it is read in a single task; otherwise the six CSV files are loaded in
+ * parallel, one task per file, and a fresh snapshot is written once every file has loaded cleanly.
+ * A {@link LoadReport} is published for each entity type as soon as its data is available.
+ */
+public class StartupLoader {
+    private final Family family;
+    private final GoalManager goalManager;
+    private final AssetAndDebtManager assetManager;
+    private final File snapshot;
+
+    /**
+     * The outcome of loading one kind of household data.
+     */
+    public static final class LoadReport {
+        private final EntityType type;
+        private final long elapsedNanos;
+        private final List<CsvLoader.RowError> rowErrors;
+        private final IOException failure;
+        private final boolean fromSnapshot;
+
+        LoadReport(EntityType type, long elapsedNanos, List<CsvLoader.RowError> rowErrors, IOException failure, boolean fromSnapshot) {
+            this.type = type;
+            this.elapsedNanos = elapsedNanos;
+            this.rowErrors = rowErrors;
+            this.failure = failure;
+            this.fromSnapshot = fromSnapshot;
+        }
+
+        public EntityType getType() {
+            return type;
+        }
+
+        /**
+         * Returns how long the load took, measured on the loading thread.
+         * @return The elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the rows that could not be parsed.
+         * @return The rejected rows, empty if the file loaded cleanly.
+         */
+        public List<CsvLoader.RowError> getRowErrors() {
+            return rowErrors;
+        }
+
+        /**
+         * Returns the error that stopped the file from loading.
+         * @return The failure, or null if the file was read.
+         */
+        public IOException getFailure() {
+            return failure;
+        }
+
+        /**
+         * Returns whether the data came from the household snapshot rather than the CSV file.
+         * @return true if the snapshot was used.
+         */
+        public boolean isFromSnapshot() {
+            return fromSnapshot;
+        }
+
+        /**
+         * Returns whether the data was loaded completely, without failures or rejected rows.
+         * @return true if the load succeeded cleanly.
+         */
+        public boolean isClean() {
+            return failure == null && rowErrors.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            String source = fromSnapshot ? HouseholdSnapshot.FILE_NAME : type.getFileName();
+            String time = String.format("%.1f ms", elapsedNanos / 1e6);
+            if (failure != null) {
+                return type.getFileName() + " failed after " + time + ": " + failure.getMessage();
+            }
+            if (!rowErrors.isEmpty()) {
+                return type.getFileName() + " loaded in " + time + " with " + rowErrors.size() + " rejected rows";
+            }
+            return type.getFileName() + " loaded from " + source + " in " + time;
+        }
+    }
+
+    /**
+     * Constructs a StartupLoader that fills the given family and managers.
+     * @param family The family to load members into.
+     * @param goalManager The manager to load goals into.
+     * @param assetManager The manager to load assets and debts into.
+     * @param snapshot The household snapshot to use when it is up to date, and to rewrite after a clean CSV load.
+     */
+    public StartupLoader(Family family, GoalManager goalManager, AssetAndDebtManager assetManager, File snapshot) {
+        this.family = family;
+        this.goalManager = goalManager;
+        this.assetManager = assetManager;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Starts loading on background threads and returns immediately.
+     * @param listener Receives each report on the loading thread as soon as that data is available.
+     * @return A future completed with one report per entity type, in EntityType order, once everything has loaded.
+     */
+    public CompletableFuture<List<LoadReport>> start(Consumer<LoadReport> listener) {
+        EntityType[] types = EntityType.values();
+        ExecutorService executor = Executors.newFixedThreadPool(types.length, runnable -> {
+            Thread thread = new Thread(runnable, "household-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<List<LoadReport>> result = CompletableFuture
+                .supplyAsync(this::loadSnapshot, executor)
+                .thenCompose(reports -> {
+                    if (reports != null) {
+                        reports.forEach(listener);
+                        return CompletableFuture.completedFuture(reports);
+                    }
+                    return loadFiles(types, executor, listener);
+                });
+        result.whenComplete((reports, error) -> executor.shutdown());
+        return result;
+    }
+
+    /**
+     * Reads the snapshot if it is up to date.
+     * @return One report per entity type, or null if the CSV files have to be parsed instead.
+     */
+    private List<LoadReport> loadSnapshot() {
+        if (!HouseholdSnapshot.isUpToDate(snapshot)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            HouseholdSnapshot.read(snapshot, family, goalManager, assetManager);
+        } catch (IOException e) {
+            return null; // Fall back to the CSV files, which are the source of truth
+        }
+        long elapsed = System.nanoTime() - start;
+        List<LoadReport> reports = new ArrayList<>();
+        for (EntityType type : EntityType.values()) {
+            reports.add(new LoadReport(type, elapsed, Collections.emptyList(), null, true));
+        }
+        return reports;
+    }
+
+    private CompletableFuture<List<LoadReport>> loadFiles(EntityType[] types, ExecutorService executor, Consumer<LoadReport> listener) {
+        long[] sources = HouseholdSnapshot.stampSources(snapshot); // Before reading, so edits made meanwhile are not cached
+        List<CompletableFuture<LoadReport>> futures = new ArrayList<>();
+        for (EntityType type : types) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                LoadReport report = loadFile(type);
+                listener.accept(report);
+                return report;
+            }, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<LoadReport> reports = new ArrayList<>();
+            futures.forEach(future -> reports.add(future.join()));
+            if (reports.stream().allMatch(LoadReport::isClean)) {
+                // Only cache a clean load, so rejected rows keep being reported until they are fixed
+                try {
+                    HouseholdSnapshot.write(snapshot, family, goalManager, assetManager, sources);
+                } catch (IOException e) {
+                    // The snapshot is only a start-up cache; the next start will parse the CSV files again
+                }
+            }
+            return reports;
+        });
+    }
+
+    private LoadReport loadFile(EntityType type) {
+        long start = System.nanoTime();
+        try {
+            List<CsvLoader.RowError> errors;
+            switch (type) {
+                case PERSON:
+                    errors = family.loadPeopleFromCSV();
+                    break;
+                case GOAL:
+                    errors = goalManager.loadGoalsFromCSV();
+                    break;
+                case DEBT:
+                    errors = assetManager.loadDebtsFromCSV();
+                    break;
+                case STOCK:
+                    errors = assetManager.loadStocksFromCSV();
+                    break;
+                case REAL_ESTATE:
+                    errors = assetManager.loadRealEstateFromCSV();
+                    break;
+                case BOND:
+                    errors = assetManager.loadBondsFromCSV();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported entity type " + type);
+            }
+            return new LoadReport(type, System.nanoTime() - start, errors, null, false);
+        } catch (IOException e) {
+            return new LoadReport(type, System.nanoTime() - start, Collections.emptyList(), e, false);
+        } catch (RuntimeException e) {
+            // A corrupt journal record or an unexpected parser failure should only take down its own file
+            return new LoadReport(type, System.nanoTime() - start, Collections.emptyList(), new IOException(e.getMessage(), e), false);
+        }
+    }
+}
@@ -33,14 +33,24 @@ public class Stock extends Asset {
      */
     @Override
     public double calculateReturn() {
-        if (getInterestRate() <= dividendGrowthRate) {
-            throw new IllegalArgumentException("Discount rate must be greater than the dividend growth rate to avoid infinite intrinsic value.");
-        }
+        return presentValue(getAmount(), getInterestRate(), dividend, dividendGrowthRate);
+    }
+
+    /**
+     * Values a stock from its inputs; shared by {@link #calculateReturn()} and {@link StockColumns}.
+     * @param amount The current market value.
+     * @param interestRate The rate used to discount the dividends.
+     * @param dividend The annual dividend.
+     * @param dividendGrowthRate The expected annual growth rate of the dividend.
+     * @return The higher of the dividend discount value and the market value.
+     * @throws IllegalArgumentException If the discount rate does not exceed the dividend growth rate.
+     */
+    static double presentValue(double amount, double interestRate, double dividend, double dividendGrowthRate) {
         // Calculate the present value of infinite future dividends
-        double intrinsicValue = dividend / (getInterestRate() - dividendGrowthRate);
+        double intrinsicValue = Annuity.growingPerpetuity(dividend, interestRate, dividendGrowthRate);
 
         // Return the higher of the intrinsic value or the current market value (amount)
-        return Math.max(intrinsicValue, getAmount());
+        return Math.max(intrinsicValue, amount);
     }
 
     public double getDividend() {
@@ -0,0 +1,42 @@
+package final_project;
+
+import java.util.Arrays;
+
+/**
+ * Columnar storage and valuation kernel for stocks.
+ */
+public final class StockColumns extends AssetColumns<Stock> {
+    private double[] dividend = new double[amount.length];
+    private double[] dividendGrowthRate = new double[amount.length];
+
+    public double getDividend(int row) {
+        return dividend[checkRow(row)];
+    }
+
+    public double getDividendGrowthRate(int row) {
+        return dividendGrowthRate[checkRow(row)];
+    }
+
+    @Override
+    protected double valueRow(int row) {
+        return Stock.presentValue(amount[row], interestRate[row], dividend[row], dividendGrowthRate[row]);
+    }
+
+    @Override
+    protected void setColumns(int row, Stock stock) {
+        dividend[row] = stock.getDividend();
+        dividendGrowthRate[row] = stock.getDividendGrowthRate();
+    }
+
+    @Override
+    protected void moveColumns(int from, int to) {
+        dividend[to] = dividend[from];
+        dividendGrowthRate[to] = dividendGrowthRate[from];
+    }
+
+    @Override
+    protected void growColumns(int capacity) {
+        dividend = Arrays.copyOf(dividend, capacity);
+        dividendGrowthRate = Arrays.copyOf(dividendGrowthRate, capacity);
+    }
+}
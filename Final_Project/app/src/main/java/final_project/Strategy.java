@@ -1,5 +1,26 @@
 package final_project;
 
+import java.io.PrintStream;
+
 public interface Strategy {
-    void execute();
-}
\ No newline at end of file
+    /**
+     * Prints the strategy's advice to standard output.
+     */
+    default void execute() {
+        execute(System.out);
+    }
+
+    /**
+     * Prints the strategy's advice.
+     * @param out The stream to print to.
+     */
+    default void execute(PrintStream out) {
+        ReportWriter.print(report(), out);
+    }
+
+    /**
+     * Returns the strategy's advice as a report section, for rendering with a {@link ReportWriter}.
+     * @return The advice.
+     */
+    Report.Section report();
+}
@@ -0,0 +1,356 @@
+package final_project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link Scenario}s to a household and reports the net present value and recommended strategy under each one.
+ * The constructor copies the household's positions and the partial sums of its balance sheet once. A scenario then
+ * revalues only the positions its shocks touch, with the same kernels as the balance sheet, and reuses the baseline
+ * sum of every other asset class, of the debts and of the other family members. Scenarios share nothing but those
+ * read-only copies, so many of them are evaluated in parallel. The copies hold the position inputs, members, goals and
+ * curve of the moment the tester was built; a tester built before an edit keeps stressing the household without it.
+ */
+public class StressTester {
+    private final int parallelism;
+    private final DiscountCurve curve;
+    private final List<Person> members;
+    private final Map<String, Integer> memberIndex = new HashMap<>();
+
+    private final double[] bondAmount;
+    private final double[] bondRate;
+    private final int[] bondMaturity;
+    private final double[] bondCoupon;
+    private final double[] stockAmount;
+    private final double[] stockRate;
+    private final double[] stockDividend;
+    private final double[] stockGrowth;
+    private final double[] realEstateAmount;
+    private final double[] realEstateRate;
+    private final double[] realEstateIncome;
+    private final double[] debtAmount;
+    private final double[] debtRate;
+    private final boolean[] debtOneTime;
+    private final int[] debtTime;
+    private final List<Goal> goals;
+
+    private final double baseBondsPV;
+    private final double baseStocksPV;
+    private final double baseRealEstatePV;
+    private final double baseLiabilitiesPV;
+    private final double[] memberIncomePV;
+    private final double[] memberExpenditurePV;
+    private final double baseIncomePV;
+    private final double baseExpenditurePV;
+    private final double baseGoalsPV;
+
+    /**
+     * The outcome of one scenario, or the reason it could not be evaluated.
+     */
+    public static final class Outcome {
+        private final String scenario;
+        private final double assetsPV;
+        private final double liabilitiesPV;
+        private final double incomePV;
+        private final double expenditurePV;
+        private final double goalsPV;
+        private final Strategy strategy;
+        private final int revaluedPositions;
+        private final String error;
+
+        Outcome(String scenario, double assetsPV, double liabilitiesPV, double incomePV, double expenditurePV,
+                double goalsPV, Strategy strategy, int revaluedPositions, String error) {
+            this.scenario = scenario;
+            this.assetsPV = assetsPV;
+            this.liabilitiesPV = liabilitiesPV;
+            this.incomePV = incomePV;
+            this.expenditurePV = expenditurePV;
+            this.goalsPV = goalsPV;
+            this.strategy = strategy;
+            this.revaluedPositions = revaluedPositions;
+            this.error = error;
+        }
+
+        public String getScenario() {
+            return scenario;
+        }
+
+        public double getAssetsPV() {
+            return assetsPV;
+        }
+
+        public double getLiabilitiesPV() {
+            return liabilitiesPV;
+        }
+
+        public double getIncomePV() {
+            return incomePV;
+        }
+
+        public double getExpenditurePV() {
+            return expenditurePV;
+        }
+
+        public double getGoalsPV() {
+            return goalsPV;
+        }
+
+        /**
+         * Returns the net present value as {@link BalanceSheet#calculateNetPresentValue()} defines it, assets minus liabilities.
+         * @return The net present value under the scenario.
+         */
+        public double getNetPresentValue() {
+            return assetsPV - liabilitiesPV;
+        }
+
+        /**
+         * Returns the strategy {@link FinancialAdvisor} would recommend under the scenario.
+         * @return The strategy, or null if the scenario could not be evaluated.
+         */
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Returns how many positions (assets, debts, family members and goals) had to be revalued for the scenario.
+         * @return The number of revalued positions.
+         */
+        public int getRevaluedPositions() {
+            return revaluedPositions;
+        }
+
+        /**
+         * Returns why the scenario could not be evaluated, for example a rate shock that leaves a stock's discount rate
+         * below its dividend growth rate.
+         * @return The error message, or null if the scenario was evaluated.
+         */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return scenario + ": " + error;
+            }
+            return String.format("%s: NPV %.2f, %s", scenario, getNetPresentValue(), strategy.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Takes a snapshot of a household.
+     * @param balanceSheet The household's balance sheet, providing the family, positions and discount curve.
+     * @param goalManager The household's goals.
+     * @param parallelism The number of worker threads used by {@link #run(List)}, at least 1.
+     * @throws IllegalArgumentException If the household's current positions cannot be valued.
+     */
+    public StressTester(BalanceSheet balanceSheet, GoalManager goalManager, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+        this.curve = balanceSheet.getDiscountCurve();
+        this.members = new ArrayList<>(balanceSheet.getFamily().getFamilyMembers());
+        this.goals = new ArrayList<>(goalManager.getGoalList());
+
+        AssetAndDebtManager assetManager = balanceSheet.getAssetManager();
+        synchronized (assetManager) {
+            BondColumns bonds = assetManager.getBondColumns();
+            bondAmount = new double[bonds.size()];
+            bondRate = new double[bonds.size()];
+            bondMaturity = new int[bonds.size()];
+            bondCoupon = new double[bonds.size()];
+            for (int i = 0; i < bonds.size(); i++) {
+                bondAmount[i] = bonds.getAmount(i);
+                bondRate[i] = bonds.getInterestRate(i);
+                bondMaturity[i] = bonds.getMaturity(i);
+                bondCoupon[i] = bonds.getCoupon(i);
+            }
+            StockColumns stocks = assetManager.getStockColumns();
+            stockAmount = new double[stocks.size()];
+            stockRate = new double[stocks.size()];
+            stockDividend = new double[stocks.size()];
+            stockGrowth = new double[stocks.size()];
+            for (int i = 0; i < stocks.size(); i++) {
+                stockAmount[i] = stocks.getAmount(i);
+                stockRate[i] = stocks.getInterestRate(i);
+                stockDividend[i] = stocks.getDividend(i);
+                stockGrowth[i] = stocks.getDividendGrowthRate(i);
+            }
+            RealEstateColumns realEstates = assetManager.getRealEstateColumns();
+            realEstateAmount = new double[realEstates.size()];
+            realEstateRate = new double[realEstates.size()];
+            realEstateIncome = new double[realEstates.size()];
+            for (int i = 0; i < realEstates.size(); i++) {
+                realEstateAmount[i] = realEstates.getAmount(i);
+                realEstateRate[i] = realEstates.getInterestRate(i);
+                realEstateIncome[i] = realEstates.getNetOperatingIncome(i);
+            }
+            DebtColumns debts = assetManager.getDebtColumns();
+            debtAmount = new double[debts.size()];
+            debtRate = new double[debts.size()];
+            debtOneTime = new boolean[debts.size()];
+            debtTime = new int[debts.size()];
+            for (int i = 0; i < debts.size(); i++) {
+                debtAmount[i] = debts.getAmount(i);
+                debtRate[i] = debts.getInterestRate(i);
+                debtOneTime[i] = debts.isOneTime(i);
+                debtTime[i] = debts.getTime(i);
+            }
+            Map<EntityType, Double> assetTotals = balanceSheet.calculateAssetTotalsByClass();
+            baseBondsPV = assetTotals.get(EntityType.BOND);
+            baseStocksPV = assetTotals.get(EntityType.STOCK);
+            baseRealEstatePV = assetTotals.get(EntityType.REAL_ESTATE);
+            baseLiabilitiesPV = assetManager.getDebtColumns().totalPresentValue(curve);
+        }
+
+        memberIncomePV = new double[members.size()];
+        memberExpenditurePV = new double[members.size()];
+        double income = 0;
+        double expenditure = 0;
+        for (int i = 0; i < members.size(); i++) {
+            Person member = members.get(i);
+            memberIndex.put(member.getName(), i);
+            memberIncomePV[i] = BalanceSheet.incomePresentValue(member.getMonthlyIncome(), member.getBirthYear(), member.getLifeSpan(), curve);
+            memberExpenditurePV[i] = BalanceSheet.expenditurePresentValue(member.getMonthlyExpenditure(), member.getBirthYear(), member.getLifeSpan(), curve);
+            income += memberIncomePV[i];
+            expenditure += memberExpenditurePV[i];
+        }
+        baseIncomePV = income;
+        baseExpenditurePV = expenditure;
+        baseGoalsPV = goalsPresentValue(0);
+    }
+
+    /**
+     * Evaluates scenarios in parallel.
+     * @param scenarios The scenarios to evaluate.
+     * @return One outcome per scenario, in the same order.
+     */
+    public List<Outcome> run(List<Scenario> scenarios) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> scenarios.parallelStream().map(this::evaluate).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stress test was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Evaluates one scenario on the calling thread.
+     * @param scenario The scenario to evaluate.
+     * @return The outcome, or a failed outcome if a shocked position cannot be valued.
+     */
+    public Outcome evaluate(Scenario scenario) {
+        try {
+            double shift = scenario.getRateShift();
+            DiscountCurve shockedCurve = curve.shifted(shift);
+            int revalued = 0;
+
+            double bondsPV = baseBondsPV;
+            if (shift != 0) {
+                int valuationYear = curve.getValuationYear();
+                bondsPV = 0;
+                for (int i = 0; i < bondAmount.length; i++) {
+                    bondsPV += Bond.presentValue(bondAmount[i], bondRate[i] + shift, bondMaturity[i], bondCoupon[i], valuationYear);
+                }
+                revalued += bondAmount.length;
+            }
+            double stocksPV = baseStocksPV;
+            if (scenario.touchesStocks()) {
+                double factor = scenario.getEquityFactor();
+                stocksPV = 0;
+                for (int i = 0; i < stockAmount.length; i++) {
+                    stocksPV += Stock.presentValue(stockAmount[i] * factor, stockRate[i] + shift, stockDividend[i], stockGrowth[i]);
+                }
+                revalued += stockAmount.length;
+            }
+            double realEstatePV = baseRealEstatePV;
+            if (scenario.touchesRealEstate()) {
+                double valueFactor = scenario.getRealEstateValueFactor();
+                double incomeFactor = scenario.getNetOperatingIncomeFactor();
+                realEstatePV = 0;
+                for (int i = 0; i < realEstateAmount.length; i++) {
+                    realEstatePV += RealEstate.presentValue(realEstateAmount[i] * valueFactor, realEstateRate[i] + shift,
+                                                            realEstateIncome[i] * incomeFactor);
+                }
+                revalued += realEstateAmount.length;
+            }
+            double liabilitiesPV = baseLiabilitiesPV;
+            if (shift != 0) {
+                liabilitiesPV = 0;
+                for (int i = 0; i < debtAmount.length; i++) {
+                    liabilitiesPV += BalanceSheet.debtPresentValue(debtAmount[i], debtRate[i], debtOneTime[i], debtTime[i], shockedCurve);
+                }
+                revalued += debtAmount.length;
+            }
+
+            double incomePV = baseIncomePV;
+            double expenditurePV = baseExpenditurePV;
+            Map<String, Double> incomeFactors = scenario.getIncomeFactors();
+            for (String name : incomeFactors.keySet()) {
+                if (!memberIndex.containsKey(name)) {
+                    throw new IllegalArgumentException("No family member named \"" + name + "\".");
+                }
+            }
+            if (shift != 0) {
+                incomePV = 0;
+                expenditurePV = 0;
+                for (int i = 0; i < members.size(); i++) {
+                    Person member = members.get(i);
+                    double income = member.getMonthlyIncome() * incomeFactors.getOrDefault(member.getName(), 1.0);
+                    incomePV += BalanceSheet.incomePresentValue(income, member.getBirthYear(), member.getLifeSpan(), shockedCurve);
+                    expenditurePV += BalanceSheet.expenditurePresentValue(member.getMonthlyExpenditure(), member.getBirthYear(),
+                                                                          member.getLifeSpan(), shockedCurve);
+                }
+                revalued += members.size();
+            } else {
+                for (Map.Entry<String, Double> entry : incomeFactors.entrySet()) {
+                    int i = memberIndex.get(entry.getKey());
+                    Person member = members.get(i);
+                    incomePV += BalanceSheet.incomePresentValue(member.getMonthlyIncome() * entry.getValue(), member.getBirthYear(),
+                                                                member.getLifeSpan(), curve) - memberIncomePV[i];
+                    revalued++;
+                }
+            }
+
+            double goalsPV = baseGoalsPV;
+            if (shift != 0) {
+                goalsPV = goalsPresentValue(shift);
+                revalued += goals.size();
+            }
+
+            double assetsPV = bondsPV + stocksPV + realEstatePV;
+            double shortfall = assetsPV - liabilitiesPV - goalsPV;
+            // The same rule as FinancialAdvisor.recommendStrategy, with the shocked goal values
+            Strategy strategy = shortfall < 0 ? new AggressiveStrategy(shortfall)
+                                              : new ConservativeStrategy(members, incomePV, expenditurePV);
+            return new Outcome(scenario.getName(), assetsPV, liabilitiesPV, incomePV, expenditurePV, goalsPV, strategy, revalued, null);
+        } catch (IllegalArgumentException e) {
+            // One scenario that cannot be valued must not abort the others
+            return new Outcome(scenario.getName(), Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, null, 0, e.getMessage());
+        }
+    }
+
+    private double goalsPresentValue(double shift) {
+        int valuationYear = curve.getValuationYear();
+        double total = 0;
+        for (Goal goal : goals) {
+            total += FinancialAdvisor.goalPresentValue(goal.getAmount(), goal.getTime(), goal.isOneTime(),
+                                                       goal.getInterestRate() + shift, valuationYear);
+        }
+        return total;
+    }
+}
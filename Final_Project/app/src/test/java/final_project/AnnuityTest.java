@@ -0,0 +1,133 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Golden tests comparing the closed-form kernels with the per-year Math.pow loops they replaced.
+ */
+class AnnuityTest {
+    private static final double[] RATES = {0, 1e-12, 1e-8, 1e-4, 0.01, 0.05, 0.123, 0.5, 1.0};
+    private static final double RELATIVE_TOLERANCE = 1e-12;
+
+    // The loop formerly used by Bond.calculateReturn
+    private static double bondLoop(double amount, double rate, int maturity, double coupon) {
+        double npv = 0.0;
+        int yearsToMaturity = maturity - 2024;
+        for (int year = 1; year <= yearsToMaturity; year++) {
+            npv += coupon / Math.pow(1 + rate, year);
+        }
+        npv += (coupon + amount) / Math.pow(1 + rate, yearsToMaturity);
+        return npv;
+    }
+
+    // The loop formerly used by BalanceSheet.calculateDebtPV for recurring debts
+    private static double recurringDebtLoop(double amount, double debtRate, int time, double discountRate) {
+        int years = time - 2024;
+        double totalPV = 0;
+        double periodicPayment = amount * debtRate;
+        for (int i = 1; i <= years; i++) {
+            totalPV += periodicPayment / Math.pow(1 + discountRate, i);
+        }
+        totalPV += amount / Math.pow(1 + discountRate, years);
+        return totalPV;
+    }
+
+    // The loop formerly used by FinancialAdvisor.calculateTotalGoalsValue for recurring goals
+    private static double recurringGoalLoop(double amount, double rate, int time) {
+        double annualValue = 0;
+        for (int i = 1; i <= time - 2024; i++) {
+            annualValue += amount / Math.pow(1 + rate, i);
+        }
+        return annualValue;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.abs(expected) * RELATIVE_TOLERANCE + 1e-12,
+                () -> "expected " + expected + " but was " + actual);
+    }
+
+    @Test
+    void factor_ShouldMatchLoopForAllRatesAndTerms() {
+        for (double rate : RATES) {
+            for (int years = 0; years <= 120; years++) {
+                double loop = 0;
+                for (int i = 1; i <= years; i++) {
+                    loop += 1 / Math.pow(1 + rate, i);
+                }
+                assertClose(loop, Annuity.factor(rate, years));
+            }
+        }
+    }
+
+    @Test
+    void durationAndConvexityFactors_ShouldMatchLoopForAllRatesAndTerms() {
+        for (double rate : new double[]{-0.5, -1e-6, 0, 1e-12, 1e-8, 1e-4, 0.003, 0.01, 0.05, 0.123, 0.5, 1.0}) {
+            double duration = 0;
+            double convexity = 0;
+            for (int years = 0; years <= 120; years++) {
+                if (years > 0) {
+                    duration += years / Math.pow(1 + rate, years);
+                    convexity += (double) years * (years + 1) / Math.pow(1 + rate, years);
+                }
+                assertEquals(duration, Annuity.durationFactor(rate, years), Math.abs(duration) * 1e-10);
+                assertEquals(convexity, Annuity.convexityFactor(rate, years), Math.abs(convexity) * 1e-10);
+            }
+        }
+        assertEquals(0, Annuity.durationFactor(0.05, -3));
+        assertThrows(IllegalArgumentException.class, () -> Annuity.convexityFactor(-1, 10));
+    }
+
+    @Test
+    void factor_NearZeroRate_ShouldTendToNumberOfYears() {
+        assertEquals(30, Annuity.factor(0, 30));
+        assertEquals(30, Annuity.factor(1e-15, 30), 1e-9);
+        assertEquals(0, Annuity.factor(0.05, 0));
+        assertEquals(0, Annuity.factor(0.05, -3));
+    }
+
+    @Test
+    void bond_ShouldMatchGoldenLoop() {
+        for (double rate : RATES) {
+            for (int maturity = 2024; maturity <= 2124; maturity += 7) {
+                Bond bond = new Bond(1000, rate, 0.1, maturity, 45, "Bond");
+                assertClose(bondLoop(1000, rate, maturity, 45), bond.calculateReturn());
+            }
+        }
+    }
+
+    @Test
+    void recurringDebt_ShouldMatchGoldenLoop() {
+        for (double rate : RATES) {
+            BalanceSheet balanceSheet = new BalanceSheet(null, null, rate);
+            for (int time = 2024; time <= 2124; time += 9) {
+                Debt debt = new Debt(250000, 0.04, false, time, DebtCategory.MORTGAGE, "Mortgage");
+                assertClose(recurringDebtLoop(250000, 0.04, time, rate), balanceSheet.calculateDebtPV(debt));
+            }
+        }
+    }
+
+    @Test
+    void recurringGoals_ShouldMatchGoldenLoop(@TempDir File directory) throws Exception {
+        GoalManager goalManager = new GoalManager(directory);
+        FinancialAdvisor advisor = new FinancialAdvisor(goalManager, new BalanceSheet(null, null, 0.05));
+        double expected = 0;
+        for (int i = 0; i < RATES.length; i++) {
+            int time = 2024 + i * 11;
+            goalManager.addGoal(new Goal(12000, time, false, RATES[i], "Goal " + i));
+            expected += recurringGoalLoop(12000, RATES[i], time);
+        }
+        assertClose(expected, advisor.calculateTotalGoalsValue());
+    }
+
+    @Test
+    void perpetuities_ShouldMatchDirectDivision() {
+        assertEquals(5000 / 0.07, Annuity.perpetuity(5000, 0.07));
+        assertEquals(50 / (0.08 - 0.03), Annuity.growingPerpetuity(50, 0.08, 0.03));
+        assertThrows(IllegalArgumentException.class, () -> Annuity.growingPerpetuity(50, 0.03, 0.03));
+    }
+}
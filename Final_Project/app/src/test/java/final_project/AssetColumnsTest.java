@@ -0,0 +1,145 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetColumnsTest {
+    @TempDir
+    File directory;
+    private AssetAndDebtManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new AssetAndDebtManager(directory);
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            manager.addBond(new Bond(1000 + random.nextInt(9000), 0.01 + random.nextDouble() * 0.1, 0.1,
+                                     2024 + random.nextInt(40), random.nextInt(100), "Bond " + i));
+            manager.addStock(new Stock(1000 + random.nextInt(9000), 0.06 + random.nextDouble() * 0.05, 0.2,
+                                       random.nextInt(500), random.nextDouble() * 0.05, "Stock " + i));
+            manager.addRealEstate(new RealEstate(1000 + random.nextInt(9000), 0.02 + random.nextDouble() * 0.05, 0.1,
+                                                 random.nextInt(1000) - 200, "RealEstate " + i));
+            manager.addDebt(new Debt(1000 + random.nextInt(9000), random.nextDouble() * 0.1, random.nextBoolean(),
+                                     2024 + random.nextInt(30), DebtCategory.OTHER, "Debt " + i));
+        }
+    }
+
+    private void assertColumnsMatchObjects() {
+        List<Bond> bonds = manager.getBondList();
+        assertEquals(bonds.size(), manager.getBondColumns().size());
+        for (int i = 0; i < bonds.size(); i++) {
+            assertEquals(bonds.get(i).calculateReturn(), manager.getBondColumns().presentValue(i));
+        }
+        List<Stock> stocks = manager.getStockList();
+        assertEquals(stocks.size(), manager.getStockColumns().size());
+        for (int i = 0; i < stocks.size(); i++) {
+            assertEquals(stocks.get(i).calculateReturn(), manager.getStockColumns().presentValue(i));
+        }
+        List<RealEstate> realEstates = manager.getRealEstateList();
+        assertEquals(realEstates.size(), manager.getRealEstateColumns().size());
+        for (int i = 0; i < realEstates.size(); i++) {
+            assertEquals(realEstates.get(i).calculateReturn(), manager.getRealEstateColumns().presentValue(i));
+        }
+        BalanceSheet balanceSheet = new BalanceSheet(null, manager, 0.05);
+        List<Debt> debts = manager.getDebtList();
+        assertEquals(debts.size(), manager.getDebtColumns().size());
+        for (int i = 0; i < debts.size(); i++) {
+            assertEquals(balanceSheet.calculateDebtPV(debts.get(i)), manager.getDebtColumns().presentValue(i, DiscountCurve.flat(0.05)));
+            assertEquals(debts.get(i).getCategory(), manager.getDebtColumns().getCategory(i));
+        }
+    }
+
+    @Test
+    void columns_AfterAdds_ShouldMatchObjectValuation() {
+        assertColumnsMatchObjects();
+        double expected = manager.getBondList().stream().mapToDouble(Bond::calculateReturn).sum()
+                + manager.getStockList().stream().mapToDouble(Stock::calculateReturn).sum()
+                + manager.getRealEstateList().stream().mapToDouble(RealEstate::calculateReturn).sum();
+        assertEquals(expected, new BalanceSheet(null, manager, 0.05).calculateTotalAssets(), 1e-6);
+    }
+
+    @Test
+    void columns_AfterDeletesAndUpdates_ShouldFollowSwapRemove() throws IOException {
+        for (int i = 0; i < 100; i += 3) {
+            assertTrue(manager.deleteBond("Bond " + i));
+            assertTrue(manager.deleteStock("Stock " + i));
+            assertTrue(manager.deleteRealEstate("RealEstate " + i));
+            assertTrue(manager.deleteDebt("Debt " + i));
+        }
+        assertTrue(manager.updateBond(new Bond(5, 0.05, 0.1, 2050, 1, "Bond 1")));
+        assertTrue(manager.updateDebt(new Debt(5, 0.05, false, 2050, DebtCategory.MORTGAGE, "Debt 1")));
+
+        assertColumnsMatchObjects();
+    }
+
+    @Test
+    void columns_AfterSetterChanges_ShouldBeUpdated() throws IOException {
+        Bond bond = manager.findBondByDescription("Bond 7").get();
+        bond.setAmount(123456);
+        bond.setInterestRate(0.2);
+        manager.findStockByDescription("Stock 7").get().setAmount(999999);
+        manager.findRealEstateByDescription("RealEstate 7").get().setInterestRate(0.5);
+
+        assertColumnsMatchObjects();
+
+        manager.deleteBond("Bond 7");
+        bond.setAmount(1);
+        assertColumnsMatchObjects();
+    }
+
+    @Test
+    void columns_AfterReload_ShouldMatchObjectValuation() throws IOException {
+        AssetAndDebtManager reloaded = new AssetAndDebtManager(directory);
+        reloaded.loadBondsFromCSV();
+        reloaded.loadStocksFromCSV();
+        reloaded.loadRealEstateFromCSV();
+        reloaded.loadDebtsFromCSV();
+        manager = reloaded;
+
+        assertEquals(100, manager.getBondColumns().size());
+        assertColumnsMatchObjects();
+    }
+
+    @Test
+    void runningTotals_AfterMutationsAndRateChange_ShouldMatchFullScan() throws IOException {
+        BalanceSheet balanceSheet = new BalanceSheet(null, manager, 0.05);
+        balanceSheet.calculateTotalLiabilities();
+        for (int i = 0; i < 100; i += 2) {
+            manager.deleteStock("Stock " + i);
+            manager.deleteDebt("Debt " + i);
+            manager.findBondByDescription("Bond " + (i + 1)).get().setAmount(i * 10);
+        }
+        manager.addDebt(new Debt(40000, 0.03, false, 2040, DebtCategory.MORTGAGE, "Mortgage"));
+        balanceSheet.setAppliedInterestRate(0.07);
+
+        double assets = manager.getBondList().stream().mapToDouble(Bond::calculateReturn).sum()
+                + manager.getStockList().stream().mapToDouble(Stock::calculateReturn).sum()
+                + manager.getRealEstateList().stream().mapToDouble(RealEstate::calculateReturn).sum();
+        double liabilities = manager.getDebtList().stream().mapToDouble(balanceSheet::calculateDebtPV).sum();
+        assertEquals(assets, balanceSheet.calculateTotalAssets(), 1e-6);
+        assertEquals(liabilities, balanceSheet.calculateTotalLiabilities(), 1e-6);
+        assertEquals(balanceSheet.calculateDebtPV(manager.findDebtByDescription("Mortgage").get()),
+                     balanceSheet.calculateLiabilitiesByCategory().get(DebtCategory.MORTGAGE), 1e-9);
+        assertEquals(0, balanceSheet.calculateLiabilitiesByCategory().get(DebtCategory.VEHICLE_LOAN));
+    }
+
+    @Test
+    void runningTotals_WithUnvaluableStock_ShouldReportItUntilRemoved() throws IOException {
+        double before = manager.getStockColumns().totalPresentValue();
+        manager.addStock(new Stock(1000, 0.03, 0.2, 10, 0.05, "Growth"));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.getStockColumns().totalPresentValue());
+        manager.findStockByDescription("Growth").get().setInterestRate(0.08);
+        assertEquals(before + Stock.presentValue(1000, 0.08, 10, 0.05), manager.getStockColumns().totalPresentValue(), 1e-6);
+        manager.deleteStock("Growth");
+        assertEquals(before, manager.getStockColumns().totalPresentValue(), 1e-6);
+    }
+}
@@ -1,14 +1,19 @@
 package final_project;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
+import java.io.File;
 import java.io.IOException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import final_project.*;
 
 public class BalanceSheetTest {
+    @TempDir
+    File directory;
     private AssetAndDebtManager assetManager;
     private BalanceSheet balanceSheet;
 
@@ -31,5 +36,22 @@ public class BalanceSheetTest {
         // Then
         assertEquals(10452.47619047619, totalAssets, 0.01);
     }
-}
 
+    @Test
+    public void assetsSection_ValuationYearAfterDefault_ShouldListBondsAtThatYear() throws IOException {
+        Household household = TestHouseholds.sample(directory);
+        BalanceSheet sheet = household.getBalanceSheet();
+        sheet.setDiscountCurve(DiscountCurve.flat(0.05, 2030));
+
+        double bondLine = 0;
+        for (Report.Line line : sheet.assetsSection().getLines()) {
+            if ("Treasury".equals(line.getSubject())) {
+                bondLine = line.getValue();
+            }
+        }
+
+        assertEquals(household.getAssetManager().getBondColumns().presentValue(0, 2030), bondLine, 1e-9);
+        assertEquals(sheet.calculateAssetTotalsByClass().get(EntityType.BOND), bondLine, 1e-9);
+        assertNotEquals(household.getAssetManager().getBondList().get(0).calculateReturn(), bondLine, 1e-6);
+    }
+}
@@ -0,0 +1,111 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchValuationEngineTest {
+    @TempDir
+    File root;
+
+    private void writeHousehold(String name, double bondAmount, double goalAmount) throws IOException {
+        File directory = new File(root, name);
+        directory.mkdirs();
+        Files.writeString(new File(directory, "Person.csv").toPath(),
+                "Name,BirthYear,MonthlyIncome,MonthlyExpenditure,Insurance,LifeSpan\n" + name + ",1980,5000.00,3000.00,100000.00,85\n");
+        Files.writeString(new File(directory, "Bond.csv").toPath(),
+                "Amount,InterestRate,Volatility,Maturity,Coupon,Description\n" + bondAmount + ",0.05,0.1,2030,50,Treasury\n");
+        Files.writeString(new File(directory, "Goal.csv").toPath(),
+                "Amount,Time,IsOneTime,InterestRate,Description\n" + goalAmount + ",2030,true,0.05,House\n");
+    }
+
+    @Test
+    void run_ShouldMatchSequentialValuation() throws IOException {
+        for (int i = 0; i < 12; i++) {
+            writeHousehold("h" + i, 1000 * (i + 1), 5000);
+        }
+        Map<String, BatchValuationEngine.Result> results = new ConcurrentHashMap<>();
+        BatchValuationEngine engine = new BatchValuationEngine(4, 0.05);
+
+        BatchValuationEngine.Summary summary = engine.run(Arrays.stream(root.listFiles()),
+                result -> results.put(result.getHousehold(), result));
+
+        assertEquals(12, summary.getHouseholds());
+        assertEquals(0, summary.getFailures());
+        for (int i = 0; i < 12; i++) {
+            Household household = new Household("h" + i, new File(root, "h" + i), 0.05);
+            household.load();
+            BatchValuationEngine.Result result = results.get("h" + i);
+            assertEquals(household.getBalanceSheet().calculateNetPresentValue(), result.getNetPresentValue(), 1e-9);
+            assertEquals(household.getBalanceSheet().calculateTotalIncomePV(), result.getIncomePV(), 1e-9);
+            assertEquals(household.getFinancialAdvisor().recommendStrategy().getClass().getSimpleName(), result.getStrategy());
+        }
+        assertEquals("AggressiveStrategy", results.get("h0").getStrategy());
+        assertTrue(results.get("h0").getShortfall() < 0);
+        assertEquals("ConservativeStrategy", results.get("h11").getStrategy());
+    }
+
+    @Test
+    void run_ToWriter_ShouldStreamOneRowPerHouseholdAndReportFailures() throws IOException {
+        writeHousehold("good", 1000, 500);
+        File bad = new File(root, "bad");
+        bad.mkdirs();
+        Files.writeString(new File(bad, "Stock.csv").toPath(),
+                "Amount,InterestRate,Volatility,Dividend,DividendGrowthRate,Description\n1000,0.03,0.1,10,0.05,Growth\n");
+        StringWriter output = new StringWriter();
+
+        BatchValuationEngine.Summary summary = new BatchValuationEngine(2, 0.05).run(root, output);
+
+        List<String> lines = output.toString().lines().toList();
+        assertEquals(BatchValuationEngine.Result.CSV_HEADER, lines.get(0));
+        assertEquals(3, lines.size());
+        assertEquals(1, summary.getFailures());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("bad,") && line.contains("IllegalArgumentException")));
+    }
+
+    @Test
+    void run_DirectoryList_ShouldCallTheHookOncePerWrittenRow() throws IOException {
+        for (int i = 0; i < 8; i++) {
+            writeHousehold("h" + i, 1000, 500);
+        }
+        StringWriter output = new StringWriter();
+        List<String> hooked = new ArrayList<>(); // Not thread-safe: the hook runs under the output's lock
+
+        BatchValuationEngine.Summary summary = new BatchValuationEngine(4, 0.05)
+                .run(Arrays.asList(root.listFiles()), output, result -> hooked.add(result.toCsvRow()));
+
+        List<String> lines = output.toString().lines().toList();
+        assertEquals(8, summary.getHouseholds());
+        assertEquals(BatchValuationEngine.Result.CSV_HEADER, lines.get(0));
+        assertEquals(lines.subList(1, lines.size()), hooked);
+    }
+
+    @Test
+    void toCsvRow_ShouldIgnoreTheDefaultLocaleAndQuoteTheHousehold() throws IOException {
+        writeHousehold("Smith, \"Jr\"", 1000, 500);
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            String row = new BatchValuationEngine(1, 0.05).value(new File(root, "Smith, \"Jr\"")).toCsvRow();
+
+            assertTrue(row.startsWith("\"Smith, \"\"Jr\"\"\","), row);
+            String[] fields = row.substring(row.lastIndexOf('"') + 2).split(",", -1);
+            assertEquals(11, fields.length);
+            assertTrue(fields[0].matches("-?\\d+\\.\\d{2}"), fields[0]);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
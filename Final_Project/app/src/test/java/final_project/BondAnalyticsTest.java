@@ -0,0 +1,102 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BondAnalyticsTest {
+    @TempDir
+    File directory;
+    private AssetAndDebtManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new AssetAndDebtManager(directory);
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            manager.addBond(new Bond(1000 + random.nextInt(9000), 0.01 + random.nextDouble() * 0.08, 0.05,
+                                     2024 + random.nextInt(30), random.nextInt(400), "Bond " + i));
+        }
+    }
+
+    @Test
+    void analyze_ShouldMatchValuationAndFiniteDifferences() {
+        BondAnalytics analytics = BondAnalytics.analyze(manager);
+        List<Bond> bonds = manager.getBondList();
+        assertEquals(bonds.size(), analytics.size());
+        double h = 1e-5;
+        for (int row = 0; row < bonds.size(); row++) {
+            Bond bond = bonds.get(row);
+            double rate = bond.getInterestRate();
+            double pv = bond.calculateReturn();
+            double up = Bond.presentValue(bond.getAmount(), rate + h, bond.getMaturity(), bond.getCoupon(), 2024);
+            double down = Bond.presentValue(bond.getAmount(), rate - h, bond.getMaturity(), bond.getCoupon(), 2024);
+
+            assertEquals(pv, analytics.getPresentValue(row), pv * 1e-12);
+            assertEquals((down - up) / (2 * h * pv), analytics.getModifiedDuration(row), 1e-6);
+            assertEquals((up + down - 2 * pv) / (h * h * pv), analytics.getConvexity(row), 1e-2);
+            assertEquals(analytics.getModifiedDuration(row) * (1 + rate), analytics.getMacaulayDuration(row), 1e-12);
+            assertEquals(pv * analytics.getModifiedDuration(row) * BondAnalytics.BASIS_POINT, analytics.getDV01(row), 1e-12);
+        }
+    }
+
+    @Test
+    void analyze_ShouldAggregateByMaturityYear() {
+        BondAnalytics analytics = BondAnalytics.analyze(manager);
+        List<BondAnalytics.MaturityBucket> buckets = analytics.getMaturityBuckets();
+
+        int bonds = 0;
+        double pv = 0;
+        double dv01 = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            BondAnalytics.MaturityBucket bucket = buckets.get(i);
+            if (i > 0) {
+                assertTrue(bucket.getYear() > buckets.get(i - 1).getYear());
+            }
+            bonds += bucket.getBonds();
+            pv += bucket.getPresentValue();
+            dv01 += bucket.getDV01();
+        }
+        assertEquals(200, bonds);
+        assertEquals(new BalanceSheet(null, manager, 0.05).calculateAssetTotalsByClass().get(EntityType.BOND), pv, 1e-6);
+        assertEquals(analytics.getTotalDV01(), dv01, 1e-9);
+        assertEquals(analytics.getTotalDV01(), analytics.getModifiedDuration() * pv * BondAnalytics.BASIS_POINT, 1e-6);
+    }
+
+    @Test
+    void analyze_MaturingNow_ShouldHaveZeroDuration() throws IOException {
+        AssetAndDebtManager single = new AssetAndDebtManager(directory);
+        single.addBond(new Bond(1000, 0.05, 0, 2024, 50, "Due"));
+        BondAnalytics analytics = BondAnalytics.analyze(single);
+
+        assertEquals(1050, analytics.getPresentValue(0), 1e-12);
+        assertEquals(0, analytics.getModifiedDuration(0));
+        assertEquals(0, analytics.getDV01(0));
+    }
+
+    @Test
+    void analyze_ShouldValueFromTheBalanceSheetsYear() {
+        BalanceSheet balanceSheet = new BalanceSheet(null, manager, DiscountCurve.flat(0.05, 2030));
+        BondAnalytics analytics = BondAnalytics.analyze(manager, balanceSheet.getValuationYear());
+        BondColumns columns = manager.getBondColumns();
+
+        double total = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            double expected = Bond.presentValue(columns.getAmount(row), columns.getInterestRate(row),
+                                                columns.getMaturity(row), columns.getCoupon(row), 2030);
+            assertEquals(expected, analytics.getPresentValue(row), Math.abs(expected) * 1e-12);
+            assertEquals(expected, columns.presentValue(row, 2030), 0);
+            total += expected;
+        }
+        assertEquals(total, balanceSheet.calculateTotalAssets(), 1e-6);
+        assertEquals(total, analytics.getTotalPresentValue(), 1e-6);
+        assertNotEquals(columns.totalPresentValue(), balanceSheet.calculateTotalAssets());
+    }
+}
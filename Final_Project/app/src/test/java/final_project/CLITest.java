@@ -0,0 +1,92 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CLITest {
+    @TempDir
+    File root;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private File writeHousehold(File parent, String name) throws IOException {
+        File directory = new File(parent, name);
+        directory.mkdirs();
+        Files.writeString(new File(directory, "Person.csv").toPath(),
+                "Name,BirthYear,MonthlyIncome,MonthlyExpenditure,Insurance,LifeSpan\n" + name + ",1980,5000.00,3000.00,100000.00,85\n");
+        Files.writeString(new File(directory, "Goal.csv").toPath(),
+                "Amount,Time,IsOneTime,InterestRate,Description\n5000,2030,true,0.05,House\n");
+        return directory;
+    }
+
+    private int run(String... args) throws IOException {
+        return CLI.run(args, new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+    }
+
+    @Test
+    void run_ShouldWriteOneConsolidatedFileAndReportLatency() throws IOException {
+        File households = new File(root, "households");
+        for (int i = 0; i < 5; i++) {
+            writeHousehold(households, "h" + i);
+        }
+        File extra = writeHousehold(root, "extra");
+        File output = new File(root, "results.csv");
+
+        int exitCode = run("--parallelism", "2", "--rate", "0.04", "--output", output.getPath(),
+                           "--root", households.getPath(), extra.getPath());
+
+        assertEquals(CLI.EXIT_OK, exitCode);
+        List<String> lines = Files.readAllLines(output.toPath());
+        assertEquals(BatchValuationEngine.Result.CSV_HEADER, lines.get(0));
+        assertEquals(7, lines.size());
+        Household household = new Household("extra", extra, 0.04);
+        household.load();
+        BatchValuationEngine.Result expected = new BatchValuationEngine(1, 0.04).value(extra);
+        assertEquals(household.getBalanceSheet().calculateNetPresentValue(), expected.getNetPresentValue(), 1e-9);
+        String prefix = String.format(Locale.ROOT, "extra,%.2f,%.2f,", expected.getNetPresentValue(), expected.getIncomePV());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith(prefix)));
+        String report = out.toString("UTF-8");
+        assertTrue(report.startsWith("Valued 6 households (0 failed)"));
+        assertTrue(report.contains("households/s"));
+        assertTrue(report.contains("p99"));
+        assertEquals("", err.toString("UTF-8"));
+    }
+
+    @Test
+    void run_InvalidArguments_ShouldPrintUsage() throws IOException {
+        assertEquals(CLI.EXIT_USAGE, run());
+        assertEquals(CLI.EXIT_USAGE, run("--parallelism", "0", root.getPath()));
+        assertEquals(CLI.EXIT_USAGE, run("--rate", "-2", root.getPath()));
+        assertEquals(CLI.EXIT_USAGE, run("--output"));
+        assertEquals(CLI.EXIT_USAGE, run("--threads", "4", root.getPath()));
+        assertTrue(err.toString("UTF-8").contains(CLI.USAGE));
+        assertEquals("", out.toString("UTF-8"));
+    }
+
+    @Test
+    void statistics_ShouldUseNearestRankPercentiles() {
+        long[] latencies = new long[100];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = (100 - i) * 1_000_000L;
+        }
+        CLI.Statistics statistics = new CLI.Statistics(new BatchValuationEngine.Summary(100, 0, 2_000_000_000L), latencies);
+
+        assertEquals(50.0, statistics.getThroughput(), 1e-9);
+        assertEquals(1_000_000L, statistics.getLatencyPercentile(0));
+        assertEquals(50_000_000L, statistics.getLatencyPercentile(50));
+        assertEquals(95_000_000L, statistics.getLatencyPercentile(95));
+        assertEquals(100_000_000L, statistics.getLatencyPercentile(100));
+        assertEquals(50_500_000.0, statistics.getMeanLatency(), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> statistics.getLatencyPercentile(101));
+    }
+}
@@ -0,0 +1,88 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashFlowProjectionTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = TestHouseholds.sample(directory);
+        household.getGoalManager().addGoal(new Goal(12000, 2029, false, 0.03, "Tuition"));
+    }
+
+    @Test
+    void project_ShouldPlaceEachFlowInItsYears() {
+        CashFlowProjection projection = CashFlowProjection.project(household.getBalanceSheet(), household.getGoalManager(), 100);
+
+        assertEquals(2024, projection.getStartYear());
+        assertEquals(0, projection.get(CashFlowProjection.Flow.INCOME, 2024));
+        assertEquals(96000 + 72000, projection.get(CashFlowProjection.Flow.INCOME, 2045));
+        assertEquals(72000, projection.get(CashFlowProjection.Flow.INCOME, 2046));
+        assertEquals(0, projection.get(CashFlowProjection.Flow.INCOME, 2048));
+        assertEquals(36000, projection.get(CashFlowProjection.Flow.EXPENDITURE, 2067));
+        assertEquals(0, projection.get(CashFlowProjection.Flow.EXPENDITURE, 2068));
+        assertEquals(10000 + 250000, projection.get(CashFlowProjection.Flow.DEBT_SERVICE, 2045));
+        assertEquals(0, projection.get(CashFlowProjection.Flow.DEBT_SERVICE, 2046));
+        assertEquals(4000, projection.get(CashFlowProjection.Flow.BOND_COUPONS, 2034));
+        assertEquals(50000, projection.get(CashFlowProjection.Flow.BOND_REDEMPTIONS, 2034));
+        assertEquals(5000 * 1.03, projection.get(CashFlowProjection.Flow.DIVIDENDS, 2026), 1e-9);
+        assertEquals(30000, projection.get(CashFlowProjection.Flow.NET_OPERATING_INCOME, 2124));
+        assertEquals(12000, projection.get(CashFlowProjection.Flow.GOAL_OUTLAYS, 2029));
+        assertEquals(100000, projection.get(CashFlowProjection.Flow.GOAL_OUTLAYS, 2035));
+        assertThrows(IllegalArgumentException.class, () -> projection.get(CashFlowProjection.Flow.INCOME, 2125));
+    }
+
+    @Test
+    void project_ShouldMatchValuationsWhenDiscounted() {
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        CashFlowProjection projection = CashFlowProjection.project(balanceSheet, household.getGoalManager(), 100);
+        Bond bond = household.getAssetManager().getBondList().get(0);
+
+        assertEquals(balanceSheet.calculateTotalLiabilities(),
+                     projection.presentValue(CashFlowProjection.Flow.DEBT_SERVICE, balanceSheet.getDiscountCurve()), 1e-6);
+        DiscountCurve bondCurve = DiscountCurve.flat(bond.getInterestRate());
+        assertEquals(bond.calculateReturn(), projection.presentValue(CashFlowProjection.Flow.BOND_COUPONS, bondCurve)
+                                             + projection.presentValue(CashFlowProjection.Flow.BOND_REDEMPTIONS, bondCurve), 1e-6);
+    }
+
+    @Test
+    void total_ShouldMatchYearByYearSums() {
+        CashFlowProjection projection = CashFlowProjection.project(household.getBalanceSheet(), household.getGoalManager(), 100);
+
+        assertEquals(96000 * 21 + 72000 * 23, projection.total(CashFlowProjection.Flow.INCOME, 2024, 2124), 1e-6);
+        for (int from = 2024; from <= 2124; from += 7) {
+            for (int to = from; to <= 2124; to += 11) {
+                double net = 0;
+                double dividends = 0;
+                for (int year = from; year <= to; year++) {
+                    net += projection.getNetCashFlow(year);
+                    dividends += projection.get(CashFlowProjection.Flow.DIVIDENDS, year);
+                }
+                assertEquals(net, projection.totalNetCashFlow(from, to), 1e-6);
+                assertEquals(dividends, projection.total(CashFlowProjection.Flow.DIVIDENDS, from, to), 1e-6);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> projection.total(CashFlowProjection.Flow.INCOME, 2030, 2029));
+    }
+
+    @Test
+    void project_ShortHorizon_ShouldDropLaterPayments() {
+        CashFlowProjection projection = CashFlowProjection.project(household.getBalanceSheet(), null, 10);
+
+        assertEquals(11, projection.toArray(CashFlowProjection.Flow.INCOME).length);
+        assertEquals(10 * 168000, projection.total(CashFlowProjection.Flow.INCOME, 2024, 2034), 1e-9);
+        assertEquals(10 * 10000, projection.total(CashFlowProjection.Flow.DEBT_SERVICE, 2024, 2034), 1e-9);
+        assertEquals(0, projection.total(CashFlowProjection.Flow.GOAL_OUTLAYS, 2024, 2034));
+        assertThrows(IllegalArgumentException.class, () -> CashFlowProjection.project(household.getBalanceSheet(), null, -1));
+    }
+}
@@ -0,0 +1,148 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvLoaderTest {
+    @TempDir
+    File directory;
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        file = new File(directory, "loader.csv");
+    }
+
+    private void write(String content) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+    }
+
+    private static Goal readGoal(CsvLoader.Row row) {
+        if (row.getFieldCount() != 5) {
+            throw new IllegalArgumentException("Expected 5 fields.");
+        }
+        return new Goal(row.getDouble(0), row.getInt(1), row.getBoolean(2), row.getDouble(3), row.getString(4));
+    }
+
+    @Test
+    void load_ValidRows_ShouldParseInFileOrder() throws IOException {
+        write("Amount,Time,IsOneTime,InterestRate,Description\r\n"
+                + "800000.000000,2035,true,0.030000,Buy a new House\r\n"
+                + "\r\n"
+                + "50000.5,2028,FALSE,0.05,Buy a new Car");
+
+        CsvLoader.Result<Goal> result = CsvLoader.load(file, CsvLoaderTest::readGoal);
+
+        assertTrue(result.getErrors().isEmpty());
+        List<Goal> goals = result.getRows();
+        assertEquals(2, goals.size());
+        assertEquals(800000.0, goals.get(0).getAmount());
+        assertEquals(2035, goals.get(0).getTime());
+        assertTrue(goals.get(0).isOneTime());
+        assertEquals("Buy a new House", goals.get(0).getDescription());
+        assertEquals(50000.5, goals.get(1).getAmount());
+        assertFalse(goals.get(1).isOneTime());
+        assertEquals("Buy a new Car", goals.get(1).getDescription());
+    }
+
+    @Test
+    void load_MalformedRows_ShouldBeReportedWithLineNumbers() throws IOException {
+        write("Amount,Time,IsOneTime,InterestRate,Description\n"
+                + "100,2030,true,0.03,Good\n"
+                + "abc,2030,true,0.03,Bad number\n"
+                + "100,2030,true\n"
+                + "-5,2030,true,0.03,Negative amount\n");
+
+        CsvLoader.Result<Goal> result = CsvLoader.load(file, CsvLoaderTest::readGoal);
+
+        assertEquals(1, result.getRows().size());
+        assertEquals(3, result.getErrors().size());
+        assertEquals(3, result.getErrors().get(0).getLineNumber());
+        assertEquals(4, result.getErrors().get(1).getLineNumber());
+        assertEquals(5, result.getErrors().get(2).getLineNumber());
+        assertTrue(result.getErrors().get(2).toString().contains("Amount cannot be negative"));
+    }
+
+    @Test
+    void load_QuotedFields_ShouldKeepCommasAndQuotes() throws IOException {
+        write("Amount,Time,IsOneTime,InterestRate,Description\n"
+                + "100,2030,true,0.03,\"House, big\"\n"
+                + "200,2031,true,0.03,\"The \"\"best\"\" car\"\n"
+                + "300,2032,true,0.03,\"Unterminated\n"
+                + "400,2033,true,0.03,\"Quoted\"trailing\n");
+
+        CsvLoader.Result<Goal> result = CsvLoader.load(file, CsvLoaderTest::readGoal);
+
+        assertEquals("House, big", result.getRows().get(0).getDescription());
+        assertEquals("The \"best\" car", result.getRows().get(1).getDescription());
+        assertEquals(2, result.getRows().size());
+        assertEquals(4, result.getErrors().get(0).getLineNumber());
+        assertEquals(5, result.getErrors().get(1).getLineNumber());
+        assertEquals("A, B", CsvLoader.parseLine(CsvWriter.quote("A, B"), row -> row.getString(0)));
+    }
+
+    @Test
+    void load_HeaderOnly_ShouldReturnNoRows() throws IOException {
+        write("Amount,Time,IsOneTime,InterestRate,Description");
+        CsvLoader.Result<Goal> result = CsvLoader.load(file, CsvLoaderTest::readGoal);
+        assertTrue(result.getRows().isEmpty());
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+    @Test
+    void load_FileLargerThanOneChunk_ShouldKeepOrderAndLineNumbers() throws IOException {
+        int rows = 120_000;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("Amount,Time,IsOneTime,InterestRate,Description\n");
+            for (int i = 0; i < rows; i++) {
+                if (i == 100_000) {
+                    writer.write("broken row\n");
+                } else {
+                    writer.write(i + ".250000,2030,false,0.040000,Goal number " + i + " with a long description\n");
+                }
+            }
+        }
+        assertTrue(file.length() > 2L * CsvLoader.MIN_CHUNK_SIZE);
+
+        CsvLoader.Result<Goal> result = CsvLoader.load(file, CsvLoaderTest::readGoal);
+
+        assertEquals(rows - 1, result.getRows().size());
+        for (int i = 0; i < rows - 1; i++) {
+            int expected = i < 100_000 ? i : i + 1;
+            assertEquals(expected + 0.25, result.getRows().get(i).getAmount());
+        }
+        assertEquals(1, result.getErrors().size());
+        assertEquals(100_002, result.getErrors().get(0).getLineNumber());
+    }
+
+    @Test
+    void getDouble_ShouldMatchDoubleParseDouble() {
+        String[] values = {"0", "-0.0", "0.1", "1.", ".5", "+3.25", "123456789.123456", "9007199254740993",
+                "0.000000000000000000000000123", "1e5", " 7.5", "3.14159265358979323846"};
+        for (String value : values) {
+            double parsed = CsvLoader.parseLine(value, row -> row.getDouble(0));
+            assertEquals(Double.parseDouble(value), parsed, value);
+        }
+        assertThrows(NumberFormatException.class, () -> CsvLoader.parseLine("12x", row -> row.getDouble(0)));
+    }
+
+    @Test
+    void getInt_ShouldMatchIntegerParseInt() {
+        assertEquals(2147483647, (int) CsvLoader.parseLine("2147483647", row -> row.getInt(0)));
+        assertEquals(-2147483648, (int) CsvLoader.parseLine("-2147483648", row -> row.getInt(0)));
+        assertThrows(NumberFormatException.class, () -> CsvLoader.parseLine("2147483648", row -> row.getInt(0)));
+        assertThrows(NumberFormatException.class, () -> CsvLoader.parseLine("20.5", row -> row.getInt(0)));
+        assertThrows(NumberFormatException.class, () -> CsvLoader.parseLine("", row -> row.getInt(0)));
+    }
+}
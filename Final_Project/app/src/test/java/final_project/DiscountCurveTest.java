@@ -0,0 +1,103 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountCurveTest {
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.max(1e-12, Math.abs(expected) * 1e-12));
+    }
+
+    @Test
+    void flat_ShouldMatchPowAndAnnuity() {
+        DiscountCurve curve = DiscountCurve.flat(0.05);
+        for (int years = 0; years <= 200; years++) {
+            assertClose(1 / Math.pow(1.05, years), curve.discountFactor(years));
+            assertClose(Annuity.factor(0.05, years), curve.annuityFactor(years));
+        }
+        double duration = 0;
+        for (int t = 1; t <= 30; t++) {
+            duration += t / Math.pow(1.05, t);
+        }
+        assertClose(duration, curve.durationFactor(30));
+        assertClose(2 / 1.05 + 6 / Math.pow(1.05, 2), curve.convexityFactor(2));
+        assertClose(Math.pow(1.05, 3), curve.discountFactor(-3));
+        assertEquals(0, curve.annuityFactor(-3));
+        assertClose(1000 / Math.pow(1.05, 10), curve.discountFactorForYear(2034) * 1000);
+    }
+
+    @Test
+    void flat_SameRateAndYear_ShouldShareOneCurve() {
+        assertSame(DiscountCurve.flat(0.0425), DiscountCurve.flat(0.0425, DiscountCurve.DEFAULT_VALUATION_YEAR));
+        assertNotSame(DiscountCurve.flat(0.0425), DiscountCurve.flat(0.0425, 2030));
+        assertSame(DiscountCurve.flat(0.0425, 2030), DiscountCurve.flat(0.0425).withValuationYear(2030));
+    }
+
+    @Test
+    void shifted_FlatCurve_ShouldNotShareTheCachedCurve() {
+        DiscountCurve shifted = DiscountCurve.flat(0.03).shifted(0.02);
+        assertNotSame(DiscountCurve.flat(0.05), shifted);
+        assertTrue(shifted.isFlat());
+        assertClose(DiscountCurve.flat(0.05).annuityFactor(10), shifted.annuityFactor(10));
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.flat(0.03).shifted(-1.03));
+    }
+
+    @Test
+    void interpolated_ShouldInterpolateLinearlyAndExtrapolateFlat() {
+        DiscountCurve curve = DiscountCurve.interpolated(2024, new int[]{1, 5, 10}, new double[]{0.02, 0.04, 0.05});
+        assertFalse(curve.isFlat());
+        assertEquals(0.02, curve.zeroRate(0));
+        assertClose(0.03, curve.zeroRate(3));
+        assertEquals(0.04, curve.zeroRate(5));
+        assertClose(0.046, curve.zeroRate(8));
+        assertEquals(0.05, curve.zeroRate(40));
+        assertClose(1 / Math.pow(1.03, 3), curve.discountFactor(3));
+        assertClose(1 / 1.02 + 1 / Math.pow(1.025, 2), curve.annuityFactor(2));
+    }
+
+    @Test
+    void flat_TenorsBeyondTheTable_ShouldExtendInClosedForm() {
+        DiscountCurve curve = DiscountCurve.flat(0.05);
+        double annuity = 0;
+        double duration = 0;
+        double convexity = 0;
+        for (int t = 1; t <= DiscountCurve.MAX_TABULATED_YEARS + 40; t++) {
+            double discount = 1 / Math.pow(1.05, t);
+            annuity += discount;
+            duration += t * discount;
+            convexity += (double) t * (t + 1) * discount;
+            if (t >= DiscountCurve.MAX_TABULATED_YEARS - 5) {
+                assertEquals(discount, curve.discountFactor(t), discount * 1e-10);
+                assertEquals(annuity, curve.annuityFactor(t), 1e-10);
+                assertEquals(duration, curve.durationFactor(t), 1e-9);
+                assertEquals(convexity, curve.convexityFactor(t), 1e-7);
+            }
+        }
+
+        assertEquals(0, curve.discountFactorForYear(2_000_000_000));
+        assertClose(20, curve.annuityFactor(2_000_000_000));
+        assertClose(420, curve.durationFactor(2_000_000_000));
+        assertEquals(1e9, DiscountCurve.flat(0).annuityFactor(1_000_000_000));
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.interpolated(2024,
+                new int[]{1, DiscountCurve.MAX_TABULATED_YEARS + 1}, new double[]{0.02, 0.03}));
+    }
+
+    @Test
+    void invalidInputs_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.flat(-1));
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.flat(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.interpolated(2024, new int[]{5, 1}, new double[]{0.02, 0.03}));
+        assertThrows(IllegalArgumentException.class, () -> DiscountCurve.interpolated(2024, new int[]{1}, new double[]{0.02, 0.03}));
+    }
+
+    @Test
+    void balanceSheet_SetAppliedInterestRate_ShouldKeepValuationYear() {
+        BalanceSheet balanceSheet = new BalanceSheet(null, null, DiscountCurve.flat(0.05, 2030));
+        balanceSheet.setAppliedInterestRate(0.03);
+        assertEquals(2030, balanceSheet.getValuationYear());
+        assertEquals(0.03, balanceSheet.getAppliedInterestRate());
+        assertThrows(IllegalArgumentException.class, () -> balanceSheet.setAppliedInterestRate(-2));
+    }
+}
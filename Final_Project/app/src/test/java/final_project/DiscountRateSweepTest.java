@@ -0,0 +1,91 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.OptionalDouble;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountRateSweepTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = new Household("sweep", directory, 0.05);
+        household.getFamily().addFamilyMember("Alice", 1980, 8000, 5000, 0, 85);
+        household.getFamily().addFamilyMember("Bob", 1990, 6000, 4000, 0, 80);
+        household.getAssetManager().addStock(new Stock(400000, 0.08, 0.2, 1000, 0.02, "Index fund"));
+        household.getAssetManager().addBond(new Bond(50000, 0.04, 0.05, 2034, 2000, "Treasury"));
+        household.getAssetManager().addDebt(new Debt(300000, 0.04, false, 2050, DebtCategory.MORTGAGE, "Mortgage"));
+        household.getAssetManager().addDebt(new Debt(20000, 0.06, true, 2028, DebtCategory.VEHICLE_LOAN, "Car"));
+        household.getAssetManager().addDebt(new Debt(5000, 0.1, true, 2026, DebtCategory.CONSUMPTION_LOAN, "Consumer loan"));
+        household.getGoalManager().addGoal(new Goal(60000, 2035, true, 0.03, "College"));
+    }
+
+    @Test
+    void sweep_ShouldMatchFullRevaluationAtEveryRate() {
+        // Valued from 2030, the car and consumer loans are overdue and compound instead of discount
+        household.getBalanceSheet().setDiscountCurve(DiscountCurve.flat(0.05, 2030));
+        DiscountRateSweep sweep = new DiscountRateSweep(household.getBalanceSheet(), household.getFinancialAdvisor());
+        List<DiscountRateSweep.Point> points = sweep.sweep(0.0, 0.15, 16);
+        assertEquals(16, points.size());
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        for (DiscountRateSweep.Point point : points) {
+            balanceSheet.setAppliedInterestRate(point.getRate());
+            assertEquals(balanceSheet.calculateTotalIncomePV(), point.getIncomePV(), 1e-6);
+            assertEquals(balanceSheet.calculateTotalExpenditurePV(), point.getExpenditurePV(), 1e-6);
+            assertEquals(balanceSheet.calculateTotalLiabilities(), point.getLiabilitiesPV(), 1e-6);
+            assertEquals(balanceSheet.calculateNetPresentValue(), point.getNetPresentValue(), 1e-6);
+            assertEquals(household.getFinancialAdvisor().recommendStrategy() instanceof AggressiveStrategy, point.isAggressive());
+        }
+    }
+
+    @Test
+    void sweep_CashFlowsBeyondTheBuckets_ShouldMatchFullRevaluation() throws IOException {
+        household.getAssetManager().addDebt(new Debt(1000, 0.03, false, 2_000_000_000, DebtCategory.OTHER, "Perpetual"));
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        for (int valuationYear : new int[]{2030, 3000}) {
+            // From 3000 every other debt is centuries overdue and lands in the side list as well
+            balanceSheet.setDiscountCurve(DiscountCurve.flat(0.05, valuationYear));
+            DiscountRateSweep sweep = new DiscountRateSweep(balanceSheet, household.getFinancialAdvisor());
+            for (DiscountRateSweep.Point point : sweep.sweep(0.0, 0.15, 4)) {
+                balanceSheet.setAppliedInterestRate(point.getRate());
+                double liabilities = balanceSheet.calculateTotalLiabilities();
+                assertEquals(liabilities, point.getLiabilitiesPV(), Math.abs(liabilities) * 1e-9);
+                assertEquals(balanceSheet.calculateTotalIncomePV(), point.getIncomePV(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void findBreakEvenRate_ShouldLocateStrategyFlip() {
+        DiscountRateSweep sweep = new DiscountRateSweep(household.getBalanceSheet(), household.getFinancialAdvisor());
+        assertTrue(sweep.valueAt(0.0).isAggressive());
+        assertFalse(sweep.valueAt(0.2).isAggressive());
+
+        OptionalDouble breakEven = sweep.findBreakEvenRate(0.0, 0.2);
+        assertTrue(breakEven.isPresent());
+        double rate = breakEven.getAsDouble();
+        assertEquals(0, sweep.valueAt(rate).getShortfall(), 1e-4);
+
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        balanceSheet.setAppliedInterestRate(rate - 1e-6);
+        assertTrue(household.getFinancialAdvisor().recommendStrategy() instanceof AggressiveStrategy);
+        balanceSheet.setAppliedInterestRate(rate + 1e-6);
+        assertTrue(household.getFinancialAdvisor().recommendStrategy() instanceof ConservativeStrategy);
+    }
+
+    @Test
+    void findBreakEvenRate_NoSignChange_ShouldBeEmpty() {
+        DiscountRateSweep sweep = new DiscountRateSweep(household.getBalanceSheet(), household.getFinancialAdvisor());
+        assertFalse(sweep.findBreakEvenRate(0.3, 0.5).isPresent());
+        assertThrows(IllegalArgumentException.class, () -> sweep.findBreakEvenRate(0.2, 0.1));
+    }
+}
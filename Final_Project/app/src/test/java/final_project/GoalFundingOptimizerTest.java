@@ -0,0 +1,92 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalFundingOptimizerTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = new Household("goals", directory, 0.05);
+    }
+
+    private GoalFundingOptimizer optimizer() {
+        return new GoalFundingOptimizer(household.getBalanceSheet(), household.getGoalManager());
+    }
+
+    @Test
+    void allocate_ScarceAssets_ShouldFollowRequestedOrder() throws IOException {
+        household.getAssetManager().addStock(new Stock(100000, 0.05, 0, 0, 0, "Savings"));
+        household.getGoalManager().addGoal(new Goal(80000, 2024, true, 0.05, "House deposit"));
+        household.getGoalManager().addGoal(new Goal(50000, 2024, true, 0.05, "Car"));
+        household.getGoalManager().addGoal(new Goal(10000, 2024, true, 0.05, "Holiday"));
+
+        List<GoalFundingOptimizer.GoalFunding> byPriority = optimizer().allocateByPriority(Map.of("Car", 1, "Holiday", 2));
+        assertEquals("Car", byPriority.get(0).getGoal().getDescription());
+        assertEquals(1, byPriority.get(0).getFundingLevel(), 1e-12);
+        assertEquals(1, byPriority.get(1).getFundingLevel(), 1e-12);
+        assertEquals(40000.0 / 80000, byPriority.get(2).getFundingLevel(), 1e-12);
+        assertEquals(1, byPriority.get(0).getSuccessProbability());
+        assertEquals(0, byPriority.get(2).getSuccessProbability());
+
+        List<GoalFundingOptimizer.GoalFunding> byCost = optimizer().allocateByCost();
+        assertEquals("Holiday", byCost.get(0).getGoal().getDescription());
+        assertEquals(0, optimizer().getUnallocated(byCost), 1e-9);
+    }
+
+    @Test
+    void allocate_FutureSurplus_ShouldOnlyFundLaterGoals() throws IOException {
+        // 1000 a month of surplus income for many years, but no assets today
+        household.getFamily().addFamilyMember("Alice", 1990, 3000, 2000, 0, 90);
+        household.getGoalManager().addGoal(new Goal(20000, 2024, true, 0.05, "Now"));
+        household.getGoalManager().addGoal(new Goal(12000, 2025, true, 0.05, "Next year"));
+
+        List<GoalFundingOptimizer.GoalFunding> fundings = optimizer().allocateByTime();
+        assertEquals(0, fundings.get(0).getFundedPV());
+        assertEquals(1, fundings.get(1).getFundingLevel(), 1e-12);
+        assertEquals(0, fundings.get(1).getFundedFromAssets());
+    }
+
+    @Test
+    void allocate_RiskyAssets_ShouldGiveIntermediateProbability() throws IOException {
+        household.getAssetManager().addStock(new Stock(100000, 0.07, 0.2, 0, 0, "Equities"));
+        household.getGoalManager().addGoal(new Goal(50000, 2034, true, 0.05, "Well funded"));
+        household.getGoalManager().addGoal(new Goal(500000, 2044, true, 0.05, "Stretch"));
+
+        List<GoalFundingOptimizer.GoalFunding> fundings = optimizer().allocateByTime();
+        assertEquals(1, fundings.get(0).getFundingLevel(), 1e-12);
+        assertEquals(0.5, fundings.get(0).getSuccessProbability(), 1e-6);
+        assertTrue(fundings.get(1).getFundingLevel() < 1);
+        assertTrue(fundings.get(1).getSuccessProbability() > 0 && fundings.get(1).getSuccessProbability() < 0.5);
+        assertEquals(0.5, GoalFundingOptimizer.normalCdf(0), 1e-7);
+        assertEquals(0.975, GoalFundingOptimizer.normalCdf(1.959964), 1e-6);
+    }
+
+    @Test
+    void allocate_HundredsOfRecurringGoals_ShouldFundEveryPayment() throws IOException {
+        household.getFamily().addFamilyMember("Alice", 1990, 10000, 4000, 0, 90);
+        household.getAssetManager().addBond(new Bond(200000, 0.04, 0.05, 2040, 8000, "Bonds"));
+        for (int i = 0; i < 300; i++) {
+            household.getGoalManager().addGoal(new Goal(100 + i, 2025 + i % 40, i % 2 == 0, 0.03, "Goal " + i));
+        }
+        GoalFundingOptimizer optimizer = optimizer();
+        List<GoalFundingOptimizer.GoalFunding> fundings = optimizer.allocateByTime();
+
+        assertEquals(300, fundings.size());
+        double required = fundings.stream().mapToDouble(GoalFundingOptimizer.GoalFunding::getRequiredPV).sum();
+        assertEquals(household.getFinancialAdvisor().calculateTotalGoalsValue(), required, 1e-6);
+        double funded = fundings.stream().mapToDouble(GoalFundingOptimizer.GoalFunding::getFundedPV).sum();
+        assertEquals(optimizer.getTotalResources(), funded + optimizer.getUnallocated(fundings), 1e-6);
+    }
+}
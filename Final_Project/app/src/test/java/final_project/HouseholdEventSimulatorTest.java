@@ -0,0 +1,88 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdEventSimulatorTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = TestHouseholds.sample(directory);
+        household.getGoalManager().addGoal(new Goal(12000, 2029, false, 0.03, "Tuition"));
+    }
+
+    @Test
+    void eventQueue_ShouldPopInKeyOrder() {
+        EventQueue queue = new EventQueue(1);
+        Random random = new Random(19);
+        long[] keys = new long[10000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = EventQueue.key(random.nextInt(1200), random.nextInt(11), random.nextInt(EventQueue.MAX_SUBJECT + 1));
+            queue.push(keys[i]);
+        }
+        Arrays.sort(keys);
+        for (long key : keys) {
+            assertEquals(key, queue.peek());
+            assertEquals(key, queue.pop());
+        }
+        assertTrue(queue.isEmpty());
+
+        long key = EventQueue.key(1199, 10, 12345);
+        assertEquals(1199, EventQueue.month(key));
+        assertEquals(10, EventQueue.type(key));
+        assertEquals(12345, EventQueue.subject(key));
+        assertThrows(IllegalArgumentException.class, () -> EventQueue.key(0, 0, EventQueue.MAX_SUBJECT + 1));
+    }
+
+    @Test
+    void simulate_ShouldEndWithTheProjectedNetCashFlow() {
+        HouseholdEventSimulator.Result result = new HouseholdEventSimulator(household.getBalanceSheet(), household.getGoalManager()).simulate();
+        CashFlowProjection projection = CashFlowProjection.project(household.getBalanceSheet(), household.getGoalManager(), 100);
+
+        assertEquals(2124, result.getEndYear());
+        assertEquals(6000, result.getCash(2024, 1), 1e-9);
+        assertEquals(6000 + 50000 + 200000 + 400000 - 250000, result.getNetWorth(2024, 1), 1e-9);
+        assertEquals(projection.totalNetCashFlow(2024, 2124), result.getCash(2124, 12), 1e-6);
+        assertEquals(result.getCash(2124, 12) + 200000 + 400000, result.getNetWorth(2124, 12), 1e-6);
+        assertTrue(result.getEvents() > 2 * 12 * 40);
+        assertThrows(IllegalArgumentException.class, () -> result.getCash(2125, 1));
+        assertThrows(IllegalArgumentException.class, () -> result.getCash(2024, 13));
+    }
+
+    @Test
+    void simulate_ShouldReviewStrategyWhenTheSituationChanges() throws IOException {
+        Household spender = new Household("spender", directory, 0.05);
+        spender.getFamily().addFamilyMember("Carol", 1980, 3000, 4000, 0, 85);
+        spender.getAssetManager().addStock(new Stock(100000, 0.08, 0.2, 0, 0, "Index fund"));
+
+        HouseholdEventSimulator.Result result = new HouseholdEventSimulator(spender.getBalanceSheet(), spender.getGoalManager()).simulate(2050);
+        List<HouseholdEventSimulator.StrategyChange> changes = result.getStrategyChanges();
+
+        assertEquals(2, changes.size());
+        assertInstanceOf(ConservativeStrategy.class, changes.get(0).getStrategy());
+        assertEquals(HouseholdEventSimulator.EventType.STRATEGY_REVIEW, changes.get(0).getTrigger());
+        assertEquals(2045, changes.get(1).getYear());
+        assertEquals(1, changes.get(1).getMonth());
+        assertEquals(HouseholdEventSimulator.EventType.RETIREMENT, changes.get(1).getTrigger());
+        assertEquals(100000 - 1000 * 12 * 21 - 4000, ((AggressiveStrategy) result.getFinalStrategy()).getShortfall(), 1e-9);
+    }
+
+    @Test
+    void simulate_EndBeforeStart_ShouldThrow() {
+        HouseholdEventSimulator simulator = new HouseholdEventSimulator(household.getBalanceSheet(), household.getGoalManager());
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(2023));
+        assertEquals(simulator.simulate(2030).getCash(2030, 12), simulator.simulate(2030).getCash(2030, 12));
+    }
+}
@@ -0,0 +1,84 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdRegistryTest {
+    @TempDir
+    File root;
+    private HouseholdRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = new HouseholdRegistry();
+    }
+
+    private File writeHousehold(String name, double bondAmount) throws IOException {
+        File directory = new File(root, name);
+        directory.mkdirs();
+        Files.writeString(new File(directory, "Person.csv").toPath(),
+                "Name,BirthYear,MonthlyIncome,MonthlyExpenditure,Insurance,LifeSpan\n" + name + ",1980,5000.00,3000.00,100000.00,85\n");
+        Files.writeString(new File(directory, "Bond.csv").toPath(),
+                "Amount,InterestRate,Volatility,Maturity,Coupon,Description\n" + bondAmount + ",0.05,0.1,2030,50,Treasury\n");
+        return directory;
+    }
+
+    @Test
+    void households_ShouldBeIsolated() throws IOException {
+        Household first = registry.getOrCreate("first", writeHousehold("Ann", 1000));
+        Household second = registry.getOrCreate("second", writeHousehold("Bob", 2000));
+        assertTrue(first.load().isEmpty());
+        assertTrue(second.load().isEmpty());
+
+        second.getAssetManager().addDebt(new Debt(500, 0.05, true, 2030, DebtCategory.MORTGAGE, "Loan"));
+
+        assertEquals("Ann", first.getFamily().getFamilyMembers().get(0).getName());
+        assertEquals("Bob", second.getFamily().getFamilyMembers().get(0).getName());
+        assertEquals(1000, first.getAssetManager().findBondByDescription("Treasury").get().getAmount());
+        assertTrue(first.getAssetManager().getDebtList().isEmpty());
+        assertTrue(new File(second.getDataDirectory(), "Debt.journal").exists());
+        assertFalse(new File(first.getDataDirectory(), "Debt.journal").exists());
+    }
+
+    @Test
+    void getOrCreate_ExistingId_ShouldReturnSameHousehold() throws IOException {
+        Household household = registry.getOrCreate("first", writeHousehold("Ann", 1000));
+
+        assertSame(household, registry.getOrCreate("first", root));
+        assertSame(household, registry.find("first").get());
+        assertFalse(registry.find("missing").isPresent());
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new Household("first", root, 0.05)));
+        assertTrue(registry.remove("first"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void evaluate_ConcurrentHouseholds_ShouldMatchSequentialResults() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            registry.getOrCreate("h" + i, writeHousehold("Member" + i, 1000 * (i + 1))).load();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Double>> futures = registry.getHouseholds().stream()
+                    .map(household -> executor.submit(() -> household.getBalanceSheet().calculateNetPresentValue()))
+                    .toList();
+            List<Household> households = List.copyOf(registry.getHouseholds());
+            for (int i = 0; i < households.size(); i++) {
+                assertEquals(households.get(i).getBalanceSheet().calculateNetPresentValue(), futures.get(i).get(), 1e-9);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package final_project;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HouseholdSnapshotTest {
+    @TempDir
+    File directory;
+    private File snapshot;
+    private Family family;
+    private GoalManager goalManager;
+    private AssetAndDebtManager assetManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = new File(directory, "household.snapshot");
+        family = Family.getInstance(new PersonFactory());
+        goalManager = GoalManager.getInstance();
+        assetManager = AssetAndDebtManager.getInstance();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearManagers();
+    }
+
+    private void clearManagers() {
+        family.restore(List.of());
+        goalManager.restore(List.of());
+        assetManager.restore(List.of(), List.of(), List.of(), List.of());
+    }
+
+    @Test
+    void readAfterWrite_ShouldRestoreEveryEntity() throws IOException {
+        family.restore(List.of(new Person("Mike Miller", 1970, 5400, 2500, 100000, 80),
+                new Person("Amy Miller", 1975, 4000, 2200, 80000, 85)));
+        goalManager.restore(List.of(new Goal(800000, 2035, true, 0.03, "Buy a new House")));
+        assetManager.restore(
+                List.of(new Bond(20000, 0.03, 0.001, 2029, 200, "Bond1")),
+                List.of(new Stock(8000, 0.05, 0.4, 5, 0.01, "Stock_TSLA")),
+                List.of(new RealEstate(2000000, 0.01, 0.4, 5000, "Vacation Villa")),
+                List.of(new Debt(50000, 0.01, true, 2032, DebtCategory.VEHICLE_LOAN, "Car Loan1"),
+                        new Debt(2000, 0.02, false, 2030, DebtCategory.CONSUMPTION_LOAN, "Bond1")));
+
+        HouseholdSnapshot.write(snapshot, family, goalManager, assetManager);
+        clearManagers();
+        HouseholdSnapshot.read(snapshot, family, goalManager, assetManager);
+
+        assertEquals(2, family.getFamilyMembers().size());
+        Person amy = family.getFamilyMembers().get(1);
+        assertEquals("Amy Miller", amy.getName());
+        assertEquals(1975, amy.getBirthYear());
+        assertEquals(4000, amy.getMonthlyIncome());
+        assertEquals(85, amy.getLifeSpan());
+
+        Goal goal = goalManager.getGoalList().get(0);
+        assertEquals(800000, goal.getAmount());
+        assertEquals(2035, goal.getTime());
+        assertTrue(goal.isOneTime());
+
+        Bond bond = assetManager.getBondList().get(0);
+        assertEquals(2029, bond.getMaturity());
+        assertEquals(200, bond.getCoupon());
+        assertEquals(0.001, bond.getVolatility());
+        assertEquals(0.01, assetManager.getStockList().get(0).getDividendGrowthRate());
+        assertEquals(5000, assetManager.getRealEstateList().get(0).getNetOperatingIncome());
+
+        Debt debt = assetManager.getDebtList().get(1);
+        assertEquals(DebtCategory.CONSUMPTION_LOAN, debt.getCategory());
+        assertFalse(debt.isOneTime());
+        assertEquals("Bond1", debt.getDescription());
+    }
+
+    @Test
+    void read_NotASnapshot_ShouldThrowAndLeaveManagersUntouched() throws IOException {
+        goalManager.restore(List.of(new Goal(1000, 2030, true, 0.03, "Keep me")));
+        try (FileWriter writer = new FileWriter(snapshot)) {
+            writer.write("Amount,Time,IsOneTime,InterestRate,Description\n");
+        }
+
+        assertThrows(IOException.class, () -> HouseholdSnapshot.read(snapshot, family, goalManager, assetManager));
+        assertEquals("Keep me", goalManager.getGoalList().get(0).getDescription());
+    }
+
+    @Test
+    void isUpToDate_ShouldRequireEverySourceUnchanged() throws IOException {
+        File household = new File(directory, HouseholdSnapshot.FILE_NAME);
+        for (EntityType type : EntityType.values()) {
+            Files.writeString(new File(directory, type.getFileName()).toPath(), "Header\n");
+        }
+        assertFalse(HouseholdSnapshot.isUpToDate(household));
+        HouseholdSnapshot.write(household, family, goalManager, assetManager);
+        assertTrue(HouseholdSnapshot.isUpToDate(household));
+
+        File journal = new File(directory, EntityType.GOAL.getJournalFileName());
+        Files.writeString(journal.toPath(), "ADD,1000,2030,true,0.03,Car\n");
+        assertFalse(HouseholdSnapshot.isUpToDate(household));
+        HouseholdSnapshot.write(household, family, goalManager, assetManager);
+        assertTrue(HouseholdSnapshot.isUpToDate(household));
+
+        // An edit within the same timestamp tick is still caught by the size
+        File csv = new File(directory, EntityType.STOCK.getFileName());
+        long modified = csv.lastModified();
+        Files.writeString(csv.toPath(), "Header\nrow\n");
+        csv.setLastModified(modified);
+        assertFalse(HouseholdSnapshot.isUpToDate(household));
+        HouseholdSnapshot.write(household, family, goalManager, assetManager);
+        assertTrue(HouseholdSnapshot.isUpToDate(household));
+
+        Files.delete(new File(directory, EntityType.BOND.getFileName()).toPath());
+        assertFalse(HouseholdSnapshot.isUpToDate(household));
+    }
+}
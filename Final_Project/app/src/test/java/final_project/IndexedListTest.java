@@ -0,0 +1,100 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedListTest {
+    private IndexedList<Goal> goals;
+
+    @BeforeEach
+    void setUp() {
+        goals = new IndexedList<>(Goal::getDescription);
+        goals.add(new Goal(1000, 2030, true, 0.05, "Car"));
+        goals.add(new Goal(2000, 2035, true, 0.05, "House"));
+        goals.add(new Goal(3000, 2040, true, 0.05, "College"));
+    }
+
+    @Test
+    void find_ShouldReturnItemByKey() {
+        assertEquals(2000, goals.find("House").getAmount());
+        assertNull(goals.find("Boat"));
+        assertTrue(goals.containsKey("Car"));
+    }
+
+    @Test
+    void add_DuplicateKey_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> goals.add(new Goal(5, 2030, true, 0.05, "Car")));
+        assertEquals(3, goals.size());
+    }
+
+    @Test
+    void removeKey_ShouldSwapLastItemIntoFreedSlot() {
+        Goal removed = goals.removeKey("Car");
+
+        assertEquals("Car", removed.getDescription());
+        assertEquals(List.of("College", "House"), goals.stream().map(Goal::getDescription).toList());
+        assertEquals(3000, goals.find("College").getAmount());
+        assertNull(goals.removeKey("Car"));
+    }
+
+    @Test
+    void removeKey_LastItem_ShouldKeepIndexConsistent() {
+        goals.removeKey("College");
+        goals.add(new Goal(4000, 2045, true, 0.05, "Boat"));
+
+        assertEquals("Boat", goals.get(2).getDescription());
+        assertEquals(4000, goals.find("Boat").getAmount());
+    }
+
+    @Test
+    void put_ExistingKey_ShouldReplaceInPlace() {
+        Goal previous = goals.put(new Goal(2500, 2036, false, 0.04, "House"));
+
+        assertEquals(2000, previous.getAmount());
+        assertEquals(3, goals.size());
+        assertEquals(2500, goals.get(1).getAmount());
+        assertNull(goals.put(new Goal(10, 2030, true, 0.05, "Boat")));
+        assertEquals(4, goals.size());
+    }
+
+    @Test
+    void positionalMutators_ShouldBeUnsupported() {
+        assertThrows(UnsupportedOperationException.class, () -> goals.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> goals.set(0, goals.get(1)));
+    }
+
+    @Test
+    void familyRename_ShouldKeepTheNameIndexConsistent(@TempDir Path directory) throws IOException {
+        Family family = new Family(new PersonFactory(), directory.toFile());
+        family.addFamilyMember("Alice", 1980, 8000, 5000, 0, 85);
+        family.addFamilyMember("Bob", 1985, 6000, 3000, 0, 82);
+        family.addFamilyMember("Carol", 1990, 4000, 2000, 0, 88);
+
+        assertTrue(family.renameFamilyMember("Alice", "Alicia"));
+        assertFalse(family.findFamilyMemberByName("Alice").isPresent());
+        assertEquals(1980, family.findFamilyMemberByName("Alicia").get().getBirthYear());
+        assertThrows(IllegalArgumentException.class, () -> family.renameFamilyMember("Alicia", "Bob"));
+
+        // A member renamed in place stays under its old name until it is passed back to the family
+        Person bob = family.findFamilyMemberByName("Bob").get();
+        bob.setName("Robert");
+        assertTrue(family.deleteFamilyMember("Carol"));
+        assertSame(bob, family.findFamilyMemberByName("Bob").get());
+        assertTrue(family.updateFamilyMember(bob));
+        assertSame(bob, family.findFamilyMemberByName("Robert").get());
+        assertFalse(family.findFamilyMemberByName("Bob").isPresent());
+        assertTrue(family.deleteFamilyMember("Robert"));
+        assertEquals(List.of("Alicia"), family.getFamilyMembers().stream().map(Person::getName).toList());
+
+        Family reloaded = new Family(new PersonFactory(), directory.toFile());
+        reloaded.loadPeopleFromCSV();
+        assertEquals(List.of("Alicia"), reloaded.getFamilyMembers().stream().map(Person::getName).toList());
+    }
+}
@@ -0,0 +1,106 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InsuranceNeedsCalculatorTest {
+    @TempDir
+    File directory;
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        file = new File(directory, "lifetable.csv");
+    }
+
+    private void write(String content) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+    }
+
+    private static LifeTable constantTable(double female, double male) {
+        double[] femaleDeaths = new double[111];
+        double[] maleDeaths = new double[111];
+        Arrays.fill(femaleDeaths, female);
+        Arrays.fill(maleDeaths, male);
+        return LifeTable.of(femaleDeaths, maleDeaths);
+    }
+
+    @Test
+    void calculate_ShouldWeightContributionsBySurvival() throws IOException {
+        StringBuilder csv = new StringBuilder("Age,Female,Male\n");
+        for (int age = 0; age <= 110; age++) {
+            csv.append(age).append(",0.01,0.02\n");
+        }
+        write(csv.toString());
+        InsuranceNeedsCalculator calculator = new InsuranceNeedsCalculator(LifeTable.load(file), DiscountCurve.flat(0.05));
+        Person person = new Person("Alice", 1984, 8000, 3000, 500000, 85);
+
+        double expected = 0;
+        for (int t = 1; t <= 25; t++) {
+            expected += 60000 * Math.pow(0.99, t) / Math.pow(1.05, t);
+        }
+        InsuranceNeedsCalculator.Need need = calculator.calculate(person, Sex.FEMALE);
+        assertEquals(25, need.getWorkingYears());
+        assertEquals(60000, need.getAnnualContribution());
+        assertEquals(expected, need.getLostContributionPV(), 1e-6);
+        assertEquals(500000 - expected, need.getGap(), 1e-6);
+        assertTrue(calculator.calculate(person, Sex.MALE).getLostContributionPV() < expected);
+        assertTrue(need.toString().startsWith("Alice's insurance shortfall"));
+    }
+
+    @Test
+    void calculate_NoMortality_ShouldEqualAnnuity() {
+        InsuranceNeedsCalculator calculator = new InsuranceNeedsCalculator(constantTable(0, 0), DiscountCurve.flat(0.04));
+        Person person = new Person("Bob", 1990, 6000, 1000, 2000000, 90);
+
+        InsuranceNeedsCalculator.Need need = calculator.calculate(person, Sex.UNSPECIFIED);
+        assertEquals(60000 * Annuity.factor(0.04, 36), need.getLostContributionPV(), 1e-6);
+        assertEquals("Bob is adequately covered by insurance.", need.toString());
+    }
+
+    @Test
+    void calculateAll_ShouldMatchSingleCalculationsAndIgnoreNonEarners() {
+        InsuranceNeedsCalculator calculator = new InsuranceNeedsCalculator(constantTable(0.01, 0.03), DiscountCurve.flat(0.05));
+        List<Person> people = List.of(new Person("Carol", 1980, 9000, 4000, 0, 85),
+                                      new Person("Dan", 1980, 9000, 4000, 0, 85),
+                                      new Person("Eve", 1950, 0, 2000, 0, 90),
+                                      new Person("Frank", 1940, 5000, 1000, 0, 80));
+
+        List<InsuranceNeedsCalculator.Need> needs = calculator.calculateAll(people, p -> p.getName().equals("Dan") ? Sex.MALE : Sex.UNSPECIFIED);
+        assertEquals(4, needs.size());
+        assertEquals(calculator.calculate(people.get(0), Sex.UNSPECIFIED).getLostContributionPV(), needs.get(0).getLostContributionPV());
+        assertEquals(calculator.calculate(people.get(1), Sex.MALE).getLostContributionPV(), needs.get(1).getLostContributionPV());
+        assertTrue(needs.get(1).getLostContributionPV() < needs.get(0).getLostContributionPV());
+        assertEquals(0, needs.get(2).getLostContributionPV());
+        assertEquals(0, needs.get(3).getWorkingYears());
+        assertEquals(0, needs.get(3).getLostContributionPV());
+    }
+
+    @Test
+    void lifeTable_ShouldCloseAtMaxAgeAndRejectInvalidInput() throws IOException {
+        LifeTable table = constantTable(0.01, 0.02);
+        assertEquals(110, table.getMaxAge());
+        assertEquals(1, table.deathProbability(Sex.MALE, 110));
+        assertEquals(1, table.deathProbability(Sex.MALE, 130));
+        assertEquals(0.015, table.deathProbability(Sex.UNSPECIFIED, 40), 1e-15);
+        assertEquals(Math.pow(0.99, 10), table.survivalProbability(Sex.FEMALE, 40, 10), 1e-15);
+        assertEquals(0, table.survivalProbability(Sex.FEMALE, 100, 20));
+
+        assertThrows(IllegalArgumentException.class, () -> LifeTable.of(new double[]{0.1}, new double[]{1.5}));
+        write("Age,Female,Male\n0,0.01,0.01\n2,0.01,0.01\n");
+        assertThrows(IllegalArgumentException.class, () -> LifeTable.load(file));
+        write("Age,Female,Male\n0,0.01\n");
+        assertThrows(IllegalArgumentException.class, () -> LifeTable.load(file));
+    }
+}
@@ -0,0 +1,142 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    @TempDir
+    File directory;
+    private File file;
+    private Journal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = new File(directory, "test.journal");
+        journal = new Journal(file);
+    }
+
+    @Test
+    void replay_AfterAppends_ShouldReturnRecordsInOrder() throws IOException {
+        journal.append(Journal.Operation.ADD, "1000.000000,0.050000,0.100000,2025,5.000000,Bond A");
+        journal.append(Journal.Operation.DELETE, "Bond A");
+        journal.append(Journal.Operation.UPDATE, "2000.000000,0.050000,0.100000,2026,5.000000,Bond B");
+
+        List<String> records = new ArrayList<>();
+        Journal reopened = new Journal(file);
+        reopened.replay((operation, payload) -> records.add(operation + "|" + payload));
+
+        assertEquals(List.of(
+                "ADD|1000.000000,0.050000,0.100000,2025,5.000000,Bond A",
+                "DELETE|Bond A",
+                "UPDATE|2000.000000,0.050000,0.100000,2026,5.000000,Bond B"), records);
+        assertEquals(3, reopened.getRecordCount());
+    }
+
+    @Test
+    void replay_MissingFile_ShouldDoNothing() throws IOException {
+        List<String> records = new ArrayList<>();
+        journal.replay((operation, payload) -> records.add(payload));
+        assertTrue(records.isEmpty());
+        assertEquals(0, journal.getRecordCount());
+    }
+
+    @Test
+    void replay_TornOrUnparseableRecords_ShouldBeSkippedAndReported() throws IOException {
+        journal.append(Journal.Operation.ADD, "Goal A");
+        try (FileWriter writer = new FileWriter(file, true)) {
+            writer.write("ADD,not-a-number\nDEL");
+        }
+
+        List<String> records = new ArrayList<>();
+        List<CsvLoader.RowError> errors = journal.replay((operation, payload) -> {
+            if (payload.startsWith("not")) {
+                throw new NumberFormatException(payload);
+            }
+            records.add(payload);
+        });
+
+        assertEquals(List.of("Goal A"), records);
+        assertEquals(1, journal.getRecordCount());
+        assertEquals(2, errors.size());
+        assertEquals(2, errors.get(0).getLineNumber());
+        assertEquals(3, errors.get(1).getLineNumber());
+        assertEquals(file.getName(), errors.get(1).getSource());
+    }
+
+    @Test
+    void managerReload_DescriptionsWithCommasUnderACommaDecimalLocale_ShouldSurviveTheJournal() throws IOException {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            AssetAndDebtManager manager = new AssetAndDebtManager(directory);
+            manager.addBond(new Bond(1000, 0.04, 0.05, 2034, 40, "Treasury, 10y"));
+            manager.addDebt(new Debt(5000.5, 0.03, true, 2030, DebtCategory.OTHER, "Loan \"A\""));
+            GoalManager goals = new GoalManager(directory);
+            goals.addGoal(new Goal(1234.5, 2030, true, 0.03, "House, big"));
+
+            AssetAndDebtManager reloaded = new AssetAndDebtManager(directory);
+            assertTrue(reloaded.loadBondsFromCSV().isEmpty());
+            assertTrue(reloaded.loadDebtsFromCSV().isEmpty());
+            GoalManager reloadedGoals = new GoalManager(directory);
+            assertTrue(reloadedGoals.loadGoalsFromCSV().isEmpty());
+
+            assertEquals(0.04, reloaded.findBondByDescription("Treasury, 10y").get().getInterestRate());
+            assertEquals(5000.5, reloaded.findDebtByDescription("Loan \"A\"").get().getAmount());
+            assertEquals(1234.5, reloadedGoals.findGoalByDescription("House, big").get().getAmount());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void clear_ShouldDiscardAllRecords() throws IOException {
+        journal.append(Journal.Operation.ADD, "Goal A");
+        journal.clear();
+
+        assertFalse(file.exists());
+        assertEquals(0, journal.getRecordCount());
+    }
+
+    @Test
+    void append_PayloadWithLineBreak_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> journal.append(Journal.Operation.ADD, "a\nb"));
+    }
+
+    @Test
+    void replay_AfterRotateWithoutDiscard_ShouldIncludeRotatedRecordsFirst() throws IOException {
+        journal.append(Journal.Operation.ADD, "Goal A");
+        journal.rotate();
+        journal.append(Journal.Operation.ADD, "Goal B");
+        journal.rotate();
+        journal.append(Journal.Operation.DELETE, "Goal A");
+
+        List<String> records = new ArrayList<>();
+        new Journal(file).replay((operation, payload) -> records.add(operation + "|" + payload));
+
+        assertEquals(List.of("ADD|Goal A", "ADD|Goal B", "DELETE|Goal A"), records);
+    }
+
+    @Test
+    void discardRotated_ShouldKeepOnlyNewRecords() throws IOException {
+        journal.append(Journal.Operation.ADD, "Goal A");
+        journal.rotate();
+        assertEquals(0, journal.getRecordCount());
+        journal.append(Journal.Operation.ADD, "Goal B");
+        journal.discardRotated();
+
+        List<String> records = new ArrayList<>();
+        journal.replay((operation, payload) -> records.add(payload));
+
+        assertEquals(List.of("Goal B"), records);
+    }
+}
@@ -0,0 +1,66 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloEngineTest {
+    @TempDir
+    File directory;
+    private AssetAndDebtManager assetManager;
+    private GoalManager goalManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        assetManager = new AssetAndDebtManager(directory);
+        goalManager = new GoalManager(directory);
+    }
+
+    @Test
+    void simulate_WithoutVolatility_ShouldFollowDeterministicCashFlows() throws IOException {
+        assetManager.addStock(new Stock(1000, 0.05, 0, 0, 0, "Stock"));
+        assetManager.addDebt(new Debt(500, 0.1, true, 2026, DebtCategory.OTHER, "Loan"));
+        goalManager.addGoal(new Goal(100, 2025, true, 0.03, "Trip"));
+
+        MonteCarloEngine.Result result = new MonteCarloEngine(2).simulate(assetManager, goalManager, 2024, 3, 1000, 1);
+
+        assertEquals(500, result.getPercentile(2024, 0.5), 1e-9);
+        assertEquals(1000 * 1.05 - 100 - 500, result.getPercentile(2025, 0.05), 1e-9);
+        assertEquals(1000 * Math.pow(1.05, 3) - 600, result.getPercentile(2027, 0.95), 1e-9);
+        assertEquals(1000 * Math.pow(1.05, 3) - 600, result.getMean(2027), 1e-9);
+    }
+
+    @Test
+    void simulate_SameSeed_ShouldNotDependOnParallelism() throws IOException {
+        assetManager.addStock(new Stock(50000, 0.07, 0.2, 1000, 0.02, "Stock"));
+        assetManager.addBond(new Bond(20000, 0.04, 0.05, 2030, 800, "Bond"));
+        assetManager.addRealEstate(new RealEstate(300000, 0.05, 0.1, 12000, "House"));
+        assetManager.addDebt(new Debt(200000, 0.04, false, 2040, DebtCategory.MORTGAGE, "Mortgage"));
+
+        MonteCarloEngine.Result single = new MonteCarloEngine(1).simulate(assetManager, goalManager, 2024, 20, 50000, 42);
+        MonteCarloEngine.Result parallel = new MonteCarloEngine(4).simulate(assetManager, goalManager, 2024, 20, 50000, 42);
+
+        assertArrayEquals(single.getBand(0.05), parallel.getBand(0.05));
+        assertArrayEquals(single.getBand(0.5), parallel.getBand(0.5));
+        assertEquals(single.getMean(2044), parallel.getMean(2044));
+        assertTrue(single.getPercentile(2044, 0.05) < single.getPercentile(2044, 0.5));
+        assertTrue(single.getPercentile(2044, 0.5) < single.getPercentile(2044, 0.95));
+    }
+
+    @Test
+    void simulate_SingleStock_ShouldMatchLognormalMoments() throws IOException {
+        assetManager.addStock(new Stock(1000, 0.07, 0.2, 0, 0, "Stock"));
+
+        MonteCarloEngine.Result result = new MonteCarloEngine(4).simulate(assetManager, null, 2024, 10, 100000, 7);
+
+        assertEquals(1000 * Math.pow(1.07, 10), result.getMean(2034), 1000 * Math.pow(1.07, 10) * 0.02);
+        double median = 1000 * Math.exp(10 * (Math.log(1.07) - 0.02));
+        assertEquals(median, result.getPercentile(2034, 0.5), median * 0.02);
+        assertThrows(IllegalArgumentException.class, () -> result.getPercentile(2035, 0.5));
+    }
+}
@@ -0,0 +1,92 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NpvPreviewTest {
+    @TempDir
+    File directory;
+    private Household household;
+    private final List<NpvPreview.Preview> previews = new CopyOnWriteArrayList<>();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private final CountDownLatch received = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = TestHouseholds.sample(directory);
+    }
+
+    private NpvPreview createPreview() throws Exception {
+        AtomicReference<NpvPreview> preview = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> preview.set(new NpvPreview(household.getBalanceSheet(), household.getGoalManager(),
+                result -> {
+                    previews.add(result);
+                    received.countDown();
+                },
+                message -> {
+                    errors.add(message);
+                    received.countDown();
+                }, 50)));
+        return preview.get();
+    }
+
+    @Test
+    void request_ShouldPreviewOnlyTheLatestRate() throws Exception {
+        NpvPreview preview = createPreview();
+        SwingUtilities.invokeAndWait(() -> {
+            preview.request("0.0");
+            preview.request("0.0");
+            preview.request("0.07");
+        });
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200); // Superseded requests would have been delivered by now
+        SwingUtilities.invokeAndWait(() -> { }); // Flush callbacks queued on the event dispatch thread
+
+        assertEquals(1, previews.size());
+        assertTrue(errors.isEmpty());
+        NpvPreview.Preview result = previews.get(0);
+        BalanceSheet expected = new BalanceSheet(household.getFamily(), household.getAssetManager(), 0.07);
+        assertEquals(0.07, result.getRate(), 1e-12);
+        FinancialAdvisor advisor = new FinancialAdvisor(household.getGoalManager(), expected);
+        assertEquals(expected.calculateNetPresentValue(), result.getNetPresentValue(), 1e-6);
+        assertEquals(expected.calculateNetPresentValue() - advisor.calculateTotalGoalsValue(), result.getShortfall(), 1e-6);
+        assertEquals(advisor.recommendStrategy().getClass(), result.getStrategy().getClass());
+        assertEquals(0.05, household.getBalanceSheet().getAppliedInterestRate(), 1e-12);
+    }
+
+    @Test
+    void request_InvalidRate_ShouldReportError() throws Exception {
+        NpvPreview preview = createPreview();
+        SwingUtilities.invokeAndWait(() -> preview.request("-1.5"));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+
+        assertTrue(previews.isEmpty());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Invalid interest rate"));
+    }
+
+    @Test
+    void cancel_ShouldDropThePendingPreview() throws Exception {
+        NpvPreview preview = createPreview();
+        SwingUtilities.invokeAndWait(() -> {
+            preview.request("0.03");
+            preview.cancel();
+        });
+
+        assertFalse(received.await(300, TimeUnit.MILLISECONDS));
+        assertTrue(previews.isEmpty());
+        assertTrue(errors.isEmpty());
+    }
+}
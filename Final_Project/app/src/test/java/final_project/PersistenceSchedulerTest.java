@@ -0,0 +1,105 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceSchedulerTest {
+    @TempDir
+    File directory;
+    private final List<EntityType> saves = new CopyOnWriteArrayList<>();
+
+    @Test
+    void markDirty_BurstOfChanges_ShouldCoalesceIntoOneSavePerType() throws Exception {
+        PersistenceScheduler scheduler = new PersistenceScheduler(saves::add, 10_000, 1000);
+        for (int i = 0; i < 50; i++) {
+            scheduler.markDirty(EntityType.BOND);
+            scheduler.markDirty(EntityType.GOAL);
+        }
+        assertTrue(saves.isEmpty());
+        assertTrue(scheduler.isDirty(EntityType.BOND));
+
+        scheduler.flushNow().get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(EntityType.GOAL, EntityType.BOND), saves);
+        assertFalse(scheduler.isDirty(EntityType.BOND));
+        scheduler.close();
+    }
+
+    @Test
+    void markDirty_QuietPeriodElapsed_ShouldFlush() throws Exception {
+        PersistenceScheduler scheduler = new PersistenceScheduler(saves::add, 20, 1000);
+        scheduler.markDirty(EntityType.PERSON);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (saves.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(List.of(EntityType.PERSON), saves);
+        scheduler.close();
+    }
+
+    @Test
+    void markDirty_ThresholdReached_ShouldFlushWithoutWaiting() throws Exception {
+        PersistenceScheduler scheduler = new PersistenceScheduler(saves::add, 60_000, 3);
+        scheduler.markDirty(EntityType.DEBT);
+        scheduler.markDirty(EntityType.DEBT);
+        scheduler.markDirty(EntityType.DEBT);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (saves.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(List.of(EntityType.DEBT), saves);
+        scheduler.close();
+    }
+
+    @Test
+    void close_ShouldFlushPendingChangesAndRejectNewOnes() throws IOException {
+        PersistenceScheduler scheduler = new PersistenceScheduler(saves::add, 60_000, 1000);
+        scheduler.markDirty(EntityType.STOCK);
+
+        scheduler.close();
+
+        assertEquals(List.of(EntityType.STOCK), saves);
+        assertThrows(IllegalStateException.class, () -> scheduler.markDirty(EntityType.STOCK));
+    }
+
+    @Test
+    void close_SaveFails_ShouldReportFailureAndKeepTypeDirty() {
+        PersistenceScheduler scheduler = new PersistenceScheduler(type -> {
+            throw new IOException("disk full");
+        }, 60_000, 1000);
+        scheduler.markDirty(EntityType.GOAL);
+
+        IOException failure = assertThrows(IOException.class, scheduler::close);
+
+        assertEquals("disk full", failure.getCause().getMessage());
+        assertTrue(scheduler.isDirty(EntityType.GOAL));
+    }
+
+    @Test
+    void setPersistenceScheduler_EditNotYetFlushed_ShouldSurviveThroughTheJournal() throws IOException {
+        GoalManager goals = new GoalManager(directory);
+        PersistenceScheduler scheduler = new PersistenceScheduler(saves::add, 60_000, 1000);
+        goals.setPersistenceScheduler(scheduler);
+
+        goals.addGoal(new Goal(20000, 2030, true, 0.03, "Car"));
+        assertTrue(scheduler.isDirty(EntityType.GOAL));
+        assertTrue(saves.isEmpty());
+
+        GoalManager reloaded = new GoalManager(directory);
+        assertTrue(reloaded.loadGoalsFromCSV().isEmpty());
+        assertEquals(20000, reloaded.findGoalByDescription("Car").orElseThrow().getAmount());
+        scheduler.close();
+    }
+}
@@ -0,0 +1,103 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableRowSorter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionTableModelTest {
+    @TempDir
+    File directory;
+    private AssetAndDebtManager manager;
+    private BalanceSheet balanceSheet;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new AssetAndDebtManager(directory);
+        for (int i = 0; i < 300; i++) {
+            manager.addBond(new Bond(1000 + 37 * (i % 50), 0.02 + (i % 7) * 0.01, 0.05, 2025 + i % 30, 40, (i % 3 == 0 ? "Treasury " : "Corporate ") + i));
+            manager.addDebt(new Debt(5000 + i, 0.04, i % 2 == 0, 2030 + i % 20, DebtCategory.OTHER, "Loan " + i));
+        }
+        manager.addStock(new Stock(2000, 0.08, 0.2, 50, 0.03, "Index fund"));
+        balanceSheet = new BalanceSheet(null, manager, 0.05);
+    }
+
+    @Test
+    void getValueAt_ShouldReadTheColumnsAndValues() {
+        PositionTableModel bonds = new PositionTableModel(EntityType.BOND, manager, balanceSheet);
+        List<Bond> bondList = manager.getBondList();
+
+        assertEquals(300, bonds.getRowCount());
+        assertEquals("Maturity", bonds.getColumnName(PositionTableModel.DETAIL_COLUMN));
+        assertEquals(Double.class, bonds.getColumnClass(PositionTableModel.PRESENT_VALUE_COLUMN));
+        for (int row = 0; row < bondList.size(); row += 17) {
+            Bond bond = bondList.get(row);
+            assertEquals(bond.getDescription(), bonds.getValueAt(row, PositionTableModel.DESCRIPTION_COLUMN));
+            assertEquals(bond.getAmount(), bonds.getValueAt(row, PositionTableModel.AMOUNT_COLUMN));
+            assertEquals(bond.getMaturity(), bonds.getValueAt(row, PositionTableModel.DETAIL_COLUMN));
+            assertEquals(bond.calculateReturn(), (Double) bonds.getValueAt(row, PositionTableModel.PRESENT_VALUE_COLUMN), 1e-9);
+        }
+        assertNull(bonds.getValueAt(300, PositionTableModel.DESCRIPTION_COLUMN));
+        assertEquals("Index fund", new PositionTableModel(EntityType.STOCK, manager, balanceSheet).getValueAt(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PositionTableModel(EntityType.GOAL, manager, balanceSheet));
+    }
+
+    @Test
+    void debtValues_ShouldFollowTheBalanceSheetCurve() {
+        PositionTableModel debts = new PositionTableModel(EntityType.DEBT, manager, balanceSheet);
+        Debt debt = manager.getDebtList().get(5);
+
+        assertEquals(balanceSheet.calculateDebtPV(debt), (Double) debts.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN), 1e-9);
+        balanceSheet.setAppliedInterestRate(0.08);
+        assertEquals(balanceSheet.calculateDebtPV(debt), (Double) debts.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN), 1e-9);
+    }
+
+    @Test
+    void getValueAt_PositionEditedWithoutRefresh_ShouldShowTheNewValue() throws IOException {
+        PositionTableModel debts = new PositionTableModel(EntityType.DEBT, manager, balanceSheet);
+        PositionTableModel bonds = new PositionTableModel(EntityType.BOND, manager, balanceSheet);
+        balanceSheet.setDiscountCurve(DiscountCurve.flat(0.05, 2026));
+        debts.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN);
+        bonds.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN);
+
+        Debt debt = new Debt(90000, 0.07, false, 2040, DebtCategory.OTHER, "Loan 5");
+        manager.updateDebt(debt);
+        Bond bond = manager.getBondList().get(5);
+        manager.updateBond(new Bond(bond.getAmount() * 2, bond.getInterestRate(), bond.getVolatility(), bond.getMaturity(),
+                bond.getCoupon(), bond.getDescription()));
+
+        assertEquals(balanceSheet.calculateDebtPV(debt), (Double) debts.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN), 1e-9);
+        assertEquals(manager.getBondColumns().presentValue(5, 2026), (Double) bonds.getValueAt(5, PositionTableModel.PRESENT_VALUE_COLUMN), 1e-9);
+    }
+
+    @Test
+    void sorter_ShouldSortNumericallyAndFilterByDescription() {
+        PositionTableModel bonds = new PositionTableModel(EntityType.BOND, manager, balanceSheet);
+        TableRowSorter<PositionTableModel> sorter = new TableRowSorter<>(bonds);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(PositionTableModel.PRESENT_VALUE_COLUMN, SortOrder.DESCENDING)));
+
+        double previous = Double.POSITIVE_INFINITY;
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            double value = (Double) bonds.getValueAt(sorter.convertRowIndexToModel(view), PositionTableModel.PRESENT_VALUE_COLUMN);
+            assertTrue(value <= previous);
+            previous = value;
+        }
+
+        sorter.setRowFilter(PositionTableModel.descriptionFilter(" treasury"));
+        assertEquals(100, sorter.getViewRowCount());
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            String description = (String) bonds.getValueAt(sorter.convertRowIndexToModel(view), PositionTableModel.DESCRIPTION_COLUMN);
+            assertTrue(description.startsWith("Treasury"));
+        }
+        sorter.setRowFilter(PositionTableModel.descriptionFilter(""));
+        assertEquals(300, sorter.getViewRowCount());
+    }
+}
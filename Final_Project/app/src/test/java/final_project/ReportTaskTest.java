@@ -0,0 +1,103 @@
+package final_project;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportTaskTest {
+
+    private static String textOf(JTextArea textArea) throws InterruptedException, InvocationTargetException {
+        AtomicReference<String> text = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> text.set(textArea.getText()));
+        return text.get();
+    }
+
+    /**
+     * Starts a task and returns a latch released once the task's done() has run on the event dispatch thread.
+     */
+    private static CountDownLatch start(ReportTask task) {
+        CountDownLatch done = new CountDownLatch(1);
+        task.addPropertyChangeListener(event -> {
+            if ("state".equals(event.getPropertyName()) && task.isDone()) {
+                done.countDown(); // State changes are delivered after done() on the event dispatch thread
+            }
+        });
+        task.execute();
+        return done;
+    }
+
+    @Test
+    void execute_ShouldAppendSectionsInOrder() throws Exception {
+        JTextArea textArea = new JTextArea();
+        ReportTask task = new ReportTask(textArea, List.of(
+                out -> out.println("Income"),
+                out -> {
+                    for (int i = 0; i < 5000; i++) {
+                        out.println("Bond " + i);
+                    }
+                },
+                out -> new AggressiveStrategy(-1000).execute(out)));
+        assertTrue(start(task).await(5, TimeUnit.SECONDS));
+
+        String text = textOf(textArea);
+        assertTrue(text.startsWith("Income\nBond 0\nBond 1\n"));
+        assertTrue(text.contains("Bond 4999\nRecommending aggressive strategy"));
+        assertTrue(text.endsWith("Shortfall: -1000.0\n"));
+        assertEquals(100, task.getProgress());
+    }
+
+    @Test
+    void cancel_ShouldStopTheRunningSection() throws Exception {
+        JTextArea textArea = new JTextArea();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReportTask task = new ReportTask(textArea, List.of(
+                out -> {
+                    out.println("First");
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    out.println("Never printed");
+                },
+                out -> out.println("Second")));
+        CountDownLatch done = start(task);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        task.cancel(true);
+        release.countDown();
+        assertThrows(CancellationException.class, task::get);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        String text = textOf(textArea);
+        assertFalse(text.contains("Never printed"));
+        assertFalse(text.contains("Second"));
+        assertTrue(text.endsWith("Cancelled.\n"));
+    }
+
+    @Test
+    void balanceSheet_PrintToStream_ShouldNotUseSystemOut(@TempDir File directory) throws Exception {
+        AssetAndDebtManager assetManager = new AssetAndDebtManager(directory);
+        assetManager.addDebt(new Debt(1000, 0.05, true, 2025, DebtCategory.OTHER, "Loan"));
+        PrintStream systemOut = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BalanceSheet(null, assetManager, 0.05).printLiabilitiesDetails(new PrintStream(bytes, true, "UTF-8"));
+
+        assertSame(systemOut, System.out);
+        assertEquals("Debt:\nLoan: " + 1000 / 1.05 + "\n", bytes.toString("UTF-8").replace(System.lineSeparator(), "\n"));
+    }
+}
@@ -0,0 +1,87 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWriterTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = new Household("report", directory, 0.05);
+        household.getFamily().addFamilyMember("Alice", 1980, 8000, 5000, 100000, 85);
+        household.getAssetManager().addBond(new Bond(50000, 0.04, 0.05, 2034, 2000, "Treasury"));
+        household.getAssetManager().addStock(new Stock(200000, 0.08, 0.2, 5000, 0.03, "Index fund"));
+        household.getAssetManager().addDebt(new Debt(250000, 0.04, false, 2045, DebtCategory.MORTGAGE, "Mortgage"));
+    }
+
+    private static String render(Report report) throws IOException {
+        StringWriter out = new StringWriter();
+        new ReportWriter(out, "\n").write(report);
+        return out.toString();
+    }
+
+    @Test
+    void write_ShouldMatchThePrintedBalanceSheet() throws IOException {
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, "UTF-8");
+        balanceSheet.printIncomeStatement(out);
+        balanceSheet.printExpenditureStatement(out);
+        balanceSheet.printAssetsDetails(out);
+        balanceSheet.printLiabilitiesDetails(out);
+        balanceSheet.printNetPresentValue(out);
+
+        String text = render(balanceSheet.buildReport());
+        assertEquals(bytes.toString("UTF-8").replace(System.lineSeparator(), "\n"), text);
+        assertTrue(text.startsWith("Detailed Family Income Report:\nAlice: " + 96000 / Math.pow(1.05, 21) + "\n"));
+        assertTrue(text.contains("Asset:\nBond:\nTreasury: "));
+        assertEquals(balanceSheet.calculateTotalAssets(),
+                     balanceSheet.assetsAndLiabilitiesSection().getValue("Total Assets"));
+    }
+
+    @Test
+    void write_Strategies_ShouldRenderTheirAdvice() throws IOException {
+        Person alice = household.getFamily().getFamilyMembers().get(0);
+        Report advice = new Report(List.of(new AggressiveStrategy(-2.5).report(),
+                                           new ConservativeStrategy(List.of(alice), 300000, 100000).report(),
+                                           new ConservativeStrategy(List.of(alice), 50000, 0).report()));
+
+        assertEquals("Recommending aggressive strategy to increase return potential. Shortfall: -2.5\n"
+                     + "Analyzing insurance coverage for each family member:\n"
+                     + "Alice's insurance shortfall: 100000.0\n"
+                     + "Analyzing insurance coverage for each family member:\n"
+                     + "Alice is adequately covered by insurance.\n", render(advice));
+    }
+
+    @Test
+    void write_FromSeveralThreads_ShouldGiveTheSameReports() throws IOException {
+        Report report = household.getBalanceSheet().buildReport();
+        String expected = render(report);
+        List<String> rendered = IntStream.range(0, 64).parallel().mapToObj(i -> {
+            StringBuilder out = new StringBuilder();
+            try {
+                new ReportWriter(out, "\n").write(report);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            return out.toString();
+        }).collect(Collectors.toList());
+        rendered.forEach(text -> assertEquals(expected, text));
+        assertThrows(IllegalArgumentException.class, () -> report.getSections().get(0).getValue("Missing"));
+    }
+}
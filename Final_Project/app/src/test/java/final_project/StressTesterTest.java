@@ -0,0 +1,97 @@
+package final_project;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StressTesterTest {
+    @TempDir
+    File directory;
+    private Household household;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        household = TestHouseholds.sample(directory);
+    }
+
+    private StressTester tester() {
+        return new StressTester(household.getBalanceSheet(), household.getGoalManager(), 4);
+    }
+
+    @Test
+    void evaluate_NoShocks_ShouldMatchBalanceSheetWithoutRevaluing() {
+        StressTester.Outcome outcome = tester().evaluate(new Scenario("Base"));
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+
+        assertEquals(balanceSheet.calculateNetPresentValue(), outcome.getNetPresentValue(), 1e-9);
+        assertEquals(balanceSheet.calculateTotalIncomePV(), outcome.getIncomePV(), 1e-9);
+        assertEquals(household.getFinancialAdvisor().calculateTotalGoalsValue(), outcome.getGoalsPV(), 1e-9);
+        assertEquals(household.getFinancialAdvisor().recommendStrategy().getClass(), outcome.getStrategy().getClass());
+        assertEquals(0, outcome.getRevaluedPositions());
+    }
+
+    @Test
+    void evaluate_TargetedShocks_ShouldOnlyRevalueTouchedPositions() throws IOException {
+        StressTester tester = tester();
+        StressTester.Outcome equity = tester.evaluate(new Scenario("Equity -30%").withEquityShock(-0.3));
+        StressTester.Outcome noi = tester.evaluate(new Scenario("NOI -20%").withNetOperatingIncomeShock(-0.2));
+        StressTester.Outcome jobLoss = tester.evaluate(new Scenario("Alice loses job").withIncomeShock("Alice", -1));
+        assertEquals(1, equity.getRevaluedPositions());
+        assertEquals(1, noi.getRevaluedPositions());
+        assertEquals(1, jobLoss.getRevaluedPositions());
+
+        AssetAndDebtManager assets = household.getAssetManager();
+        Stock stock = assets.findStockByDescription("Index fund").get();
+        stock.setAmount(stock.getAmount() * 0.7);
+        assertEquals(household.getBalanceSheet().calculateNetPresentValue(), equity.getNetPresentValue(), 1e-6);
+
+        household.getFamily().updateFamilyMember(new Person("Alice", 1980, 0, 5000, 0, 85));
+        assertEquals(household.getBalanceSheet().calculateTotalIncomePV(), jobLoss.getIncomePV(), 1e-6);
+    }
+
+    @Test
+    void evaluate_RateShift_ShouldMatchFullRevaluationAtShiftedRates() throws IOException {
+        StressTester.Outcome outcome = tester().evaluate(new Scenario("Rates +200bp").withRateShift(0.02));
+
+        AssetAndDebtManager assets = household.getAssetManager();
+        assets.getBondList().forEach(bond -> bond.setInterestRate(bond.getInterestRate() + 0.02));
+        assets.getStockList().forEach(stock -> stock.setInterestRate(stock.getInterestRate() + 0.02));
+        assets.getRealEstateList().forEach(realEstate -> realEstate.setInterestRate(realEstate.getInterestRate() + 0.02));
+        household.getGoalManager().getGoalList().forEach(goal -> goal.setInterestRate(goal.getInterestRate() + 0.02));
+        BalanceSheet balanceSheet = household.getBalanceSheet();
+        balanceSheet.setAppliedInterestRate(0.07);
+
+        assertEquals(balanceSheet.calculateTotalAssets(), outcome.getAssetsPV(), 1e-6);
+        assertEquals(balanceSheet.calculateTotalLiabilities(), outcome.getLiabilitiesPV(), 1e-6);
+        assertEquals(balanceSheet.calculateTotalExpenditurePV(), outcome.getExpenditurePV(), 1e-6);
+        assertEquals(household.getFinancialAdvisor().calculateTotalGoalsValue(), outcome.getGoalsPV(), 1e-6);
+    }
+
+    @Test
+    void run_ManyScenarios_ShouldKeepOrderAndIsolateFailures() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            scenarios.add(new Scenario("Scenario " + i).withRateShift(i / 10000.0).withEquityShock(-i / 400.0));
+        }
+        scenarios.add(new Scenario("Rates -6%").withRateShift(-0.06));
+        scenarios.add(new Scenario("Unknown member").withIncomeShock("Carol", -1));
+
+        List<StressTester.Outcome> outcomes = tester().run(scenarios);
+
+        assertEquals(202, outcomes.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("Scenario " + i, outcomes.get(i).getScenario());
+            assertNull(outcomes.get(i).getError());
+        }
+        assertTrue(outcomes.get(199).getAssetsPV() < outcomes.get(0).getAssetsPV());
+        assertNotNull(outcomes.get(200).getError()); // The stock's discount rate falls below its dividend growth rate
+        assertNotNull(outcomes.get(201).getError());
+    }
+}
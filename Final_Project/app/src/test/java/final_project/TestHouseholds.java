@@ -0,0 +1,31 @@
+package final_project;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Households shared by several test classes.
+ */
+final class TestHouseholds {
+
+    private TestHouseholds() {}
+
+    /**
+     * Creates a two-earner household with one position of every kind, a mortgage and a college goal, valued at 5%.
+     * @param directory The directory the household's files are written to.
+     * @return The household.
+     * @throws IOException If the household's files cannot be written.
+     */
+    static Household sample(File directory) throws IOException {
+        Household household = new Household(directory.getName(), directory, 0.05);
+        household.getFamily().addFamilyMember("Alice", 1980, 8000, 5000, 0, 85);
+        household.getFamily().addFamilyMember("Bob", 1985, 6000, 3000, 0, 82);
+        AssetAndDebtManager assets = household.getAssetManager();
+        assets.addBond(new Bond(50000, 0.04, 0.05, 2034, 2000, "Treasury"));
+        assets.addStock(new Stock(200000, 0.08, 0.2, 5000, 0.03, "Index fund"));
+        assets.addRealEstate(new RealEstate(400000, 0.06, 0.1, 30000, "Rental"));
+        assets.addDebt(new Debt(250000, 0.04, false, 2045, DebtCategory.MORTGAGE, "Mortgage"));
+        household.getGoalManager().addGoal(new Goal(100000, 2035, true, 0.03, "College"));
+        return household;
+    }
+}